@@ -5,8 +5,8 @@ package generation;
 
 import java.util.logging.Logger;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import gui.MazeFileWriter;
 
@@ -113,34 +113,33 @@ public class BSPBranch extends BSPNode {
 	 * The method recursively stores BSP nodes for left and right children.
 	 * Note that the numbering schemes needs to match with the MazeFileReader class.
 	 * 
-	 * @param doc document to add data to
-	 * @param mazeXML element to add data to
+	 * @param writer the XML stream to write the elements to
 	 * @param number is an index number for this node in the XML format
 	 * @return the highest used index number
+	 * @throws XMLStreamException if writing fails
 	 */
 	@Override
-	public int store(Document doc, Element mazeXML, int number) {
-		super.store(doc, mazeXML, number) ; //leaves number unchanged
+	public int store(XMLStreamWriter writer, int number) throws XMLStreamException {
+		super.store(writer, number) ; //leaves number unchanged
 		if (isIsleaf())
 			LOGGER.warning("Node carries isleaf flag but is a BSPNode, this is inconsistent!");
 		// store: x, y, dx, dy
-		MazeFileWriter.appendChild(doc, mazeXML, "xBSPNode_" + number, getX()) ;
-		MazeFileWriter.appendChild(doc, mazeXML, "yBSPNode_" + number, getY()) ;
-		MazeFileWriter.appendChild(doc, mazeXML, "dxBSPNode_" + number, getDx()) ;
-		MazeFileWriter.appendChild(doc, mazeXML, "dyBSPNode_" + number, getDy()) ;
+		MazeFileWriter.writeElement(writer, "xBSPNode_" + number, getX()) ;
+		MazeFileWriter.writeElement(writer, "yBSPNode_" + number, getY()) ;
+		MazeFileWriter.writeElement(writer, "dxBSPNode_" + number, getDx()) ;
+		MazeFileWriter.writeElement(writer, "dyBSPNode_" + number, getDy()) ;
 		// recursively store left and right branches
 		if (lbranch == null)
 		{
 			// this is likely to be dead code as BSPBranches seem to have always 2 children
 			number++ ;
-			MazeFileWriter.appendChild(doc, mazeXML, "xlBSPNode_" + number, Integer.MIN_VALUE) ;
+			MazeFileWriter.writeElement(writer, "xlBSPNode_" + number, Integer.MIN_VALUE) ;
 		}
 		else
 		{
 			// recursion
 			number++ ;
-			//number = MazeFileWriter.storeBSPNode(lbranch, doc, mazeXML, number) ;
-			number = lbranch.store(doc, mazeXML, number) ;
+			number = lbranch.store(writer, number) ;
 		}
 		// it is important that the recursion on the left branch updates the number value
 		// such that for the nodes on the right branch we use new unique numbers
@@ -148,14 +147,13 @@ public class BSPBranch extends BSPNode {
 		{
 			// this is likely to be dead code as BSPBranches seem to have always 2 children
 			number++ ;
-			MazeFileWriter.appendChild(doc, mazeXML, "xlBSPNode_" + number, Integer.MAX_VALUE) ;
+			MazeFileWriter.writeElement(writer, "xlBSPNode_" + number, Integer.MAX_VALUE) ;
 		}
 		else
 		{
 			// recursion
 			number++ ;
-			//number = MazeFileWriter.storeBSPNode(rbranch, doc, mazeXML, number) ;
-			number = rbranch.store(doc, mazeXML, number) ;
+			number = rbranch.store(writer, number) ;
 		}
 		return number ; // return the last number that was used
 	}
@@ -2,6 +2,12 @@ package generation;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import gui.Constants;
@@ -22,6 +28,28 @@ public class BSPBuilder {
 	 */
 	private static final Logger LOGGER = Logger.getLogger(BSPBuilder.class.getName());
 
+	/**
+	 * Strategies to grade candidate walls when selecting the splitter for a node.
+	 * GRADE calls Wall.calculateGrade for each candidate, which iterates
+	 * over (a sample of) the node's walls for each candidate.
+	 * AXIS_ALIGNED uses prefix counts of walls per grid line that are computed
+	 * once per node, so each candidate is graded in constant time and without sampling.
+	 */
+	public enum Splitter { GRADE, AXIS_ALIGNED }
+	/**
+	 * In parallel mode, a node with at least this many walls
+	 * builds its left subtree in a separate fork/join task.
+	 * Smaller subtrees are built sequentially as the task overhead
+	 * exceeds the work for them.
+	 */
+	static final int PARALLEL_THRESHOLD = 128;
+	/**
+	 * With the AXIS_ALIGNED strategy, a node with at most this many walls
+	 * grades its candidates with Wall.calculateGrade, which delivers
+	 * the same grades for lists of less than 100 walls.
+	 */
+	static final int DIRECT_GRADING_LIMIT = 8;
+
 	private final int width ; 				// width of maze
 	private final int height ; 				// height of maze
 	private final Distance dists ; 			// distance matrix
@@ -30,8 +58,14 @@ public class BSPBuilder {
 	// colchange: reason for randomization unclear, used to determine color of wall 
 	private final int expectedPartiters ; 	// comes from Constants partct array, entry chosen according to skill level
 	// only usage is in updateProgressBar to estimate progress made in the BSP tree construction
-	int partiters = 0 ; // relocated from MazeBuilder attribute partiters here. 
+	final AtomicInteger partiters = new AtomicInteger() ; // relocated from MazeBuilder attribute partiters here.
+	// atomic as in parallel mode all worker threads count partition iterations
 	private final Order order ; 		// current order
+	private Splitter splitterStrategy = Splitter.AXIS_ALIGNED; // how candidates for splitters are graded
+	private int parallelism = 1; // number of threads to build the tree, 1 for sequential
+	private boolean headless; // no UI to keep responsive, so no sleeping for progress updates
+	private final AtomicInteger reportedProgress = new AtomicInteger(); // last percentage given to the order
+	private volatile boolean cancelled; // set if the calling thread is interrupted while workers build the tree
 	/**
 	 * Constructor
 	 * @param order provides the spec for the maze to be generated, will receive the result
@@ -51,7 +85,61 @@ public class BSPBuilder {
 		this.colchange = colchange ;
 		this.expectedPartiters = expectedPartiters ;
 
-		partiters = 0 ; // counter for keeping track of progress made in BSP calculation, starts at 0
+		partiters.set(0) ; // counter for keeping track of progress made in BSP calculation, starts at 0
+	}
+	/**
+	 * Sets the strategy to grade candidate walls for splitting a node.
+	 * @param strategy the strategy to use for the next call of generateBSPNodes
+	 */
+	public void setSplitterStrategy(Splitter strategy) {
+		splitterStrategy = strategy;
+	}
+	/**
+	 * Gives the strategy to grade candidate walls for splitting a node.
+	 * @return the current strategy
+	 */
+	public Splitter getSplitterStrategy() {
+		return splitterStrategy;
+	}
+	/**
+	 * Sets the number of threads that build the BSP tree.
+	 * With more than one thread, the left and right subtree of a node
+	 * are built in parallel on a fork/join pool if the node has at least
+	 * PARALLEL_THRESHOLD walls. The resulting tree is the same as for
+	 * the sequential construction.
+	 * @param parallelism the number of threads, 1 for a sequential construction
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		this.parallelism = parallelism;
+	}
+	/**
+	 * Gives the number of threads that build the BSP tree.
+	 * @return the number of threads, 1 for a sequential construction
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+	/**
+	 * Sets the headless mode for batch generation without a UI.
+	 * In headless mode, the builder does not sleep after progress updates.
+	 * It recognizes a cancel request by checking the interrupt flag of the thread,
+	 * and it gives the order a progress value only if the value increased,
+	 * without a lock. With more than one thread, the order must therefore accept
+	 * concurrent calls of updateProgress.
+	 * By default, the builder is not headless, which keeps the GUI responsive.
+	 * @param headless true for headless mode, false for interactive mode
+	 */
+	public void setHeadless(boolean headless) {
+		this.headless = headless;
+	}
+	/**
+	 * Tells if the builder is in headless mode.
+	 * @return true for headless mode, false for interactive mode
+	 */
+	public boolean isHeadless() {
+		return headless;
 	}
 
 	/**
@@ -71,21 +159,27 @@ public class BSPBuilder {
 	 * The code selects the wall that has the minimum grade value as the one 
 	 * for partitioning.
 	 * If all the walls in one node are partitioned, it will stop to split.
+	 * In parallel mode, the left subtree of a large node is forked as 
+	 * a separate task while the current thread continues with the right subtree.
+	 * This is safe as both lists hold distinct walls after the split.
 	 * @param walls the list of walls (polygons) to partition
+	 * @param grades the grades for the walls, null to grade candidates with Wall.calculateGrade
 	 * @return root node for BSP tree
 	 * @throws InterruptedException if its executing thread is interrupted
 	 */
-	private BSPNode genNodes(List<Wall> walls) throws InterruptedException {
+	private BSPNode genNodes(List<Wall> walls, SplitterGrades grades) throws InterruptedException {
+		if (cancelled)
+			throw new InterruptedException("BSP tree construction was cancelled");
 		// Recursion anchor:
 		// if there is no wall with a partition bit set to false, 
 		// there is nothing else to do and we are at a leaf node
-		if (countNonPartitions(walls) == 0)
+		if (allPartitioned(walls))
 			return new BSPLeaf(walls);
 		// Step: pick the wall that is used to partition all others into left and right
 		// Criterion: from the ones that have a partition bit set to false, 
 		// pick a candidate with a low grade
 		// Note: the splitter remains an element of the walls list but is marked as partitioned
-		Wall splitter = findSplitter(walls);
+		Wall splitter = findSplitter(walls, grades);
 		splitter.setPartition(true);
 		
 		// Step: split all walls into two lists
@@ -107,33 +201,94 @@ public class BSPBuilder {
 		
 		// Case: two sided recursion, need to create a node
 		// and recursively calculate subtrees for both sides.
+		final SplitterGrades leftGrades = narrow(grades, left, splitter, false);
+		final SplitterGrades rightGrades = narrow(grades, right, splitter, true);
+		if (parallelism > 1 && walls.size() >= PARALLEL_THRESHOLD && ForkJoinTask.inForkJoinPool()) {
+			final ForkJoinTask<BSPNode> leftTask = new SubtreeTask(left, leftGrades).fork();
+			final BSPNode rightNode = genNodes(right, rightGrades);
+			return new BSPBranch(splitter.getStartPositionX(), splitter.getStartPositionY(), 
+					splitter.getExtensionX(), splitter.getExtensionY(), 
+					join(leftTask), rightNode); 
+		}
 		return new BSPBranch(splitter.getStartPositionX(), splitter.getStartPositionY(), 
 				splitter.getExtensionX(), splitter.getExtensionY(), 
-				genNodes(left), genNodes(right)); 
+				genNodes(left, leftGrades), genNodes(right, rightGrades)); 
+	}
+	/**
+	 * Gives the grades for the walls on one side of a splitter.
+	 * @param grades the grades of the parent node, may be null
+	 * @param walls the left or right list of walls
+	 * @param splitter the wall that split the parent's walls
+	 * @param right true for the right list, false for the left list
+	 * @return the grades or null if the walls are graded with Wall.calculateGrade
+	 */
+	private static SplitterGrades narrow(SplitterGrades grades, List<Wall> walls, Wall splitter, boolean right) {
+		// for a few walls, grading each candidate directly is cheaper than setting up prefix counts
+		if (null == grades || walls.size() <= DIRECT_GRADING_LIMIT)
+			return null;
+		return grades.narrow(walls, splitter, right);
+	}
+	/**
+	 * Waits for a forked subtree.
+	 * @param task the task that builds the subtree
+	 * @return root node of the subtree
+	 * @throws InterruptedException if the construction was cancelled
+	 */
+	private static BSPNode join(ForkJoinTask<BSPNode> task) throws InterruptedException {
+		try {
+			return task.join();
+		} catch (CancellationException e) {
+			throw new InterruptedException("BSP tree construction was cancelled");
+		}
+	}
+	/**
+	 * Builds a subtree on a fork/join pool.
+	 * As a task can not throw a checked exception, 
+	 * an InterruptedException is turned into a CancellationException.
+	 */
+	private class SubtreeTask extends RecursiveTask<BSPNode> {
+		private static final long serialVersionUID = 1L;
+		private final List<Wall> walls; // walls of the subtree
+		private final SplitterGrades grades; // grades for the walls, may be null
+
+		SubtreeTask(List<Wall> walls, SplitterGrades grades) {
+			this.walls = walls;
+			this.grades = grades;
+		}
+		@Override
+		protected BSPNode compute() {
+			try {
+				return genNodes(walls, grades);
+			} catch (InterruptedException e) {
+				cancelled = true;
+				throw new CancellationException(e.getMessage());
+			}
+		}
 	}
 	
 
     /**
-	 * Counts how many elements in the wall vector have their partition bit set to false
+	 * Checks if all elements in the wall vector have their partition bit set to true.
+	 * Stops at the first wall without it, which is typically near the front of the list.
 	 * @param walls all walls
-	 * @return number of walls where the partition flag is not set
+	 * @return true if the partition flag is set for all walls, false otherwise
 	 */
-	private static int countNonPartitions(List<Wall> walls) {
-		int result = 0 ;
+	private static boolean allPartitioned(List<Wall> walls) {
 		for (Wall wall: walls) {
 			if (!wall.isPartition())
-				result++;
+				return false;
 		}
-		return result;
+		return true;
 	}
 
 	/**
 	 * It finds the wall which has the minimum grade value.
 	 * @param walls list of walls, remains unchanged
+	 * @param grades the grades for the walls, null to grade candidates with Wall.calculateGrade
 	 * @return wall that is best candidate according to grade partition (smallest grade)
 	 * @throws InterruptedException if its executing thread is interrupted
 	 */
-	private Wall findSplitter(List<Wall> walls) throws InterruptedException {
+	private Wall findSplitter(List<Wall> walls, SplitterGrades grades) throws InterruptedException {
 		Wall result = null ;
 		int bestgrade = 5000; // used to compute the minimum of all observed grade values, set to some high initial value
 		final int maxtries = 50; // constant, only used to determine skip
@@ -148,12 +303,12 @@ public class BSPBuilder {
 			if (wall.isPartition())
 				continue;
 			// provide feedback for progress bar every 32 iterations
-			partiters++;
-			if ((partiters & 31) == 0) {
-				updateProgressBar(partiters); // side effect: update progress bar
+			final int count = partiters.incrementAndGet();
+			if ((count & 31) == 0) {
+				updateProgressBar(count); // side effect: update progress bar
 			}
 			// check grade and keep track of minimum
-			int grade = wall.calculateGrade(walls);
+			int grade = (null != grades) ? grades.grade(wall) : wall.calculateGrade(walls);
 			if (grade < bestgrade) {
 				bestgrade = grade;
 				result = wall; // determine wall with smallest grade
@@ -165,10 +320,18 @@ public class BSPBuilder {
 	/**
 	 * Push information on progress into maze such that UI can update progress bar.
 	 * The published progress value may reach 100 before the actual maze generation is complete but it will never exceed 100.
+	 * In parallel mode, worker threads call this method concurrently, so the call to the order
+	 * is synchronized and the published progress never decreases, even if
+	 * a thread with a smaller count gets the lock after another one.
+	 * In headless mode, there is neither a lock nor a sleep, see setHeadless.
 	 * @param partiters counting partition iterations (precise semantics obscure)
 	 * @throws InterruptedException if executing thread is interrupted
 	 */
 	private void updateProgressBar(int partiters) throws InterruptedException {
+		if (headless) {
+			updateProgressHeadless(partiters);
+			return;
+		}
 		// During maze generation, the most time consuming part needs to occasionally update the current screen
 		// 
 		if (null != order) {
@@ -182,7 +345,9 @@ public class BSPBuilder {
 				percentage = 100;
 			}
 			//  update progress bar
-			order.updateProgress(percentage) ;
+			synchronized (this) {
+				order.updateProgress(reportedProgress.accumulateAndGet(percentage, Math::max)) ;
+			}
 			// give main thread a chance to process keyboard events
 			if (percentage < 100) {
 				Thread.sleep(10);
@@ -190,6 +355,24 @@ public class BSPBuilder {
 		}
 	}
 
+	/**
+	 * Headless version of updateProgressBar.
+	 * Checks the interrupt flag instead of sleeping and only passes
+	 * an increased percentage to the order. Only the thread that increases
+	 * the value calls the order, which is decided without a lock.
+	 * @param partiters counting partition iterations
+	 * @throws InterruptedException if executing thread is interrupted
+	 */
+	private void updateProgressHeadless(int partiters) throws InterruptedException {
+		if (Thread.interrupted())
+			throw new InterruptedException("BSP tree construction was interrupted");
+		if (null == order)
+			return;
+		final int percentage = Math.min(100, partiters*100/expectedPartiters);
+		if (percentage > reportedProgress.getAndAccumulate(percentage, Math::max))
+			order.updateProgress(percentage);
+	}
+
 	/**
 	 * Set the partition bit to true for walls on the border and where the direction is 0
 	 * @param walls the list of walls to consider
@@ -232,8 +415,42 @@ public class BSPBuilder {
 		// This may even corrupt a maze and block its exit!
 		floorplan.addWallboard(new Wallboard(0, 0, CardinalDirection.North), false);
 		
+		// with the axis aligned strategy, grades come from prefix counts, null if walls are not on the grid
+		// the prefix counts of a child node reuse the bounds of its parent, see SplitterGrades.narrow
+		final SplitterGrades grades = (Splitter.AXIS_ALIGNED == splitterStrategy && walls.size() > DIRECT_GRADING_LIMIT) ?
+				SplitterGrades.create(walls, Constants.MAP_UNIT) : null;
 		// Start the recursive BSP calculation for the list of polygons
 		// and return the root node of the tree
-		return genNodes(walls); 
+		if (parallelism > 1)
+			return genNodesInParallel(walls, grades);
+		return genNodes(walls, grades); 
+	}
+	/**
+	 * Runs the BSP calculation on a fork/join pool with the given parallelism.
+	 * The calling thread waits for the result. If it is interrupted,
+	 * the worker threads are told to stop and the pool is shut down.
+	 * @param walls the list of walls to partition
+	 * @param grades the grades for the walls, may be null
+	 * @return root node for BSP tree
+	 * @throws InterruptedException if the calling thread is interrupted
+	 */
+	private BSPNode genNodesInParallel(List<Wall> walls, SplitterGrades grades) throws InterruptedException {
+		cancelled = false;
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.submit(new SubtreeTask(walls, grades)).get();
+		} catch (InterruptedException e) {
+			LOGGER.fine("Interrupted while waiting for BSP tree, cancelling worker threads");
+			cancelled = true;
+			throw e;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof CancellationException)
+				throw new InterruptedException(e.getCause().getMessage());
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException)e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
 	}
 }
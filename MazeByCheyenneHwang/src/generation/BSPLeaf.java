@@ -6,8 +6,8 @@ package generation;
 import java.util.List;
 import java.util.logging.Logger;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import gui.MazeFileWriter;
 
@@ -65,22 +65,22 @@ public class BSPLeaf extends BSPNode {
 	/**
 	 * Store the content of a leaf node, in particular its list of walls.
 	 * All entries carry the number of the node as an index and each wall has an additional second index for the wall number.
-	 * @param doc document to add data to
-	 * @param mazeXML element to add data to
+	 * @param writer the XML stream to write the elements to
 	 * @param number is an index number for this node in the XML format
 	 * @return the highest used index number, in this case the given number
+	 * @throws XMLStreamException if writing fails
 	 */
 	@Override
-	public int store(Document doc, Element mazeXML, int number) {
-		super.store(doc, mazeXML, number) ; //leaves number unchanged
+	public int store(XMLStreamWriter writer, int number) throws XMLStreamException {
+		super.store(writer, number) ; //leaves number unchanged
 		if (!isIsleaf())
 			LOGGER.warning("Node does not carry isleaf flag but is a BSPLeaf, this is inconsistent!");
 		// store list of walls, store total number of elements first
-		MazeFileWriter.appendChild(doc, mazeXML, "numSeg_" + number, allWalls.size()) ;
+		MazeFileWriter.writeElement(writer, "numSeg_" + number, allWalls.size()) ;
 		int i = 0 ;
 		for (Wall wall : allWalls)
 		{
-			wall.storeWall(doc, mazeXML, number, i);
+			wall.storeWall(writer, number, i);
 			i++ ;
 		}
 		return number ;
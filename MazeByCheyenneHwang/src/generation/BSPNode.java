@@ -3,8 +3,8 @@
  */
 package generation;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import gui.MazeFileWriter;
 
@@ -31,22 +31,22 @@ public class BSPNode {
 
 	/**
 	 * Store the content of a BSPNode including data of branches and leaves as special cases.
-	 * @param doc document to add data to
-	 * @param mazeXML element to add data to
+	 * @param writer the XML stream to write the elements to
 	 * @param number is an index number for this node in the XML format
 	 * @return the highest used index number, in this case the given number
+	 * @throws XMLStreamException if writing fails
 	 */
-	public int store(Document doc, Element mazeXML, int number) {
+	public int store(XMLStreamWriter writer, int number) throws XMLStreamException {
 		// xlBSPNode elements
-		MazeFileWriter.appendChild(doc, mazeXML, "xlBSPNode_" + number, lowX) ;
+		MazeFileWriter.writeElement(writer, "xlBSPNode_" + number, lowX) ;
 		// ylBSPNode elements
-		MazeFileWriter.appendChild(doc, mazeXML, "ylBSPNode_" + number, lowY) ;
+		MazeFileWriter.writeElement(writer, "ylBSPNode_" + number, lowY) ;
 		// xuBSPNode elements
-		MazeFileWriter.appendChild(doc, mazeXML, "xuBSPNode_" + number, highX) ;
+		MazeFileWriter.writeElement(writer, "xuBSPNode_" + number, highX) ;
 		// yuBSPNode elements
-		MazeFileWriter.appendChild(doc, mazeXML, "yuBSPNode_" + number, highY) ;
+		MazeFileWriter.writeElement(writer, "yuBSPNode_" + number, highY) ;
 		// isleafBSPNode elements
-		MazeFileWriter.appendChild(doc, mazeXML, "isleafBSPNode_" + number, isIsleaf()) ;
+		MazeFileWriter.writeElement(writer, "isleafBSPNode_" + number, isIsleaf()) ;
 
 		return number ; // unchanged
 	}
@@ -0,0 +1,257 @@
+package generation;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+import gui.Constants;
+
+/**
+ * This class encapsulates how many mazes are generated at the same time.
+ * Unlike the MazeFactory, which takes at most one order at a time,
+ * a BatchMazeFactory accepts any number of orders and works on them
+ * in parallel with a fixed number of worker threads.
+ * Orders wait in a queue of bounded capacity until a worker thread
+ * is available. If the queue is full, an order is refused
+ * the same way the MazeFactory refuses an order when it is busy.
+ *
+ * Each order is handled by its own maze builder, selected in the same
+ * way as in the MazeFactory. The produced maze is delivered to the order
+ * and, if given, to a consumer that receives all mazes of this factory
+ * in the order of their completion.
+ *
+ * The factory keeps track of how many mazes were delivered
+ * and how much time their generation took for each builder algorithm
+ * and skill level to report the achieved throughput.
+ * Builders run in headless mode, so they do not sleep to keep a UI responsive.
+ */
+public class BatchMazeFactory implements Factory {
+	/**
+	 * The logger is used to track execution and report issues.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(BatchMazeFactory.class.getName());
+
+	private final int threads; // number of worker threads
+	private final int capacity; // max number of orders waiting for a worker thread
+	private final BiConsumer<Order, Maze> consumer; // receives every delivered maze, may be null
+	private ThreadPoolExecutor executor; // worker threads, replaced on cancel
+
+	// bookkeeping, guarded by this
+	private int pending; // number of accepted orders that are not finished yet
+	private final long[][] delivered; // number of delivered mazes per builder and skill level
+	private final long[][] buildTime; // sum of generation times in nanoseconds per builder and skill level
+
+	//////////////////////// Constructor ////////////////////////////////////////
+	/**
+	 * Constructor for a factory with one worker thread per available processor.
+	 * @param consumer receives each maze once it is delivered, may be null
+	 */
+	public BatchMazeFactory(BiConsumer<Order, Maze> consumer) {
+		this(Runtime.getRuntime().availableProcessors(), 1024, consumer);
+	}
+	/**
+	 * Constructor
+	 * @param threads the number of worker threads, {@code 0 < threads}
+	 * @param capacity the number of orders that can wait for a worker thread, {@code 0 < capacity}
+	 * @param consumer receives each maze once it is delivered, may be null
+	 */
+	public BatchMazeFactory(int threads, int capacity, BiConsumer<Order, Maze> consumer) {
+		this.threads = threads;
+		this.capacity = capacity;
+		this.consumer = consumer;
+		delivered = new long[Order.Builder.values().length][Constants.MAX_SKILL_LEVEL+1];
+		buildTime = new long[Order.Builder.values().length][Constants.MAX_SKILL_LEVEL+1];
+		executor = createExecutor();
+	}
+
+	//////////////////////// Factory interface //////////////////////////////////
+	@Override
+	public boolean order(Order order) {
+		final MazeBuilder builder = MazeFactory.createBuilder(order.getBuilder());
+		if (null == builder) {
+			LOGGER.severe("Missing implementation for requested algorithm: " + order.getBuilder());
+			return false;
+		}
+		synchronized (this) {
+			try {
+				executor.execute(new Job(builder, order));
+			} catch (RejectedExecutionException e) {
+				LOGGER.warning("Refusing to take order, too many orders waiting");
+				return false;
+			}
+			pending++;
+		}
+		return true;
+	}
+	/**
+	 * Cancels all orders that are not completed yet.
+	 * Orders that wait for a worker thread are dropped,
+	 * orders in production are interrupted.
+	 * The factory accepts new orders afterwards.
+	 */
+	@Override
+	public synchronized void cancel() {
+		LOGGER.fine("Received call to cancel all current orders");
+		// builders recognize the interrupt and stop, their jobs decrement pending
+		List<Runnable> dropped = executor.shutdownNow();
+		pending -= dropped.size();
+		executor = createExecutor();
+		notifyAll();
+	}
+	/**
+	 * Waits till all accepted orders are delivered or cancelled.
+	 */
+	@Override
+	public synchronized void waitTillDelivered() {
+		while (pending > 0) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				LOGGER.severe("Waiting for orders to be delivered was interrupted");
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	/**
+	 * Stops all worker threads once the accepted orders are completed.
+	 * The factory does not accept new orders afterwards.
+	 */
+	public synchronized void shutdown() {
+		executor.shutdown();
+	}
+
+	//////////////////////// Statistics /////////////////////////////////////////
+	/**
+	 * Gives the number of mazes delivered so far for the given algorithm and skill level.
+	 * @param algorithm the builder algorithm
+	 * @param skillLevel the skill level, {@code 0 <= skillLevel <= 15}
+	 * @return the number of delivered mazes
+	 */
+	public synchronized long getDeliveredCount(Order.Builder algorithm, int skillLevel) {
+		return delivered[algorithm.ordinal()][skillLevel];
+	}
+	/**
+	 * Gives the average time to generate a maze for the given algorithm and skill level.
+	 * This is the time a worker thread spent on a single order, so
+	 * the throughput of the factory is about the number of threads
+	 * divided by this value.
+	 * @param algorithm the builder algorithm
+	 * @param skillLevel the skill level, {@code 0 <= skillLevel <= 15}
+	 * @return the average generation time in milliseconds, 0 if no maze was delivered
+	 */
+	public synchronized double getAverageBuildTime(Order.Builder algorithm, int skillLevel) {
+		long count = delivered[algorithm.ordinal()][skillLevel];
+		return (0 == count) ? 0 : buildTime[algorithm.ordinal()][skillLevel] / 1e6 / count;
+	}
+	/**
+	 * Gives a table with the number of delivered mazes,
+	 * the average generation time and the resulting throughput
+	 * for each algorithm and skill level that was used so far.
+	 * @return the report as a multi line string
+	 */
+	public synchronized String getThroughputReport() {
+		StringBuilder s = new StringBuilder();
+		s.append(String.format("%-8s %5s %10s %12s %12s%n", "builder", "skill", "delivered", "avg ms", "mazes/s"));
+		for (Order.Builder algorithm : Order.Builder.values()) {
+			for (int skill = 0; skill <= Constants.MAX_SKILL_LEVEL; skill++) {
+				long count = delivered[algorithm.ordinal()][skill];
+				if (0 == count)
+					continue;
+				double avg = getAverageBuildTime(algorithm, skill);
+				s.append(String.format("%-8s %5d %10d %12.3f %12.1f%n", algorithm, skill, count, avg, threads*1000/avg));
+			}
+		}
+		return s.toString();
+	}
+
+	///////////////////////// private methods ///////////////////////////////////
+	/**
+	 * Gives a thread pool with a fixed number of threads and a bounded queue.
+	 * Worker threads are daemon threads such that they do not keep
+	 * an application alive.
+	 * @return a new thread pool
+	 */
+	private ThreadPoolExecutor createExecutor() {
+		ThreadFactory threadFactory = r -> {
+			Thread t = new Thread(r, "maze-builder");
+			t.setDaemon(true);
+			return t;
+		};
+		return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(capacity), threadFactory);
+	}
+	/**
+	 * Book keeping after a job is done.
+	 * @param order the completed order
+	 * @param elapsed the generation time in nanoseconds
+	 * @param success true if the maze was delivered, false if cancelled
+	 */
+	private synchronized void finished(Order order, long elapsed, boolean success) {
+		if (success) {
+			delivered[order.getBuilder().ordinal()][order.getSkillLevel()]++;
+			buildTime[order.getBuilder().ordinal()][order.getSkillLevel()] += elapsed;
+		}
+		pending--;
+		notifyAll();
+	}
+
+	/**
+	 * A job runs a single maze builder for a single order on a worker thread.
+	 * It intercepts the delivery to pass the maze on to the consumer.
+	 */
+	private class Job implements Runnable, Order {
+		private final MazeBuilder builder;
+		private final Order order;
+		private boolean success;
+
+		Job(MazeBuilder builder, Order order) {
+			this.builder = builder;
+			this.order = order;
+		}
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+			try {
+				// there is no UI to keep responsive, so do not waste time sleeping
+				builder.setHeadless(true);
+				builder.buildOrder(this);
+				builder.run();
+			} finally {
+				finished(order, System.nanoTime() - start, success);
+			}
+		}
+		@Override
+		public int getSkillLevel() {
+			return order.getSkillLevel();
+		}
+		@Override
+		public Builder getBuilder() {
+			return order.getBuilder();
+		}
+		@Override
+		public boolean isPerfect() {
+			return order.isPerfect();
+		}
+		@Override
+		public int getSeed() {
+			return order.getSeed();
+		}
+		@Override
+		public void deliver(Maze mazeConfig) {
+			order.deliver(mazeConfig);
+			if (null != consumer)
+				consumer.accept(order, mazeConfig);
+			success = true;
+		}
+		@Override
+		public void updateProgress(int percentage) {
+			order.updateProgress(percentage);
+		}
+	}
+}
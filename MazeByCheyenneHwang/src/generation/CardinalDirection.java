@@ -67,7 +67,23 @@ public enum CardinalDirection {
 	 * @return a random direction, distribution is uniform
 	 */
 	public CardinalDirection randomDirection() {
-		int i = SingleRandom.getRandom().nextIntWithinInterval(0, 3) ;
+		return getDirectionForIndex(SingleRandom.getRandom().nextIntWithinInterval(0, 3)) ;
+	}
+	/**
+	 * Gives a random direction drawn from the given random number stream. 
+	 * Values are picked with equal probabilities.
+	 * @param random the random number stream to use
+	 * @return a random direction, distribution is uniform
+	 */
+	public CardinalDirection randomDirection(RandomStream random) {
+		return getDirectionForIndex(random.nextIntWithinInterval(0, 3)) ;
+	}
+	/**
+	 * Maps the numbers 0,1,2,3 to North, East, South, West.
+	 * @param i is the index, {@code 0 <= i <= 3}
+	 * @return matching direction
+	 */
+	private static CardinalDirection getDirectionForIndex(int i) {
 		switch(i) {
 		case 0 : 
 			return CardinalDirection.North ;
@@ -111,8 +111,10 @@ public class DefaultOrder implements Order {
 	 * to completion or completed.
 	 * This field is set by the MazeFactory and updated
 	 * during the maze generation.
+	 * It is volatile as the builder thread updates it
+	 * while other threads read it.
 	 */
-	int progress;
+	volatile int progress;
 	
 	/**
 	 * Constructor that initializes fields to meaningful default values.
@@ -0,0 +1,67 @@
+package generation;
+
+/**
+ * A disjoint-set forest (union-find) over the elements 0,1,...,n-1.
+ * It is used by maze builders to keep track of which cells are
+ * connected with each other while wallboards are torn down.
+ * The forest uses union by size and path halving such that
+ * a sequence of operations takes almost linear time.
+ * The whole state is kept in two integer arrays.
+ */
+final class DisjointSets {
+	private final int[] parent; // parent[e] == e for the root of a set
+	private final int[] size; // number of elements in a set, only valid for roots
+
+	/**
+	 * Constructor for n sets with a single element each.
+	 * @param n the number of elements, {@code 0 <= n}
+	 */
+	DisjointSets(int n) {
+		parent = new int[n];
+		size = new int[n];
+		reset();
+	}
+	/**
+	 * Puts every element back into a set of its own.
+	 */
+	void reset() {
+		for (int e = 0; e < parent.length; e++) {
+			parent[e] = e;
+			size[e] = 1;
+		}
+	}
+	/**
+	 * Finds the root of the set that contains the given element.
+	 * Path halving lets every other node on the path point to its grandparent.
+	 * @param e the element, {@code 0 <= e < n}
+	 * @return the root of the set
+	 */
+	int find(int e) {
+		while (parent[e] != e) {
+			parent[e] = parent[parent[e]];
+			e = parent[e];
+		}
+		return e;
+	}
+	/**
+	 * Merges the sets that contain the given elements.
+	 * The smaller set is attached to the root of the larger one.
+	 * @param a the first element
+	 * @param b the second element
+	 * @return true if both elements were in different sets before, false otherwise
+	 */
+	boolean union(int a, int b) {
+		int ra = find(a);
+		int rb = find(b);
+		if (ra == rb)
+			return false;
+		if (size[ra] < size[rb]) {
+			int tmp = ra;
+			ra = rb;
+			rb = tmp;
+		}
+		parent[rb] = ra;
+		size[ra] += size[rb];
+		return true;
+	}
+}
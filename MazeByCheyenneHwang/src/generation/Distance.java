@@ -1,5 +1,7 @@
 package generation;
 
+import java.nio.IntBuffer;
+
 /**
  * This class has the responsibility to provide the distance
  * for each cell to the exit of a maze.
@@ -23,6 +25,17 @@ package generation;
  * for specific positions as well as information about 
  * the exit or starting position for the maze.
  * 
+ * Distance values can be computed with one of two algorithms,
+ * see {@link Algorithm}. The default is a breadth-first search
+ * that visits each cell exactly once. The original fixpoint iteration
+ * is kept for comparison and can be selected with 
+ * {@link #setAlgorithm(Algorithm) setAlgorithm}. Both deliver 
+ * identical distance values.
+ * 
+ * Distance values can also be read from a buffer, e.g. a memory-mapped 
+ * maze file, without copying them. The values are copied into a matrix
+ * when the matrix is requested or distances are computed.
+ * 
  * This code is refactored code from MazeBuilder.java by 
  * Paul Falstad, www.falstad.com, Copyright (C) 1998, all rights reserved
  * Paul Falstad granted permission to modify and use code for teaching purposes.
@@ -48,6 +61,11 @@ public class Distance {
 	 * obtain it and manipulate its content. 
 	 */
 	private int[][] dists; 
+	/**
+	 * Read-only distance values, row by row, such that (x,y) is at index y*width+x.
+	 * Null if the values are in dists, dists is null otherwise.
+	 */
+	private IntBuffer buffer;
 	/** 
 	 * The exit position has a distance of 1
 	 * which is also the minimum of all values in dists.
@@ -69,6 +87,20 @@ public class Distance {
 	// this could lead to inconsistent settings between MazeContainer and Distance object at runtime.
 	// TODO: avoid redundancy of start position, remove startPosition from Distance, replease with getPositionWithMaxDistance
 	
+	/**
+	 * Lists the algorithms that can be used to compute distance values.
+	 * BFS performs a single breadth-first search from the target position
+	 * and needs O(width*height) steps.
+	 * FIXPOINT is the original algorithm that repeatedly sweeps the whole
+	 * matrix with depth-first pushes until no value changes anymore.
+	 */
+	public enum Algorithm { BFS, FIXPOINT } ;
+	/**
+	 * The algorithm used by {@link #computeDistances(Floorplan) computeDistances},
+	 * BFS by default.
+	 */
+	private Algorithm algorithm = Algorithm.BFS;
+	
 	/**
 	 * Constructor
 	 * @param w is the width of the maze in the horizontal direction
@@ -93,6 +125,41 @@ public class Distance {
 		// exitPosition and startPosition
 		setAllDistanceValues(distances);
 	}
+	/**
+	 * Constructor that reads distance values from the given buffer without copying them.
+	 * This constructor is used by the MazeBinaryFile to work on a 
+	 * memory-mapped file without decoding it.
+	 * @param w is the width of the maze in the horizontal direction
+	 * @param h is the height of the maze in the vertical direction
+	 * @param distances has the distance value of (x,y) at index y*w+x,
+	 * the object reads from the buffer afterwards, so its content must not change
+	 * precondition distances.remaining() == w*h
+	 */
+	public Distance(int w, int h, IntBuffer distances) {
+		if (distances.remaining() != w*h)
+			throw new IllegalArgumentException("Expected " + w*h + " distance values, got " + distances.remaining());
+		width = w;
+		height = h;
+		buffer = distances.slice();
+	}
+	/**
+	 * Copy constructor that delivers a duplicate of the given distance values.
+	 * Values that are read from a buffer are not copied as the buffer is read-only.
+	 * @param other provides the distance values to copy
+	 */
+	public Distance(Distance other) {
+		width = other.width;
+		height = other.height;
+		if (null != other.buffer) {
+			buffer = other.buffer.duplicate();
+		} else {
+			dists = new int[width][];
+			for (int x = 0; x < width; x++) {
+				dists[x] = other.dists[x].clone();
+			}
+		}
+		algorithm = other.algorithm;
+	}
 	/**
 	 * Sets the internal attribute to the given parameter value.
 	 * Can be used to provide precomputed distance values to an object
@@ -107,6 +174,7 @@ public class Distance {
 		width = distances.length;
 		height = distances[0].length;
 		this.dists = distances;
+		buffer = null;
 		// reset exit and start positions
 		// note: lazy evaluation in the sense that positions are
 		// computed on demand and then cached on corresponding
@@ -114,14 +182,40 @@ public class Distance {
 		exitPosition = null;
 		startPosition = null;
 	}
+	/**
+	 * Selects the algorithm that is used to compute distance values.
+	 * Both algorithms deliver the same distance values, they only
+	 * differ in their performance.
+	 * @param algorithm is the algorithm to use, can not be null
+	 */
+	public void setAlgorithm(Algorithm algorithm) {
+		this.algorithm = algorithm;
+	}
+	/**
+	 * Gives the algorithm that is used to compute distance values.
+	 * @return the current algorithm
+	 */
+	public Algorithm getAlgorithm() {
+		return algorithm;
+	}
 	/**
 	 * Gets access to a width x height array of distances. 
 	 * Warning, this exposes the internal attribute
 	 * and is intended for read access only. 
 	 * Do not modify entries of the returned array.
+	 * Values that are read from a buffer are copied into an array first.
 	 * @return array with distance values
 	 */
 	public int[][] getAllDistanceValues() {
+		if (null != buffer) {
+			dists = new int[width][height];
+			for (int x = 0; x < width; x++) {
+				for (int y = 0; y < height; y++) {
+					dists[x][y] = buffer.get(y*width + x);
+				}
+			}
+			buffer = null;
+		}
 		return dists;
 	}
 	/**
@@ -131,7 +225,7 @@ public class Distance {
 	 * @return the distance value for the given (x,y) position
 	 */
 	public int getDistanceValue(int x, int y) {
-		return dists[x][y] ;
+		return (null != dists) ? dists[x][y] : buffer.get(y*width + x) ;
 	}
 	/**
 	 * Compute distances for given cells object of a maze.
@@ -152,6 +246,7 @@ public class Distance {
 	 */
 	public int[] computeDistances(Floorplan cells) {
 		// constraint: cells must be of size (width x height)
+		getAllDistanceValues(); // values are computed in the array
 		
 		// Step 1: find a suitable exit position
 		// Heuristic:
@@ -271,10 +366,10 @@ public class Distance {
 	 * @return the new maximum distance after the comparison
 	 */
 	private int keepMaxDistance(int x, int y, int d, int[] result) {
-		if (dists[x][y] > d) {
+		if (getDistanceValue(x, y) > d) {
 			result[0] = x;
 			result[1] = y;
-			d = dists[x][y];
+			d = getDistanceValue(x, y);
 		}
 		return d;
 	}
@@ -289,10 +384,10 @@ public class Distance {
 		int[] result = new int[2] ;
 		for (int x = 0; x != width; x++)
 			for (int y = 0; y != height; y++) {
-				if (dists[x][y] < d) {
+				if (getDistanceValue(x, y) < d) {
 					result[0] = x;
 					result[1] = y;
-					d = dists[x][y];
+					d = getDistanceValue(x, y);
 				}
 			}
 		return result ;
@@ -306,12 +401,86 @@ public class Distance {
 	static final int INFINITY = Integer.MAX_VALUE; 
 
 	/**
-	 * Computes distances to the given position (ax,ay) for all cells in array dists.
+	 * Computes distances to the given position (ax,ay) for all cells in array dists
+	 * with the currently selected algorithm.
 	 * @param cells with information on wallboards for a maze, can not be null
 	 * @param ax, position, x coordinate
 	 * @param ay, position, y coordinate
 	 */
 	private void computeDists(Floorplan cells, int ax, int ay) {
+		switch (algorithm) {
+		case FIXPOINT:
+			computeDistsFixpoint(cells, ax, ay);
+			break;
+		case BFS:
+		default:
+			computeDistsBFS(cells, ax, ay);
+			break;
+		}
+	}
+	/**
+	 * The (dx,dy) pairs for all values of CardinalDirection, 
+	 * indexed by ordinal, to avoid the array allocation in 
+	 * CardinalDirection.getDxDyDirection() for each cell.
+	 */
+	private static final CardinalDirection[] DIRECTIONS = CardinalDirection.values();
+	private static final int[] DX = new int[DIRECTIONS.length];
+	private static final int[] DY = new int[DIRECTIONS.length];
+	static {
+		for (CardinalDirection cd : DIRECTIONS) {
+			int[] dir = cd.getDxDyDirection();
+			DX[cd.ordinal()] = dir[0];
+			DY[cd.ordinal()] = dir[1];
+		}
+	}
+	/**
+	 * Computes distances to the given position (ax,ay) for all cells in array dists
+	 * with a breadth-first search. 
+	 * Cells are visited in the order of increasing distance, so each cell
+	 * receives its final value when it is reached for the first time and
+	 * is put on the queue exactly once.
+	 * Cells that can not be reached keep a value of INFINITY.
+	 * @param cells with information on wallboards for a maze, can not be null
+	 * @param ax, position, x coordinate
+	 * @param ay, position, y coordinate
+	 */
+	private void computeDistsBFS(Floorplan cells, int ax, int ay) {
+		setAllDistanceValues(INFINITY) ;
+		// queue of positions to process, position (x,y) is encoded as x*height+y
+		// each cell enters the queue at most once, so width*height is sufficient
+		final int[] queue = new int[width*height];
+		int head = 0;
+		int tail = 0;
+		dists[ax][ay] = 1;
+		queue[tail++] = ax*height+ay;
+		while (head < tail) {
+			final int pos = queue[head++];
+			final int x = pos / height;
+			final int y = pos % height;
+			final int nextDistance = dists[x][y] + 1;
+			for (CardinalDirection cd : DIRECTIONS) {
+				if (cells.hasWall(x, y, cd)) 
+					continue;
+				final int nextX = x + DX[cd.ordinal()];
+				final int nextY = y + DY[cd.ordinal()];
+				// the exit is an opening to the outside, so check bounds
+				if (nextX < 0 || nextX >= width || nextY < 0 || nextY >= height)
+					continue;
+				if (dists[nextX][nextY] == INFINITY) {
+					dists[nextX][nextY] = nextDistance;
+					queue[tail++] = nextX*height+nextY;
+				}
+			}
+		}
+	}
+	/**
+	 * Computes distances to the given position (ax,ay) for all cells in array dists
+	 * with the original fixpoint iteration.
+	 * @param cells with information on wallboards for a maze, can not be null
+	 * @param ax, position, x coordinate
+	 * @param ay, position, y coordinate
+	 */
+	private void computeDistsFixpoint(Floorplan cells, int ax, int ay) {
 		//int x, y;
 		// initialize the distance array with a value for infinity 
 		setAllDistanceValues(INFINITY) ;
@@ -0,0 +1,305 @@
+package generation;
+
+/**
+ * A compiled, read-only form of a tree of BSPNodes for drawing.
+ * The tree of BSPBranch and BSPLeaf objects is convenient to build and store
+ * but drawing a frame follows references from node to node and from leaves
+ * to lists of walls with getter calls on every step.
+ * This class holds the same information in primitive arrays,
+ * one array per attribute (struct of arrays), such that a traversal
+ * reads consecutive int values.
+ *
+ * Nodes are numbered in preorder: the root is node 0,
+ * the left child of a branch n is node n+1 and its right child
+ * is stored explicitly. Walls are numbered in the order of the leaves,
+ * so the walls of a leaf are a range of consecutive indices.
+ *
+ * The tree is compiled once with {@link #compile(BSPNode)} when the root node
+ * is set for a maze, after generation or after loading it from a file.
+ * The Wall objects are kept as well as the FirstPersonView marks
+ * walls as seen.
+ */
+public final class FlatBSPTree {
+	/**
+	 * Index of the root node
+	 */
+	public static final int ROOT = 0;
+
+	// bounds of (x,y) coordinates of walls in the subtree of a node
+	private final int[] lowX;
+	private final int[] lowY;
+	private final int[] highX;
+	private final int[] highY;
+	// splitter of a branch node: (x,y) is the starting position, (dx,dy) the extension
+	private final int[] x;
+	private final int[] y;
+	private final int[] dx;
+	private final int[] dy;
+	// right child of a branch node, -1 for a leaf node
+	private final int[] right;
+	// walls of a leaf node are in the range [firstWall[n], endWall[n])
+	private final int[] firstWall;
+	private final int[] endWall;
+
+	// attributes of walls, indexed by wall number
+	private final int[] wallStartX;
+	private final int[] wallStartY;
+	private final int[] wallEndX;
+	private final int[] wallEndY;
+	private final int[] wallColor;
+	private final Wall[] walls;
+
+	// the number of nodes on the longest path from the root to a leaf
+	private final int depth;
+
+	// used while compiling, index of the next free node and wall
+	private int nextNode;
+	private int nextWall;
+
+	/**
+	 * Constructor allocates arrays for the given dimensions,
+	 * use {@link #compile(BSPNode)} to obtain an instance.
+	 */
+	private FlatBSPTree(int nodes, int wallCount, int depth) {
+		lowX = new int[nodes];
+		lowY = new int[nodes];
+		highX = new int[nodes];
+		highY = new int[nodes];
+		x = new int[nodes];
+		y = new int[nodes];
+		dx = new int[nodes];
+		dy = new int[nodes];
+		right = new int[nodes];
+		firstWall = new int[nodes];
+		endWall = new int[nodes];
+		wallStartX = new int[wallCount];
+		wallStartY = new int[wallCount];
+		wallEndX = new int[wallCount];
+		wallEndY = new int[wallCount];
+		wallColor = new int[wallCount];
+		walls = new Wall[wallCount];
+		this.depth = depth;
+	}
+	/**
+	 * Compiles the tree with the given root into arrays.
+	 * @param root the root node of a tree of BSPNodes, may be null
+	 * @return the compiled tree, null if the given root is null
+	 */
+	public static FlatBSPTree compile(BSPNode root) {
+		if (null == root)
+			return null;
+		// first pass: count nodes and walls, second pass: fill arrays
+		int[] counts = new int[3]; // nodes, walls, depth
+		count(root, 1, counts);
+		FlatBSPTree tree = new FlatBSPTree(counts[0], counts[1], counts[2]);
+		tree.fill(root);
+		assert tree.nextNode == counts[0] && tree.nextWall == counts[1];
+		return tree;
+	}
+	/**
+	 * Counts nodes and walls in the given subtree and updates the depth.
+	 * @param node the root of the subtree
+	 * @param level the number of nodes on the path from the root to this node
+	 * @param counts receives the number of nodes, walls and the depth
+	 */
+	private static void count(BSPNode node, int level, int[] counts) {
+		counts[0]++;
+		counts[2] = Math.max(counts[2], level);
+		if (node.isIsleaf()) {
+			counts[1] += ((BSPLeaf) node).getAllWalls().size();
+			return;
+		}
+		BSPBranch branch = (BSPBranch) node;
+		count(branch.getLeftBranch(), level+1, counts);
+		count(branch.getRightBranch(), level+1, counts);
+	}
+	/**
+	 * Stores the given subtree in preorder starting at the next free index.
+	 * @param node the root of the subtree
+	 */
+	private void fill(BSPNode node) {
+		final int n = nextNode++;
+		lowX[n] = node.getLowerBoundX();
+		lowY[n] = node.getLowerBoundY();
+		highX[n] = node.getUpperBoundX();
+		highY[n] = node.getUpperBoundY();
+		if (node.isIsleaf()) {
+			right[n] = -1;
+			firstWall[n] = nextWall;
+			for (Wall wall : ((BSPLeaf) node).getAllWalls()) {
+				final int w = nextWall++;
+				wallStartX[w] = wall.getStartPositionX();
+				wallStartY[w] = wall.getStartPositionY();
+				wallEndX[w] = wall.getEndPositionX();
+				wallEndY[w] = wall.getEndPositionY();
+				wallColor[w] = wall.getColor();
+				walls[w] = wall;
+			}
+			endWall[n] = nextWall;
+			return;
+		}
+		BSPBranch branch = (BSPBranch) node;
+		x[n] = branch.getX();
+		y[n] = branch.getY();
+		dx[n] = branch.getDx();
+		dy[n] = branch.getDy();
+		fill(branch.getLeftBranch()); // goes to n+1
+		right[n] = nextNode;
+		fill(branch.getRightBranch());
+	}
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int getNodeCount() {
+		return lowX.length;
+	}
+	/**
+	 * @return the number of walls in all leaves
+	 */
+	public int getWallCount() {
+		return walls.length;
+	}
+	/**
+	 * Gives the number of nodes on the longest path from the root to a leaf,
+	 * which bounds the size of a stack for an iterative traversal.
+	 * @return the depth of the tree
+	 */
+	public int getDepth() {
+		return depth;
+	}
+	/**
+	 * @param node the index of a node
+	 * @return true if the node is a leaf, false if it is a branch
+	 */
+	public boolean isLeaf(int node) {
+		return right[node] < 0;
+	}
+	/**
+	 * @param node the index of a branch node
+	 * @return the index of its left child
+	 */
+	public int getLeftChild(int node) {
+		return node+1;
+	}
+	/**
+	 * @param node the index of a branch node
+	 * @return the index of its right child
+	 */
+	public int getRightChild(int node) {
+		return right[node];
+	}
+	/**
+	 * @param node the index of a node
+	 * @return the lower bound for x
+	 */
+	public int getLowerBoundX(int node) {
+		return lowX[node];
+	}
+	/**
+	 * @param node the index of a node
+	 * @return the lower bound for y
+	 */
+	public int getLowerBoundY(int node) {
+		return lowY[node];
+	}
+	/**
+	 * @param node the index of a node
+	 * @return the upper bound for x
+	 */
+	public int getUpperBoundX(int node) {
+		return highX[node];
+	}
+	/**
+	 * @param node the index of a node
+	 * @return the upper bound for y
+	 */
+	public int getUpperBoundY(int node) {
+		return highY[node];
+	}
+	/**
+	 * @param node the index of a branch node
+	 * @return the x coordinate of the starting position of the splitter
+	 */
+	public int getX(int node) {
+		return x[node];
+	}
+	/**
+	 * @param node the index of a branch node
+	 * @return the y coordinate of the starting position of the splitter
+	 */
+	public int getY(int node) {
+		return y[node];
+	}
+	/**
+	 * @param node the index of a branch node
+	 * @return the extension of the splitter in x direction
+	 */
+	public int getDx(int node) {
+		return dx[node];
+	}
+	/**
+	 * @param node the index of a branch node
+	 * @return the extension of the splitter in y direction
+	 */
+	public int getDy(int node) {
+		return dy[node];
+	}
+	/**
+	 * @param node the index of a leaf node
+	 * @return the index of its first wall
+	 */
+	public int getFirstWall(int node) {
+		return firstWall[node];
+	}
+	/**
+	 * @param node the index of a leaf node
+	 * @return the index after its last wall
+	 */
+	public int getEndWall(int node) {
+		return endWall[node];
+	}
+	/**
+	 * @param wall the index of a wall
+	 * @return the x coordinate of its starting position
+	 */
+	public int getWallStartX(int wall) {
+		return wallStartX[wall];
+	}
+	/**
+	 * @param wall the index of a wall
+	 * @return the y coordinate of its starting position
+	 */
+	public int getWallStartY(int wall) {
+		return wallStartY[wall];
+	}
+	/**
+	 * @param wall the index of a wall
+	 * @return the x coordinate of its end position
+	 */
+	public int getWallEndX(int wall) {
+		return wallEndX[wall];
+	}
+	/**
+	 * @param wall the index of a wall
+	 * @return the y coordinate of its end position
+	 */
+	public int getWallEndY(int wall) {
+		return wallEndY[wall];
+	}
+	/**
+	 * @param wall the index of a wall
+	 * @return its color as an rgb value
+	 */
+	public int getWallColor(int wall) {
+		return wallColor[wall];
+	}
+	/**
+	 * Gives the wall object, e.g. to mark it as seen.
+	 * @param wall the index of a wall
+	 * @return the wall
+	 */
+	public Wall getWall(int wall) {
+		return walls[wall];
+	}
+}
@@ -2,6 +2,8 @@ package generation;
 
 import java.io.BufferedWriter;
 import java.io.FileWriter;
+import java.nio.ShortBuffer;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -11,7 +13,7 @@ import java.util.NoSuchElementException;
  * with a 2 dimensional grid and it encapsulates access to each 
  * cell in that grid.
  *  
- * The internal two-dimensional array matches with a grid of cells as follows:
+ * The internal grid of cells is organized as follows:
  * floorplan[0,y] form the left border, hence there is a wallboard on  left.
  * floorplan[width-1,y] form the right border, hence there is a wallboard on right.
  * floorplan[x,0] form the top border, hence there is a wallboard on top.
@@ -46,6 +48,16 @@ import java.util.NoSuchElementException;
  * and thus error prone. The encapsulation within this class 
  * localizes all bit operations for this encoding.
  * 
+ * The integers for all cells are kept in a single one-dimensional
+ * array in row-major order, i.e. the cell at position (x,y) is
+ * stored at index {@code y*width+x}. Compared to a two-dimensional
+ * array, this avoids the indirection through a separate array object 
+ * per column and keeps all cells in one contiguous block of memory.
+ * 
+ * A floorplan can also read its cells from a buffer, e.g. a memory-mapped
+ * maze file, without copying them. Cells are then read from the buffer
+ * till the first modification, which copies all cells into an array.
+ * 
  * This code is refactored code from Maze.java by Paul Falstad, www.falstad.com, Copyright (C) 1998, all rights reserved
  * Paul Falstad granted permission to modify and use code for teaching purposes.
  * The class resulted from refactoring the int[][] cells area in the original Maze and Mazebuilder classes into a class of its own.
@@ -90,15 +102,15 @@ public class Floorplan {
 	
 	private int width;
 	private int height ;
-	private int[][] cells; // width x height array of cells, cells[width][height]
+	private int[] cells; // width * height array of cells, cell (x,y) is at cells[y*width+x], null if read from buffer
+	private ShortBuffer buffer; // read-only cells in the same order as the array, null if read from array
 	// each cell contains an integer which encodes presence/absence of wallboards
-	// cells[i][j] can be read as (i,j) coordinates much like (x,y) coordinates
-	// where the first dimension x grows towards the right and 
-	// the second dimension y grows towards the bottom
+	// (x,y) coordinates are such that x grows towards the right and 
+	// y grows towards the bottom
 	// as if the (0,0) position is in the top-left corner.
-	// cells[i][j] is not intuitive in terms of rows and column indices in matrix notation 
-	// as position (i,j) would be column i and row j which is opposite to the normal  
-	// use of rows and columns indices for matrices.
+	// cells are stored row by row, so neighbors in x direction are adjacent in memory
+	// and the neighbor in y direction is width entries apart.
+	private int modifications; // number of changes to cells, see getModificationCount()
 	
 	/**
 	 * Constructor
@@ -108,7 +120,7 @@ public class Floorplan {
 	public Floorplan(int w, int h) {
 		width = w ;
 		height = h ;
-		cells = new int[w][h];
+		cells = new int[w*h];
 	}
 
 	/**
@@ -118,20 +130,85 @@ public class Floorplan {
 	 * precondition input != null
 	 */
 	public Floorplan(int[][] input){
-		// Alternative, 2d array is a 1d array with arrays as elements
-		width = input.length ;
-		height = input[0].length ;
-		cells = new int[width][];
-		for(int i = 0; i < width; i++)
-		    cells[i] = input[i].clone(); // clone row
-		/* Basic version
 		this(input.length, input[0].length);
 		for (int i = 0; i < width; i++) {
 			for (int j = 0; j < height; j++) {
-				cells[i][j] = input[i][j];
+				cells[index(i, j)] = input[i][j];
 			}
 		}
-		*/
+	}
+	/**
+	 * Constructor that takes over the given cell values without copying them.
+	 * This constructor is useful to load a floorplan from a file
+	 * without an intermediate matrix.
+	 * @param w width, {@code 0 < w}
+	 * @param h height, {@code 0 < h}
+	 * @param values the values of all cells, cell (x,y) at values[y*w+x], 
+	 * the floorplan owns the array afterwards
+	 * precondition values.length == w*h
+	 */
+	public Floorplan(int w, int h, int[] values) {
+		if (values.length != w*h)
+			throw new IllegalArgumentException("Expected " + w*h + " cell values, got " + values.length);
+		width = w ;
+		height = h ;
+		cells = values ;
+	}
+	/**
+	 * Constructor that reads cell values from the given buffer without copying them.
+	 * This constructor is useful to work on a memory-mapped maze file
+	 * without decoding it. The cells are copied into an array 
+	 * on the first modification, the buffer is not modified.
+	 * @param w width, {@code 0 < w}
+	 * @param h height, {@code 0 < h}
+	 * @param values the unsigned values of all cells, cell (x,y) at values.get(y*w+x), 
+	 * the floorplan reads from the buffer afterwards, so its content must not change
+	 * precondition values.remaining() == w*h
+	 */
+	public Floorplan(int w, int h, ShortBuffer values) {
+		if (values.remaining() != w*h)
+			throw new IllegalArgumentException("Expected " + w*h + " cell values, got " + values.remaining());
+		width = w ;
+		height = h ;
+		buffer = values.slice() ;
+	}
+	/**
+	 * Copy constructor that delivers a duplicate of the given floorplan.
+	 * A floorplan that reads from a buffer shares the buffer with its duplicate,
+	 * as both copy the cells on their first modification.
+	 * @param other provides the floorplan to copy cell content from
+	 * precondition other != null
+	 */
+	public Floorplan(Floorplan other) {
+		width = other.width ;
+		height = other.height ;
+		if (null != other.cells)
+			cells = other.cells.clone() ;
+		else
+			buffer = other.buffer.duplicate() ;
+	}
+	/**
+	 * Gives the width of the floorplan
+	 * @return the width, the number of cells in x direction
+	 */
+	public int getWidth() {
+		return width;
+	}
+	/**
+	 * Gives the height of the floorplan
+	 * @return the height, the number of cells in y direction
+	 */
+	public int getHeight() {
+		return height;
+	}
+	/**
+	 * Gives the number of changes made to the cells so far.
+	 * Data derived from the floorplan, like the WallDistances, 
+	 * records this number to recognize when it is out of date.
+	 * @return the number of modifications since construction
+	 */
+	public int getModificationCount() {
+		return modifications;
 	}
 	
 	/**
@@ -179,11 +256,11 @@ public class Floorplan {
 		final Floorplan o = (Floorplan)other ; // type cast safe after checking class objects
 		if ((width != o.width)||(height != o.height))
 			return false ;
-		for (int i = 0; i < width; i++) {
-			for (int j = 0; j < height; j++) {
-				if (cells[i][j] != o.cells[i][j])
-					return false ;
-			}
+		if (null != cells && null != o.cells)
+			return Arrays.equals(cells, o.cells) ;
+		for (int i = 0; i < width*height; i++) {
+			if (getCell(i) != o.getCell(i))
+				return false ;
 		}
 		return true ;
 	}
@@ -206,7 +283,7 @@ public class Floorplan {
 	 */
 	public int getValueOfCell( int x, int y )
 	{
-		return cells[x][y] ;
+		return getCell(index(x, y)) ;
 	}
 	
 	/**
@@ -424,6 +501,21 @@ public class Floorplan {
 	 * @param ryl 2nd corner, y coordinate
 	 */
 	public void markAreaAsRoom(int rw, int rh, int rx, int ry, int rxl, int ryl) {
+		markAreaAsRoom(rw, rh, rx, ry, rxl, ryl, new RandomStream(SingleRandom.getRandom().nextInt()));
+	}
+	/**
+	 * Marks a given area as a room on the maze and positions up to five doors randomly.
+	 * Same as {@link #markAreaAsRoom(int, int, int, int, int, int)} but
+	 * the positions of doors are drawn from the given random number stream.
+	 * @param rw room width
+	 * @param rh room height
+	 * @param rx 1st corner, x coordinate
+	 * @param ry 1st corner, y coordinate
+	 * @param rxl 2nd corner, x coordinate
+	 * @param ryl 2nd corner, y coordinate
+	 * @param random the random number stream to pick doors
+	 */
+	public void markAreaAsRoom(int rw, int rh, int rx, int ry, int rxl, int ryl, RandomStream random) {
 		// Step 1: 
 		// clear all cells in area of room from all wallboards and borders
 		// mark all cells in area as being inside the room
@@ -446,7 +538,6 @@ public class Floorplan {
 		// so a maze generation algorithm can identify
 		// these wallboards and delete them to get into the room
 		int numBoards = (rw+rh)*2; // counter for the total number of wallboards
-		SingleRandom random = SingleRandom.getRandom() ;
 		// pick at most 5 wallboards
 		for (int ct = 0; ct != 5; ct++) { 
 			int door = random.nextIntWithinInterval(0, numBoards-1); // pick a random wallboard
@@ -615,6 +706,20 @@ public class Floorplan {
 			logWall( x,  y,  dx,  dy);
 		/////////////////// END OF SPECIAL CODE FOR GRADING //////////////////////////////////////////////////////////////
 	}
+	/**
+	 * Delete the wallboard of cell (x,y) in the given direction on this cell only.
+	 * In contrast to deleteWallboard, the adjacent cell is not touched,
+	 * so this also works for a wallboard on the outside of the floorplan,
+	 * e.g. if the floorplan is a window into a larger maze and a passage
+	 * continues beyond the window. Border flags remain unchanged.
+	 * @param x coordinate of cell, {@code 0 <= x < width}
+	 * @param y coordinate of cell, {@code 0 <= y < height}
+	 * @param cd direction of the wallboard
+	 */
+	void deleteOuterWallboard(int x, int y, CardinalDirection cd) {
+		int[] d = cd.getDxDyDirection() ;
+		setWallToZero(x, y, d[0], d[1]);
+	}
     /**
      * Add wallboards in either north or west direction for the given wall.
      * Wall coordinates need to be rescaled by map_unit to translate into
@@ -907,7 +1012,8 @@ public class Floorplan {
 	 * @param cw_bit like CW_LEFT, CW_RIGHT, CW_TOP, CW_BOTTOM
 	 */
 	private void setBitToZero(int x, int y, int cw_bit) {
-		cells[x][y] &= ~cw_bit;
+		getWritableCells()[index(x, y)] &= ~cw_bit;
+		modifications++;
 	}
 	/**
 	 * Sets all wallboard bits to zero for a given cell
@@ -924,10 +1030,48 @@ public class Floorplan {
 	// better to directly change client classes
 	//
 	protected boolean hasMaskedBitsTrue(int x, int y, int bitmask) {
-		return (cells[x][y] & bitmask) != 0;
+		return (getCell(index(x, y)) & bitmask) != 0;
 	}
 	protected boolean hasMaskedBitsFalse(int x, int y, int bitmask) {
-		return (cells[x][y] & bitmask) == 0;
+		return (getCell(index(x, y)) & bitmask) == 0;
+	}
+	/**
+	 * Gives the value of the cell at the given position of the array or buffer.
+	 * @param i index of the cell, {@code 0 <= i < width*height}
+	 * @return the value of the cell
+	 */
+	private int getCell(int i) {
+		return (null != cells) ? cells[i] : buffer.get(i) & 0xffff;
+	}
+	/**
+	 * Gives the array of cells for a modification, 
+	 * copies the cells from the buffer into a new array if needed.
+	 * @return the array of cells
+	 */
+	private int[] getWritableCells() {
+		if (null == cells) {
+			int[] values = new int[width*height];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = buffer.get(i) & 0xffff;
+			}
+			cells = values;
+			buffer = null;
+		}
+		return cells;
+	}
+	/**
+	 * Gives the position of cell (x,y) in the internal one-dimensional array.
+	 * The array is organized row by row.
+	 * @param x coordinate of cell, {@code 0 <= x < width}
+	 * @param y coordinate of cell, {@code 0 <= y < height}
+	 * @return index {@code y*width+x}
+	 */
+	private int index(int x, int y) {
+		// an explicit check is needed as a position outside of the range
+		// of x values would otherwise silently map to a cell in another row
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			throw new ArrayIndexOutOfBoundsException("Position (" + x + "," + y + ") outside of " + width + " x " + height + " floorplan");
+		return y*width+x;
 	}
 
 	/**
@@ -959,7 +1103,8 @@ public class Floorplan {
 	 * @param bitmask is the bitmask to use for adding 1's
 	 */
 	private void setBitToOne(int x, int y, int bitmask) {
-		cells[x][y] |= bitmask ;
+		getWritableCells()[index(x, y)] |= bitmask ;
+		modifications++;
 	}
 
 	///////////////// code for debugging ///////////////////////////////////////
@@ -977,7 +1122,7 @@ public class Floorplan {
 		{
 			prefix = " i:" + i + " j:";
 			for (int j = 0 ; j < height ; j++)
-				s += prefix + j + "=" + cells[i][j] ;
+				s += prefix + j + "=" + getCell(index(i, j)) ;
 			s += "\n" ;
 		}
 		return s ;
@@ -78,6 +78,21 @@ public interface Maze {
 	 * @param rootnode the rootnode to set
 	 */
 	void setRootnode(BSPNode rootnode);
+
+	/**
+	 * Gives the tree of nodes for segments of wallboards in its
+	 * compiled form of primitive arrays, which is faster to traverse for drawing.
+	 * It is compiled when the root node is set.
+	 * @return the compiled tree, null if there is no root node
+	 */
+	FlatBSPTree getFlatTree();
+	/**
+	 * Gives the distance to the nearest wallboard in each direction
+	 * for every cell, which lets distance sensors answer in constant time.
+	 * The table is computed on first use and again after the floorplan changed.
+	 * @return the table of distances for the current floorplan
+	 */
+	WallDistances getWallDistances();
 	/**
 	 * Tells if (x,y) coordinate is within range.
 	 * @param x is on the horizontal axis, {@code 0 <= x < width}
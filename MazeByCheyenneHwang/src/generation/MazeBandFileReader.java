@@ -0,0 +1,172 @@
+package generation;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a maze from a file written by a MazeBandFileWriter.
+ * The maze is not loaded as a whole. Instead, a client asks for
+ * a rectangular window of the maze and receives it as a Floorplan
+ * of the size of the window, so only that part needs to be in memory.
+ * Only the rows of the window and the row above it are read from the file.
+ *
+ * In the delivered floorplan, the outside of the window is a border.
+ * Wallboards on the outside of the window are missing where the maze
+ * continues beyond the window and at the exit of the maze.
+ */
+public class MazeBandFileReader implements Closeable {
+	private final FileChannel channel;
+	private final int width;
+	private final int height;
+	private final int exitX;
+	private final int exitY;
+	private final int rowBytes;
+
+	/**
+	 * Constructor that opens the file and reads its header.
+	 * @param path the file to read from
+	 * @throws IOException if the file can not be read or is not a maze band file
+	 */
+	public MazeBandFileReader(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(MazeBandFileWriter.HEADER_SIZE);
+			readFully(header, 0);
+			header.flip();
+			if (header.getInt() != MazeBandFileWriter.MAGIC || header.getInt() != MazeBandFileWriter.VERSION)
+				throw new IOException("Not a maze band file: " + path);
+			width = header.getInt();
+			height = header.getInt();
+			exitX = header.getInt();
+			exitY = header.getInt();
+			rowBytes = StreamingMazeGenerator.getBytesPerRow(width);
+			if (width <= 0 || height <= 0 || channel.size() < MazeBandFileWriter.HEADER_SIZE + (long)height * rowBytes)
+				throw new IOException("Maze band file is incomplete: " + path);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	/**
+	 * Gives the width of the whole maze
+	 * @return the width
+	 */
+	public int getWidth() {
+		return width;
+	}
+	/**
+	 * Gives the height of the whole maze
+	 * @return the height
+	 */
+	public int getHeight() {
+		return height;
+	}
+	/**
+	 * Gives the exit position of the whole maze
+	 * @return array with the x and y coordinate of the exit
+	 */
+	public int[] getExitPosition() {
+		int[] result = {exitX, exitY};
+		return result;
+	}
+	/**
+	 * Reads a band of rows over the full width of the maze.
+	 * @param firstRow the first row of the band, {@code 0 <= firstRow < height}
+	 * @param rows the number of rows, {@code 0 < rows <= height - firstRow}
+	 * @return a floorplan of size width x rows
+	 * @throws IOException if reading the file fails
+	 */
+	public Floorplan readBand(int firstRow, int rows) throws IOException {
+		return readWindow(0, firstRow, width, rows);
+	}
+	/**
+	 * Reads a rectangular window of the maze.
+	 * Cell (x,y) of the delivered floorplan is cell (x0+x,y0+y) of the maze.
+	 * @param x0 the x coordinate of the top left cell of the window
+	 * @param y0 the y coordinate of the top left cell of the window
+	 * @param w the width of the window
+	 * @param h the height of the window
+	 * @return a floorplan of size w x h
+	 * @throws IOException if reading the file fails
+	 */
+	public Floorplan readWindow(int x0, int y0, int w, int h) throws IOException {
+		if (x0 < 0 || y0 < 0 || w <= 0 || h <= 0 || x0 > width - w || y0 > height - h)
+			throw new IllegalArgumentException("Window out of range: (" + x0 + "," + y0 + ") of size " + w + " x " + h);
+		Floorplan floorplan = new Floorplan(w, h);
+		floorplan.initialize();
+		// bytes that hold the columns of the window and the column on the left of it
+		final int firstByte = (x0 > 0) ? (x0 - 1) >> 2 : 0;
+		final int lastByte = (x0 + w - 1) >> 2;
+		final ByteBuffer buffer = ByteBuffer.allocate(lastByte - firstByte + 1);
+		final byte[] data = buffer.array();
+		final int shift = firstByte * 4; // x coordinate of the first cell in data
+		final Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		// the row above the window tells if there are passages to the north
+		if (y0 > 0) {
+			readRow(y0 - 1, firstByte, buffer);
+			for (int x = 0; x < w; x++) {
+				if ((StreamingMazeGenerator.getCell(data, 0, x0 + x - shift) & StreamingMazeGenerator.SOUTH_WALL) == 0)
+					floorplan.deleteOuterWallboard(x, 0, CardinalDirection.North);
+			}
+		}
+		for (int y = 0; y < h; y++) {
+			readRow(y0 + y, firstByte, buffer);
+			if (x0 > 0 && (StreamingMazeGenerator.getCell(data, 0, x0 - 1 - shift) & StreamingMazeGenerator.EAST_WALL) == 0)
+				floorplan.deleteOuterWallboard(0, y, CardinalDirection.West);
+			for (int x = 0; x < w; x++) {
+				final int cell = StreamingMazeGenerator.getCell(data, 0, x0 + x - shift);
+				if ((cell & StreamingMazeGenerator.EAST_WALL) == 0) {
+					if (x < w-1) {
+						wallboard.setLocationDirection(x, y, CardinalDirection.East);
+						floorplan.deleteWallboard(wallboard);
+					}
+					else
+						floorplan.deleteOuterWallboard(x, y, CardinalDirection.East);
+				}
+				if ((cell & StreamingMazeGenerator.SOUTH_WALL) == 0) {
+					if (y < h-1) {
+						wallboard.setLocationDirection(x, y, CardinalDirection.South);
+						floorplan.deleteWallboard(wallboard);
+					}
+					else
+						floorplan.deleteOuterWallboard(x, y, CardinalDirection.South);
+				}
+			}
+		}
+		return floorplan;
+	}
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+	/**
+	 * Reads the bytes for a part of a row into the buffer.
+	 * @param y the row
+	 * @param firstByte the index of the first byte within the row
+	 * @param buffer receives as many bytes as it can hold
+	 * @throws IOException if reading the file fails
+	 */
+	private void readRow(int y, int firstByte, ByteBuffer buffer) throws IOException {
+		buffer.clear();
+		readFully(buffer, MazeBandFileWriter.HEADER_SIZE + (long)y * rowBytes + firstByte);
+	}
+	/**
+	 * Fills the buffer with bytes from the file starting at the given position.
+	 * @param buffer the buffer to fill
+	 * @param position the position in the file
+	 * @throws IOException if reading fails or the file ends too early
+	 */
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int n = channel.read(buffer, position);
+			if (n < 0)
+				throw new EOFException("Unexpected end of maze band file");
+			position += n;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package generation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Logger;
+
+/**
+ * A MazeBandSink that stores the bands of a maze in a file.
+ * The file starts with a header of HEADER_SIZE bytes that holds
+ * the int values MAGIC, VERSION, width, height, exitX, exitY
+ * followed by all rows in the encoding of the StreamingMazeGenerator.
+ * Since all rows have the same size, a MazeBandFileReader can
+ * read any part of the maze without reading the rest of the file.
+ * An aborted maze leaves no file behind, but a file that start
+ * could not open is left untouched.
+ */
+public class MazeBandFileWriter implements MazeBandSink {
+	/**
+	 * The logger is used to track execution and report issues.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(MazeBandFileWriter.class.getName());
+	/**
+	 * Identifies a maze band file, the characters "MAZB"
+	 */
+	public static final int MAGIC = 0x4d415a42;
+	/**
+	 * Version of the file format
+	 */
+	public static final int VERSION = 1;
+	/**
+	 * Number of bytes in front of the first row
+	 */
+	public static final int HEADER_SIZE = 6 * Integer.BYTES;
+
+	private final Path path;
+	private FileChannel channel; // open between start and finish
+	private boolean created; // start has opened the file, so abort may delete it
+	private int rowBytes; // number of bytes per row
+
+	/**
+	 * Constructor
+	 * @param path the file to write to, an existing file is overwritten
+	 */
+	public MazeBandFileWriter(Path path) {
+		this.path = path;
+	}
+	@Override
+	public void start(int width, int height, int exitX, int exitY) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		created = true;
+		rowBytes = StreamingMazeGenerator.getBytesPerRow(width);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(exitX).putInt(exitY);
+		header.flip();
+		writeFully(header);
+	}
+	@Override
+	public void writeBand(int firstRow, int rows, byte[] data) throws IOException {
+		writeFully(ByteBuffer.wrap(data, 0, rows * rowBytes));
+	}
+	@Override
+	public void finish() throws IOException {
+		channel.close();
+		channel = null;
+	}
+	@Override
+	public void abort() {
+		try {
+			if (null != channel)
+				channel.close();
+		} catch (IOException e) {
+			LOGGER.warning("Can not close maze file " + path + ": " + e);
+		}
+		channel = null;
+		if (!created)
+			return; // start failed before opening the file, which is not ours to delete
+		created = false;
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException e) {
+			LOGGER.warning("Can not delete incomplete maze file " + path + ": " + e);
+		}
+	}
+	/**
+	 * Writes all remaining bytes of the buffer.
+	 * @param buffer the data to write
+	 * @throws IOException if writing fails
+	 */
+	private void writeFully(ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+}
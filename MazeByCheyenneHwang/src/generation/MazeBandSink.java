@@ -0,0 +1,55 @@
+package generation;
+
+import java.io.IOException;
+
+/**
+ * A MazeBandSink receives a maze from a StreamingMazeGenerator
+ * in horizontal bands of rows, from top to bottom.
+ * This allows for mazes that are too large to keep in memory
+ * as a whole, the sink decides what happens to each band,
+ * e.g. the MazeBandFileWriter stores it in a file.
+ *
+ * A band is encoded row by row. Each row takes
+ * StreamingMazeGenerator.getBytesPerRow(width) bytes and
+ * uses 2 bits per cell for the wallboards on its east and south side,
+ * see StreamingMazeGenerator.getCell().
+ *
+ * The generator calls start() once, then writeBand() for each band
+ * in order and finally finish().
+ * If the generation stops for any other reason once start() was called,
+ * e.g. an interrupt or a failing start(), writeBand() or finish(),
+ * the generator calls abort() instead.
+ */
+public interface MazeBandSink {
+	/**
+	 * Announces a new maze before its first band is delivered.
+	 * @param width the width of the maze, {@code 0 < width}
+	 * @param height the height of the maze, {@code 0 < height}
+	 * @param exitX the x coordinate of the exit position
+	 * @param exitY the y coordinate of the exit position
+	 * @throws IOException if the sink can not accept the maze
+	 */
+	void start(int width, int height, int exitX, int exitY) throws IOException;
+	/**
+	 * Delivers the next band of rows.
+	 * The data array is reused by the generator for the next band,
+	 * so the sink must not keep a reference to it.
+	 * @param firstRow the y coordinate of the first row in the band
+	 * @param rows the number of rows in the band
+	 * @param data the encoded rows, the first rows*getBytesPerRow(width) bytes are valid
+	 * @throws IOException if the sink can not store the band
+	 */
+	void writeBand(int firstRow, int rows, byte[] data) throws IOException;
+	/**
+	 * Tells the sink that the last band was delivered.
+	 * @throws IOException if the sink can not complete the maze
+	 */
+	void finish() throws IOException;
+	/**
+	 * Tells the sink that the maze will not be completed.
+	 * The sink releases its resources and discards the bands it received.
+	 * The generator calls this while an exception is on its way, 
+	 * so the sink does not throw one itself.
+	 */
+	void abort();
+}
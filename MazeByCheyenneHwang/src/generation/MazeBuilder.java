@@ -38,10 +38,16 @@ public class MazeBuilder implements Runnable {
 	// the distance to exit for a cell at position (i,j) in the floor plan.
 
 	// class internal local variables
-	protected SingleRandom random ; // random number stream, used to make randomized decisions, e.g for direction to go
+	protected RandomStream random ; // random number stream, used to make randomized decisions, e.g for direction to go
+	// each builder owns its stream such that builders can run in parallel and still deliver the same maze for the same seed
 	Order order; // describes what is wanted, e.g. a perfect maze or not
+	private int bspParallelism = 1; // number of threads to build the BSP tree, not affected by reset
+	private boolean headless; // batch generation without a UI, no sleeping, not affected by reset
 	
 	// constants
+	// version of the generated mazes, increase it whenever a change to any builder 
+	// changes the maze it delivers for an order, such that cached mazes are not used anymore
+	static final int VERSION = 1;
 	static final long SLEEP_INTERVAL = 100 ; //constant used for brief breaks to recognize interrupted signal, unit is millisecond
 	static final int MAX_TRIES = 250 ; // room generation: max number of tries to find a random location for a room
 	static final int MIN_ROOM_DIMENSION = 3; // room generation: min dimension
@@ -59,9 +65,8 @@ public class MazeBuilder implements Runnable {
 	 */
 	public void buildOrder(Order order) {
 		this.order = order;
-		// configure and obtain the random number generator
-		SingleRandom.setSeed(order.getSeed());
-		random = SingleRandom.getRandom();
+		// configure the random number generator, private to this builder
+		random = new RandomStream(order.getSeed());
 		// derive parameters 
 		int skill = order.getSkillLevel() ;
 		width = Constants.SKILL_X[skill];
@@ -74,6 +79,28 @@ public class MazeBuilder implements Runnable {
 		floorplan = new Floorplan(width,height) ;
 		dists = new Distance(width,height) ;
 	}
+	/**
+	 * Sets the number of threads that the BSPBuilder uses to build the BSP tree.
+	 * This is worth it if a single maze is generated at a time,
+	 * if many mazes are generated in parallel, each should use a single thread.
+	 * @param parallelism the number of threads, 1 for a sequential construction
+	 */
+	public void setBSPParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		bspParallelism = parallelism;
+	}
+	/**
+	 * Sets the headless mode for batch generation without a UI.
+	 * In headless mode, the builder does not pause between the phases of
+	 * the generation and the BSPBuilder does not sleep after progress updates,
+	 * a cancel request is recognized by checking the interrupt flag instead.
+	 * By default, the builder is not headless, which keeps the GUI responsive.
+	 * @param headless true for headless mode, false for interactive mode
+	 */
+	public void setHeadless(boolean headless) {
+		this.headless = headless;
+	}
 	/**
 	 * Main method to run construction of a new maze in a thread of its own.
 	 * This method is called by the MazeFactory to generate a maze.
@@ -87,20 +114,22 @@ public class MazeBuilder implements Runnable {
 			if (rooms > 0)
 				generateRooms();
 			
-			Thread.sleep(SLEEP_INTERVAL) ; // test if thread has been interrupted, i.e. notified to stop
+			pause() ; // test if thread has been interrupted, i.e. notified to stop
 
 			// put pathways into the maze, determine its starting and end position and calculate distances
 			generate();
 
-			Thread.sleep(SLEEP_INTERVAL) ; // test if thread has been interrupted, i.e. notified to stop
+			pause() ; // test if thread has been interrupted, i.e. notified to stop
 
 			final int colchange = random.nextIntWithinInterval(0, 255); // used in the constructor for Segments  class Seg
 			final BSPBuilder b = new BSPBuilder(order, dists, floorplan, width, height, colchange, expectedPartiters) ;
+			b.setParallelism(bspParallelism);
+			b.setHeadless(headless);
 			BSPNode root = b.generateBSPNodes(); // takes a long time, updates progressbar, 
 			// it also internally checks for cancel requests
 			// and throws an interrupted exception if that happens
 
-			Thread.sleep(SLEEP_INTERVAL) ; // test if thread has been interrupted, i.e. notified to stop
+			pause() ; // test if thread has been interrupted, i.e. notified to stop
 
 			// communicate results back to Controller
 			order.updateProgress(100); // Order interface promises to communicate 100% upon delivery
@@ -119,6 +148,20 @@ public class MazeBuilder implements Runnable {
 		}
 	}
 	
+	/**
+	 * Takes a brief break between phases of the generation to recognize 
+	 * if the thread has been interrupted. In headless mode, there is no UI 
+	 * that needs the break, so only the interrupt flag is checked.
+	 * @throws InterruptedException if the thread has been interrupted
+	 */
+	private void pause() throws InterruptedException {
+		if (headless) {
+			if (Thread.interrupted())
+				throw new InterruptedException("Maze generation was interrupted");
+		}
+		else
+			Thread.sleep(SLEEP_INTERVAL);
+	}
 	/**
 	 * Reset all fields to initial values
 	 */
@@ -189,7 +232,7 @@ public class MazeBuilder implements Runnable {
 			return false ;
 		// since the area is available, mark it for this room and remove all wallboards
 		// from this on it is clear that we can place the room on the maze
-		floorplan.markAreaAsRoom(rw, rh, rx, ry, rxl, ryl); 
+		floorplan.markAreaAsRoom(rw, rh, rx, ry, rxl, ryl, random); 
 		return true;
 	}
 
@@ -248,7 +291,7 @@ public class MazeBuilder implements Runnable {
 					if (null == origcds[x][y]) {
 						// Happens at starting position
 						assert (x == firstx && y == firsty) : "catching null elsewhere than starting position" ;
-						cd = cd.randomDirection() ;
+						cd = cd.randomDirection(random) ;
 					}
 					else
 						cd = origcds[x][y] ;
@@ -262,7 +305,7 @@ public class MazeBuilder implements Runnable {
 				y += dxy[1];
 				floorplan.setCellAsVisited(x, y);
 				origcds[x][y] = cd;
-				cd = cd.randomDirection();
+				cd = cd.randomDirection(random);
 				origcd = cd;
 			}
 		}
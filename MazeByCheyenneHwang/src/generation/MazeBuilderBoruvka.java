@@ -1,385 +1,242 @@
 package generation;
 
-import java.util.Iterator;
-import java.util.Random;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
-import gui.Constants;
-
 /**
- * This class has the responsibility to create a maze of given dimensions (width, height) 
+ * This class has the responsibility to create a maze of given dimensions (width, height)
 * together with a solution based on a distance matrix.
 * The MazeBuilder implements Runnable such that it can be run a separate thread.
-* The MazeFactory has a MazeBuilder and handles the thread management.   
+* The MazeFactory has a MazeBuilder and handles the thread management.
 
-* 
-* The maze is built with a randomized version of Boruvka's algorithm. 
+*
+* The maze is built with a randomized version of Boruvka's algorithm.
 * This means a spanning tree is expanded into a set of cells by removing wallboards from the maze.
 * Algorithm sets up every inner wall, tears down these walls according to boruvka until perfect maze
 * Boruvka aspect: each cell is treated like an unconnected node, all the cells start with wallboards between them the same way that unconnected nodes would
 * then I begin the process of connecting nodes based on the which edge connecting the node to another node is the cheapest
-* by tearing down the cheapest wallboard, that is a proxy for creating the cheapest edge for a node. 
-*   
+* by tearing down the cheapest wallboard, that is a proxy for creating the cheapest edge for a node.
+*
+* Trees are tracked with a disjoint-set forest (union-find with path halving and union by size).
+* Each round makes a single pass over the remaining candidate wallboards to find the cheapest
+* one for every tree and tears these down, which at least halves the number of trees.
+* So the whole algorithm needs O(E log V) steps for E wallboards and V cells.
+* Cells inside a room are not separated by wallboards, so they start out in the same tree
+* and rooms are entered through the wallboards that are not marked as border, as before.
+*
 * @author Jones.Andrew, refactored by Peter Kemper
 */
 
 public class MazeBuilderBoruvka extends MazeBuilder implements Runnable {
-	
-	protected int[][][] edgeWeight;//for storing edge weights in
-	protected int treeGroupTracker; // for storing total number of groups during wall teardown session
-	protected int[][] partOfTree;
-	protected int[][] treeAssigner; // for storing what tree a cell is part of
-	protected int treeId = 0; // for creating a call number for each tree
-	
-	
+
+	// edges are wallboards between two cells inside the maze,
+	// edge e < width*height is the wallboard on the east side of cell e = y*width+x,
+	// edge e >= width*height is the wallboard on the south side of cell e-width*height
+	protected int[] edgeWeight; // for storing edge weights in, 0 if edge has no weight yet
+	protected int[] edgeTieBreak; // random secondary key to break ties between equal weights
+	protected DisjointSets trees; // disjoint-set forest over cells y*width+x
+
 	private static final Logger LOGGER = Logger.getLogger(MazeBuilderBoruvka.class.getName());
-	
-	public MazeBuilderBoruvka() {
 
+	public MazeBuilderBoruvka() {
 		super();
+		LOGGER.config("Using Boruvka's algorithm to generate maze.");
 	}
-	
-	
 
 	/**
 	 * This method generates pathways into the maze by using Boruvka's algorithm to generate a tree using cells boxed in as unconnected starting nodes.
-
-	 * adjusting method will tear down walls according to Borvuka's algorithms until we have one set that includes every cell 
-	 * start by iterating through every cell once and connecting it to at least one other cell (cheapest side)
-	 * then at the end check if all the cell groups are connected in one or if there are multiple with treejoiner variab;e
-	 * end if there are multiple, re-do process treating each cell group as new cell if not done
+	 * Each round determines the cheapest wallboard that connects a tree with another tree
+	 * for all trees and tears down these wallboards. Rounds are repeated until there is a single
+	 * tree that includes every cell or no more wallboard can be torn down.
 	 */
 	@Override
 	protected void generatePathways() {
-		// advice - be careful about finding neighbors, be careful about finding edgeweights
-		// use hashmap to store edgeweights, 
-		// be careful with amount of arrays
-		// potentially use list of groups for tree joiner rather than using iterators to search for each individual cell
-		edgeWeight = new int[width][height][4];
-		partOfTree = new int[width][height];
-		treeAssigner = new int[width][height];
-		treeGroupTracker = width*height;
-		
-		
-		for (int x = 0; x < width; x++) {// for loop sequence to assign edge weights to all the inner walls
-			for (int y = 0; y < height; y++) {
-				for (int d = 0; d < 4; d++) {
-					if (edgeWeight[x][y][d] == 0) {
-						
-						if (!(y == 0 && d == 0) && !(x == 0 && d == 1) && !(y == height - 1 && d == 2) && !(x == width - 1 && d == 3)) {// makes sure none of the border walls get a weight
-							int newWeight = getEdgeWeight(x, y, intToDir(d));
-							edgeWeight[x][y][d] = newWeight;
-							
-							if ((x != width - 2) && (d == 3)) { // needs to set west edge for its east neighbor too
-								edgeWeight[x + 1][y][1] = newWeight;
-							} 
-							if ((y != height - 2)  && (d == 2)){ // needs to set north edge for its south neighbor too
-								edgeWeight[x][y + 1][0] = newWeight;
-							}
-						}
-						
-						
-					}
-				}
+		final int cells = width*height;
+		edgeWeight = new int[2*cells];
+		edgeTieBreak = new int[2*cells];
+		trees = new DisjointSets(cells);
+
+		// collect candidate wallboards that can be torn down and assign weights,
+		// cells that are not separated by a wallboard (inside rooms) belong to the same tree from the start
+		int[] candidates = new int[2*cells];
+		int count = 0;
+		final Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				final int c = y*width+x;
+				if (x < width-1)
+					count = addCandidate(c, x, y, CardinalDirection.East, wallboard, candidates, count);
+				if (y < height-1)
+					count = addCandidate(cells + c, x, y, CardinalDirection.South, wallboard, candidates, count);
 			}
 		}
-		
-		// initial for loop sequence to begin borvuka algorithm to tear down walls and start forming trees
-		// only does initial tear down, section later will join trees created
-		boolean cheapestFound;
-		int cheapestValue;
-		for (int x = 0; x < width; x++) { 
-			for (int y = 0; y < height; y++) {
-				if (partOfTree[x][y] != 1) {// since this is the initial run - will only work with cells that aren't already part of a tree group
-					treeAssigner[x][y] = treeId;
-					cheapestFound = false;
-					cheapestValue = 100; // restart at 100 every time new pathway being burrowed so that the first edge found will always be the cheapest so far
-					int curX = x;
-					int curY = y;
-					while (!cheapestFound) {
-						CardinalDirection cheapest = isPreferred(curX, curY, cheapestValue);
-						
-						if (cheapest != null) {
-							
-							Wallboard toDelete = new Wallboard(curX, curY, cheapest);//deletes the wallboard
-							cheapestValue = edgeWeight[curX][curY][dirToInt(cheapest)];//updates what the cheapest edge weight so far is
-							floorplan.deleteWallboard(toDelete);
-							
-							partOfTree[curX][curY] = 1;
-							treeGroupTracker = treeGroupTracker - 1;
-							
-							if (cheapest == CardinalDirection.North) {//resets and moves into the next cell
-								treeAssigner[curX][curY-1] = treeId;
-								curY = curY - 1;
-							} else if (cheapest == CardinalDirection.West) {
-								treeAssigner[curX-1][curY] = treeId;
-								curX = curX - 1;
-							} else if (cheapest == CardinalDirection.South) {
-								treeAssigner[curX][curY+1] = treeId;
-								curY = curY + 1;
-							} else {
-								treeAssigner[curX+1][curY] = treeId;
-								curX = curX + 1;
-							}
-						}else {
-							cheapestFound = true;
-							treeId = treeId + 1;
-						}
-					}
+
+		// Boruvka rounds
+		final int[] cheapest = new int[cells]; // cheapest edge for each tree, indexed by root, -1 if none
+		Arrays.fill(cheapest, -1);
+		final int[] selectedEdges = new int[cells]; // at most one edge per tree
+		boolean merged = true;
+		while (merged && count > 0) {
+			merged = false;
+			// single pass: drop edges inside a tree, keep the cheapest edge for each tree
+			int remaining = 0;
+			for (int i = 0; i < count; i++) {
+				final int e = candidates[i];
+				final int ru = trees.find(getFirstCell(e));
+				final int rv = trees.find(getSecondCell(e));
+				if (ru == rv)
+					continue; // would create a loop, never a candidate again
+				candidates[remaining++] = e;
+				if (cheapest[ru] == -1 || isCheaper(e, cheapest[ru]))
+					cheapest[ru] = e;
+				if (cheapest[rv] == -1 || isCheaper(e, cheapest[rv]))
+					cheapest[rv] = e;
+			}
+			count = remaining;
+			// collect the cheapest edge of each tree, an edge can be the cheapest for both of its trees
+			int selectedCount = 0;
+			for (int i = 0; i < count; i++) {
+				final int e = candidates[i];
+				final int ru = trees.find(getFirstCell(e));
+				final int rv = trees.find(getSecondCell(e));
+				boolean selected = false;
+				if (cheapest[ru] == e) {
+					cheapest[ru] = -1;
+					selected = true;
 				}
-				
-				
+				if (cheapest[rv] == e) {
+					cheapest[rv] = -1;
+					selected = true;
+				}
+				if (selected)
+					selectedEdges[selectedCount++] = e;
 			}
-		}
-		
-		while(treeGroupTracker > 1) {
-			for (int g = 0; g <= treeId; g++) {
-				treeJoiner(g);
+			// tear down the selected wallboards and merge trees
+			// since the order of edges is strict, the selected edges can not form a loop,
+			// but an edge may connect trees that were merged earlier in this round
+			for (int i = 0; i < selectedCount; i++) {
+				final int e = selectedEdges[i];
+				final int ru = trees.find(getFirstCell(e));
+				final int rv = trees.find(getSecondCell(e));
+				if (ru == rv)
+					continue;
+				trees.union(ru, rv);
+				deleteWallboard(e, wallboard);
+				merged = true;
 			}
-			
-			
 		}
-		
+	}
+	/**
+	 * Adds the wallboard of cell (x,y) in the given direction to the candidates
+	 * if it can be torn down and gives it a random weight.
+	 * If there is no wallboard, both cells are put into the same tree.
+	 * @param e the edge index of the wallboard
+	 * @param x the x coordinate of the cell
+	 * @param y the y coordinate of the cell
+	 * @param cd the direction of the wallboard, East or South
+	 * @param wallboard reused to check for borders
+	 * @param candidates list of candidate edges
+	 * @param count current number of candidates
+	 * @return the new number of candidates
+	 */
+	private int addCandidate(int e, int x, int y, CardinalDirection cd, Wallboard wallboard, int[] candidates, int count) {
+		if (floorplan.hasNoWall(x, y, cd)) {
+			trees.union(getFirstCell(e), getSecondCell(e));
+			return count;
+		}
+		wallboard.setLocationDirection(x, y, cd);
+		if (floorplan.isPartOfBorder(wallboard))
+			return count;
+		edgeWeight[e] = getEdgeWeight(x, y, cd);
+		edgeTieBreak[e] = tieBreaker();
+		candidates[count] = e;
+		return count+1;
 	}
 	/**
 	 * adjusting method will be used to generate a deterministic edge weight
 	 * check if this edge has been visited
 	 * if it has been visited then retrieve previous weight
-	 * if it has not been visited then assign a new edge weight and store that in an array somewhere
-	 * @param int for the x value of cell, int for y value of cell, cardinal direction of the wall for that cell
-	 * @return int that represents edge weight for that wall
+	 * if it has not been visited then draw a new edge weight
+	 * @param x the x value of cell
+	 * @param y the y value of cell
+	 * @param cd cardinal direction of the wall for that cell
+	 * @return int that represents edge weight for that wall, {@code 1 <= weight <= 9}
 	 */
 	public int getEdgeWeight(int x, int y, CardinalDirection cd) {
-		// adjusting method will be used to generate a deterministic edge weight
-		// check if this edge has been visited
-		// if it has been visited then retrieve previous weight
-		// if it has not been visited then assign a new edge weight and store that in an array somewhere
-		int toReturn;
-		int cdRep = dirToInt(cd);
-		
-		if (edgeWeight[x][y][cdRep] != 0) {// if it's already stored then return what's stored
-			toReturn = edgeWeight[x][y][cdRep];
-		} else {
-			Random random = new Random();
-			toReturn = random.nextInt(9) + 1;
-		}
-		
-		return toReturn;
+		final int e = getEdge(x, y, cd);
+		if (e >= 0 && edgeWeight[e] != 0) // if it's already stored then return what's stored
+			return edgeWeight[e];
+		return random.nextIntWithinInterval(1, 9);
 	}
-	
+
 	/**
-	 * helper function will return 1 or 0 to represent an assigned direction
-	 * utilize random number generator
+	 * helper function that delivers a random secondary key for an edge
 	 * deals with identical wall edge weight values
-	 * @return an int either 1 or 2 that will be used to break ties will tearing down walls randomly 
-	 */	
+	 * @return a random number that is used to break ties between walls with equal weights
+	 */
 	public int tieBreaker() {
-		// helper function will return 1 or 0 to represent an assigned direction
-		// utilize random number generator
-		
-		Random random = new Random();
-		int toReturn = random.nextInt(2) + 1;
-		
-		return toReturn;
+		return random.nextInt();
 	}
-
 	/**
-	 * helper function will return the direction that has the lightest weight
-	 * returns null if the cheapest weight was already found and the remaining weights are all heavier than the previous cheaper weight 
-	 * with each comparison of the minimum makes sure that the wall can actually be torn down
-	 * @param x is the x value of cell, y is y value of cell, toCompare is the current minimum value of all the edge weights burrowed through this run
-	 * @return null if cheapest edge weight has already been found or a cardinal direction for the wallboard with the cheapest edge weight for that cell for this burrow run 
-	 */	
-	public CardinalDirection isPreferred(int x, int y, int toCompare) {
-		// helper function will return the direction that has the lightest weight
-		//returns null if the cheapest weight was already found and the remaining weights are all heavier than the previous cheaper weight 
-		// with each comparison of the minimum makes sure that the wall can actually be torn down
-		CardinalDirection bestDir = null;
-		int curMin = 100;
-		
-		if (floorplan.hasWall(x, y, CardinalDirection.North) && floorplan.canTearDown(new Wallboard(x, y, CardinalDirection.North))) {
-			curMin = edgeWeight[x][y][0];
-			bestDir = CardinalDirection.North;
-		}
-		if (floorplan.hasWall(x, y, CardinalDirection.South) && floorplan.canTearDown(new Wallboard(x, y, CardinalDirection.South))) {
-			if (edgeWeight[x][y][2] < curMin) {
-				curMin = edgeWeight[x][y][0];
-				bestDir = CardinalDirection.South;
-			} 
-		}
-		if (floorplan.hasWall(x, y, CardinalDirection.East) && floorplan.canTearDown(new Wallboard(x, y, CardinalDirection.East))) {
-			if (edgeWeight[x][y][3] < curMin) {
-				bestDir = CardinalDirection.East;
-			} 
-		}
-		if (floorplan.hasWall(x, y, CardinalDirection.West) && floorplan.canTearDown(new Wallboard(x, y, CardinalDirection.West))) {
-			if (edgeWeight[x][y][1] < curMin) {
-				bestDir = CardinalDirection.West;
-			}
-		}
-		
-		
-		if (bestDir != null && (edgeWeight[x][y][dirToInt(bestDir)] > toCompare)){// final check to make sure that this cell's cheapest edge is the cheapest edge found in total for this clear out cycle
-			bestDir = null;
-		} else if (bestDir != null && (edgeWeight[x][y][dirToInt(bestDir)] == toCompare)) {
-			if (tieBreaker() == 1) {
-				bestDir = null;
-			}
-		} 
-		return bestDir;
+	 * Compares two edges by weight, then by the random tie breaker,
+	 * then by edge index. The order is strict and total,
+	 * which Boruvka's algorithm needs to avoid loops.
+	 * @param e1 the first edge
+	 * @param e2 the second edge
+	 * @return true if e1 is cheaper than e2
+	 */
+	private boolean isCheaper(int e1, int e2) {
+		if (edgeWeight[e1] != edgeWeight[e2])
+			return edgeWeight[e1] < edgeWeight[e2];
+		if (edgeTieBreak[e1] != edgeTieBreak[e2])
+			return edgeTieBreak[e1] < edgeTieBreak[e2];
+		return e1 < e2;
 	}
-	
 	/**
-	 * helper function that translates the int representation of a direction value in the edge weights array to a direction
-	 * used throughout as an index/hashmap helper
-	 * @param d is the integer representing a certain cardinal direction
-	 * @return the cardinal direction represented by that integer
-	 */	
-	public CardinalDirection intToDir(int d) {
-		//helper function that translates the int representation of a direction value in the edge weights array to a direction
-		if (d == 0) { 
-			return CardinalDirection.North;
-		} else if (d == 1) {
-			return CardinalDirection.West;
-		} else if (d == 2) {
-			return CardinalDirection.South;
-		} else {
-			return CardinalDirection.East;
+	 * Gives the edge index for the wallboard of cell (x,y) in the given direction.
+	 * @param x the x value of cell
+	 * @param y the y value of cell
+	 * @param cd cardinal direction of the wall for that cell
+	 * @return the edge index or -1 if the wallboard is on the outside of the maze
+	 */
+	private int getEdge(int x, int y, CardinalDirection cd) {
+		switch (cd) {
+		case East:
+			return (x < width-1) ? y*width+x : -1;
+		case West:
+			return (x > 0) ? y*width+x-1 : -1;
+		case South:
+			return (y < height-1) ? width*height + y*width+x : -1;
+		case North:
+		default:
+			return (y > 0) ? width*height + (y-1)*width+x : -1;
 		}
 	}
-	
 	/**
-	 * helper function that translates a direction value to an int representation of a direction value
-	 * used throughout as an index/hashmap helper
-	 * @param d is a cardinal direction that needs be turned into an index
-	 * @return the integer representing a certain cardinal direction
-	 */	
-	public int dirToInt(CardinalDirection d) {
-		//helper function that translates a direction value to an int representation of a direction value
-		if (d == CardinalDirection.North) { 
-			return 0;
-		} else if (d == CardinalDirection.West) {
-			return 1;
-		} else if (d == CardinalDirection.South) {
-			return 2;
-		} else {
-			return 3;
-		}
+	 * Gives the cell on the west or north side of an edge
+	 * @param e the edge index
+	 * @return the cell index y*width+x
+	 */
+	private int getFirstCell(int e) {
+		return (e < width*height) ? e : e - width*height;
 	}
-
 	/**
-	 * adjustor method to be used after the first initial set of wall teardowns
-	 * cycles through and find all cells part of tree group 1 ( will cycle through different groups)
-	 * find all of them that have border with other tree (by tree id diff)
-	 *  select cheapest edge from that border listing
-	 * deletes the border it an merge everything (take a for loop to run through every cell)
-	 * @param treeGroup is an integer representing the tree group that I want to merge with its cheapest neighboring tree
-	 */	
-	public void treeJoiner(int treeGroup) {
-		// adjustor method to be used after the first initial set of wall teardowns
-		// will join the minimal tree start cell is a part of to the nearest minimal tree 
-		
-		//new plan: cycle through and find all cells part of tree group 1; find all of them that have border with other tree (by tree id diff), select cheapest edge from that - delete it an merge everything (take a for loop to run through every cell
-		int[][] inTreeGroup = new int[width][height];
-		int[][][] treeGroupBorders = new int[width][height][4]; // like edgeWeights array for the whole thing but only stores wallboard weights that are the border of two trees
-		int[] toDelete = new int[3];
-		int groupToMerge;
-		
-		for (int x = 0; x < width; x++) {// initial for loop sequence to cycle through every cell and find which cells are in the treeGroup we're starting with
-			for (int y = 0; y < height; y++) {
-				if (treeAssigner[x][y] == treeGroup) {
-					inTreeGroup[x][y] = 1;
-				}
-			}
-		}
-		boolean groupMerged = true;
-		for (int x = 0; x < width; x++) {// for loop sequence to check if there are any cells remaining in the tree group (if there are none then this group has already been merged and we should move on - the other code will not be activated)
-			for (int y = 0; y < height; y++) {
-				if (inTreeGroup[x][y] == 1) {
-					groupMerged = false;
-				}
-			}
-		}
-		if (!groupMerged) {
-			for (int x = 0; x < width; x++) {// iterator to find out the wallboard locations of cells that are the border for this loop
-				for (int y = 0; y < height; y++) {
-					if (inTreeGroup[x][y] == 1) {
-						
-						if (floorplan.hasWall(x, y, CardinalDirection.North) && floorplan.canTearDown(new Wallboard(x, y, CardinalDirection.North))) {
-							if (treeAssigner[x][y] != treeAssigner[x][y-1]) { 
-								treeGroupBorders[x][y][0] = edgeWeight[x][y][0];
-							}
-						}
-						if (floorplan.hasWall(x, y, CardinalDirection.South) && floorplan.canTearDown(new Wallboard(x, y, CardinalDirection.South))) {
-							if (treeAssigner[x][y] != treeAssigner[x][y+1]) { 
-								treeGroupBorders[x][y][2] = edgeWeight[x][y][2];
-							}
-						}
-						if (floorplan.hasWall(x, y, CardinalDirection.East) && floorplan.canTearDown(new Wallboard(x, y, CardinalDirection.East))) {
-							if (treeAssigner[x][y] != treeAssigner[x+1][y]) {
-								treeGroupBorders[x][y][3] = edgeWeight[x][y][3];
-							}
-						}
-						if (floorplan.hasWall(x, y, CardinalDirection.West) && floorplan.canTearDown(new Wallboard(x, y, CardinalDirection.West))) {
-							if (treeAssigner[x][y] != treeAssigner[x-1][y]) {
-								treeGroupBorders[x][y][1] = edgeWeight[x][y][1];
-							}
-						}
-
-					}
-				}
-			}
-			
-			int curMinEdgeWeight = 100; // this section will find the border wall with the cheapest edge weight
-			for (int x = 0; x < width; x++) {
-				for (int y = 0; y < height; y++) {
-					for (int d = 0; d < 4; d++) {
-						int toExamine = treeGroupBorders[x][y][d];
-						if (toExamine != 0 && toExamine < curMinEdgeWeight) {
-							curMinEdgeWeight = toExamine;
-							toDelete[0] = x;
-							toDelete[1] = y;
-							toDelete[2] = d;
-						} else if (toExamine != 0 && toExamine == curMinEdgeWeight) {//tie breaker
-							if (tieBreaker() == 1) {
-								curMinEdgeWeight = toExamine;
-								toDelete[0] = x;
-								toDelete[1] = y;
-								toDelete[2] = d;
-							}
-						}
-					}
-				}
-			}
-			
-			Wallboard willDelete = new Wallboard(toDelete[0], toDelete[1], intToDir(toDelete[2]));// this section deletes the wallboard that's the cheapest
-			if(floorplan.canTearDown(willDelete)) {
-				floorplan.deleteWallboard(willDelete); //TODO this is the line throwing the error
-				
-				if (toDelete[2] == 0) {// this section finds the group that is getting merged with the group called in the method argument - for if it's getting merged with group to the north
-					groupToMerge = treeAssigner[toDelete[0]][toDelete[1] - 1];
-				} else if (toDelete[2] == 1) {// if group being merged is to the West
-					groupToMerge = treeAssigner[toDelete[0] - 1][toDelete[1]];
-				} else if (toDelete[2] == 2) {// if group being merged is to the South
-					groupToMerge = treeAssigner[toDelete[0]][toDelete[1] + 1];
-				} else { // if group being merged is to the East
-					groupToMerge = treeAssigner[toDelete[0] + 1][toDelete[1]];
-				}
-				
-				for (int x = 0; x < width; x++) {// this section sets the treeID assignment for the group that got merged to the one in the method argument
-					for (int y = 0; y < height; y++) {
-						if (treeAssigner[x][y] == groupToMerge) {
-							treeAssigner[x][y] = treeGroup;
-						}
-					}
-				}
-				treeGroupTracker = treeGroupTracker - 1; // updates the variable counting the amount of tree groups
-			}
-			
-			
-		}
-		
+	 * Gives the cell on the east or south side of an edge
+	 * @param e the edge index
+	 * @return the cell index y*width+x
+	 */
+	private int getSecondCell(int e) {
+		return (e < width*height) ? e + 1 : e - width*height + width;
+	}
+	/**
+	 * Tears down the wallboard for the given edge.
+	 * @param e the edge index
+	 * @param wallboard is reused to describe the wallboard
+	 */
+	private void deleteWallboard(int e, Wallboard wallboard) {
+		final int c = getFirstCell(e);
+		wallboard.setLocationDirection(c % width, c / width,
+				(e < width*height) ? CardinalDirection.East : CardinalDirection.South);
+		floorplan.deleteWallboard(wallboard);
 	}
-
 }
-
@@ -0,0 +1,236 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * MazeBuilderEller generates the pathways of a maze with Eller's algorithm.
+ * The maze is generated one row at a time from top (y = 0) to bottom (y = height-1).
+ * Every cell of the current row belongs to a set of cells that are connected with each other
+ * in the rows generated so far. For each row, the algorithm
+ * <ol>
+ * <li>randomly tears down wallboards between neighboring cells of different sets and merges these sets,</li>
+ * <li>tears down at least one wallboard on the south side of each set such that every set continues
+ * into the next row,</li>
+ * </ol>
+ * and in the last row, it tears down all wallboards between neighboring cells of different sets.
+ * The state that is carried from one row to the next is a set label for each column,
+ * so the algorithm only needs memory proportional to the width of the maze,
+ * no matter how tall the maze is.
+ * <p>
+ * Cells inside a room are not separated by wallboards, so they end up in the same set.
+ * Since a room may have no doors in its lower rows, a set must not rely on a room to
+ * continue into the next row. A set that can not continue into the next row outside of a room
+ * is merged with a neighboring set in the same row. A new set that is stuck nevertheless
+ * is the top row of a room, which is then connected with the row above through a door.
+ */
+
+public class MazeBuilderEller extends MazeBuilder implements Runnable {
+
+	// row state, all arrays are indexed by column x
+	protected int[] above; // set label of the cell above that is connected to this cell, -1 if none
+	protected DisjointSets row; // sets of cells in the current row, roots are used as labels
+	private int[] firstWithLabel; // first column in the current row that carries a label from above
+	private boolean[] down; // cell continues into the next row
+	private boolean[] setGoesDown; // indexed by root: set continues into the next row
+	private boolean[] setCanGoDown; // indexed by root: set can continue into the next row outside of a room
+	private boolean[] setHasLabel; // indexed by root: set is connected with the row above
+	private int[] downCandidates; // indexed by root: number of removable south wallboards seen so far
+	private int[] sample; // indexed by root: randomly selected column with a removable south wallboard
+
+	private static final Logger LOGGER = Logger.getLogger(MazeBuilderEller.class.getName());
+
+	public MazeBuilderEller() {
+		super();
+		LOGGER.config("Using Eller's algorithm to generate maze.");
+	}
+
+	/**
+	 * This method generates pathways into the maze by using Eller's algorithm,
+	 * one row at a time.
+	 */
+	@Override
+	protected void generatePathways() {
+		above = new int[width];
+		Arrays.fill(above, -1);
+		row = new DisjointSets(width);
+		firstWithLabel = new int[width];
+		down = new boolean[width];
+		setGoesDown = new boolean[width];
+		setCanGoDown = new boolean[width];
+		setHasLabel = new boolean[width];
+		downCandidates = new int[width];
+		sample = new int[width];
+		final Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		for (int y = 0; y < height; y++) {
+			generateRow(y, y == height-1, wallboard);
+		}
+	}
+	/**
+	 * Generates pathways for a single row and updates the row state
+	 * for the next row.
+	 * @param y the row, {@code 0 <= y < height}
+	 * @param last true if this is the last row
+	 * @param wallboard is reused to describe wallboards
+	 */
+	protected void generateRow(int y, boolean last, Wallboard wallboard) {
+		// cells that are connected via the row above belong to the same set
+		row.reset();
+		Arrays.fill(firstWithLabel, -1);
+		for (int x = 0; x < width; x++) {
+			final int label = above[x];
+			if (label < 0)
+				continue;
+			if (firstWithLabel[label] < 0)
+				firstWithLabel[label] = x;
+			else
+				row.union(firstWithLabel[label], x);
+		}
+		// cells that are not separated by a wallboard (inside rooms) belong to the same set
+		for (int x = 0; x < width-1; x++) {
+			if (floorplan.hasNoWall(x, y, CardinalDirection.East))
+				row.union(x, x+1);
+		}
+		if (last) {
+			// last row: connect all remaining sets
+			for (int x = 0; x < width-1; x++) {
+				joinEast(x, y, wallboard);
+			}
+			return;
+		}
+		// randomly merge neighboring sets
+		for (int x = 0; x < width-1; x++) {
+			if (random.nextIntWithinInterval(0, 1) == 0)
+				joinEast(x, y, wallboard);
+		}
+		// a set that can not continue into the next row outside of a room must be merged with a neighbor,
+		// otherwise the set may end up trapped in a room that has no doors further down
+		Arrays.fill(setCanGoDown, false);
+		for (int x = 0; x < width; x++) {
+			if (canLeaveSouth(x, y, wallboard))
+				setCanGoDown[row.find(x)] = true;
+		}
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int x = 0; x < width-1; x++) {
+				final boolean left = setCanGoDown[row.find(x)];
+				final boolean right = setCanGoDown[row.find(x+1)];
+				if ((!left || !right) && joinEast(x, y, wallboard)) {
+					setCanGoDown[row.find(x)] = left || right;
+					changed = true;
+				}
+			}
+		}
+		// a new set that is still stuck is a room that is entered from above,
+		// connect it with the row above through a door, this can not create a loop
+		Arrays.fill(setHasLabel, false);
+		for (int x = 0; x < width; x++) {
+			if (above[x] >= 0)
+				setHasLabel[row.find(x)] = true;
+		}
+		for (int x = 0; x < width; x++) {
+			final int r = row.find(x);
+			if (!setCanGoDown[r] && !setHasLabel[r] && y > 0) {
+				wallboard.setLocationDirection(x, y, CardinalDirection.North);
+				if (floorplan.hasWall(x, y, CardinalDirection.North) && !floorplan.isPartOfBorder(wallboard)) {
+					floorplan.deleteWallboard(wallboard);
+					setHasLabel[r] = true;
+				}
+			}
+		}
+		// randomly select cells that continue into the next row,
+		// at least one for each set that can continue outside of a room
+		Arrays.fill(setGoesDown, false);
+		Arrays.fill(downCandidates, 0);
+		for (int x = 0; x < width; x++) {
+			final int r = row.find(x);
+			down[x] = false;
+			if (floorplan.hasNoWall(x, y, CardinalDirection.South)) {
+				down[x] = true; // inside a room
+			}
+			else if (canLeaveSouth(x, y, wallboard)) {
+				// reservoir sampling of one candidate per set in case the coin flips all fail
+				downCandidates[r]++;
+				if (random.nextIntWithinInterval(1, downCandidates[r]) == 1)
+					sample[r] = x;
+				if (random.nextIntWithinInterval(0, 1) == 0) {
+					deleteWallboard(x, y, CardinalDirection.South, wallboard);
+					down[x] = true;
+					setGoesDown[r] = true;
+				}
+			}
+			else if (canGoSouth(x, y, wallboard) && random.nextIntWithinInterval(0, 1) == 0) {
+				deleteWallboard(x, y, CardinalDirection.South, wallboard); // door into a room
+				down[x] = true;
+			}
+		}
+		for (int x = 0; x < width; x++) {
+			final int r = row.find(x);
+			if (!setGoesDown[r] && downCandidates[r] > 0 && sample[r] == x) {
+				deleteWallboard(x, y, CardinalDirection.South, wallboard);
+				down[x] = true;
+				setGoesDown[r] = true;
+			}
+		}
+		// carry the set labels over to the next row
+		for (int x = 0; x < width; x++) {
+			above[x] = down[x] ? row.find(x) : -1;
+		}
+	}
+	/**
+	 * Tears down the wallboard on the east side of cell (x,y)
+	 * if it separates two different sets and is not a border.
+	 * @param x the column, {@code 0 <= x < width-1}
+	 * @param y the row
+	 * @param wallboard is reused to describe the wallboard
+	 * @return true if the wallboard was torn down and the sets were merged, false otherwise
+	 */
+	private boolean joinEast(int x, int y, Wallboard wallboard) {
+		if (row.find(x) == row.find(x+1))
+			return false;
+		wallboard.setLocationDirection(x, y, CardinalDirection.East);
+		if (floorplan.isPartOfBorder(wallboard))
+			return false;
+		floorplan.deleteWallboard(wallboard);
+		row.union(x, x+1);
+		return true;
+	}
+	/**
+	 * Tells if cell (x,y) is open to the south or has a wallboard
+	 * on the south side that can be torn down.
+	 * @param x the column
+	 * @param y the row, {@code 0 <= y < height-1}
+	 * @param wallboard is reused to describe the wallboard
+	 * @return true if the cell can be connected with the cell below
+	 */
+	private boolean canGoSouth(int x, int y, Wallboard wallboard) {
+		if (floorplan.hasNoWall(x, y, CardinalDirection.South))
+			return true;
+		wallboard.setLocationDirection(x, y, CardinalDirection.South);
+		return !floorplan.isPartOfBorder(wallboard);
+	}
+	/**
+	 * Tells if cell (x,y) has a wallboard on the south side that can be torn down
+	 * and the cell below is not inside a room.
+	 * @param x the column
+	 * @param y the row, {@code 0 <= y < height-1}
+	 * @param wallboard is reused to describe the wallboard
+	 * @return true if the cell can be connected with the cell below outside of a room
+	 */
+	private boolean canLeaveSouth(int x, int y, Wallboard wallboard) {
+		return !floorplan.hasNoWall(x, y, CardinalDirection.South)
+				&& canGoSouth(x, y, wallboard) && !floorplan.isInRoom(x, y+1);
+	}
+	/**
+	 * Tears down the wallboard of cell (x,y) in the given direction.
+	 * @param x the column
+	 * @param y the row
+	 * @param cd the direction of the wallboard
+	 * @param wallboard is reused to describe the wallboard
+	 */
+	private void deleteWallboard(int x, int y, CardinalDirection cd, Wallboard wallboard) {
+		wallboard.setLocationDirection(x, y, cd);
+		floorplan.deleteWallboard(wallboard);
+	}
+}
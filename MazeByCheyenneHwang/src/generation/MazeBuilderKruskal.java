@@ -0,0 +1,138 @@
+package generation;
+
+import java.util.logging.Logger;
+
+/**
+ * MazeBuilderKruskal generates the pathways of a maze with a randomized version of Kruskal's algorithm.
+ * Every cell starts out as a tree of its own. All wallboards that can be torn down
+ * are put into a random order and considered one after the other. A wallboard is torn
+ * down if the cells on both sides belong to different trees, which merges the two trees.
+ * Trees are tracked with a disjoint-set forest, so the algorithm needs
+ * almost linear time in the number of wallboards.
+ * Cells inside a room are not separated by wallboards, so they start out in the same tree
+ * and rooms are entered through the wallboards that are not marked as border.
+ * Everything else, rooms, distances and the placement of start and exit,
+ * is left to the MazeBuilder superclass.
+ */
+
+public class MazeBuilderKruskal extends MazeBuilder implements Runnable {
+
+	// edges are wallboards between two cells inside the maze,
+	// edge e < width*height is the wallboard on the east side of cell e = y*width+x,
+	// edge e >= width*height is the wallboard on the south side of cell e-width*height
+	protected DisjointSets trees; // disjoint-set forest over cells y*width+x
+
+	private static final Logger LOGGER = Logger.getLogger(MazeBuilderKruskal.class.getName());
+
+	public MazeBuilderKruskal() {
+		super();
+		LOGGER.config("Using Kruskal's algorithm to generate maze.");
+	}
+
+	/**
+	 * This method generates pathways into the maze by using Kruskal's algorithm.
+	 * It collects all wallboards that can be torn down, shuffles them
+	 * and tears down each wallboard that separates two different trees.
+	 */
+	@Override
+	protected void generatePathways() {
+		final int cells = width*height;
+		trees = new DisjointSets(cells);
+
+		// collect candidate wallboards that can be torn down,
+		// cells that are not separated by a wallboard (inside rooms) belong to the same tree from the start
+		final int[] candidates = new int[2*cells];
+		int count = 0;
+		final Wallboard wallboard = new Wallboard(0, 0, CardinalDirection.East);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				final int c = y*width+x;
+				if (x < width-1)
+					count = addCandidate(c, x, y, CardinalDirection.East, wallboard, candidates, count);
+				if (y < height-1)
+					count = addCandidate(cells + c, x, y, CardinalDirection.South, wallboard, candidates, count);
+			}
+		}
+		// Fisher-Yates shuffle to consider candidates in random order
+		for (int i = count-1; i > 0; i--) {
+			final int j = random.nextIntWithinInterval(0, i);
+			final int tmp = candidates[i];
+			candidates[i] = candidates[j];
+			candidates[j] = tmp;
+		}
+		// tear down every wallboard that connects two different trees,
+		// a spanning tree has cells-1 edges, so stop early once all cells are connected
+		int components = countTrees(cells);
+		for (int i = 0; i < count && components > 1; i++) {
+			final int e = candidates[i];
+			if (trees.union(getFirstCell(e), getSecondCell(e))) {
+				deleteWallboard(e, wallboard);
+				components--;
+			}
+		}
+	}
+	/**
+	 * Adds the wallboard of cell (x,y) in the given direction to the candidates
+	 * if it can be torn down.
+	 * If there is no wallboard, both cells are put into the same tree.
+	 * @param e the edge index of the wallboard
+	 * @param x the x coordinate of the cell
+	 * @param y the y coordinate of the cell
+	 * @param cd the direction of the wallboard, East or South
+	 * @param wallboard reused to check for borders
+	 * @param candidates list of candidate edges
+	 * @param count current number of candidates
+	 * @return the new number of candidates
+	 */
+	private int addCandidate(int e, int x, int y, CardinalDirection cd, Wallboard wallboard, int[] candidates, int count) {
+		if (floorplan.hasNoWall(x, y, cd)) {
+			trees.union(getFirstCell(e), getSecondCell(e));
+			return count;
+		}
+		wallboard.setLocationDirection(x, y, cd);
+		if (floorplan.isPartOfBorder(wallboard))
+			return count;
+		candidates[count] = e;
+		return count+1;
+	}
+	/**
+	 * Counts the number of trees in the forest.
+	 * @param cells the number of cells
+	 * @return the number of trees
+	 */
+	private int countTrees(int cells) {
+		int result = 0;
+		for (int c = 0; c < cells; c++) {
+			if (trees.find(c) == c)
+				result++;
+		}
+		return result;
+	}
+	/**
+	 * Gives the cell on the west or north side of an edge
+	 * @param e the edge index
+	 * @return the cell index y*width+x
+	 */
+	private int getFirstCell(int e) {
+		return (e < width*height) ? e : e - width*height;
+	}
+	/**
+	 * Gives the cell on the east or south side of an edge
+	 * @param e the edge index
+	 * @return the cell index y*width+x
+	 */
+	private int getSecondCell(int e) {
+		return (e < width*height) ? e + 1 : e - width*height + width;
+	}
+	/**
+	 * Tears down the wallboard for the given edge.
+	 * @param e the edge index
+	 * @param wallboard is reused to describe the wallboard
+	 */
+	private void deleteWallboard(int e, Wallboard wallboard) {
+		final int c = getFirstCell(e);
+		wallboard.setLocationDirection(c % width, c / width,
+				(e < width*height) ? CardinalDirection.East : CardinalDirection.South);
+		floorplan.deleteWallboard(wallboard);
+	}
+}
@@ -0,0 +1,392 @@
+package generation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import gui.Constants;
+import gui.MazeBinaryFile;
+
+/**
+ * This class keeps generated mazes such that an order for a maze
+ * that was generated before does not need to run a maze builder again.
+ * The builder algorithm, the skill level, the perfect flag and the seed
+ * of an order fully determine the generated maze, so they form the key
+ * together with the version of the maze builders, see MazeBuilder.VERSION.
+ * File names also carry the version of the binary maze file format,
+ * so files of other versions are never read, just evicted over time.
+ *
+ * The cache has two levels.
+ * The first level keeps mazes in memory and evicts the least recently used ones
+ * once the total number of cells of all mazes exceeds a given bound.
+ * The second level, if a directory is given, keeps mazes in files
+ * of the binary format of MazeBinaryFile and evicts the least recently used files
+ * once their total size exceeds a given bound.
+ * A maze that is found on disk moves into memory.
+ * Files are written under a temporary name and then renamed,
+ * so several programs of the same user can share a directory.
+ * Files are read back as mazes, so the directory must not be writable
+ * for other users: a missing directory is created for the owner only,
+ * an existing one that belongs to another user is not used.
+ *
+ * Mazes are copied on the way in and on the way out, as playing a maze
+ * marks its walls as seen.
+ * The cache keeps track of hits on both levels and misses.
+ * All methods are thread safe, files are read and written without holding
+ * the lock of the cache.
+ */
+public class MazeCache {
+	/**
+	 * The logger is used to track execution and report issues.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(MazeCache.class.getName());
+
+	private static final String PREFIX = "maze-";
+	private static final String SUFFIX = ".bin";
+	/**
+	 * The system property with the directory for maze files of the default cache.
+	 */
+	public static final String DIRECTORY_PROPERTY = "maze.cache.dir";
+
+	private static MazeCache defaultCache;
+
+	private final long maxCells; // bound for the total number of cells of mazes in memory
+	private final File directory; // directory for maze files, null for a cache in memory only
+	private final long maxBytes; // bound for the total size of files in the directory
+	// mazes in memory, ordered from least to most recently used
+	private final LinkedHashMap<Long, Maze> mazes = new LinkedHashMap<>(16, 0.75f, true);
+	private long cells; // total number of cells of mazes in memory
+
+	// statistics
+	private long memoryHits;
+	private long diskHits;
+	private long misses;
+	private long evictions; // mazes evicted from memory
+
+	//////////////////////// Constructor ////////////////////////////////////////
+	/**
+	 * Constructor
+	 * @param maxCells bound for the total number of cells of all mazes kept in memory, {@code 0 <= maxCells}
+	 * @param directory the directory to keep maze files in, created if missing, null for no files,
+	 * it is not used if it belongs to another user
+	 * @param maxBytes bound for the total size of all maze files in the directory, {@code 0 <= maxBytes}
+	 */
+	public MazeCache(long maxCells, File directory, long maxBytes) {
+		this.maxCells = maxCells;
+		this.directory = (null != directory && isPrivate(directory)) ? directory : null;
+		this.maxBytes = maxBytes;
+	}
+	/**
+	 * Gives the cache that the game uses.
+	 * It keeps about twice the mazes of all skill levels in memory.
+	 * Mazes are kept on disk only if the system property {@value #DIRECTORY_PROPERTY} 
+	 * names a directory, e.g. {@code -Dmaze.cache.dir=$HOME/.maze-cache}, 
+	 * then it keeps up to 256 MB of files in that directory.
+	 * @return the default cache
+	 */
+	public static synchronized MazeCache getDefault() {
+		if (null == defaultCache) {
+			long cells = 0;
+			for (int skill = 0; skill <= Constants.MAX_SKILL_LEVEL; skill++) {
+				cells += Constants.SKILL_X[skill] * Constants.SKILL_Y[skill];
+			}
+			String directory = System.getProperty(DIRECTORY_PROPERTY);
+			defaultCache = new MazeCache(2 * cells, 
+					(null == directory || directory.isEmpty()) ? null : new File(directory), 256L << 20);
+		}
+		return defaultCache;
+	}
+
+	//////////////////////// Cache //////////////////////////////////////////////
+	/**
+	 * Gives a copy of the maze for the given order if the cache has it.
+	 * @param order the specification of the maze
+	 * @return a copy of the maze, null if the cache does not have it
+	 */
+	public Maze get(Order order) {
+		final Long key = getKey(order);
+		Maze maze;
+		synchronized (this) {
+			maze = mazes.get(key);
+			if (null != maze)
+				memoryHits++;
+		}
+		if (null == maze) {
+			maze = load(order);
+			synchronized (this) {
+				if (null == maze) {
+					misses++;
+					return null;
+				}
+				diskHits++;
+				keep(key, maze);
+			}
+		}
+		// mazes in the cache are never modified, so they can be copied without the lock
+		return new MazeContainer(maze);
+	}
+	/**
+	 * Keeps a copy of the given maze for the given order in memory and on disk.
+	 * @param order the specification of the maze
+	 * @param maze the maze generated for the order, must be operational
+	 * and must not be modified while it is copied
+	 */
+	public void put(Order order, Maze maze) {
+		add(order, new MazeContainer(maze));
+	}
+	/**
+	 * Keeps the given maze for the given order in memory and on disk.
+	 * The cache takes over the maze, it must not be modified afterwards.
+	 * The file is written and old files are evicted without holding the lock.
+	 * @param order the specification of the maze
+	 * @param maze the maze generated for the order, must be operational
+	 */
+	void add(Order order, Maze maze) {
+		synchronized (this) {
+			keep(getKey(order), maze);
+		}
+		store(order, maze);
+	}
+	/**
+	 * Tells if the cache has the maze for the given order,
+	 * does not count as a hit or miss.
+	 * @param order the specification of the maze
+	 * @return true if the maze is in memory or on disk, false otherwise
+	 */
+	public boolean contains(Order order) {
+		synchronized (this) {
+			if (mazes.containsKey(getKey(order)))
+				return true;
+		}
+		return null != directory && getFile(order).isFile();
+	}
+	/**
+	 * Removes all mazes from memory and all maze files from disk.
+	 * Statistics are not affected.
+	 */
+	public void clear() {
+		synchronized (this) {
+			mazes.clear();
+			cells = 0;
+		}
+		for (File file : listFiles()) {
+			if (!file.delete())
+				LOGGER.warning("Can not delete maze file " + file);
+		}
+	}
+	/**
+	 * Generates the mazes of all skill levels for the given algorithm,
+	 * perfect flag and seed that the cache does not have yet.
+	 * Mazes are generated in parallel with a BatchMazeFactory,
+	 * the method returns once all of them are in the cache.
+	 * @param algorithm the builder algorithm
+	 * @param perfect true for perfect mazes, false for mazes with rooms
+	 * @param seed the seed for the random number generator
+	 * @return the number of generated mazes
+	 */
+	public int prewarm(Order.Builder algorithm, boolean perfect, int seed) {
+		BatchMazeFactory factory = new BatchMazeFactory((order, maze) -> put(order, maze));
+		int generated = 0;
+		for (int skill = 0; skill <= Constants.MAX_SKILL_LEVEL; skill++) {
+			DefaultOrder order = new DefaultOrder(skill, algorithm, perfect, seed);
+			if (contains(order))
+				continue;
+			while (!factory.order(order)) {
+				factory.waitTillDelivered();
+			}
+			generated++;
+		}
+		factory.waitTillDelivered();
+		factory.shutdown();
+		return generated;
+	}
+
+	//////////////////////// Statistics /////////////////////////////////////////
+	/**
+	 * @return the number of mazes found in memory
+	 */
+	public synchronized long getMemoryHits() {
+		return memoryHits;
+	}
+	/**
+	 * @return the number of mazes found on disk but not in memory
+	 */
+	public synchronized long getDiskHits() {
+		return diskHits;
+	}
+	/**
+	 * @return the number of mazes found neither in memory nor on disk
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+	/**
+	 * @return the number of mazes evicted from memory
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+	/**
+	 * @return the number of mazes in memory
+	 */
+	public synchronized int getSize() {
+		return mazes.size();
+	}
+	/**
+	 * Gives the hits, misses and the resulting hit rate.
+	 * @return the report as a single line
+	 */
+	public synchronized String getStatisticsReport() {
+		long lookups = memoryHits + diskHits + misses;
+		double rate = (0 == lookups) ? 0 : 100.0 * (memoryHits + diskHits) / lookups;
+		return String.format("memory hits %d, disk hits %d, misses %d, hit rate %.1f%%, %d mazes with %d cells in memory, %d evicted",
+				memoryHits, diskHits, misses, rate, mazes.size(), cells, evictions);
+	}
+
+	///////////////////////// private methods ///////////////////////////////////
+	/**
+	 * Gives a unique key for the maze of the given order.
+	 * The seed takes the lower 32 bits, the skill level, the perfect flag, the builder
+	 * and the versions of builders and file format the bits above.
+	 */
+	private static Long getKey(Order order) {
+		long key = MazeBinaryFile.VERSION;
+		key = (key << 8) | MazeBuilder.VERSION;
+		key = (key << 6) | order.getBuilder().ordinal();
+		key = (key << 1) | (order.isPerfect() ? 1 : 0);
+		key = (key << 8) | order.getSkillLevel();
+		return (key << 32) | (order.getSeed() & 0xffffffffL);
+	}
+	/**
+	 * Keeps the given maze in memory, evicts least recently used mazes as needed.
+	 * A maze with more cells than the bound is not kept at all.
+	 */
+	private void keep(Long key, Maze maze) {
+		Maze old = mazes.put(key, maze);
+		if (null != old)
+			cells -= (long) old.getWidth() * old.getHeight();
+		cells += (long) maze.getWidth() * maze.getHeight();
+		Iterator<Map.Entry<Long, Maze>> eldest = mazes.entrySet().iterator();
+		while (cells > maxCells && eldest.hasNext()) {
+			Maze evicted = eldest.next().getValue();
+			eldest.remove();
+			cells -= (long) evicted.getWidth() * evicted.getHeight();
+			evictions++;
+		}
+	}
+	/**
+	 * Gives the file for the maze of the given order.
+	 */
+	private File getFile(Order order) {
+		return new File(directory, PREFIX + "v" + MazeBinaryFile.VERSION + "." + MazeBuilder.VERSION
+				+ "-" + order.getBuilder() + "-" + order.getSkillLevel()
+				+ (order.isPerfect() ? "-perfect" : "-rooms") + "-seed" + order.getSeed() + SUFFIX);
+	}
+	/**
+	 * Reads the maze for the given order from disk.
+	 * A file that can not be read is deleted.
+	 * @return the maze, null if there is no file for the maze
+	 */
+	private Maze load(Order order) {
+		if (null == directory)
+			return null;
+		File file = getFile(order);
+		if (!file.isFile())
+			return null;
+		try {
+			Maze maze = MazeBinaryFile.load(file.getPath());
+			maze.getRootnode(); // decodes the tree, such that a broken tree is noticed here
+			// file times serve to find the least recently used files
+			file.setLastModified(System.currentTimeMillis());
+			return maze;
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warning("Can not read maze file " + file + ", deleting it: " + e);
+			file.delete();
+			return null;
+		}
+	}
+	/**
+	 * Writes the given maze for the given order to disk, evicts least recently used files as needed.
+	 */
+	private void store(Order order, Maze maze) {
+		if (null == directory || !directory.isDirectory())
+			return;
+		File file = getFile(order);
+		try {
+			File temp = File.createTempFile(PREFIX, ".tmp", directory);
+			try {
+				int[] start = maze.getStartingPosition();
+				MazeBinaryFile.store(temp.getPath(), maze.getWidth(), maze.getHeight(), 0, 0, maze.getRootnode(),
+						maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+				Files.move(temp.toPath(), file.toPath(),
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				temp.delete(); // only exists if the move failed
+			}
+		} catch (IOException e) {
+			LOGGER.warning("Can not write maze file " + file + ": " + e);
+			return;
+		}
+		evictFiles();
+	}
+	/**
+	 * Deletes least recently used maze files till their total size is within the bound.
+	 */
+	private void evictFiles() {
+		File[] files = listFiles();
+		long bytes = 0;
+		for (File file : files) {
+			bytes += file.length();
+		}
+		if (bytes <= maxBytes)
+			return;
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (int i = 0; i < files.length && bytes > maxBytes; i++) {
+			long length = files[i].length();
+			if (files[i].delete())
+				bytes -= length;
+		}
+	}
+	/**
+	 * Tells if the given directory can be used for maze files as only the current user can write to it.
+	 * A missing directory is created such that only the owner has access.
+	 */
+	private static boolean isPrivate(File directory) {
+		try {
+			if (!directory.exists()) {
+				if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+					Files.createDirectories(directory.toPath(),
+							PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+				} else {
+					Files.createDirectories(directory.toPath());
+				}
+			}
+			if (!directory.isDirectory())
+				throw new IOException("Not a directory");
+			String owner = Files.getOwner(directory.toPath()).getName();
+			if (!owner.equals(System.getProperty("user.name"))) {
+				LOGGER.warning("Directory " + directory + " for maze files belongs to " + owner + ", keep mazes in memory only");
+				return false;
+			}
+			return true;
+		} catch (IOException | UnsupportedOperationException e) {
+			LOGGER.warning("Can not use directory " + directory + " for maze files, keep mazes in memory only: " + e);
+			return false;
+		}
+	}
+	private File[] listFiles() {
+		if (null == directory)
+			return new File[0];
+		File[] files = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+		return (null == files) ? new File[0] : files;
+	}
+}
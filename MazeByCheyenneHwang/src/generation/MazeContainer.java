@@ -3,6 +3,10 @@
  */
 package generation;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
 import gui.Constants;
 
 /**
@@ -47,6 +51,9 @@ public class MazeContainer implements Maze {
 	// a segment is a continuous sequence of wallboards in vertical or horizontal direction
 	// a subset of segments need to be quickly identified for drawing
 	// the BSP tree partitions the set of all segments and provides a binary search tree for the partitions
+	private FlatBSPTree flatTree ; // the same tree compiled into arrays, set together with rootnode
+	private volatile Supplier<BSPNode> treeSource ; // delivers rootnode on first access, null once rootnode is set
+	private WallDistances wallDistances ; // distances to walls for the floorplan, computed on demand
 	
 	private int[] start ; // the starting position (x,y) for the game
 	// this position should be in in range: 0 <= x < width, 0 <= y < height
@@ -91,6 +98,35 @@ public class MazeContainer implements Maze {
 		assert(isOperational()) : 
 			"constructor for operational maze received faulty input!";
 	}
+	/**
+	 * Copy constructor that delivers a duplicate of the given maze.
+	 * The floorplan, the distances and the walls in the BSP tree are copied, 
+	 * so marking walls as seen while playing one maze does not show in the other.
+	 * @param other the maze to copy, must be operational
+	 */
+	public MazeContainer(Maze other) {
+		this(other.getWidth(), other.getHeight(), new Floorplan(other.getFloorplan()), 
+				new Distance(other.getMazedists()), copy(other.getRootnode()), 
+				other.getStartingPosition()[0], other.getStartingPosition()[1]);
+	}
+	private static BSPNode copy(BSPNode node) {
+		if (node.isIsleaf()) {
+			List<Wall> walls = ((BSPLeaf) node).getAllWalls();
+			List<Wall> result = new ArrayList<Wall>(walls.size());
+			for (Wall wall : walls) {
+				Wall w = new Wall(wall.getStartPositionX(), wall.getStartPositionY(), 
+						wall.getExtensionX(), wall.getExtensionY(), wall.getDistance(), 0);
+				w.setColor(wall.getColor());
+				w.setSeen(wall.isSeen());
+				w.setPartition(wall.isPartition());
+				result.add(w);
+			}
+			return new BSPLeaf(result);
+		}
+		BSPBranch branch = (BSPBranch) node;
+		return new BSPBranch(branch.getX(), branch.getY(), branch.getDx(), branch.getDy(), 
+				copy(branch.getLeftBranch()), copy(branch.getRightBranch()));
+	}
 	/**
 	 * @param width is the width of the maze, must conform with Constants.SKILL_X values
 	 */
@@ -170,6 +206,7 @@ public class MazeContainer implements Maze {
 	public BSPNode getRootnode() {
 		assert(isOperational()) : 
 			"accessing content before object is fully initialized!";
+		decodeTree();
 		return rootnode;
 	}
 
@@ -179,6 +216,63 @@ public class MazeContainer implements Maze {
 	 */
 	public void setRootnode(BSPNode rootnode) {
 		this.rootnode = rootnode;
+		// compile once here, such that drawing does not have to
+		flatTree = FlatBSPTree.compile(rootnode);
+		treeSource = null;
+	}
+	/**
+	 * Sets a source that delivers the tree of BSPnodes on first access
+	 * to the rootnode or the compiled tree.
+	 * A maze loaded from a file uses this to not decode walls before
+	 * they are drawn, as robots that drive through a maze do not need them.
+	 * @param source delivers the rootnode, is asked at most once
+	 */
+	public void setRootnodeSource(Supplier<BSPNode> source) {
+		rootnode = null;
+		flatTree = null;
+		treeSource = source;
+	}
+	/**
+	 * Sets the rootnode from the tree source if there is one.
+	 */
+	private void decodeTree() {
+		if (null == treeSource)
+			return;
+		// threads that share a maze must not decode the tree twice
+		synchronized (this) {
+			Supplier<BSPNode> source = treeSource;
+			if (null != source)
+				setRootnode(source.get());
+		}
+	}
+	/**
+	 * Gives the tree of BSPnodes compiled into arrays.
+	 * Warning, returns direct access to internal field.
+	 * @return the compiled tree
+	 */
+	public FlatBSPTree getFlatTree() {
+		assert(isOperational()) : 
+			"accessing content before object is fully initialized!";
+		decodeTree();
+		return flatTree;
+	}
+	/**
+	 * Gives the distances to walls for the current floorplan.
+	 * The table is computed on first use and recomputed if the floorplan
+	 * was replaced or modified since.
+	 * @return the table of distances
+	 */
+	public WallDistances getWallDistances() {
+		assert(isOperational()) : 
+			"accessing content before object is fully initialized!";
+		// threads that share a maze may both compute a table, which does no harm
+		// as the table only has final fields and either one is correct
+		WallDistances result = wallDistances;
+		if (null == result || !result.isUpToDate(floorplan)) {
+			result = WallDistances.compute(floorplan);
+			wallDistances = result;
+		}
+		return result;
 	}
 	/**
 	 * Tells if the given position is inside a room.
@@ -349,7 +443,7 @@ public class MazeContainer implements Maze {
 			return false;
 		}
 		// check existence of cells, distances, bsp tree and starting position
-		if (null == floorplan || null == mazedists || null == rootnode || null == start)
+		if (null == floorplan || null == mazedists || (null == rootnode && null == treeSource) || null == start)
 			return false;
 		// the starting position must be 
 		fullyInitialized = true;
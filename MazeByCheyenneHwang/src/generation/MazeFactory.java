@@ -8,6 +8,9 @@ import java.util.logging.Logger;
  * that computes and delivers the maze. This class operates the worker thread
  * to do the computation in the background. The maze builder classes contribute
  * a run method to execute on the worker thread.
+ * If the factory has a MazeCache, the worker thread first asks the cache
+ * for the ordered maze and only runs the maze builder if the cache does not have it.
+ * A generated maze goes into the cache after delivery.
  */
 public class MazeFactory implements Factory {
 	/**
@@ -23,13 +26,36 @@ public class MazeFactory implements Factory {
 	private MazeBuilder builder;
 	// 
 	private Thread buildThread; // computations are performed in own separated thread with this.run()
+	private final MazeCache cache; // mazes generated before, null for no caching
+	private int bspParallelism = 1; // threads for the BSP tree construction, sequential unless requested
 	
 	//////////////////////// Constructor ////////////////////////////////////////
 	/**
 	 * Constructor for a randomized maze generation
 	 */
 	public MazeFactory(){
-		// nothing to do
+		this(null);
+	}
+	/**
+	 * Constructor for a maze generation that reuses mazes generated before
+	 * @param cache the cache to consult before a maze is generated, null for no caching
+	 */
+	public MazeFactory(MazeCache cache){
+		this.cache = cache;
+	}
+	
+	/**
+	 * Sets the number of threads that the maze builders of this factory
+	 * use to build the BSP tree. The default is a sequential construction.
+	 * A parallel construction only pays off on a machine with several processors
+	 * and for large mazes, on a single processor it is slightly slower,
+	 * see BSPBuilderParallelBenchmark.
+	 * @param parallelism the number of threads, 1 for a sequential construction
+	 */
+	public void setBSPParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+		bspParallelism = parallelism;
 	}
 	
 	//////////////////////// Factory interface //////////////////////////////////
@@ -45,23 +71,12 @@ public class MazeFactory implements Factory {
 		currentOrder = order;
 		// set builder according to order
 		System.out.print(order.getBuilder());
-		switch (order.getBuilder()) {
-		case DFS :
-			builder = new MazeBuilder();
-			buildOrder();
-			break;
-		case Prim:
-			builder = new MazeBuilderPrim();
-			buildOrder();
-			break;
-		case Boruvka:
-			builder = new MazeBuilderBoruvka();
-			buildOrder();
-			break;
-		default:
+		builder = createBuilder(order.getBuilder());
+		if (null == builder) {
 			LOGGER.severe("Missing implementation for requested algorithm: " + order.getBuilder());
 			return false;
 		}
+		buildOrder();
 		return true ;
 	}
 	@Override
@@ -93,6 +108,27 @@ public class MazeFactory implements Factory {
 		builder = null;
 		currentOrder = null;
 	}
+	/**
+	 * Gives a new instance of the maze builder that implements the given algorithm.
+	 * @param algorithm the requested builder algorithm
+	 * @return a new maze builder, null if there is no implementation for the algorithm
+	 */
+	static MazeBuilder createBuilder(Order.Builder algorithm) {
+		switch (algorithm) {
+		case DFS :
+			return new MazeBuilder();
+		case Prim:
+			return new MazeBuilderPrim();
+		case Kruskal:
+			return new MazeBuilderKruskal();
+		case Eller:
+			return new MazeBuilderEller();
+		case Boruvka:
+			return new MazeBuilderBoruvka();
+		default:
+			return null;
+		}
+	}
 	///////////////////////// private methods ///////////////////////////////////
 	/**
 	 * Provide the builder with necessary input and start its execution
@@ -101,8 +137,68 @@ public class MazeFactory implements Factory {
 		if (null == builder)
 			return;
 		LOGGER.fine("Starting background thread to build the ordered maze") ;
-		builder.buildOrder(currentOrder);
-		buildThread = new Thread(builder);
+		if (null == cache) {
+			builder.buildOrder(currentOrder);
+		} else {
+			builder.buildOrder(new CachingOrder(currentOrder));
+		}
+		builder.setBSPParallelism(bspParallelism);
+		if (null == cache) {
+			buildThread = new Thread(builder);
+		} else {
+			final Order order = currentOrder;
+			final MazeBuilder mazeBuilder = builder;
+			buildThread = new Thread(() -> {
+				Maze maze = cache.get(order);
+				if (null == maze) {
+					mazeBuilder.run();
+				} else if (!Thread.currentThread().isInterrupted()) {
+					LOGGER.fine("Delivering the ordered maze from the cache");
+					order.updateProgress(100); // Order interface promises to communicate 100% upon delivery
+					order.deliver(maze);
+				}
+			});
+		}
 		buildThread.start();
 	}
+
+	/**
+	 * An order that delivers a maze to the original order
+	 * and then passes a copy of it on to the cache.
+	 */
+	private class CachingOrder implements Order {
+		private final Order order;
+
+		CachingOrder(Order order) {
+			this.order = order;
+		}
+		@Override
+		public int getSkillLevel() {
+			return order.getSkillLevel();
+		}
+		@Override
+		public Builder getBuilder() {
+			return order.getBuilder();
+		}
+		@Override
+		public boolean isPerfect() {
+			return order.isPerfect();
+		}
+		@Override
+		public int getSeed() {
+			return order.getSeed();
+		}
+		@Override
+		public void deliver(Maze mazeConfig) {
+			// copy before delivery as playing the maze marks walls as seen,
+			// the file is written afterwards such that the player does not wait for it
+			Maze copy = new MazeContainer(mazeConfig);
+			order.deliver(mazeConfig);
+			cache.add(order, copy);
+		}
+		@Override
+		public void updateProgress(int percentage) {
+			order.updateProgress(percentage);
+		}
+	}
 }
@@ -0,0 +1,62 @@
+package generation;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class implements a stream of pseudo random numbers that is owned by
+ * a single client, typically a maze builder.
+ * In contrast to SingleRandom, there is no shared instance and no
+ * synchronization, so several maze builders can run in parallel
+ * without contention and each one delivers the same maze for the same seed
+ * regardless of what other builders do at the same time.
+ *
+ * Instances are not thread safe. A client that needs random numbers
+ * on several threads can obtain independent streams with {@link #split()}.
+ *
+ * The methods match those of SingleRandom to make both easy to exchange.
+ */
+public final class RandomStream {
+	/**  internal random number generator. This should NOT be made accessible. */
+	private final SplittableRandom generator;
+
+	/**
+	 * Constructor for a stream that starts with the given seed value.
+	 * @param seed is the seed value for the random number generator
+	 */
+	public RandomStream(long seed) {
+		generator = new SplittableRandom(seed);
+	}
+	/**
+	 * Constructor for an independent stream that is split off an existing generator.
+	 * @param generator the generator to use
+	 */
+	private RandomStream(SplittableRandom generator) {
+		this.generator = generator;
+	}
+	/**
+	 * Delivers a random number.
+	 * @return random integer value
+	 */
+	public int nextInt() {
+		return generator.nextInt();
+	}
+	/**
+	 * Generate an integer random number in interval [lowerBound,upperBound]
+	 * @param lowerBound for the interval of values (inclusive)
+	 * @param upperBound for the interval of values (inclusive, WARNING: unusual)
+	 * @return random number within given range
+	 */
+	public int nextIntWithinInterval(final int lowerBound, final int upperBound) {
+		assert(lowerBound <= upperBound) : "parameter error, lowerbound " + lowerBound + "> upper bound" + upperBound ;
+		return lowerBound + generator.nextInt(upperBound - lowerBound + 1) ;
+	}
+	/**
+	 * Delivers a new stream that is statistically independent of this one.
+	 * The sequence of numbers of the new stream is determined by
+	 * the seed of this stream and the number of values drawn so far.
+	 * @return a new random number stream
+	 */
+	public RandomStream split() {
+		return new RandomStream(generator.split());
+	}
+}
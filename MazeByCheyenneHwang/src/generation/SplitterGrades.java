@@ -0,0 +1,233 @@
+package generation;
+
+import java.util.List;
+
+/**
+ * Computes the grade of candidate splitters for a node of the BSP tree.
+ * The grade is the same value that Wall.calculateGrade delivers if it
+ * considers every wall of the list: the imbalance between walls on the left
+ * and right side of the splitter plus 3 for each wall that the splitter cuts in two.
+ *
+ * All walls are horizontal or vertical and start and end on multiples of the map unit.
+ * So the walls on either side of a vertical splitter at x = c are the vertical walls
+ * with a smaller or larger x coordinate and the horizontal walls that end before
+ * or start after c; the same holds for horizontal splitters and y coordinates.
+ * This class counts walls per grid line once and keeps prefix sums of these counts,
+ * such that the grade of any candidate is available in constant time,
+ * instead of iterating over the list of walls for each candidate.
+ *
+ * Use create() to obtain an instance, it delivers null if the walls are not
+ * aligned to the grid, in which case the caller should fall back to Wall.calculateGrade.
+ * Use narrow() for the walls on either side of the chosen splitter, it takes the bounds
+ * from the parent node and cuts them at the splitter line instead of iterating over the walls again.
+ *
+ * The speedup over the GRADE strategy is limited by the work that both strategies share.
+ * For a 300x240 maze (skill 15), grading with this class takes about a third of the
+ * construction time, while Wall.splitWalls, which visits every wall on every level of the tree,
+ * and generating the list of walls take about half of it. Even with grades for free,
+ * the construction would be at most about 6 times faster than with GRADE, not 10 times,
+ * unless the splitting itself changes. See BSPBuilderBenchmark for the measurements.
+ */
+final class SplitterGrades {
+	private final int unit; // distance between grid lines
+	private final int minX; // smallest x coordinate of all walls
+	private final int minY; // smallest y coordinate of all walls
+	private final int verticals; // number of vertical walls
+	private final int horizontals; // number of horizontal walls
+
+	// prefix sums over grid lines, entry i counts walls at grid lines 0,1,...,i-1
+	// for vertical splitters
+	private final int[] vUpAtX; // vertical walls with dy > 0 by x
+	private final int[] vDownAtX; // vertical walls with dy < 0 by x
+	private final int[] hStartX; // horizontal walls by their smaller x coordinate
+	private final int[] hEndX; // horizontal walls by their larger x coordinate
+	// for horizontal splitters
+	private final int[] hRightAtY; // horizontal walls with dx > 0 by y
+	private final int[] hLeftAtY; // horizontal walls with dx < 0 by y
+	private final int[] vStartY; // vertical walls by their smaller y coordinate
+	private final int[] vEndY; // vertical walls by their larger y coordinate
+
+	/**
+	 * Constructor, use create() instead.
+	 * @param walls the list of walls of the node
+	 * @param unit distance between grid lines
+	 * @param minX smallest x coordinate
+	 * @param minY smallest y coordinate
+	 * @param columns number of grid lines in x direction
+	 * @param rows number of grid lines in y direction
+	 */
+	private SplitterGrades(List<Wall> walls, int unit, int minX, int minY, int columns, int rows) {
+		this.unit = unit;
+		this.minX = minX;
+		this.minY = minY;
+		vUpAtX = new int[columns+1];
+		vDownAtX = new int[columns+1];
+		hStartX = new int[columns+1];
+		hEndX = new int[columns+1];
+		hRightAtY = new int[rows+1];
+		hLeftAtY = new int[rows+1];
+		vStartY = new int[rows+1];
+		vEndY = new int[rows+1];
+		int v = 0;
+		int h = 0;
+		// count walls at grid line i in entry i+1
+		for (Wall wall : walls) {
+			final int x1 = toColumn(wall.getStartPositionX());
+			final int x2 = toColumn(wall.getEndPositionX());
+			final int y1 = toRow(wall.getStartPositionY());
+			final int y2 = toRow(wall.getEndPositionY());
+			if (wall.getExtensionX() == 0) {
+				v++;
+				if (wall.getExtensionY() > 0)
+					vUpAtX[x1+1]++;
+				else
+					vDownAtX[x1+1]++;
+				vStartY[Math.min(y1, y2)+1]++;
+				vEndY[Math.max(y1, y2)+1]++;
+			}
+			else {
+				h++;
+				if (wall.getExtensionX() > 0)
+					hRightAtY[y1+1]++;
+				else
+					hLeftAtY[y1+1]++;
+				hStartX[Math.min(x1, x2)+1]++;
+				hEndX[Math.max(x1, x2)+1]++;
+			}
+		}
+		verticals = v;
+		horizontals = h;
+		accumulate(vUpAtX);
+		accumulate(vDownAtX);
+		accumulate(hStartX);
+		accumulate(hEndX);
+		accumulate(hRightAtY);
+		accumulate(hLeftAtY);
+		accumulate(vStartY);
+		accumulate(vEndY);
+	}
+	/**
+	 * Gives an instance for the given list of walls.
+	 * @param walls the list of walls of a node
+	 * @param unit the distance between grid lines, typically Constants.MAP_UNIT
+	 * @return the grades or null if some wall does not start or end on a grid line
+	 */
+	static SplitterGrades create(List<Wall> walls, int unit) {
+		if (walls.isEmpty())
+			return null;
+		// bounds and grid check in a single pass: if all extensions are multiples of the unit,
+		// all coordinates are on the grid of minX and minY iff they are on the grid of the first wall
+		final int x0 = walls.get(0).getStartPositionX();
+		final int y0 = walls.get(0).getStartPositionY();
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE;
+		int maxY = Integer.MIN_VALUE;
+		for (Wall wall : walls) {
+			final int x = wall.getStartPositionX();
+			final int y = wall.getStartPositionY();
+			final int dx = wall.getExtensionX();
+			final int dy = wall.getExtensionY();
+			if ((x - x0) % unit != 0 || (y - y0) % unit != 0 || dx % unit != 0 || dy % unit != 0)
+				return null;
+			minX = Math.min(minX, Math.min(x, x + dx));
+			maxX = Math.max(maxX, Math.max(x, x + dx));
+			minY = Math.min(minY, Math.min(y, y + dy));
+			maxY = Math.max(maxY, Math.max(y, y + dy));
+		}
+		return new SplitterGrades(walls, unit, minX, minY, (maxX - minX) / unit + 1, (maxY - minY) / unit + 1);
+	}
+	/**
+	 * Gives an instance for the walls on one side of a splitter.
+	 * The splitter cuts walls on its line, so the parts remain on the grid
+	 * of this instance and the walls on one side stay within its bounds
+	 * up to the splitter line.
+	 * @param walls the left or right list of walls that the splitter delivered
+	 * @param splitter the wall that split the walls of this instance
+	 * @param right true for the right list, false for the left list
+	 * @return the grades for the given walls
+	 */
+	SplitterGrades narrow(List<Wall> walls, Wall splitter, boolean right) {
+		int first = 0; // first grid line that the walls may occupy, in x or y direction
+		int last; // last grid line that the walls may occupy, in x or y direction
+		final boolean greater; // the walls have the larger coordinates
+		final int c; // grid line of the splitter
+		if (splitter.getExtensionX() == 0) {
+			// vertical splitter, same orientation as in grade
+			c = toColumn(splitter.getStartPositionX());
+			last = vUpAtX.length - 2;
+			greater = (splitter.getExtensionY() > 0) == right;
+		}
+		else {
+			c = toRow(splitter.getStartPositionY());
+			last = hRightAtY.length - 2;
+			greater = (splitter.getExtensionX() < 0) == right;
+		}
+		if (greater)
+			first = c;
+		else
+			last = c;
+		if (splitter.getExtensionX() == 0)
+			return new SplitterGrades(walls, unit, minX + first * unit, minY, last - first + 1, hRightAtY.length - 1);
+		return new SplitterGrades(walls, unit, minX, minY + first * unit, vUpAtX.length - 1, last - first + 1);
+	}
+	/**
+	 * Computes the grade for the given splitter.
+	 * @param splitter a wall of the list this object was created for
+	 * @return the same value as splitter.calculateGrade(walls) for a list of less than 100 walls
+	 */
+	int grade(Wall splitter) {
+		int greater; // number of walls with larger coordinates than the splitter line
+		int smaller; // number of walls with smaller coordinates than the splitter line
+		int same; // number of walls on the splitter line with the same direction
+		int opposite; // number of walls on the splitter line with the opposite direction
+		int splits; // number of walls that cross the splitter line
+		boolean positiveIsGreater; // the right side of the splitter has the larger coordinates
+		if (splitter.getExtensionX() == 0) {
+			// vertical splitter, walls are right of it if (x - c) * dy > 0
+			final int c = toColumn(splitter.getStartPositionX());
+			final int up = vUpAtX[c+1] - vUpAtX[c];
+			final int down = vDownAtX[c+1] - vDownAtX[c];
+			final int starting = horizontals - hStartX[c]; // smaller end >= c
+			final int ending = hEndX[c+1]; // larger end <= c
+			greater = verticals - vUpAtX[c+1] - vDownAtX[c+1] + starting;
+			smaller = vUpAtX[c] + vDownAtX[c] + ending;
+			splits = horizontals - starting - ending;
+			positiveIsGreater = splitter.getExtensionY() > 0;
+			same = positiveIsGreater ? up : down;
+			opposite = positiveIsGreater ? down : up;
+		}
+		else {
+			// horizontal splitter, walls are right of it if (y - c) * dx < 0
+			final int c = toRow(splitter.getStartPositionY());
+			final int rightwards = hRightAtY[c+1] - hRightAtY[c];
+			final int leftwards = hLeftAtY[c+1] - hLeftAtY[c];
+			final int starting = verticals - vStartY[c]; // smaller end >= c
+			final int ending = vEndY[c+1]; // larger end <= c
+			greater = horizontals - hRightAtY[c+1] - hLeftAtY[c+1] + starting;
+			smaller = hRightAtY[c] + hLeftAtY[c] + ending;
+			splits = verticals - starting - ending;
+			positiveIsGreater = splitter.getExtensionX() < 0;
+			same = positiveIsGreater ? leftwards : rightwards;
+			opposite = positiveIsGreater ? rightwards : leftwards;
+		}
+		final int rcount = (positiveIsGreater ? greater : smaller) + same;
+		final int lcount = (positiveIsGreater ? smaller : greater) + opposite;
+		return Math.abs(lcount - rcount) + splits * 3;
+	}
+	/**
+	 * Turns prefix counts into prefix sums
+	 * @param counts entry i+1 holds the count for grid line i
+	 */
+	private static void accumulate(int[] counts) {
+		for (int i = 1; i < counts.length; i++) {
+			counts[i] += counts[i-1];
+		}
+	}
+	private int toColumn(int x) {
+		return (x - minX) / unit;
+	}
+	private int toRow(int y) {
+		return (y - minY) / unit;
+	}
+}
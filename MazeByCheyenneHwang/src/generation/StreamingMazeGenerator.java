@@ -0,0 +1,268 @@
+package generation;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * This class generates perfect mazes that are too large to
+ * keep in memory as a Floorplan, e.g. 100000 x 100000 cells for load tests.
+ *
+ * The maze is generated with Eller's algorithm one row at a time,
+ * like the MazeBuilderEller, and delivered to a MazeBandSink
+ * in bands of a fixed number of rows.
+ * The generator only keeps the state of the current row and
+ * the current band in memory, so the required memory grows
+ * with the width of the maze but not with its height.
+ *
+ * In contrast to the MazeBuilder, there are no rooms and
+ * no distance matrix as both need the whole maze in memory.
+ * The exit is placed on the south side of a random cell in the last row.
+ * The same seed delivers the same maze.
+ *
+ * Encoding: each cell takes 2 bits, bit EAST_WALL is set if there is
+ * a wallboard on the east side, bit SOUTH_WALL if there is a wallboard
+ * on the south side of the cell. The wallboards on the west and north side
+ * are given by the neighboring cells or are part of the outside border.
+ * Cell x of a row is stored in byte x/4 at bit position 2*(x%4).
+ */
+public class StreamingMazeGenerator {
+	/**
+	 * Bit for a wallboard on the east side of a cell
+	 */
+	public static final int EAST_WALL = 1;
+	/**
+	 * Bit for a wallboard on the south side of a cell
+	 */
+	public static final int SOUTH_WALL = 2;
+	/**
+	 * Number of rows in a band if nothing else is specified
+	 */
+	public static final int DEFAULT_BAND_HEIGHT = 64;
+
+	private static final Logger LOGGER = Logger.getLogger(StreamingMazeGenerator.class.getName());
+
+	private final int width;
+	private final int height;
+	private final long seed;
+	private final int bandHeight;
+
+	// row state, all arrays are indexed by column x, see MazeBuilderEller
+	private RandomStream random;
+	private int[] above; // set label of the cell above that is connected to this cell, -1 if none
+	private DisjointSets row; // sets of cells in the current row, roots are used as labels
+	private int[] roots; // root of each cell once the sets of the current row are complete
+	private int[] firstWithLabel; // first column in the current row that carries a label from above
+	private boolean[] down; // cell continues into the next row
+	private boolean[] setGoesDown; // indexed by root: set continues into the next row
+	private int[] setSize; // indexed by root: number of cells in the set
+	private int[] countdown; // indexed by root: number of cells of the set to skip before the selected one
+	private int exitX; // x coordinate of the exit in the last row
+	private int coinBits; // random bits for coin flips, used from lowest to highest
+	private int coinCount; // number of unused bits in coinBits
+
+	/**
+	 * Constructor for a generator with bands of DEFAULT_BAND_HEIGHT rows.
+	 * @param width the width of the maze, {@code 0 < width}
+	 * @param height the height of the maze, {@code 0 < height}
+	 * @param seed the seed for the random number stream
+	 */
+	public StreamingMazeGenerator(int width, int height, long seed) {
+		this(width, height, seed, DEFAULT_BAND_HEIGHT);
+	}
+	/**
+	 * Constructor
+	 * @param width the width of the maze, {@code 0 < width}
+	 * @param height the height of the maze, {@code 0 < height}
+	 * @param seed the seed for the random number stream
+	 * @param bandHeight the number of rows delivered at once, {@code 0 < bandHeight}
+	 */
+	public StreamingMazeGenerator(int width, int height, long seed, int bandHeight) {
+		if (width <= 0 || height <= 0 || bandHeight <= 0)
+			throw new IllegalArgumentException("Illegal dimensions: " + width + " x " + height + ", band height " + bandHeight);
+		this.width = width;
+		this.height = height;
+		this.seed = seed;
+		this.bandHeight = bandHeight;
+	}
+	/**
+	 * Gives the number of bytes that encode a single row.
+	 * @param width the width of the maze
+	 * @return the number of bytes per row
+	 */
+	public static int getBytesPerRow(int width) {
+		return (width + 3) / 4;
+	}
+	/**
+	 * Decodes the wallboards of a single cell.
+	 * @param data the encoded rows
+	 * @param rowOffset the index of the first byte of the row in data
+	 * @param x the x coordinate of the cell
+	 * @return the bits EAST_WALL and SOUTH_WALL for the cell
+	 */
+	public static int getCell(byte[] data, int rowOffset, int x) {
+		return (data[rowOffset + (x >> 2)] >> ((x & 3) * 2)) & (EAST_WALL | SOUTH_WALL);
+	}
+	/**
+	 * Generates the maze and delivers it band by band to the given sink.
+	 * The generation stops with an InterruptedIOException if
+	 * the current thread is interrupted.
+	 * The sink is aborted if the generation does not complete.
+	 * @param sink receives the maze
+	 * @throws IOException if the sink fails
+	 */
+	public void generate(MazeBandSink sink) throws IOException {
+		random = new RandomStream(seed);
+		above = new int[width];
+		Arrays.fill(above, -1);
+		row = new DisjointSets(width);
+		roots = new int[width];
+		firstWithLabel = new int[width];
+		down = new boolean[width];
+		setGoesDown = new boolean[width];
+		setSize = new int[width];
+		countdown = new int[width];
+		exitX = random.nextIntWithinInterval(0, width-1);
+		coinCount = 0;
+
+		final int rowBytes = getBytesPerRow(width);
+		final byte[] band = new byte[Math.min(bandHeight, height) * rowBytes];
+		LOGGER.fine("Generating maze of size " + width + " x " + height + " in bands of " + bandHeight + " rows");
+		boolean complete = false;
+		try {
+			sink.start(width, height, exitX, height-1);
+			int bandStart = 0;
+			for (int y = 0; y < height; y++) {
+				final int offset = (y - bandStart) * rowBytes;
+				Arrays.fill(band, offset, offset + rowBytes, (byte)0);
+				generateRow(y, y == height-1, band, offset);
+				if (y - bandStart + 1 == bandHeight || y == height-1) {
+					sink.writeBand(bandStart, y - bandStart + 1, band);
+					bandStart = y + 1;
+					if (Thread.currentThread().isInterrupted())
+						throw new InterruptedIOException("Maze generation interrupted at row " + y);
+				}
+			}
+			sink.finish();
+			complete = true;
+		} finally {
+			if (!complete)
+				sink.abort();
+			// release row state
+			random = null;
+			above = null;
+			row = null;
+			roots = null;
+			firstWithLabel = null;
+			down = null;
+			setGoesDown = null;
+			setSize = null;
+			countdown = null;
+		}
+	}
+	/**
+	 * Generates a single row and updates the row state for the next row.
+	 * @param y the row, {@code 0 <= y < height}
+	 * @param last true if this is the last row
+	 * @param data the band to encode the row into
+	 * @param offset the index of the first byte of the row in data
+	 */
+	private void generateRow(int y, boolean last, byte[] data, int offset) {
+		// cells that are connected via the row above belong to the same set
+		row.reset();
+		Arrays.fill(firstWithLabel, -1);
+		for (int x = 0; x < width; x++) {
+			final int label = above[x];
+			if (label < 0)
+				continue;
+			if (firstWithLabel[label] < 0)
+				firstWithLabel[label] = x;
+			else
+				row.union(firstWithLabel[label], x);
+		}
+		// merge neighboring sets, randomly or all of them in the last row
+		// left is the root of cell x, the disjoint-set forest is the bottleneck, so avoid repeated finds
+		int left = row.find(0);
+		for (int x = 0; x < width-1; x++) {
+			final int right = row.find(x+1);
+			if (left != right && (last || coin())) {
+				row.union(left, right);
+				left = row.find(left);
+			}
+			else {
+				setWall(data, offset, x, EAST_WALL);
+				left = right;
+			}
+		}
+		setWall(data, offset, width-1, EAST_WALL);
+		if (last) {
+			for (int x = 0; x < width; x++) {
+				if (x != exitX)
+					setWall(data, offset, x, SOUTH_WALL);
+			}
+			return;
+		}
+		// randomly select cells that continue into the next row, at least one for each set
+		Arrays.fill(setGoesDown, false);
+		Arrays.fill(setSize, 0);
+		for (int x = 0; x < width; x++) {
+			final int r = row.find(x);
+			roots[x] = r;
+			setSize[r]++;
+			down[x] = coin();
+			if (down[x])
+				setGoesDown[r] = true;
+		}
+		// for a set where all coin flips failed, pick one of its cells at random,
+		// the random number is drawn when the first cell of the set is seen
+		// and counts down to the selected cell
+		Arrays.fill(countdown, 0);
+		for (int x = 0; x < width; x++) {
+			final int r = roots[x];
+			if (setGoesDown[r])
+				continue;
+			if (countdown[r] == 0)
+				countdown[r] = random.nextIntWithinInterval(1, setSize[r]);
+			if (--countdown[r] == 0) {
+				down[x] = true;
+				setGoesDown[r] = true;
+			}
+		}
+		// encode south side and carry the set labels over to the next row
+		for (int x = 0; x < width; x++) {
+			if (down[x]) {
+				above[x] = roots[x];
+			}
+			else {
+				above[x] = -1;
+				setWall(data, offset, x, SOUTH_WALL);
+			}
+		}
+	}
+	/**
+	 * Flips a fair coin. A single random number provides 32 coin flips,
+	 * which matters as there are about two coin flips per cell.
+	 * @return true or false with equal probability
+	 */
+	private boolean coin() {
+		if (coinCount == 0) {
+			coinBits = random.nextInt();
+			coinCount = 32;
+		}
+		final boolean result = (coinBits & 1) == 0;
+		coinBits >>>= 1;
+		coinCount--;
+		return result;
+	}
+	/**
+	 * Sets the given wallboard bit for cell x in an encoded row.
+	 * @param data the encoded rows
+	 * @param offset the index of the first byte of the row in data
+	 * @param x the x coordinate of the cell
+	 * @param bit EAST_WALL or SOUTH_WALL
+	 */
+	private static void setWall(byte[] data, int offset, int x, int bit) {
+		data[offset + (x >> 2)] |= (byte)(bit << ((x & 3) * 2));
+	}
+}
@@ -3,8 +3,8 @@ package generation;
 import java.util.List;
 import java.util.logging.Logger;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import gui.ColorTheme;
 import gui.MazeFileWriter;
@@ -185,34 +185,34 @@ public class Wall {
     }
 
     /**
-     * stores fields into the given document with the help of MazeFileWriter.
+     * writes fields to the given XML stream with the help of MazeFileWriter.
      *
-     * @param doc
-     *            document to add data to
-     * @param mazeXML
-     *            element to add data to
+     * @param writer
+     *            XML stream to write the elements to
      * @param number
      *            number for this element
      * @param i
      *            id for this element
+     * @throws XMLStreamException
+     *             if writing fails
      */
-    public void storeWall(final Document doc, final Element mazeXML,
-            final int number, final int i) {
-        MazeFileWriter.appendChild(doc, mazeXML, "distSeg_" + number + "_" + i,
+    public void storeWall(final XMLStreamWriter writer, final int number,
+            final int i) throws XMLStreamException {
+        MazeFileWriter.writeElement(writer, "distSeg_" + number + "_" + i,
                 dist);
-        MazeFileWriter.appendChild(doc, mazeXML, "dxSeg_" + number + "_" + i,
+        MazeFileWriter.writeElement(writer, "dxSeg_" + number + "_" + i,
                 getExtensionX());
-        MazeFileWriter.appendChild(doc, mazeXML, "dySeg_" + number + "_" + i,
+        MazeFileWriter.writeElement(writer, "dySeg_" + number + "_" + i,
                 getExtensionY());
-        MazeFileWriter.appendChild(doc, mazeXML,
+        MazeFileWriter.writeElement(writer,
                 "partitionSeg_" + number + "_" + i, isPartition());
-        MazeFileWriter.appendChild(doc, mazeXML, "seenSeg_" + number + "_" + i,
+        MazeFileWriter.writeElement(writer, "seenSeg_" + number + "_" + i,
                 isSeen());
-        MazeFileWriter.appendChild(doc, mazeXML, "xSeg_" + number + "_" + i,
+        MazeFileWriter.writeElement(writer, "xSeg_" + number + "_" + i,
                 getStartPositionX());
-        MazeFileWriter.appendChild(doc, mazeXML, "ySeg_" + number + "_" + i,
+        MazeFileWriter.writeElement(writer, "ySeg_" + number + "_" + i,
                 getStartPositionY());
-        MazeFileWriter.appendChild(doc, mazeXML, "colSeg_" + number + "_" + i,
+        MazeFileWriter.writeElement(writer, "colSeg_" + number + "_" + i,
                 getColor());
     }
 
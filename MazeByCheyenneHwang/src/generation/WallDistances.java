@@ -0,0 +1,139 @@
+package generation;
+
+/**
+ * A read-only table with the distance to the nearest wallboard
+ * in each cardinal direction for every cell of a floorplan.
+ * A distance sensor walks from cell to cell until it hits a wallboard,
+ * which takes time proportional to the length of a corridor for each query.
+ * With this table, each query is a single array access.
+ *
+ * The distance is the number of steps one can take in that direction
+ * before hitting a wallboard, 0 if there is a wallboard right next to the cell.
+ * If one can look through the exit to the outside of the maze,
+ * the distance is Integer.MAX_VALUE.
+ *
+ * The table is computed with {@link #compute(Floorplan)} in two passes per row
+ * and two passes per column: the distance of a cell is 0 in front of a wallboard
+ * and one more than the distance of its neighbor otherwise.
+ * A table records the modification count of its floorplan,
+ * use {@link #isUpToDate(Floorplan)} to check if it still matches.
+ */
+public final class WallDistances {
+	// distances indexed like the cells of a floorplan, cell (x,y) at y*width+x
+	private final int[] north;
+	private final int[] east;
+	private final int[] south;
+	private final int[] west;
+	private final int width;
+	private final int height;
+	// the floorplan the table was computed for and its modification count at that time
+	private final Floorplan floorplan;
+	private final int modificationCount;
+
+	/**
+	 * Constructor allocates arrays for the given floorplan,
+	 * use {@link #compute(Floorplan)} to obtain an instance.
+	 */
+	private WallDistances(Floorplan floorplan) {
+		this.floorplan = floorplan;
+		modificationCount = floorplan.getModificationCount();
+		width = floorplan.getWidth();
+		height = floorplan.getHeight();
+		final int cells = width * height;
+		north = new int[cells];
+		east = new int[cells];
+		south = new int[cells];
+		west = new int[cells];
+	}
+	/**
+	 * Computes the distances for all cells of the given floorplan.
+	 * @param floorplan the floorplan, not null
+	 * @return the table of distances
+	 */
+	public static WallDistances compute(Floorplan floorplan) {
+		WallDistances result = new WallDistances(floorplan);
+		final int width = result.width;
+		final int height = result.height;
+		// one value per cell with the bits for all of its wallboards
+		int[] cells = new int[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				cells[y*width+x] = floorplan.getValueOfCell(x, y);
+			}
+		}
+		// rows: west to east for distances to the west, east to west for distances to the east
+		for (int y = 0; y < height; y++) {
+			final int row = y * width;
+			int west = Integer.MAX_VALUE;
+			for (int i = row; i < row + width; i++) {
+				west = next(cells[i], Floorplan.CW_LEFT, west);
+				result.west[i] = west;
+			}
+			int east = Integer.MAX_VALUE;
+			for (int i = row + width - 1; i >= row; i--) {
+				east = next(cells[i], Floorplan.CW_RIGHT, east);
+				result.east[i] = east;
+			}
+		}
+		// columns: north to south for distances to the north, south to north for distances to the south
+		for (int x = 0; x < width; x++) {
+			int north = Integer.MAX_VALUE;
+			for (int i = x; i < cells.length; i += width) {
+				north = next(cells[i], Floorplan.CW_TOP, north);
+				result.north[i] = north;
+			}
+			int south = Integer.MAX_VALUE;
+			for (int i = cells.length - width + x; i >= 0; i -= width) {
+				south = next(cells[i], Floorplan.CW_BOT, south);
+				result.south[i] = south;
+			}
+		}
+		return result;
+	}
+	/**
+	 * Gives the distance of a cell from the distance of its neighbor.
+	 * @param cell the value of the cell as in the floorplan
+	 * @param wallboard the bit of the wallboard towards the neighbor, like Floorplan.CW_LEFT
+	 * @param neighbor the distance of the neighbor, Integer.MAX_VALUE outside of the maze
+	 * @return the distance of the cell
+	 */
+	private static int next(int cell, int wallboard, int neighbor) {
+		if (0 != (cell & wallboard))
+			return 0;
+		return (Integer.MAX_VALUE == neighbor) ? Integer.MAX_VALUE : neighbor + 1;
+	}
+	/**
+	 * Gives the number of steps from the given cell in the given direction
+	 * before hitting a wallboard.
+	 * @param x coordinate of cell, {@code 0 <= x < width}
+	 * @param y coordinate of cell, {@code 0 <= y < height}
+	 * @param dir the direction to look at
+	 * @return the distance, Integer.MAX_VALUE if looking through the exit
+	 */
+	public int getDistance(int x, int y, CardinalDirection dir) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			throw new ArrayIndexOutOfBoundsException("Position (" + x + "," + y + ") outside of " + width + " x " + height + " floorplan");
+		final int i = y*width+x;
+		switch (dir) {
+		case North:
+			return north[i];
+		case East:
+			return east[i];
+		case South:
+			return south[i];
+		case West:
+			return west[i];
+		default:
+			throw new RuntimeException("Unsupported value in enum type");
+		}
+	}
+	/**
+	 * Tells if this table matches the current state of the given floorplan.
+	 * @param floorplan the floorplan to check against
+	 * @return true if the table was computed for this floorplan
+	 * and the floorplan has not changed since, false otherwise
+	 */
+	public boolean isUpToDate(Floorplan floorplan) {
+		return this.floorplan == floorplan && modificationCount == floorplan.getModificationCount();
+	}
+}
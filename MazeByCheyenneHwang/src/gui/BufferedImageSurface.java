@@ -0,0 +1,55 @@
+package gui;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * A drawing surface backed by a BufferedImage.
+ * In contrast to the MazePanel, it needs no displayable container
+ * and works with java.awt.headless=true, e.g. for benchmarks
+ * or to render a maze into an image file.
+ * The graphics object uses the same rendering hints as the MazePanel
+ * such that drawing takes the same effort.
+ */
+public class BufferedImageSurface implements DrawingSurface {
+
+	private final BufferedImage image;
+	private final Graphics2D graphics;
+
+	/**
+	 * Constructor for a surface of the size of the maze panel
+	 */
+	public BufferedImageSurface() {
+		this(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT);
+	}
+	/**
+	 * Constructor
+	 * @param width of the image
+	 * @param height of the image
+	 */
+	public BufferedImageSurface(int width, int height) {
+		image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		graphics = image.createGraphics();
+		MazePanel.setRenderingHints(graphics);
+	}
+
+	@Override
+	public Graphics getBufferGraphics() {
+		return graphics;
+	}
+	/**
+	 * Gives the image with the current drawing.
+	 * Warning, returns direct access to internal field.
+	 * @return the image
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+	/**
+	 * Releases the graphics object, the surface can not be used for drawing afterwards.
+	 */
+	public void dispose() {
+		graphics.dispose();
+	}
+}
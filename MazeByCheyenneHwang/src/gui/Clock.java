@@ -0,0 +1,32 @@
+package gui;
+
+/**
+ * A clock provides the time that robots, drivers and sensors work with.
+ * Robots wait for a sensor that is down for repair, drivers wait
+ * when all sensors are down, and the failure and repair processes
+ * of unreliable sensors switch sensors on and off as time passes.
+ *
+ * The SystemClock is the real time of the game, where waiting means sleeping.
+ * The SimulatedClock is a virtual time for headless runs, where waiting
+ * advances the time right away, such that a drive completes instantly
+ * while its elapsed time is still known.
+ */
+public interface Clock {
+	/**
+	 * Gives the current time.
+	 * Only the difference between two values is meaningful.
+	 * @return the time in milliseconds
+	 */
+	long getTime();
+	/**
+	 * Waits until the given amount of time has passed.
+	 * @param millis the amount of time in milliseconds, {@code 0 <= millis}
+	 * @throws InterruptedException if the waiting thread is interrupted
+	 */
+	void sleep(long millis) throws InterruptedException;
+	/**
+	 * Gives the scheduler that runs failure and repair processes in this time.
+	 * @return the failure scheduler
+	 */
+	FailureScheduler getFailureScheduler();
+}
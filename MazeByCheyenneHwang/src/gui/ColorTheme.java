@@ -117,12 +117,74 @@ public class ColorTheme {
 	 * The actual color used in rendering depends on finding the best match
 	 * given the color space available for a particular output device.
 	 * Alpha is defaulted to 255.
+	 * The color is taken from a palette of colors that were requested before,
+	 * such that drawing a frame does not create a new color for every wall.
 	 * @param rgb the rgb value
 	 * @return the matching instance of a color
 	 */
 	public static Color getColor(int rgb) {
-		return new Color(rgb);
+		return PALETTE.get(0xff000000 | rgb);
 	}
+	/**
+	 * A palette caches instances of Color by their ARGB value.
+	 * As colors are immutable, the same instance can be handed out
+	 * for all requests for the same value. The number of different
+	 * colors in a maze is small, so the palette never forgets a color.
+	 * The palette is an open addressing hash table with primitive keys 
+	 * such that a lookup does not allocate memory.
+	 * Access is synchronized as walls and the view may ask from different threads.
+	 */
+	private static final class Palette {
+		private int[] keys = new int[256]; // ARGB values, valid where colors is not null
+		private Color[] colors = new Color[256]; // cached colors, null for an empty slot
+		private int size; // number of cached colors
+
+		/**
+		 * Gives the color for the given ARGB value, 
+		 * creates and caches it if necessary.
+		 * @param argb the alpha, red, green and blue components
+		 * @return the color
+		 */
+		synchronized Color get(int argb) {
+			final int mask = keys.length - 1;
+			int i = hash(argb) & mask;
+			while (null != colors[i]) {
+				if (keys[i] == argb)
+					return colors[i];
+				i = (i + 1) & mask;
+			}
+			final Color result = new Color(argb, true);
+			keys[i] = argb;
+			colors[i] = result;
+			if (++size * 4 > keys.length * 3)
+				grow();
+			return result;
+		}
+		/**
+		 * Doubles the capacity of the hash table.
+		 */
+		private void grow() {
+			final int[] oldKeys = keys;
+			final Color[] oldColors = colors;
+			keys = new int[2 * oldKeys.length];
+			colors = new Color[2 * oldColors.length];
+			final int mask = keys.length - 1;
+			for (int j = 0; j < oldKeys.length; j++) {
+				if (null == oldColors[j])
+					continue;
+				int i = hash(oldKeys[j]) & mask;
+				while (null != colors[i])
+					i = (i + 1) & mask;
+				keys[i] = oldKeys[j];
+				colors[i] = oldColors[j];
+			}
+		}
+		private static int hash(int argb) {
+			final int h = argb * 0x9E3779B9; // spreads similar colors over the table
+			return h ^ (h >>> 16);
+		}
+	}
+	private static final Palette PALETTE = new Palette();
 	/**
 	 * Class encapsulates a color setting for the background and walls.
 	 * The background is black on top, darkgray on the bottom. 
@@ -134,11 +196,13 @@ public class ColorTheme {
 	private static class ColorSettings {
 		Color getColor(MazeColors color, float percentToExit) {
 			Color result = (MazeColors.BACKGROUND_TOP == color)? Color.BLACK : Color.DARK_GRAY;
-			LOGGER.log(Level.FINEST, "given:" + color + ", returns color: " + result);
+			if (LOGGER.isLoggable(Level.FINEST)) // avoid building the message for every frame
+				LOGGER.log(Level.FINEST, "given:" + color + ", returns color: " + result);
 			return result;
 		}
 		Color getWallColor(final int distance, final int cc, final int extensionX) {
-			LOGGER.log(Level.FINEST, "regardless of input, returns color: " + Color.LIGHT_GRAY);
+			if (LOGGER.isLoggable(Level.FINEST)) // avoid building the message for every wall
+				LOGGER.log(Level.FINEST, "regardless of input, returns color: " + Color.LIGHT_GRAY);
 			return Color.LIGHT_GRAY;
 	    }
 		//////// shared code for subclasses, not used in this class ////////
@@ -215,7 +279,8 @@ public class ColorTheme {
 	        	result = new Color(RGB_DEF, RGB_DEF, RGB_DEF);
 	        	break;
 	        }
-	        LOGGER.log(Level.FINEST, "given distance:" + distance + ", returns color: " + result);
+	        if (LOGGER.isLoggable(Level.FINEST)) // avoid building the message for every wall
+	        	LOGGER.log(Level.FINEST, "given distance:" + distance + ", returns color: " + result);
 	        return result;
 	    }
 	}
@@ -256,7 +321,8 @@ public class ColorTheme {
 			Color result = (MazeColors.BACKGROUND_TOP == color)? 
 					blend(yellowWM, goldWM, percentToExit) : 
 						blend(Color.lightGray, greenWM, percentToExit);
-			LOGGER.log(Level.FINEST, "given:" + color + ", returns color: " + result);
+			if (LOGGER.isLoggable(Level.FINEST)) // avoid building the message for every frame
+				LOGGER.log(Level.FINEST, "given:" + color + ", returns color: " + result);
 	        return result;
 		}
 		/**
@@ -280,8 +346,8 @@ public class ColorTheme {
 		    double g = weightFstColor * fstColor.getGreen() + (1-weightFstColor) * sndColor.getGreen();
 		    double b = weightFstColor * fstColor.getBlue() + (1-weightFstColor) * sndColor.getBlue();
 		    double a = Math.max(fstColor.getAlpha(), sndColor.getAlpha());
-
-		    return new Color((int) r, (int) g, (int) b, (int) a);
+		    // the background is drawn for every frame, so reuse colors from the palette
+		    return PALETTE.get(((int) a << 24) | ((int) r << 16) | ((int) g << 8) | (int) b);
 		  }
 		/**
 	     * Default minimum value for RGB values.
@@ -325,7 +391,8 @@ public class ColorTheme {
 	        	result = new Color(RGB_DEF, RGB_DEF, RGB_DEF);
 	        	break;
 	        }
-	        LOGGER.log(Level.FINEST, "given distance:" + distance + ", returns color: " + result);
+	        if (LOGGER.isLoggable(Level.FINEST)) // avoid building the message for every wall
+	        	LOGGER.log(Level.FINEST, "given distance:" + distance + ", returns color: " + result);
 	        return result;
 	    }
 	}
@@ -43,7 +43,7 @@ import gui.Robot.Direction;
  * 
  * @author Peter Kemper
  */
-public class Control extends JFrame implements KeyListener {
+public class Control extends JFrame implements KeyListener, RobotControl {
 
 	// not used, just to make the compiler, static code checker happy
 	private static final long serialVersionUID = 1L;
@@ -267,6 +267,7 @@ public class Control extends JFrame implements KeyListener {
      * @return the maze
      */
     
+    @Override
     public Maze getMaze() {
         return ((StatePlaying)currentState).getMaze();
     }
@@ -280,6 +281,7 @@ public class Control extends JFrame implements KeyListener {
      * {@code 0 <= x < width, 0 <= y < height}
      */
     
+    @Override
     public int[] getCurrentPosition() {
         return ((StatePlaying)currentState).getCurrentPosition();
     }
@@ -292,9 +294,19 @@ public class Control extends JFrame implements KeyListener {
      * @return the current direction
      */
     
+    @Override
     public CardinalDirection getCurrentDirection() {
         return ((StatePlaying)currentState).getCurrentDirection();
     }
+
+    /**
+     * Provides access to the clock of the game, which is the real time.
+     * @return the system clock
+     */
+    @Override
+    public Clock getClock() {
+        return SystemClock.getInstance();
+    }
 	
 	////////////// end of P3 specific additions //////////////////
 
@@ -345,6 +357,12 @@ public class Control extends JFrame implements KeyListener {
 	    		} else if (algo.equalsIgnoreCase("Prim")){
 	    			msg = "Command line input detected: generating random maze with Prim's algorithm. \n";
 	    	        ((StateTitle)currentState).setBuilder(Order.Builder.Prim);
+	    		} else if (algo.equalsIgnoreCase("Kruskal")) {
+	    			msg = "Command line input detected: generating random maze with Kruskal's algorithm. \n";
+	    	        ((StateTitle)currentState).setBuilder(Order.Builder.Kruskal);
+	    		} else if (algo.equalsIgnoreCase("Eller")) {
+	    			msg = "Command line input detected: generating random maze with Eller's algorithm. \n";
+	    	        ((StateTitle)currentState).setBuilder(Order.Builder.Eller);
 	    		} else if (algo.equalsIgnoreCase("Boruvka")) {
 	    			msg = "Command line input detected: generating random maze with Boruvka's algorithm. \n";
 	    	        ((StateTitle)currentState).setBuilder(Order.Builder.Boruvka);
@@ -381,6 +399,9 @@ public class Control extends JFrame implements KeyListener {
 	    		} else if (robotDriver.equalsIgnoreCase("SmartWallFollower")){
 	    			msg += "Using Smart Wall Follower robot driver to try solving the maze.\n";
 	    			driver = new SmartWallFollower();
+	    		} else if (robotDriver.equalsIgnoreCase("Navigator")){
+	    			msg += "Using Navigator robot driver to solve the maze along a planned path.\n";
+	    			driver = new Navigator();
 	    		}else if (robotDriver.equalsIgnoreCase("Manual")){
 	    			msg += "Using manual robot driver to solve the maze.\n";
 	    		}
@@ -590,6 +611,7 @@ public class Control extends JFrame implements KeyListener {
      * @param userInput is the user input 
      * @param value is only used for the numerical input for the size of the maze
      */
+	@Override
 	public void handleKeyboardInput(UserInput userInput, int value) {
 		currentState.handleUserInput(userInput, value);
 		repaint();
@@ -0,0 +1,23 @@
+package gui;
+
+import java.awt.Graphics;
+
+/**
+ * A surface to draw the first person view and the map on.
+ * The MazePanel is the surface that shows on the screen, 
+ * the BufferedImageSurface draws on an off-screen image
+ * and also works without a display.
+ * 
+ * Clients obtain a graphics object from the surface and draw on it.
+ * The surface keeps the drawing in a buffer till it is shown, 
+ * if it is shown at all.
+ */
+public interface DrawingSurface {
+	/**
+	 * Obtains a graphics object that can be used for drawing.
+	 * Repeated calls deliver the same graphics object, 
+	 * such that all clients contribute to the same image.
+	 * @return graphics object to draw on, null if impossible to obtain image
+	 */
+	Graphics getBufferGraphics();
+}
@@ -0,0 +1,38 @@
+package gui;
+
+/**
+ * A failure scheduler runs the failure and repair processes of unreliable sensors.
+ * A process alternates between down time, when the sensor is down for repair,
+ * and up time, when the sensor is operational. It starts with down time
+ * right away, as the processes of the original project did.
+ *
+ * There are two implementations. The RealTimeFailureScheduler switches sensors
+ * on and off in real time for all sensors of all robots with a single thread.
+ * The SimulatedFailureScheduler switches sensors at points of a simulated time
+ * that advances only on request, which makes headless runs fast and reproducible.
+ *
+ * A sensor that stopped working for good, e.g. for lack of energy, keeps its last state.
+ */
+public interface FailureScheduler {
+	/**
+	 * Starts a failure and repair process for the given sensor.
+	 * A process that already runs for the sensor is replaced.
+	 * @param sensor the sensor to switch on and off, not null
+	 * @param timeBetweenFailures the up time in milliseconds, {@code 0 < timeBetweenFailures}
+	 * @param timeToRepair the down time in milliseconds, {@code 0 < timeToRepair}
+	 */
+	void start(UnreliableSensor sensor, long timeBetweenFailures, long timeToRepair);
+	/**
+	 * Stops the failure and repair process of the given sensor
+	 * and leaves the sensor in an operational state.
+	 * @param sensor the sensor
+	 * @return true if a process was running for the sensor, false otherwise
+	 */
+	boolean stop(UnreliableSensor sensor);
+	/**
+	 * Tells if a failure and repair process runs for the given sensor.
+	 * @param sensor the sensor
+	 * @return true if a process was started and not stopped yet, false otherwise
+	 */
+	boolean isRunning(UnreliableSensor sensor);
+}
@@ -11,6 +11,7 @@ import java.util.logging.Logger;
 import generation.BSPBranch;
 import generation.BSPLeaf;
 import generation.BSPNode;
+import generation.FlatBSPTree;
 import generation.Floorplan;
 import generation.Wall;
 import gui.ColorTheme.MazeColors;
@@ -63,6 +64,15 @@ public class FirstPersonView {
 	 */
 	private final BSPNode bspRoot;
 	
+	/**
+	 * The same tree compiled into arrays, see FlatBSPTree.
+	 * If it is present, it is traversed iteratively instead of the tree 
+	 * of BSPNodes, with the help of a stack of node indices
+	 * that is allocated once.
+	 */
+	private final FlatBSPTree bspTree;
+	private final int[] nodeStack;
+	
 	/** 
 	 * The current viewing angle. This information is used in rotations
 	 * and checking if the bounding box is visible to recognize special cases.
@@ -114,6 +124,13 @@ public class FirstPersonView {
 	 */
 	private RangeSet rSet; 
 	
+	// scratch objects reused for every wall and node in every frame
+	// such that drawing a frame does not allocate memory
+	private final RangePair rangePair = new RangePair(); // see getRangePair
+	private final int[] intersection = new int[2]; // receives results of rSet.getIntersection
+	private final int[] xps = new int[4]; // x coordinates of a polygon in drawPolygons
+	private final int[] yps = new int[4]; // y coordinates of a polygon in drawPolygons
+	
 	// debug stuff
 	private boolean deepDebug = false;
 	private boolean allVisible = false;
@@ -134,6 +151,27 @@ public class FirstPersonView {
 	 * @param bspRoot the root node of the bsp tree
 	 */
 	public FirstPersonView(int width, int height, int mapUnit, int stepSize, Floorplan seenWalls, BSPNode bspRoot) {
+		this(width, height, mapUnit, stepSize, seenWalls, bspRoot, null);
+	}
+	/**
+	 * Constructor for drawing with the bsp tree compiled into arrays
+	 * @param width of display
+	 * @param height of display
+	 * @param mapUnit current scaling factor
+	 * @param stepSize size of steps
+	 * @param seenWalls to store which walls were put on display
+	 * @param bspTree the compiled bsp tree, not null
+	 */
+	public FirstPersonView(int width, int height, int mapUnit, int stepSize, Floorplan seenWalls, FlatBSPTree bspTree) {
+		this(width, height, mapUnit, stepSize, seenWalls, null, bspTree);
+	}
+	/**
+	 * Constructor for either form of the bsp tree
+	 * @param bspRoot the root node of the bsp tree, only used if bspTree is null
+	 * @param bspTree the compiled bsp tree, may be null
+	 */
+	private FirstPersonView(int width, int height, int mapUnit, int stepSize, Floorplan seenWalls, 
+			BSPNode bspRoot, FlatBSPTree bspTree) {
 		// store given parameter values
 		viewWidth = width;
 		viewHeight = height;
@@ -141,6 +179,10 @@ public class FirstPersonView {
 		this.stepSize = stepSize;
 		this.seenWalls = seenWalls;
 		this.bspRoot = bspRoot; 
+		this.bspTree = bspTree;
+		// a branch replaces itself on the stack by at most two children,
+		// so the stack never holds more entries than the depth of the tree plus one
+		nodeStack = (null == bspTree) ? null : new int[bspTree.getDepth()+1];
 		// constants and derived values
 		angle = 0; // angle for initial setting of direction is 0 == East, hidden constraint across classes
 		scaleZ = viewHeight/2;
@@ -149,7 +191,7 @@ public class FirstPersonView {
 	}
 	/**
 	 * Draws the first person view on the screen during the game
-	 * @param panel for drawing on the buffer image
+	 * @param panel for drawing on the buffer image, a MazePanel or an off-screen surface
 	 * @param x coordinate of current position, only used to set viewX
 	 * @param y coordinate of current position, only used to set viewY
 	 * @param ang gives the current viewing angle
@@ -157,7 +199,7 @@ public class FirstPersonView {
 	 * @param walkStep, only used to set viewX and viewY
 	 * 
 	 */
-	public void draw(MazePanel panel, int x, int y, int walkStep, int ang, float percentToExit) {
+	public void draw(DrawingSurface panel, int x, int y, int walkStep, int ang, float percentToExit) {
 		// obtain a Graphics2D object we can draw on
 		Graphics g = panel.getBufferGraphics() ;
         // viewers draw on the buffer graphics
@@ -165,7 +207,20 @@ public class FirstPersonView {
             LOGGER.warning("Can't get graphics object to draw on, mitigate this by skipping draw operation") ;
             return;
         }
-        gc = (Graphics2D) g ;
+        draw((Graphics2D) g, x, y, walkStep, ang, percentToExit);
+	}
+	/**
+	 * Draws the first person view on the given graphics object.
+	 * This is the part of drawing that does not depend on a drawing surface.
+	 * @param g the graphics object to draw on, not null
+	 * @param x coordinate of current position, only used to set viewX
+	 * @param y coordinate of current position, only used to set viewY
+	 * @param walkStep, only used to set viewX and viewY
+	 * @param ang gives the current viewing angle
+	 * @param percentToExit gives the distance to exit as a percentage
+	 */
+	void draw(Graphics2D g, int x, int y, int walkStep, int ang, float percentToExit) {
+        gc = g ;
         
         // update fields angle, viewx, viewy for current position and viewing angle
         angle = ang ;
@@ -185,7 +240,26 @@ public class FirstPersonView {
         traverseNodeCounter = traverseWallSectorCounter =
         		drawRectCounter = drawRectLateCounter = drawRectWallCounter = 0;
         //
-        drawAllVisibleSectors(bspRoot);
+        if (null != bspTree)
+        	drawAllVisibleSectors(bspTree);
+        else
+        	drawAllVisibleSectors(bspRoot);
+	}
+	/**
+	 * Gives the number of nodes of the bsp tree that were visited
+	 * for drawing the last frame.
+	 * @return the number of nodes
+	 */
+	int getTraverseNodeCounter() {
+		return traverseNodeCounter;
+	}
+	/**
+	 * Gives the number of walls that were considered
+	 * for drawing the last frame.
+	 * @return the number of walls
+	 */
+	int getDrawRectCounter() {
+		return drawRectCounter;
 	}
 
 
@@ -272,19 +346,73 @@ public class FirstPersonView {
 		}
 		nesting--; // debug
 	}
+	/**
+	 * Iterative method to explore the compiled tree and draw all walls in leaf nodes 
+	 * where the bounding box is visible. 
+	 * Visits nodes in the same order as the recursive method for BSPNodes: 
+	 * a node on the stack is checked for visibility when it is taken from the stack,
+	 * which is after the subtree of its sibling has been drawn.
+	 * @param tree is the compiled tree
+	 */
+	private void drawAllVisibleSectors(FlatBSPTree tree) {
+		final int[] stack = nodeStack;
+		int top = 0;
+		stack[top++] = FlatBSPTree.ROOT;
+		while (top > 0) {
+			final int n = stack[--top];
+			// the root is drawn without a check, as in the recursive method
+			if (n != FlatBSPTree.ROOT && !boundingBoxIsVisible(tree.getLowerBoundX(n), tree.getLowerBoundY(n),
+					tree.getUpperBoundX(n), tree.getUpperBoundY(n)))
+				continue;
+			traverseNodeCounter++; // debug
+			if (tree.isLeaf(n)) {
+				drawAllWallsOfASector(tree, n);
+				continue;
+			}
+			// debug code
+			if (deepDebug) {
+				dbg("traverse_node "+tree.getX(n)+" "+tree.getY(n)+" "+tree.getDx(n)+" "+tree.getDy(n)+" "+
+						tree.getLowerBoundX(n)+" "+tree.getLowerBoundY(n)+" "+
+						tree.getUpperBoundX(n)+" "+tree.getUpperBoundY(n));
+			}
+			final int dot = (viewX-tree.getX(n))*tree.getDy(n) - (viewY-tree.getY(n))*tree.getDx(n);
+			// the child pushed last is visited first
+			// if dot >= 0 consider right node before left node, otherwise vice versa
+			if (dot >= 0) {
+				stack[top++] = tree.getLeftChild(n);
+				stack[top++] = tree.getRightChild(n);
+			}
+			else {
+				stack[top++] = tree.getRightChild(n);
+				stack[top++] = tree.getLeftChild(n);
+			}
+		}
+	}
 	/**
 	 * Decide if the bounding box is visible
 	 * @param node the current node
 	 * @return true if node should be drawn, false otherwise
 	 */
 	private boolean boundingBoxIsVisible(BSPNode node) {
+		return boundingBoxIsVisible(node.getLowerBoundX(), node.getLowerBoundY(), 
+				node.getUpperBoundX(), node.getUpperBoundY());
+	}
+	/**
+	 * Decide if the bounding box is visible
+	 * @param lowX lower bound for x of the bounding box
+	 * @param lowY lower bound for y of the bounding box
+	 * @param highX upper bound for x of the bounding box
+	 * @param highY upper bound for y of the bounding box
+	 * @return true if node should be drawn, false otherwise
+	 */
+	private boolean boundingBoxIsVisible(int lowX, int lowY, int highX, int highY) {
 		
 		if (allVisible) // unused feature, presumably for debugging
 			return true;
 		// check a few simple cases up front
 		// if all x-coordinates are covered with walls,
 		// there nothing left to draw or if the node is outside of viewing angle
-		if (rSet.isEmpty() || isOutOfView(node)) {
+		if (rSet.isEmpty() || isOutOfView(lowX, lowY, highX, highY)) {
 			return false;
 		}
 		
@@ -292,10 +420,10 @@ public class FirstPersonView {
 		// to check for an intersection with the range set
 		// calculate 2 intermediate points (p1x,p1y) and (p2x,p2y) first
 		// then derive x1 and x2
-		final int xmin = node.getLowerBoundX() - viewX;
-		final int ymin = node.getLowerBoundY() - viewY;
-		final int xmax = node.getUpperBoundX() - viewX;
-		final int ymax = node.getUpperBoundY() - viewY;
+		final int xmin = lowX - viewX;
+		final int ymin = lowY - viewY;
+		final int xmax = highX - viewX;
+		final int ymax = highY - viewY;
 		// initialize (p1x,p1y) and (p2x,p2y) with bounds
 		int p1x = xmin; 
 		int p2x = xmax;
@@ -320,7 +448,7 @@ public class FirstPersonView {
 			p1x = xmax; 
 			p2x = xmin;
 		}
-		RangePair rp = getNewRangePair(p1x, p2x, p1y, p2y);
+		RangePair rp = getRangePair(p1x, p2x, p1y, p2y);
 		if (!rp.clip3d())
 			return false;
 		// note: zscale == view_height/2 is constant
@@ -335,18 +463,19 @@ public class FirstPersonView {
 		// if interval [x1,x2] intersects with any of the intervals on 
 		// the x-axis that have not been covered with a wall (a polygon)
 		// yet, then this node might be needed.
-		return (null != rSet.getIntersection(x1, x2));
+		return rSet.getIntersection(x1, x2, intersection);
 	}
 	/**
-	 * Instantiates a new RangePair for the given parameters.
+	 * Sets the reused RangePair to the given parameters.
 	 * Parameter values are adjusted for the viewing direction.
+	 * The RangePair is only valid till the next call of this method.
 	 * @param p1x x coordinate of first point
 	 * @param p2x x coordinate of 2nd point
 	 * @param p1y y coordinate of first point
 	 * @param p2y y coordinate of 2nd point
-	 * @return new RangePair for adjusted parameters
+	 * @return RangePair for adjusted parameters
 	 */
-	private RangePair getNewRangePair(int p1x, int p2x, int p1y, int p2y) {
+	private RangePair getRangePair(int p1x, int p2x, int p1y, int p2y) {
 		int viewDX = getViewDX(angle) ;
         int viewDY = getViewDY(angle) ;
 		
@@ -355,21 +484,25 @@ public class FirstPersonView {
 		int x2 = -unscaleViewD(viewDY*p2x - viewDX*p2y);
 		int z2 = -unscaleViewD(viewDX*p2x + viewDY*p2y);
 		
-		return new RangePair(x1, z1, x2, z2);
+		rangePair.set(x1, z1, x2, z2);
+		return rangePair;
 	}
 	/**
 	 * Checks if bounding box for current node is out of view.
-	 * @param node the current node
+	 * @param lowX lower bound for x of the bounding box
+	 * @param lowY lower bound for y of the bounding box
+	 * @param highX upper bound for x of the bounding box
+	 * @param highY upper bound for y of the bounding box
 	 * @return true if any of the special cases match, false otherwise
 	 */
-	private boolean isOutOfView(BSPNode node) {
-		if (angle >= 45 && angle <= 135 && viewY > node.getUpperBoundY())
+	private boolean isOutOfView(int lowX, int lowY, int highX, int highY) {
+		if (angle >= 45 && angle <= 135 && viewY > highY)
 			return true;
-		if (angle >= 225 && angle <= 315 && viewY < node.getLowerBoundY())
+		if (angle >= 225 && angle <= 315 && viewY < lowY)
 			return true;
-		if (angle >= 135 && angle <= 225 && viewX < node.getLowerBoundX())
+		if (angle >= 135 && angle <= 225 && viewX < lowX)
 			return true;
-		if ((angle >= 315 || angle <= 45) && viewX > node.getUpperBoundX())
+		if ((angle >= 315 || angle <= 45) && viewX > highX)
 			return true;
 		return false;
 	}
@@ -387,42 +520,66 @@ public class FirstPersonView {
 					"traverseWallSector "+node.getLowerBoundX()+" "+node.getLowerBoundY()+
 					" "+node.getUpperBoundX()+" "+node.getUpperBoundY());
 		}
-		// for all walls of this node
-		int i = 0;
-		for (Wall wall: allWalls) {
+		// for all walls of this node, 
+		// indexed access avoids an iterator for each leaf in each frame
+		for (int i = 0; i < allWalls.size(); i++) {
+			final Wall wall = allWalls.get(i);
 			// draw rectangle
-			drawWall(wall);
+			if (drawWall(wall.getStartPositionX(), wall.getStartPositionY(), 
+					wall.getEndPositionX(), wall.getEndPositionY(), wall.getColor()))
+				markSeen(wall);
 			// debug
 			if (deepDebug) {
 				dbg("                               ".substring(0, nesting) +
 						" traverseWallSector(" + i +") "+
 						wall.getStartPositionX()+" "+wall.getStartPositionY()+" "+
 						wall.getExtensionX()+" "+wall.getExtensionY());
-				i++;
 			}
 
 		}
 	}
 
+	/**
+	 * Traverses all walls of this leaf of the compiled tree 
+	 * and draws corresponding rectangles on screen
+	 * @param tree is the compiled tree
+	 * @param node is the index of the leaf node
+	 */
+	private void drawAllWallsOfASector(FlatBSPTree tree, int node) {
+		// debug
+		traverseWallSectorCounter++;
+		final int end = tree.getEndWall(node);
+		for (int i = tree.getFirstWall(node); i < end; i++) {
+			if (drawWall(tree.getWallStartX(i), tree.getWallStartY(i), 
+					tree.getWallEndX(i), tree.getWallEndY(i), tree.getWallColor(i)))
+				markSeen(tree.getWall(i));
+		}
+	}
+
 	/**
 	 * Draws wall on screen via graphics attribute gc.
 	 * Helper method for drawAllWallsOfASector.
-	 * @param wall whose seen attribute may be set to true
+	 * @param startX x coordinate of the starting position of the wall
+	 * @param startY y coordinate of the starting position of the wall
+	 * @param endX x coordinate of the end position of the wall
+	 * @param endY y coordinate of the end position of the wall
+	 * @param color the color of the wall as an rgb value
+	 * @return true if at least one polygon has been drawn, false otherwise
 	 */
-	private void drawWall(Wall wall) {
+	private boolean drawWall(int startX, int startY, int endX, int endY, int color) {
 		drawRectCounter++; // debug, counter
 		
 		// some notes: 
 		// perspective centers on (centerX,centerY) = (view_width/2,view_height/2)
 		// initialization part for x1, x2, y11, y12, y21, y22
-		final int ox1 = wall.getStartPositionX() - viewX;
-		final int ox2 = wall.getEndPositionX()   - viewX;
-		final int y1  = wall.getStartPositionY() - viewY;
-		final int y2  = wall.getEndPositionY()   - viewY;
+		final int ox1 = startX - viewX;
+		final int ox2 = endX   - viewX;
+		final int y1  = startY - viewY;
+		final int y2  = endY   - viewY;
 		
-		RangePair rp = getNewRangePair(ox1, ox2, y1, y2);
+		RangePair rp = getRangePair(ox1, ox2, y1, y2);
 		if (!rp.clip3d())
-			return;
+			return false;
 		// note: viewZ == 50 is a constant
 		// note: scaleZ == view_height/2 is constant
 		final int y11 = viewZ *scaleZ/rp.z1        +(viewHeight/2); 
@@ -435,14 +592,20 @@ public class FirstPersonView {
 		rp = null; // added just for clarity, rp not used anymore 
 		
 		if (x1 >= x2) /* reject backfaces */
-			return;
+			return false;
 		
 		// moved code for drawing bits and pieces into yet another method to 
 		// gain more clarity on what information is actually needed
-		gc.setColor(ColorTheme.getColor(wall.getColor()));
-		boolean drawn = drawPolygons(x1, x2, y11, y12, y21, y22);
-		
-		if (drawn && !wall.isSeen()) {
+		// note: the color theme caches colors, so this does not create a new color
+		gc.setColor(ColorTheme.getColor(color));
+		return drawPolygons(x1, x2, y11, y12, y21, y22);
+	}
+	/**
+	 * Marks a wall that has been drawn as seen, unless it is already marked.
+	 * @param wall whose seen attribute may be set to true
+	 */
+	private void markSeen(Wall wall) {
+		if (!wall.isSeen()) {
 			wall.setSeen(true); // updates the wall
 			// set the seenWalls bit for all wallboards of a wall
 			// the wall parameter given is not modified
@@ -482,7 +645,7 @@ public class FirstPersonView {
 		// Loop variable is x1i, starts at x1, upper limit x2 is fixed
 		int x1i = x1; // init loop variable
 		int x2i;      // initialized inside loop
-		int[] intersect;
+		final int[] intersect = intersection; // reused, receives the intersection
 		while (x1i <= x2) {
 			// check if there is an intersection, 
 			// if there is none, done, exit the loop, 
@@ -490,8 +653,7 @@ public class FirstPersonView {
 			// rset represents the to-do list of intervals on the x-axis
 			// that are not covered by a polygon yet
 			// get one intersection for our interval[x1i,x2] with rset
-			intersect = rSet.getIntersection(x1i, x2);
-			if (null == intersect)
+			if (!rSet.getIntersection(x1i, x2, intersect))
 				break; // exit point for loop
 			x1i = intersect[0]; // progress: can not be less than previous x1i
 			x2i = intersect[1]; // x1i <= x2i 
@@ -508,14 +670,17 @@ public class FirstPersonView {
 			// constant xd == x2-x1, yd1 = y21-y11, and yd2 = y22-y12
 			// the additive term for the y coordinate depends on the point's x coordinate
 			// polygon covers interval [x1i, x2i] on the x-axis
-			int[] xps = { x1i, x1i, x2i+1, x2i+1 };
+			xps[0] = x1i;
+			xps[1] = x1i;
+			xps[2] = x2i+1;
+			xps[3] = x2i+1;
 			// (x1i-x1)/xd is the percentage of what's left of [x1i,x2i] in [x1,x2]
 			// (x2i-x2)/xd is the percentage of what's right of [x1i,x2i] in [x1,x2]
 			// memo: warning for refactoring: this is integer division
-			int[] yps = { y11+(x1i-x1)*yd1/xd,
-					y12+(x1i-x1)*yd2/xd+1,
-					y22+(x2i-x2)*yd2/xd+1,
-					y21+(x2i-x2)*yd1/xd };
+			yps[0] = y11+(x1i-x1)*yd1/xd;
+			yps[1] = y12+(x1i-x1)*yd2/xd+1;
+			yps[2] = y22+(x2i-x2)*yd2/xd+1;
+			yps[3] = y21+(x2i-x2)*yd1/xd;
 			// debug
 			//dbg("polygon-x: " + xps[0] + ", " + xps[1] + ", " + xps[2] + ", " + xps[3]) ;
 			//dbg("polygon-y: " + yps[0] + ", " + yps[1] + ", " + yps[2] + ", " + yps[3]) ;
@@ -561,14 +726,19 @@ public class FirstPersonView {
 
 	/**
 	 * Trivial class to hold 4 integer values. Used only in FirstPersonDrawer.
+	 * A single instance is reused for all walls and nodes.
 	 */
 	class RangePair {
 		public int x1;
 		public int z1; 
 		public int x2; 
 		public int z2;
+		private final FloatPair fp = new FloatPair(0, 1); // reused in clip3d
 
-		RangePair(int xx1, int zz1, int xx2, int zz2) {
+		/**
+		 * Sets all 4 values.
+		 */
+		void set(int xx1, int zz1, int xx2, int zz2) {
 			x1 = xx1;
 			z1 = zz1;
 			x2 = xx2;
@@ -589,7 +759,8 @@ public class FirstPersonView {
 			// calculate float pair
 			final int dx = x2 - x1;
 			final int dz = z2 - z1;
-			FloatPair fp = new FloatPair(0, 1);
+			fp.p1 = 0;
+			fp.p2 = 1;
 			if (!fp.clipt(-dx - dz, x1 + z1))
 				return false;
 			if (!fp.clipt(dx - dz, -x1 + z1))
@@ -9,6 +9,10 @@ import generation.Maze;
 import gui.ColorTheme.MazeColors;
 
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.logging.Logger;
 
 /**
@@ -25,6 +29,15 @@ import java.util.logging.Logger;
  * It is possible to zoom in and out of the map by increasing or decreasing
  * the map scale.
  * 
+ * Walls do not move and only change color when they are seen for the first time,
+ * so they are drawn once into tiles of an image of the whole map
+ * for the current map scale. Each frame copies the visible tiles to the screen
+ * with the offset for the current position. 
+ * The map compares the seen walls against a snapshot whenever they were modified
+ * and draws the tiles again that show a wall seen for the first time.
+ * The solution is kept as a path with its corners, as it only changes when
+ * the current position leaves the path, and it is drawn as a single polyline.
+ * 
  * This code is refactored code from Maze.java by Paul Falstad,
  * www.falstad.com, Copyright (C) 1998, all rights reserved
  * Paul Falstad granted permission to modify and use code for teaching purposes.
@@ -66,6 +79,35 @@ public class Map {
 	 * width and height of the maze
 	 */
 	final Maze maze ;
+	
+	// the image of all walls has the corner of cell (x,y) at pixel 
+	// (x*mapScale + MARGIN, (height-y)*mapScale + MARGIN), 
+	// the margin keeps antialiased pixels of border walls inside the image
+	private static final int MARGIN = 1;
+	// the image is split into square tiles of TILE x TILE pixels that are drawn on demand
+	private static final int TILE = 256;
+	// number of tiles to keep, about 16 MB, a screen needs at most 9 of them
+	private static final int MAX_TILES = 64;
+	// tiles indexed by tx + ty*65536, least recently used first
+	private final LinkedHashMap<Integer, BufferedImage> tiles = new LinkedHashMap<Integer, BufferedImage>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		@Override
+		protected boolean removeEldestEntry(java.util.Map.Entry<Integer, BufferedImage> eldest) {
+			return size() > MAX_TILES;
+		}
+	};
+	private int tileScale ; // map scale of the tiles
+	private boolean tileShowMaze ; // tiles show walls that were not seen
+	private int[] seenSnapshot ; // values of seenWalls cells as shown on the tiles, row by row
+	private int seenModifications ; // modification count of seenWalls when the snapshot was taken
+	
+	// path to the exit from (pathX[0], pathY[0]), null if not computed yet
+	private int[] pathX ;
+	private int[] pathY ;
+	private int pathLength ;
+	private int[] corners ; // increasing indices of path cells where the path changes direction
+	private int[] lineX ; // buffers for the coordinates of the solution polyline
+	private int[] lineY ;
 
 	/**
 	 * Constructor 
@@ -89,6 +131,8 @@ public class Map {
 		// correctness considerations
 		assert maze != null : "Map: maze configuration can't be null at instantiation!" ;
 		assert seenWalls != null : "Map: seencells can't be null at instantiation!" ;
+		seenSnapshot = new int[seenWalls.getWidth() * seenWalls.getHeight()] ;
+		seenModifications = -1 ; // compare with the snapshot on first use
 	}
 	
 	/**
@@ -123,7 +167,7 @@ public class Map {
 	 * Draws the current map on top of the first person view.
 	 * Method assumes that we are in the playing state and that
 	 * the map mode is switched on.
-	 * @param panel is the panel to draw with
+	 * @param panel is the panel to draw with, a MazePanel or an off-screen surface
 	 * @param x current position, x coordinate
 	 * @param y current position, y coordinate
 	 * @param angle the current angle, used to derive the viewing angle
@@ -134,7 +178,7 @@ public class Map {
 	 * @param showSolution if true shows a path to the exit as a yellow line,
 	 * otherwise path is not shown.
 	 */
-	public void draw(MazePanel panel, int x, int y, int angle, int walkStep,
+	public void draw(DrawingSurface panel, int x, int y, int angle, int walkStep,
 			boolean showMaze, boolean showSolution) {
 		Graphics g = panel.getBufferGraphics() ;
         // viewers draw on the buffer graphics
@@ -196,28 +240,20 @@ public class Map {
 		final int offsetX = getOffset(px, walkStep, viewDX, viewWidth);
 		final int offsetY = getOffset(py, walkStep, viewDY, viewHeight);
 		
-		// We need to calculate bounds for cell indices to consider
-		// for drawing. Since not the whole maze may be visible
-		// for the given screen size and the current position (px,py)
-		// is fixed to the center of the drawing area, we need
-		// to find the min and max indices for cells to consider.
-		// compute minimum for x,y
-		final int minX = getMinimum(offsetX);
-		final int minY = getMinimum(offsetY);
-		// compute maximum for x,y
-		final int maxX = getMaximum(offsetX, viewWidth, mazeWidth);
-		final int maxY = getMaximum(offsetY, viewHeight, mazeHeight);
+		// the image of all walls moves with the current position:
+		// pixel (ix,iy) of the image goes to (ix + imageX, iy + imageY) on the screen
+		final int imageX = mapToCoordinateX(0, offsetX) - MARGIN;
+		final int imageY = mapToCoordinateY(mazeHeight, offsetY) - MARGIN;
+		updateTiles(showMaze);
 		
-		// iterate over integer grid between min and max of x,y indices for cells
-		for (int y = minY; y <= maxY; y++)
-			for (int x = minX; x <= maxX; x++) {
-				// starting point of line
-				int startX = mapToCoordinateX(x, offsetX);
-				int startY = mapToCoordinateY(y, offsetY);
-				if (x < mazeWidth)
-					drawHorizontalLine(g, showMaze, x, y, startX, startY);
-				if (y < mazeHeight)
-					drawVerticalLine(g, showMaze, x, y, startX, startY);
+		// copy the tiles that overlap with the screen
+		final int minTileX = Math.max(0, Math.floorDiv(-imageX, TILE));
+		final int minTileY = Math.max(0, Math.floorDiv(-imageY, TILE));
+		final int maxTileX = Math.floorDiv(Math.min(getImageWidth(mazeWidth) - 1, viewWidth - 1 - imageX), TILE);
+		final int maxTileY = Math.floorDiv(Math.min(getImageHeight(mazeHeight) - 1, viewHeight - 1 - imageY), TILE);
+		for (int ty = minTileY; ty <= maxTileY; ty++)
+			for (int tx = minTileX; tx <= maxTileX; tx++) {
+				g.drawImage(getTile(tx, ty), imageX + tx*TILE, imageY + ty*TILE, null);
 			}
 		
 		if (showSolution) {
@@ -225,6 +261,103 @@ public class Map {
 		}
 	}
 
+	/**
+	 * Gives the width of the image of all walls for the current map scale.
+	 * @param mazeWidth the width of the maze
+	 * @return the width in pixels
+	 */
+	private int getImageWidth(int mazeWidth) {
+		return mazeWidth*mapScale + 2*MARGIN + 1;
+	}
+	/**
+	 * Gives the height of the image of all walls for the current map scale.
+	 * @param mazeHeight the height of the maze
+	 * @return the height in pixels
+	 */
+	private int getImageHeight(int mazeHeight) {
+		return mazeHeight*mapScale + 2*MARGIN + 1;
+	}
+	/**
+	 * Discards tiles that no longer match the map scale, the showMaze setting
+	 * or the seen walls.
+	 * The seen walls are compared with the snapshot only if they were modified since.
+	 * A cell whose value changed discards the tiles its two wallboards are on.
+	 * @param showMaze is the flag to show the walls that were not seen
+	 */
+	private void updateTiles(boolean showMaze) {
+		if (tileScale != mapScale || tileShowMaze != showMaze) {
+			tiles.clear();
+			tileScale = mapScale;
+			tileShowMaze = showMaze;
+		}
+		final int modifications = seenWalls.getModificationCount();
+		if (modifications == seenModifications)
+			return;
+		final int width = seenWalls.getWidth();
+		final int height = seenWalls.getHeight();
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				final int value = seenWalls.getValueOfCell(x, y);
+				if (value != seenSnapshot[y*width + x]) {
+					seenSnapshot[y*width + x] = value;
+					discardTiles(x, y);
+				}
+			}
+		}
+		seenModifications = modifications;
+	}
+	/**
+	 * Discards the tiles that show the north or west wallboard of the given cell.
+	 * @param x index for position in maze
+	 * @param y index for position in maze
+	 */
+	private void discardTiles(int x, int y) {
+		// the wallboards go from the corner of the cell to the next corner east and north
+		final int minX = Math.max(0, (x*mapScale + MARGIN - 1) / TILE);
+		final int maxX = ((x+1)*mapScale + MARGIN + 1) / TILE;
+		final int minY = Math.max(0, ((maze.getHeight()-y-1)*mapScale + MARGIN - 1) / TILE);
+		final int maxY = ((maze.getHeight()-y)*mapScale + MARGIN + 1) / TILE;
+		for (int ty = minY; ty <= maxY; ty++)
+			for (int tx = minX; tx <= maxX; tx++) {
+				tiles.remove(tx + ty*65536);
+			}
+	}
+	/**
+	 * Gives the tile at the given position of the image of all walls,
+	 * draws the tile if it is not available.
+	 * @param tx index of the tile in x direction
+	 * @param ty index of the tile in y direction
+	 * @return the tile
+	 */
+	private BufferedImage getTile(int tx, int ty) {
+		BufferedImage tile = tiles.get(tx + ty*65536);
+		if (null != tile)
+			return tile;
+		tile = new BufferedImage(TILE, TILE, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = tile.createGraphics();
+		MazePanel.setRenderingHints(g);
+		// cells whose wallboards may reach into the tile, a line is at most mapScale long
+		final int mazeWidth = maze.getWidth();
+		final int mazeHeight = maze.getHeight();
+		final int minX = Math.max(0, (tx*TILE - MARGIN) / mapScale - 1);
+		final int maxX = Math.min(mazeWidth, ((tx+1)*TILE - MARGIN) / mapScale + 1);
+		final int minY = Math.max(0, mazeHeight - ((ty+1)*TILE - MARGIN) / mapScale - 1);
+		final int maxY = Math.min(mazeHeight, mazeHeight - (ty*TILE - MARGIN) / mapScale + 1);
+		for (int y = minY; y <= maxY; y++)
+			for (int x = minX; x <= maxX; x++) {
+				// starting point of line, relative to the tile
+				int startX = x*mapScale + MARGIN - tx*TILE;
+				int startY = (mazeHeight-y)*mapScale + MARGIN - ty*TILE;
+				if (x < mazeWidth)
+					drawHorizontalLine(g, tileShowMaze, x, y, startX, startY);
+				if (y < mazeHeight)
+					drawVerticalLine(g, tileShowMaze, x, y, startX, startY);
+			}
+		g.dispose();
+		tiles.put(tx + ty*65536, tile);
+		return tile;
+	}
+
 	/**
 	 * Draw a vertical line for the overall map
 	 * @param g the graphics object to draw on
@@ -287,28 +420,6 @@ public class Map {
 					maze.hasWall(x,y-1, CardinalDirection.South);
 	}
 	
-	/**
-	 * Obtains the maximum for a given offset
-	 * @param offset either in x or y direction
-	 * @param viewLength is either viewWidth or viewHeight
-	 * @param mazeLength is either mazeWidth or mazeHeight
-	 * @return maximum that is bounded by mazeLength
-	 */
-	private int getMaximum(int offset, int viewLength, int mazeLength) {
-		int result = (viewLength-offset)/mapScale+1;
-		return (result >= mazeLength) ? mazeLength : result; 
-	}
-
-	/**
-	 * Obtains the minimum for a given offset
-	 * @param offset either in x or y direction
-	 * @return minimum that is greater or equal 0
-	 */
-	private int getMinimum(final int offset) {
-		final int result = -offset/mapScale;
-		return (result < 0) ? 0 : result;
-	}
-
 	/**
 	 * Calculates the offset in either x or y direction
 	 * @param coordinate is either x or y coordinate of current position
@@ -469,49 +580,93 @@ public class Map {
 					maze.getHeight() + ", mitigation: skip drawing the solution line") ;
 			return ;
 		}
+		final int start = getPathIndex(px, py);
+		if (start + 1 >= pathLength)
+			return ; // already at the exit
+		
+		gc.setColor(ColorTheme.getColor(MazeColors.MAP_SOLUTION));
+		
+		// the line goes through the centers of the current cell, the corners ahead and the last cell,
+		// so 1/2 of the size of the cell needs to be added to the
+		// top left corner of a cell which is + or - map_scale/2.
+		int n = 0;
+		n = addPoint(n, start, offsetX, offsetY);
+		int corner = Arrays.binarySearch(corners, start + 1);
+		for (int i = (corner < 0) ? -corner - 1 : corner; i < corners.length; i++) {
+			n = addPoint(n, corners[i], offsetX, offsetY);
+		}
+		n = addPoint(n, pathLength - 1, offsetX, offsetY);
+		gc.drawPolyline(lineX, lineY, n);
+	}
+	/**
+	 * Adds the center of the path cell with the given index to the solution polyline. 
+	 * @return the number of points of the polyline
+	 */
+	private int addPoint(int n, int index, int offsetX, int offsetY) {
+		lineX[n] = mapToCoordinateX(pathX[index], offsetX) + mapScale/2;
+		lineY[n] = mapToCoordinateY(pathY[index], offsetY) - mapScale/2;
+		return n + 1;
+	}
+	/**
+	 * Gives the index of the given position on the path to the exit.
+	 * The path from a position on the current path is the rest of the current path,
+	 * so the path is only computed again if the given position is not on it.
+	 * @param px is the current position, an index x for a cell
+	 * @param py is the current position, an index y for a cell
+	 * @return the index of (px,py) on the path
+	 */
+	private int getPathIndex(int px, int py) {
+		if (null != pathX) {
+			// distances decrease by one along the path
+			final int index = maze.getDistanceToExit(pathX[0], pathY[0]) - maze.getDistanceToExit(px, py);
+			if (0 <= index && index < pathLength && pathX[index] == px && pathY[index] == py)
+				return index;
+		}
+		computePath(px, py);
+		return 0;
+	}
+	/**
+	 * Computes the path from the given position towards the exit
+	 * up to the last position that is more than 1 step away from the exit.
+	 * @param px is the current position, an index x for a cell
+	 * @param py is the current position, an index y for a cell
+	 */
+	private void computePath(int px, int py) {
 		// current position on the solution path (sx,sy)
 		int sx = px;
 		int sy = py;
 		int distance = maze.getDistanceToExit(sx, sy);
-		
-		gc.setColor(ColorTheme.getColor(MazeColors.MAP_SOLUTION));
-		
+		// each step gets closer to the exit
+		pathX = new int[Math.max(1, distance)];
+		pathY = new int[pathX.length];
+		pathX[0] = sx;
+		pathY[0] = sy;
+		pathLength = 1;
+		int[] turns = new int[pathX.length];
+		int turnCount = 0;
 		// while we are more than 1 step away from the final position
-		while (distance > 1) {
+		while (distance > 1 && pathLength < pathX.length) {
 			// find neighbor closer to exit (with no wallboard in between)
 			int[] neighbor = maze.getNeighborCloserToExit(sx, sy) ;
 			if (null == neighbor)
-				return ; // error
-			// scale coordinates, original calculation:
-			// x-coordinates
-			// nx1     == sx*map_scale + offx + map_scale/2;
-			// nx1+ndx == sx*map_scale + offx + map_scale/2 + dx*map_scale == (sx+dx)*map_scale + offx + map_scale/2;
-			// y-coordinates
-			// ny1     == view_height-1-(sy*map_scale + offy) - map_scale/2;
-			// ny1+ndy == view_height-1-(sy*map_scale + offy) - map_scale/2 + -dy * map_scale == view_height-1 -((sy+dy)*map_scale + offy) - map_scale/2
-			// current position coordinates
-			//int nx1 = sx*map_scale + offx + map_scale/2;
-			//int ny1 = view_height-1-(sy*map_scale + offy) - map_scale/2;
-			//
-			// we need to translate the cell indices x and y into
-			// coordinates for drawing, the yellow lines is centered
-			// so 1/2 of the size of the cell needs to be added to the
-			// top left corner of a cell which is + or - map_scale/2.
-			int nx1 = mapToCoordinateX(sx,offsetX) + mapScale/2;
-			int ny1 = mapToCoordinateY(sy,offsetY) - mapScale/2;
-			// neighbor position coordinates
-			//int nx2 = neighbor[0]*map_scale + offx + map_scale/2;
-			//int ny2 = view_height-1-(neighbor[1]*map_scale + offy) - map_scale/2;
-			int nx2 = mapToCoordinateX(neighbor[0],offsetX) + mapScale/2;
-			int ny2 = mapToCoordinateY(neighbor[1],offsetY) - mapScale/2;
-			gc.drawLine(nx1, ny1, nx2, ny2);
-			
+				break ; // error
+			// a cell is a corner if the step into it and the step out of it differ
+			if (pathLength >= 2 && (neighbor[0] - sx != sx - pathX[pathLength-2] 
+					|| neighbor[1] - sy != sy - pathY[pathLength-2])) {
+				turns[turnCount++] = pathLength - 1;
+			}
 			// update loop variables for current position (sx,sy)
 			// and distance d for next iteration
 			sx = neighbor[0];
 			sy = neighbor[1];
+			pathX[pathLength] = sx;
+			pathY[pathLength] = sy;
+			pathLength++;
 			distance = maze.getDistanceToExit(sx, sy) ;
 		}
+		corners = Arrays.copyOf(turns, turnCount);
+		lineX = new int[turnCount + 2];
+		lineY = new int[turnCount + 2];
 	}
 	
 
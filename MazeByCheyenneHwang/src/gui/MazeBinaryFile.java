@@ -0,0 +1,395 @@
+package gui;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.Distance;
+import generation.Floorplan;
+import generation.Maze;
+import generation.MazeContainer;
+import generation.Wall;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class provides functionality to write a maze configuration to a file
+ * in a compact binary format and to read it back.
+ * It stores the same content as MazeFileWriter, but the XML format needs
+ * an element per cell and distance value, and reading it looks up each element
+ * by name in the whole document, which takes time quadratic in the size of the maze.
+ * A binary file is written sequentially in a single pass.
+ * Cells and distances have a fixed size, so a loaded maze reads them
+ * directly from the file content instead of decoding them:
+ * its Floorplan and Distance objects work on views of the buffer.
+ * The BSP tree is decoded on first use, as robots driving through the maze
+ * do not need it.
+ * Large files are memory-mapped for reading, so opening a maze only reads the header,
+ * the rest of the file stays in the page cache till it is used, 
+ * and processes that load the same maze share those pages.
+ * A floorplan copies its cells into the heap on its first modification.
+ *
+ * The format, all numbers in big endian byte order:
+ * <ul>
+ * <li>header: int {@link #MAGIC}, int {@link #VERSION}, int width, height, rooms,
+ * expected partition iterations, x and y coordinate of the starting position,
+ * number of bytes of the BSP tree</li>
+ * <li>floorplan: one unsigned short per cell with the value of the cell</li>
+ * <li>distances: one int per cell</li>
+ * <li>BSP tree in preorder: a byte {@link #BRANCH} followed by x, y, dx, dy of the branch
+ * as signed varints and then the left and the right subtree, or a byte {@link #LEAF}
+ * followed by the number of walls as a varint and for each wall x, y, dx, dy and distance
+ * as signed varints, an int for the color and a byte with flags for seen and partition,
+ * or a byte {@link #NO_TREE} if there is no tree, up to the end of the file</li>
+ * </ul>
+ * Cells and distances come row by row, y in the outer loop, as in a Floorplan.
+ * A varint stores 7 bits per byte, lowest bits first, the highest bit of a byte
+ * tells if more bytes follow. A signed varint stores (n &lt;&lt; 1) ^ (n &gt;&gt; 31) such that
+ * small negative values take few bytes too.
+ * Bounding boxes of BSP nodes are not stored as the BSPNode constructors compute them.
+ *
+ * All methods are static.
+ */
+public class MazeBinaryFile {
+	/**
+	 * The first four bytes of a binary maze file, "MAZB".
+	 */
+	public static final int MAGIC = 0x4D415A42;
+	/**
+	 * The version of the format that this class writes.
+	 */
+	public static final int VERSION = 2;
+	// tags for nodes of the BSP tree
+	static final byte BRANCH = 0;
+	static final byte LEAF = 1;
+	static final byte NO_TREE = 2;
+	// flags of a wall
+	private static final int SEEN = 1;
+	private static final int PARTITION = 2;
+	/**
+	 * Files of at least this many bytes are memory-mapped for reading,
+	 * smaller files are read into a heap buffer as mapping has a setup cost.
+	 */
+	static final long MAPPING_THRESHOLD = 64 * 1024;
+	/**
+	 * The number of bytes of the header.
+	 */
+	static final int HEADER_BYTES = 9 * 4;
+
+	/**
+	 * Write maze content to a file
+	 * @param filename gives the file name to store the data in
+	 * @param width is the width of the maze
+	 * @param height is the height of the maze
+	 * @param rooms is the number of rooms
+	 * @param expected_partiters is the expected number of partition iterations
+	 * @param root is the root node of the bsp tree, may be null
+	 * @param cells is the floor plan for this maze
+	 * @param dists is the distances to the exit
+	 * @param startX is the x coordinate of the starting position
+	 * @param startY is the y coordinate of the starting position
+	 * @throws IOException if the file can not be written
+	 */
+	public static void store(String filename, int width, int height, int rooms,
+			int expected_partiters, BSPNode root, Floorplan cells,
+			int[][] dists, int startX, int startY) throws IOException {
+		Output out = new Output(HEADER_BYTES + width * height * 8);
+		out.putInt(MAGIC);
+		out.putInt(VERSION);
+		out.putInt(width);
+		out.putInt(height);
+		out.putInt(rooms);
+		out.putInt(expected_partiters);
+		out.putInt(startX);
+		out.putInt(startY);
+		out.putInt(0); // number of bytes of the tree, set below
+		for (int y = 0; y != height; y++) {
+			for (int x = 0; x != width; x++) {
+				int value = cells.getValueOfCell(x, y);
+				if (value < 0 || value > 0xffff)
+					throw new IllegalArgumentException("Value " + value + " of cell (" + x + "," + y + ") does not fit the format");
+				out.putShort((short) value);
+			}
+		}
+		for (int y = 0; y != height; y++) {
+			for (int x = 0; x != width; x++) {
+				out.putInt(dists[x][y]);
+			}
+		}
+		int treeStart = out.getBuffer().position();
+		if (null == root)
+			out.put(NO_TREE);
+		else
+			storeNode(out, root);
+		ByteBuffer buffer = out.getBuffer();
+		buffer.putInt(HEADER_BYTES - 4, buffer.position() - treeStart);
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+	/**
+	 * Writes the given subtree in preorder.
+	 */
+	private static void storeNode(Output out, BSPNode node) {
+		if (node.isIsleaf()) {
+			List<Wall> walls = ((BSPLeaf) node).getAllWalls();
+			out.put(LEAF);
+			out.putVarint(walls.size());
+			for (Wall wall : walls) {
+				out.putSignedVarint(wall.getStartPositionX());
+				out.putSignedVarint(wall.getStartPositionY());
+				out.putSignedVarint(wall.getExtensionX());
+				out.putSignedVarint(wall.getExtensionY());
+				out.putSignedVarint(wall.getDistance());
+				out.putInt(wall.getColor());
+				out.put((byte) ((wall.isSeen() ? SEEN : 0) | (wall.isPartition() ? PARTITION : 0)));
+			}
+		} else {
+			BSPBranch branch = (BSPBranch) node;
+			out.put(BRANCH);
+			out.putSignedVarint(branch.getX());
+			out.putSignedVarint(branch.getY());
+			out.putSignedVarint(branch.getDx());
+			out.putSignedVarint(branch.getDy());
+			storeNode(out, branch.getLeftBranch());
+			storeNode(out, branch.getRightBranch());
+		}
+	}
+
+	/**
+	 * Tells if the given file starts like a binary maze file.
+	 * @param filename the name of the file
+	 * @return true if the file starts with the magic number, false otherwise
+	 * or if it can not be read
+	 */
+	public static boolean isBinary(String filename) {
+		ByteBuffer buffer = ByteBuffer.allocate(4);
+		try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// keep reading until the magic number is complete or the file ends
+			}
+		} catch (IOException e) {
+			return false;
+		}
+		return !buffer.hasRemaining() && MAGIC == buffer.getInt(0);
+	}
+	/**
+	 * Reads a maze from a binary file.
+	 * A file of at least {@link #MAPPING_THRESHOLD} bytes is memory-mapped,
+	 * the floorplan and the distances of the maze read from the mapping.
+	 * The BSP tree is decoded on the first call to getRootnode() or getFlatTree()
+	 * of the maze, which throw an UncheckedIOException if the tree is broken.
+	 * @param filename the name of the file
+	 * @return the maze
+	 * @throws IOException if the file can not be read or is not a binary maze file
+	 */
+	public static Maze load(String filename) throws IOException {
+		Path path = Paths.get(filename);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IOException("File too large for a maze: " + filename);
+			if (size >= MAPPING_THRESHOLD) {
+				// the mapping stays valid after the channel is closed
+				return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+			}
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// keep reading until the buffer is full or the file ends
+			}
+			buffer.flip();
+			return read(buffer);
+		}
+	}
+	/**
+	 * Reads a maze from the given buffer that holds the content of a binary maze file
+	 * from its position to its limit.
+	 * The floorplan and the distances of the maze read from the buffer,
+	 * the BSP tree is decoded from the buffer on first use.
+	 * @param buffer the content, its position is advanced to the end of the maze,
+	 * its content must not change afterwards
+	 * @return the maze
+	 * @throws IOException if the content is not a maze in a supported version of the format
+	 */
+	static Maze read(ByteBuffer buffer) throws IOException {
+		try {
+			if (MAGIC != buffer.getInt())
+				throw new IOException("Not a binary maze file");
+			int version = buffer.getInt();
+			if (VERSION != version)
+				throw new IOException("Unsupported version " + version + " of binary maze file");
+			int width = buffer.getInt();
+			int height = buffer.getInt();
+			buffer.getInt(); // rooms, not part of a maze
+			buffer.getInt(); // expected partition iterations, not part of a maze
+			int startX = buffer.getInt();
+			int startY = buffer.getInt();
+			int treeBytes = buffer.getInt();
+			if (width <= 0 || height <= 0 || (long) width * height * 6 > buffer.remaining())
+				throw new IOException("Invalid size " + width + " x " + height + " of binary maze file");
+			ShortBuffer cells = take(buffer, width * height * 2).asShortBuffer();
+			IntBuffer dists = take(buffer, width * height * 4).asIntBuffer();
+			if (treeBytes != buffer.remaining())
+				throw new IOException("Binary maze file is truncated");
+			ByteBuffer tree = take(buffer, treeBytes);
+			MazeContainer maze = new MazeContainer();
+			maze.setHeight(height);
+			maze.setWidth(width);
+			maze.setFloorplan(new Floorplan(width, height, cells));
+			maze.setMazedists(new Distance(width, height, dists));
+			maze.setRootnodeSource(() -> readTree(tree.duplicate()));
+			maze.setStartingPosition(startX, startY);
+			return maze;
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Binary maze file is truncated", e);
+		}
+	}
+	/**
+	 * Reads the BSP tree from the given buffer that holds exactly the tree.
+	 * @return the rootnode, null if there is no tree
+	 * @throws UncheckedIOException if the buffer does not hold a valid tree
+	 */
+	private static BSPNode readTree(ByteBuffer buffer) {
+		try {
+			BSPNode root = readNode(buffer);
+			if (buffer.hasRemaining())
+				throw new IOException("Unexpected bytes after BSP tree in binary maze file");
+			return root;
+		} catch (BufferUnderflowException e) {
+			throw new UncheckedIOException(new IOException("BSP tree in binary maze file is truncated", e));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	/**
+	 * Gives a read-only view of the given number of bytes at the position of the buffer
+	 * and advances the position past them.
+	 */
+	private static ByteBuffer take(ByteBuffer buffer, int bytes) {
+		ByteBuffer part = buffer.slice().asReadOnlyBuffer();
+		part.limit(bytes);
+		buffer.position(buffer.position() + bytes);
+		return part;
+	}
+	/**
+	 * Reads a subtree in preorder.
+	 * @return the subtree, null if there is no tree
+	 */
+	private static BSPNode readNode(ByteBuffer buffer) throws IOException {
+		byte tag = buffer.get();
+		switch (tag) {
+		case NO_TREE:
+			return null;
+		case LEAF:
+			int n = getVarint(buffer);
+			if (n < 0 || n > buffer.remaining())
+				throw new IOException("Invalid number of walls " + n + " in binary maze file");
+			ArrayList<Wall> walls = new ArrayList<>(n);
+			for (int i = 0; i < n; i++) {
+				int x = getSignedVarint(buffer);
+				int y = getSignedVarint(buffer);
+				int dx = getSignedVarint(buffer);
+				int dy = getSignedVarint(buffer);
+				int dist = getSignedVarint(buffer);
+				Wall wall = new Wall(x, y, dx, dy, dist, 0); // color is set explicitly below
+				wall.setColor(buffer.getInt());
+				int flags = buffer.get();
+				wall.setSeen(0 != (flags & SEEN));
+				wall.setPartition(0 != (flags & PARTITION));
+				walls.add(wall);
+			}
+			return new BSPLeaf(walls);
+		case BRANCH:
+			int x = getSignedVarint(buffer);
+			int y = getSignedVarint(buffer);
+			int dx = getSignedVarint(buffer);
+			int dy = getSignedVarint(buffer);
+			BSPNode left = readNode(buffer);
+			BSPNode right = readNode(buffer);
+			if (null == left || null == right)
+				throw new IOException("Missing branch of BSP node in binary maze file");
+			return new BSPBranch(x, y, dx, dy, left, right);
+		default:
+			throw new IOException("Invalid BSP node tag " + tag + " in binary maze file");
+		}
+	}
+	/**
+	 * Reads a varint, see the class comment.
+	 */
+	static int getVarint(ByteBuffer buffer) throws IOException {
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.get();
+			result |= (b & 0x7f) << shift;
+			if (b >= 0)
+				return result;
+		}
+		throw new IOException("Varint too long in binary maze file");
+	}
+	/**
+	 * Reads a signed varint, see the class comment.
+	 */
+	static int getSignedVarint(ByteBuffer buffer) throws IOException {
+		int n = getVarint(buffer);
+		return (n >>> 1) ^ -(n & 1);
+	}
+
+	/**
+	 * A byte buffer that grows as needed.
+	 */
+	private static class Output {
+		private ByteBuffer buffer;
+
+		Output(int capacity) {
+			buffer = ByteBuffer.allocate(capacity);
+		}
+		ByteBuffer getBuffer() {
+			return buffer;
+		}
+		private void ensure(int bytes) {
+			if (buffer.remaining() >= bytes)
+				return;
+			ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + bytes));
+			buffer.flip();
+			larger.put(buffer);
+			buffer = larger;
+		}
+		void put(byte value) {
+			ensure(1);
+			buffer.put(value);
+		}
+		void putShort(short value) {
+			ensure(2);
+			buffer.putShort(value);
+		}
+		void putInt(int value) {
+			ensure(4);
+			buffer.putInt(value);
+		}
+		void putVarint(int value) {
+			ensure(5);
+			while (0 != (value & ~0x7f)) {
+				buffer.put((byte) ((value & 0x7f) | 0x80));
+				value >>>= 7;
+			}
+			buffer.put((byte) value);
+		}
+		void putSignedVarint(int value) {
+			putVarint((value << 1) ^ (value >> 31));
+		}
+	}
+}
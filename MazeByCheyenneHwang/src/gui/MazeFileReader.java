@@ -12,21 +12,29 @@ import generation.Maze;
 import generation.MazeContainer;
 import generation.Wall;
 
-import java.io.File;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * This class provides functionality to read the content of a Maze object from a file. 
  * File format is XML and produced with MazeFileWriter.
+ * The file is read as a stream in a single pass, each element is handled
+ * as it comes along, so reading takes time linear in the size of the file.
+ * Scalar values and cells and distances are recognized by their names and may come in any order,
+ * except that sizeX and sizeY precede cells and distances.
+ * The elements of the tree of BSPNodes need to be in the order MazeFileWriter puts them, 
+ * that is a preorder traversal where the isleaf element of a node precedes its other content.
  * The class is a simple wrapper to make all fields of a Maze object accessible 
  * such that with the help of this class it is straightforward
  * to instantiate a MazeConfiguration object.
@@ -105,196 +113,238 @@ public class MazeFileReader {
 	 */
 	private void load(String filename)
 	{
-		try{
-
-			File fXmlFile = new File(filename);
-			DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-			DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-			Document doc = dBuilder.parse(fXmlFile);
-			doc.getDocumentElement().normalize();
-
-			NodeList nList = doc.getElementsByTagName("Maze");
-
-			for (int temp = 0 ; temp < nList.getLength() ; temp++) {
-
-				Node nNode = nList.item(temp);
-				if (nNode.getNodeType() == Node.ELEMENT_NODE) {
-
-					Element eElement = (Element) nNode;
-
-					width = getElementIntValue("sizeX", eElement);
-					height = getElementIntValue("sizeY", eElement);
-					rooms =  getElementIntValue("roomNum", eElement);
-					dists = new int[width][height];
-					expected_partiters = getElementIntValue("partiters", eElement);
-					cells = readCells(eElement);
-					// read array of distance values
-					readDistances(eElement);
-					// read start position
-					startx = getElementIntValue("startX", eElement);
-					starty = getElementIntValue("startY", eElement);
-					// read tree of BSPNodes
-					number = 0 ; // field used as an index, that is shared an updated across recursive readBSPNode calls
-					root = readBSPNode(eElement);
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		// a maze file has no document type, do not resolve anything outside of it
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		try (InputStream in = new BufferedInputStream(new FileInputStream(filename), 1 << 16)) {
+			XMLStreamReader reader = factory.createXMLStreamReader(in);
+			try {
+				TreeReader tree = new TreeReader();
+				StringBuilder text = new StringBuilder();
+				while (reader.hasNext()) {
+					if (reader.next() != XMLStreamConstants.START_ELEMENT)
+						continue;
+					String name = reader.getLocalName();
+					if ("Maze".equals(name))
+						continue;
+					readText(reader, text);
+					readElement(name, text, tree);
 				}
+				root = tree.getRoot();
+			} finally {
+				reader.close(); // does not close the underlying stream
 			}
 		}
 		catch (Exception e) { // TODO: implement serious error handling
 			e.printStackTrace();
 		}
-
 	}
-
-	// shared index number for nodes in the tree of BSPNodes, used as an additional return value for recursive calls
-	// the sequence of values is increasing, when switching from a left branch to a right branch in a preorder treetraversal 
-	// we need to keep track of the node number 
-	int number ;
 	/**
-	 * Reads data for a BSPNode from file for the given element
-	 * 
-	 * The method recursively explores the left and right branches and builds a complete tree.
-	 * @param eElement element to read data from
-	 * @return a new BSPNode, fully initialized with all necessary data
+	 * Collects the text of the current element, which may come in several pieces. 
+	 * @param reader the reader positioned at the start of an element
+	 * @param text the buffer to fill, its previous content is discarded
+	 * @throws XMLStreamException if the element has child elements or the file is broken
 	 */
-	private BSPNode readBSPNode(Element eElement) {
-		// read fields of BSBNode class
-		/* unused, as these values are recalculated in the BSPnode constructor
-		int xlLoad = getElementIntValue("xlBSPNode_"+number, eElement);
-		int ylLoad = getElementIntValue("ylBSPNode_"+number, eElement);
-		int xuLoad = getElementIntValue("xuBSPNode_"+number, eElement);
-		int yuLoad = getElementIntValue("yuBSPNode_"+number, eElement);
-		 */
-		int mynumber = number ; // keep track of own node number, as that the shared attribute number gets manipulated in recursive method calls
-		boolean isleafLoad= getElementBooleanValue("isleafBSPNode_"+mynumber, eElement);
-		// laod data for leaf nodes and bsp branch nodes
-		if (isleafLoad)
-		{
-			// BSBLeaf, load walls
-			// note xl, yl, xu and yu are computed from the walls within the leaf constructor
-			// so there is no need to store those
-			ArrayList<Wall> slist = new ArrayList<Wall>() ;
-			int n = getElementIntValue("numSeg_" + mynumber, eElement); // get the total number of walls to load
-			//System.out.println("Trace: read Leaf " + mynumber + ", walls: " + n) ;
-			for (int i = 0 ; i < n ; i++)
-			{
-				slist.add(readWall(eElement, number, i)) ;
-			}
-			return new BSPLeaf(slist) ;
-		}
-		else
-		{
-			//BSPBranch, load fields and left and right branches
-			int x = getElementIntValue("xBSPNode_"+mynumber, eElement);
-			int y = getElementIntValue("yBSPNode_"+mynumber, eElement);
-			int dx = getElementIntValue("dxBSPNode_"+mynumber, eElement); 
-			int dy = getElementIntValue("dyBSPNode_"+mynumber, eElement);
-			// read left branch before right branch, increment index number for next node to visit
-			number++ ;
-			BSPNode l = readBSPNode(eElement) ; // recursion updates index number for each element of the subtree
-			number++ ; // increment index number for next node to visit
-			BSPNode r = readBSPNode(eElement) ;
-			// other fields of BSBNode class need not be set, computed in constructor from branches
-			return new BSPBranch(x,y,dx,dy,l,r) ;
+	private static void readText(XMLStreamReader reader, StringBuilder text) throws XMLStreamException {
+		text.setLength(0);
+		for (int event = reader.next(); event != XMLStreamConstants.END_ELEMENT; event = reader.next()) {
+			if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)
+				text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+			else if (event == XMLStreamConstants.START_ELEMENT)
+				throw new XMLStreamException("Unexpected element " + reader.getLocalName());
 		}
 	}
 	/**
-	 * Read a single wall from file
-	 * @param eElement element to read from 
-	 * @param number suffix with index number of BSPNode
-	 * @param i suffix with index of wall
-	 * @return new wall, fully initialized with all necessary data
+	 * Stores the value of a single element in the matching field.
+	 * @param name the name of the element
+	 * @param text the text of the element
+	 * @param tree collects the elements of the tree of BSPNodes
 	 */
-	private static Wall readWall(Element eElement, int number, int i) {
-		// load wall attributes		
-		int dist = getElementIntValue("distSeg_" + number+ "_" + i, eElement);
-		int dx = getElementIntValue("dxSeg_" + number+ "_" + i, eElement);
-		int dy = getElementIntValue("dySeg_" + number+ "_" + i, eElement);
-		int x = getElementIntValue("xSeg_" + number+ "_" + i, eElement);
-		int y = getElementIntValue("ySeg_" + number+ "_" + i, eElement);	
-		int cc = 0 ; // use this as a dummy for the constructor, the correct color is explicitly set below
-		Wall result = new Wall(x,y,dx,dy,dist,cc) ;
-		// get a few more attributes and set those explicitly
-		result.setColor(getElementIntValue("colSeg_" + number+ "_" + i, eElement)); 
-		result.setSeen(getElementBooleanValue("seenSeg_" + number+ "_" + i, eElement));
-		result.setPartition(getElementBooleanValue("partitionSeg_" + number+ "_" + i, eElement));
-		return result;
+	private void readElement(String name, CharSequence text, TreeReader tree) {
+		if (name.startsWith("cell_")) {
+			// cells are stored row by row in the floorplan but by column in the file
+			int number = parseSuffix(name, 5);
+			cellValues[(number % height) * width + number / height] = parseInt(text);
+		}
+		else if (name.startsWith("dists_")) {
+			int number = parseSuffix(name, 6);
+			dists[number / height][number % height] = parseInt(text);
+		}
+		else if (name.contains("BSPNode_") || name.contains("Seg_")) {
+			tree.readElement(name, text);
+		}
+		else switch (name) {
+		case "sizeX":
+			width = parseInt(text);
+			allocate();
+			break;
+		case "sizeY":
+			height = parseInt(text);
+			allocate();
+			break;
+		case "roomNum":
+			rooms = parseInt(text);
+			break;
+		case "partiters":
+			expected_partiters = parseInt(text);
+			break;
+		case "startX":
+			startx = parseInt(text);
+			break;
+		case "startY":
+			starty = parseInt(text);
+			break;
+		default:
+			// unknown elements are ignored
+		}
 	}
-
+	
+	// values of cells while reading, row by row as in a floorplan, null if the size is not known yet
+	private int[] cellValues ;
 	/**
-	 * Reads data for a two-dimensional array of distance values. 
-	 * Requires that fields width and height have been set. 
-	 * @param eElement to read data from
+	 * Sets up the cells and distances once width and height are known.
 	 */
-	private void readDistances(Element eElement) {
-		int number = 0 ;
-		for ( int x = 0; x != width; x++) {
-			for ( int y = 0; y != height; y++) {
-				dists[x][y] = getElementIntValue("dists"+ "_" + Integer.toString(number), eElement);
-				number++;
-			}
+	private void allocate() {
+		if (0 < width && 0 < height) {
+			cellValues = new int[width * height] ;
+			cells = new Floorplan(width, height, cellValues) ;
+			dists = new int[width][height] ;
 		}
 	}
-
+	
 	/**
-	 * Reads data for a cells object that contains values for walls. 
-	 * Requires that fields width and height have been set. 
-	 * @param eElement to read data from
-	 * @return the floor plan that is parsed from the given element
+	 * Builds the tree of BSPNodes from its elements in the order of a preorder traversal.
+	 * Branches wait on a stack until both of their children are complete.
+	 * The bounds of a node are ignored, they are recalculated in the BSPNode constructors.
 	 */
-	private Floorplan readCells(Element eElement) {
-		int [][]cellValue = new int[width][height] ;
-		int number = 0 ;
+	private static class TreeReader {
+		// a branch whose children are not complete yet
+		private static class PendingBranch {
+			int x, y, dx, dy ;
+			BSPNode left ;
+		}
+		// names of the fields of a wall, numbers first and booleans last
+		private static final List<String> FIELDS = Arrays.asList("dist", "dx", "dy", "x", "y", "col", "seen", "partition") ;
+		private final Deque<PendingBranch> branches = new ArrayDeque<>() ;
+		private BSPNode root ;
+		// walls of the current leaf, null if the current node is not a leaf
+		private Wall[] walls ;
+		private int missingWalls ;
+		// fields of the walls of the current leaf, indexed by wall and FIELDS, and the number of fields set per wall
+		private int[][] wallFields ;
+		private int[] fieldCounts ;
 
-		for ( int x = 0; x != width; x++) {
-			for ( int y = 0; y != height; y++) {
-				cellValue[x][y] = getElementIntValue("cell"+ "_" + Integer.toString(number), eElement);
-				number++;
+		BSPNode getRoot() {
+			if (null != walls || !branches.isEmpty())
+				throw new IllegalStateException("Incomplete tree of BSPNodes");
+			return root ;
+		}
+		void readElement(String name, CharSequence text) {
+			int underscore = name.indexOf('_') ;
+			String field = name.substring(0, underscore) ;
+			switch (field) {
+			case "isleafBSPNode":
+				if (null != walls)
+					throw new IllegalStateException("Incomplete leaf before " + name);
+				if (Boolean.parseBoolean(text.toString())) {
+					walls = new Wall[0] ; // until the number of walls is known
+				} else {
+					branches.push(new PendingBranch()) ;
+				}
+				return ;
+			case "xBSPNode":
+				getBranch(name).x = parseInt(text) ;
+				return ;
+			case "yBSPNode":
+				getBranch(name).y = parseInt(text) ;
+				return ;
+			case "dxBSPNode":
+				getBranch(name).dx = parseInt(text) ;
+				return ;
+			case "dyBSPNode":
+				getBranch(name).dy = parseInt(text) ;
+				return ;
+			case "numSeg":
+				if (null == walls)
+					throw new IllegalStateException("Unexpected element " + name);
+				missingWalls = parseInt(text) ;
+				walls = new Wall[missingWalls] ;
+				wallFields = new int[missingWalls][FIELDS.size()] ;
+				fieldCounts = new int[missingWalls] ;
+				if (0 == missingWalls)
+					completeLeaf() ;
+				return ;
+			default:
+				if (!field.endsWith("Seg")) {
+					return ; // bounds of a node
+				}
+				readWallField(name, field.substring(0, field.length() - 3), text) ;
+			}
+		}
+		private PendingBranch getBranch(String name) {
+			if (null != walls || branches.isEmpty())
+				throw new IllegalStateException("Unexpected element " + name);
+			return branches.peek() ;
+		}
+		/**
+		 * Stores a field of a wall of the current leaf, creates the wall once all its fields are known.
+		 */
+		private void readWallField(String name, String field, CharSequence text) {
+			int index = FIELDS.indexOf(field) ;
+			if (null == wallFields || index < 0)
+				throw new IllegalStateException("Unexpected element " + name);
+			int i = parseSuffix(name, name.lastIndexOf('_') + 1) ;
+			int[] values = wallFields[i] ;
+			values[index] = (index < 6) ? parseInt(text) : (Boolean.parseBoolean(text.toString()) ? 1 : 0) ;
+			if (++fieldCounts[i] < FIELDS.size())
+				return ;
+			int cc = 0 ; // use this as a dummy for the constructor, the correct color is explicitly set below
+			Wall wall = new Wall(values[3], values[4], values[1], values[2], values[0], cc) ;
+			wall.setColor(values[5]) ;
+			wall.setSeen(1 == values[6]) ;
+			wall.setPartition(1 == values[7]) ;
+			walls[i] = wall ;
+			if (0 == --missingWalls)
+				completeLeaf() ;
+		}
+		private void completeLeaf() {
+			BSPNode leaf = new BSPLeaf(new ArrayList<Wall>(Arrays.asList(walls))) ;
+			walls = null ;
+			wallFields = null ;
+			fieldCounts = null ;
+			complete(leaf) ;
+		}
+		/**
+		 * Hands a complete node to its parent, completes the parent if this is its right child.
+		 */
+		private void complete(BSPNode node) {
+			while (!branches.isEmpty()) {
+				PendingBranch parent = branches.peek() ;
+				if (null == parent.left) {
+					parent.left = node ;
+					return ;
+				}
+				branches.pop() ;
+				node = new BSPBranch(parent.x, parent.y, parent.dx, parent.dy, parent.left, node) ;
 			}
+			if (null != root)
+				throw new IllegalStateException("Several trees of BSPNodes");
+			root = node ;
 		}
-		return new Floorplan(cellValue);
 	}
 	
 	/**
-	 * Obtains an integer value from the given element for the given string
-	 * @param string identifier
-	 * @param parent element that holds data
-	 * @return the int value for the given element
+	 * Parses the number at the end of the given name.
+	 * @param name the name of an element
+	 * @param start the index of the first digit
+	 * @return the number
 	 */
-	public static int getElementIntValue(  String string, Element parent) {
-		return Integer
-				.parseInt(getElementStringValue( string, parent));
+	private static int parseSuffix(String name, int start) {
+		return Integer.parseInt(name, start, name.length(), 10);
 	}
-
-	/**
-	 * Obtains an integer value from the given element for the given string
-	 * @param string identifier
-	 * @param parent element that holds data
-	 * @return the boolean value of the given element
-	 */
-	public static boolean getElementBooleanValue(  String string, Element parent ) {
-		return Boolean
-				.valueOf(getElementStringValue(string, parent))
-				.booleanValue();
-	}
-
-	/**
-	 * Obtains an integer value from the given element for the given string
-	 * @param string identifier
-	 * @param parent element that holds data
-	 * @return the string that represents the given information
-	 */
-	public static String getElementStringValue( String string, Element parent) {
-		NodeList nl = parent.getElementsByTagName(string);
-		if (nl.getLength() == 0) {
-			return "";
-		}
-
-		Node n = nl.item(0).getFirstChild();
-		if (n == null) {
-			return "";
-		}
-
-		return n.getNodeValue();
+	private static int parseInt(CharSequence text) {
+		return Integer.parseInt(text, 0, text.length(), 10);
 	}
 
 	/////////////////////////////////// internal methods used in testing /////////////////////////////////////////
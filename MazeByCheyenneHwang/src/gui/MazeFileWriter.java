@@ -7,26 +7,26 @@ package gui;
 import generation.BSPNode;
 import generation.Floorplan;
 
-import java.io.File;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 /**
  * This class provides functionality to write a maze configuration to a file in an XML format.
- * The class design is not object-oriented as methods for this particular function are all collected here and
- * not distributed across classes that carry that information, e.g. BSPNode.
  * All methods are static. 
  * The XML format is a straightforward enumeration of elements and not particularly sophisticated. 
+ * The file is written as a stream, elements go to the file as they are produced
+ * such that no document is kept in memory.
+ * The BSP tree is written by its nodes, BSPNode.store and Wall.storeWall,
+ * with the help of the writeElement methods, so the elements for nodes and walls
+ * are defined in one place.
  * 
  *
  */
@@ -49,31 +49,19 @@ public class MazeFileWriter {
 			int expected_partiters, BSPNode root, Floorplan cells, 
 			int[][] dists, int startX, int startY)
 	{
-		 try {
-			 	// get a document 
-				DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-				DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-				Document doc = docBuilder.newDocument();
-
-				 
-				// store data that characterizes the maze in the document
-				storeMaze(width, height, rooms, expected_partiters, root, cells, dists, startX, startY, doc);
-				
-				// write the document content into resulting xml file
-				TransformerFactory transformerFactory = TransformerFactory.newInstance();
-				Transformer transformer = transformerFactory.newTransformer();
-				DOMSource source = new DOMSource(doc);
-				StreamResult result = new StreamResult(new File(filename));
-		 
-				transformer.transform(source, result);
-			  } catch (ParserConfigurationException pce) {
-				pce.printStackTrace();
-			  } catch (TransformerException tfe) {
-				tfe.printStackTrace();
-			  }
+		try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(filename), StandardCharsets.UTF_8), 1 << 16)) {
+			XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+			writer.writeStartDocument("UTF-8", "1.0");
+			// store data that characterizes the maze in the document
+			storeMaze(width, height, rooms, expected_partiters, root, cells, dists, startX, startY, writer);
+			writer.writeEndDocument();
+			writer.close(); // does not close the underlying stream
+		} catch (XMLStreamException | IOException e) {
+			e.printStackTrace();
+		}
 	}
 	/**
-	 * Store given objects in the given document
+	 * Write given objects to the given stream
 	 * @param width the width of the maze
 	 * @param height the height of the maze
 	 * @param rooms the number of rooms
@@ -83,24 +71,24 @@ public class MazeFileWriter {
 	 * @param dists the distances to the exit position
 	 * @param startX the x coordinate of the starting position
 	 * @param startY the y coordinate of the starting position
-	 * @param doc the document to append the information to
+	 * @param writer the stream to write the information to
+	 * @throws XMLStreamException if writing fails
 	 */
 	static void storeMaze(int width, int height, int rooms,
 			int expected_partiters, BSPNode root, Floorplan cells, int[][] dists,
-			int startX, int startY, Document doc) {
-		Element mazeXML = doc.createElement("Maze");
-		doc.appendChild(mazeXML);
+			int startX, int startY, XMLStreamWriter writer) throws XMLStreamException {
+		writer.writeStartElement("Maze");
 		
 		// store fields of Maze class
-		MazeFileWriter.appendChild(doc, mazeXML, "sizeX", width) ;
-		MazeFileWriter.appendChild(doc, mazeXML, "sizeY", height) ;
-		MazeFileWriter.appendChild(doc, mazeXML, "roomNum", rooms) ;                 // TODO: check, unclear if this is truly necessary
-		MazeFileWriter.appendChild(doc, mazeXML, "partiters", expected_partiters) ;  // TODO: check, unclear if this is truly necessary
+		writeElement(writer, "sizeX", width) ;
+		writeElement(writer, "sizeY", height) ;
+		writeElement(writer, "roomNum", rooms) ;                 // TODO: check, unclear if this is truly necessary
+		writeElement(writer, "partiters", expected_partiters) ;  // TODO: check, unclear if this is truly necessary
 		// cells
 		int number = 0 ;		
 		for ( int x = 0; x != width; x++) {
 			for ( int y = 0; y != height; y++) {
-				MazeFileWriter.appendChild(doc, mazeXML, "cell"+ "_" + Integer.toString(number), cells.getValueOfCell(x, y)) ;
+				writeElement(writer, "cell_" + number, cells.getValueOfCell(x, y)) ;
 				number++;
 			}
 		}
@@ -108,50 +96,49 @@ public class MazeFileWriter {
 		number = 0 ;		
 		for ( int x = 0; x != width; x++) {
 			for ( int y = 0; y != height; y++) {
-				MazeFileWriter.appendChild(doc, mazeXML, "dists"+ "_" + Integer.toString(number), dists[x][y]) ;
+				writeElement(writer, "dists_" + number, dists[x][y]) ;
 				number++;
 			}
 		}
 		// start position
-		MazeFileWriter.appendChild(doc, mazeXML, "startX", startX) ;
-		MazeFileWriter.appendChild(doc, mazeXML, "startY", startY) ;
+		writeElement(writer, "startX", startX) ;
+		writeElement(writer, "startY", startY) ;
 		// BSPnodes
 		if (null != root)
 		{
 			//Store the content of a BSPNode including data of branches and leaves as special cases.
-			root.store(doc, mazeXML, 0);
+			root.store(writer, 0);
 		}
 		else
 		{
 			System.out.println("MazeBuilderWriter.store: root node of BSP tree is null");
 		}
-		
+		writer.writeEndElement();
 	}
-	
 	/**
-	 * Append an new element to mazeXML that carries the given name has a child node with the given value.
-	 * @param doc document to add data to
-	 * @param mazeXML element to add data to
-	 * @param name specifies the XML element to write to
+	 * Write an element with the given name and value.
+	 * @param writer the stream to write to
+	 * @param name specifies the XML element to write
 	 * @param value is the content for the XML element
+	 * @throws XMLStreamException if writing fails
 	 */
-	public static void appendChild(Document doc, Element mazeXML, String name, int value)
+	public static void writeElement(XMLStreamWriter writer, String name, int value) throws XMLStreamException
 	{
-		Element e = doc.createElement(name);
-		e.appendChild(doc.createTextNode(Integer.toString(value)) );
-		mazeXML.appendChild(e);
+		writer.writeStartElement(name);
+		writer.writeCharacters(Integer.toString(value));
+		writer.writeEndElement();
 	}
 	/**
-	 * Append an new element to mazeXML that carries the given name has a child node with the given value.
-	 * @param doc document to add data to
-	 * @param mazeXML element to add data to
-	 * @param name specifies the XML element to write to
+	 * Write an element with the given name and value.
+	 * @param writer the stream to write to
+	 * @param name specifies the XML element to write
 	 * @param value is the content for the XML element
+	 * @throws XMLStreamException if writing fails
 	 */
-	public static void appendChild(Document doc, Element mazeXML, String name, boolean value)
+	public static void writeElement(XMLStreamWriter writer, String name, boolean value) throws XMLStreamException
 	{
-		Element e = doc.createElement(name);
-		e.appendChild(doc.createTextNode(Boolean.toString(value)) );
-		mazeXML.appendChild(e);
+		writer.writeStartElement(name);
+		writer.writeCharacters(Boolean.toString(value));
+		writer.writeEndElement();
 	}
 }
@@ -14,7 +14,7 @@ import java.util.logging.Logger;
  * @author Peter Kemper
  *
  */
-public class MazePanel extends Panel  {
+public class MazePanel extends Panel implements DrawingSurface {
 	/**
 	 * The logger is used to track execution and report issues.
 	 */
@@ -83,6 +83,7 @@ public class MazePanel extends Panel  {
 	 * when calling the update method. 
 	 * @return graphics object to draw on, null if impossible to obtain image
 	 */
+	@Override
 	public Graphics getBufferGraphics() {
 		// if necessary instantiate and store a graphics object for later use
 		if (null == graphics) { 
@@ -100,16 +101,24 @@ public class MazePanel extends Panel  {
 			}
 			else {
 				// System.out.println("MazePanel: Using Rendering Hint");
-				// For drawing in FirstPersonDrawer, setting rendering hint
-				// became necessary when lines of polygons 
-				// that were not horizontal or vertical looked ragged
-				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-						RenderingHints.VALUE_ANTIALIAS_ON);
-				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
-						RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				setRenderingHints(graphics);
 			}
 		}
 		return graphics;
 	}
+	/**
+	 * Sets the rendering hints for drawing the maze on the given graphics object.
+	 * Shared with the BufferedImageSurface.
+	 * @param graphics the graphics object to adjust
+	 */
+	static void setRenderingHints(Graphics2D graphics) {
+		// For drawing in FirstPersonDrawer, setting rendering hint
+		// became necessary when lines of polygons 
+		// that were not horizontal or vertical looked ragged
+		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+		graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+				RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+	}
 
 }
@@ -0,0 +1,355 @@
+package gui;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+import generation.CardinalDirection;
+import generation.Floorplan;
+import generation.Maze;
+import gui.Robot.Turn;
+
+/**
+ * This is a robot driver algorithm that plans the complete path to the exit
+ * before the robot takes its first step.
+ *
+ * The Wizard asks the maze for a neighbor closer to the exit at every step,
+ * which evaluates all four neighbors and allocates a new position each time,
+ * and moves the robot one cell at a time with a sensor query per cell.
+ * The Navigator computes the path once and keeps it as one byte per step,
+ * the ordinal of the cardinal direction of the step.
+ * It then drives each straight segment of the path with a single move,
+ * so the robot needs one rotation and one sensor query per segment.
+ *
+ * If the maze has distance information, the path follows decreasing distances
+ * to the exit, which takes one look at the neighbors of each cell on the path.
+ * Otherwise, an A* search on the floorplan with the Manhattan distance
+ * to the exit as its heuristic finds a shortest path.
+ * The last step of the path leaves the maze through the exit.
+ *
+ * A move may fall short of the planned segment, e.g. if a robot can not sense
+ * while a sensor is down for repair, so the navigator follows the robot's odometer
+ * along the path and compares the robot's position with the planned cell after each move.
+ * If the two differ, it plans a new path from the robot's position.
+ */
+public class Navigator implements RobotDriver {
+
+	// (dx,dy) of a step in each direction, indexed by CardinalDirection ordinal
+	private static final int[] DX = { 0, 1, 0, -1 };
+	private static final int[] DY = { -1, 0, 1, 0 };
+	private static final CardinalDirection[] DIRECTIONS = CardinalDirection.values();
+	/**
+	 * Number of moves in a row that may leave the robot where it is
+	 * before the navigator gives up.
+	 */
+	static final int MAX_MOVES_WITHOUT_PROGRESS = 10;
+
+	public Robot robot;
+	public Maze maze;
+	private byte[] path; // planned steps as CardinalDirection ordinals, null if not planned yet
+	private int next; // index of the next step to take
+	private int x; // cell where step next starts, which is where the robot should be
+	private int y;
+	private int movesWithoutProgress; // consecutive moves that left the robot in its cell
+	private float initialBatteryLevel;
+
+	/**
+	 * default constructor
+	 */
+	public Navigator() {
+		//default constructor
+		//blank instantation
+	}
+
+	/**
+	 * part of class coordination: gives driver the robot to make decisions for
+	 * @param r is robot object to use
+	 */
+	@Override
+	public void setRobot(Robot r) {
+		robot = r;
+		initialBatteryLevel = r.getBatteryLevel();
+		path = null;
+	}
+
+	/**
+	 * part of class coordination: gives driver maze to work with so that it can access right info
+	 * @param takes a Maze, maze as parameter
+	 * @throw exception if null
+	 */
+	@Override
+	public void setMaze(Maze m) {
+		if (m == null || m.getFloorplan() == null) {
+			throw new IllegalArgumentException();
+		}
+		maze = m;
+		path = null;
+	}
+
+	/**
+	 * will drive robot to exit along the planned path, one straight segment at a time
+	 * @return boolean true for exit reached, false if there is no path to the exit
+	 * @throws exception if robot stops on its way, e.g. for lack of energy
+	 */
+	@Override
+	public boolean drive2Exit() throws Exception {
+		while (planIfNecessary()) {
+			if (next == path.length)
+				return true;
+			int end = next + 1;
+			while (end < path.length && path[end] == path[next]) {
+				end++;
+			}
+			face(DIRECTIONS[path[next]]);
+			move(end - next);
+		}
+		return false;
+	}
+
+	/**
+	 * drives the robot a single step along the planned path
+	 * @return boolean true for robot moved, false if the robot has left the maze or there is no path
+	 * @throws exception if robot stops, e.g. for lack of energy
+	 */
+	@Override
+	public boolean drive1Step2Exit() throws Exception {
+		if (!planIfNecessary() || next == path.length)
+			return false;
+		face(DIRECTIONS[path[next]]);
+		move(1);
+		return true;
+	}
+
+	/**
+	 * gives the energy the robot used so far, taken from its battery level
+	 * @return float to represent total energy used
+	 */
+	@Override
+	public float getEnergyConsumption() {
+		return initialBatteryLevel - robot.getBatteryLevel();
+	}
+
+	/**
+	 * gives the total length of journey in cells visited so far
+	 * @return int for total length as an int
+	 */
+	@Override
+	public int getPathLength() {
+		return robot.getOdometerReading();
+	}
+
+	/**
+	 * Plans the path from the current position of the robot if that has not happened yet.
+	 * @return true if there is a path, false otherwise
+	 * @throws Exception if the robot has stopped
+	 */
+	private boolean planIfNecessary() throws Exception {
+		if (robot.hasStopped()) {
+			throw new Exception();
+		}
+		if (null == path) {
+			int[] start = robot.getCurrentPosition();
+			path = plan(maze, start[0], start[1]);
+			next = 0;
+			x = start[0];
+			y = start[1];
+		}
+		return null != path;
+	}
+
+	/**
+	 * Moves the robot along the planned path and follows it with the index of the next step
+	 * by as many cells as the odometer tells. If the robot is not where the path says
+	 * afterwards, the path is dropped such that it is planned again from the robot's position.
+	 * @param steps the number of steps to take, all in the direction the robot faces
+	 * @throws Exception if the robot stops or keeps failing to move
+	 */
+	private void move(int steps) throws Exception {
+		final int odometer = robot.getOdometerReading();
+		robot.move(steps);
+		if (robot.hasStopped()) {
+			throw new Exception();
+		}
+		final int moved = robot.getOdometerReading() - odometer;
+		for (int i = 0; i < moved && next < path.length; i++) {
+			x += DX[path[next]];
+			y += DY[path[next]];
+			next++;
+		}
+		if (next == path.length)
+			return; // the robot has left the maze through the exit
+		if (0 < moved) {
+			movesWithoutProgress = 0;
+		} else if (++movesWithoutProgress > MAX_MOVES_WITHOUT_PROGRESS) {
+			throw new Exception();
+		}
+		int[] position = robot.getCurrentPosition();
+		if (position[0] != x || position[1] != y) {
+			path = null;
+		}
+	}
+
+	/**
+	 * Rotates the robot to face the given direction with at most one rotation.
+	 * A left turn adds 90 degrees to the angle of the current direction.
+	 * @param target the direction to face
+	 */
+	private void face(CardinalDirection target) {
+		CardinalDirection current = robot.getCurrentDirection();
+		if (current == target)
+			return;
+		if (current.oppositeDirection() == target) {
+			robot.rotate(Turn.AROUND);
+		} else if (CardinalDirection.getDirection(current.angle() + 90) == target) {
+			robot.rotate(Turn.LEFT);
+		} else {
+			robot.rotate(Turn.RIGHT);
+		}
+	}
+
+	/**
+	 * Plans a shortest path from the given position out of the maze.
+	 * @param maze the maze
+	 * @param x coordinate of the starting cell, {@code 0 <= x < width}
+	 * @param y coordinate of the starting cell, {@code 0 <= y < height}
+	 * @return the directions of all steps as CardinalDirection ordinals,
+	 * the last step leaves the maze through the exit, null if there is no such path
+	 */
+	static byte[] plan(Maze maze, int x, int y) {
+		Floorplan floorplan = maze.getFloorplan();
+		final boolean hasDistances = null != maze.getMazedists();
+		int[] exit = hasDistances ? maze.getExitPosition() : findExit(floorplan);
+		if (null == exit)
+			return null;
+		int out = getExitDirection(floorplan, exit[0], exit[1]);
+		if (-1 == out)
+			return null;
+		byte[] path = hasDistances ? descend(maze, floorplan, x, y, exit) : search(floorplan, x, y, exit);
+		if (null == path)
+			return null;
+		byte[] result = new byte[path.length + 1];
+		System.arraycopy(path, 0, result, 0, path.length);
+		result[path.length] = (byte) out;
+		return result;
+	}
+
+	/**
+	 * Follows decreasing distances from the given position to the exit.
+	 * @return the steps to the exit position, null if the distances do not lead there
+	 */
+	private static byte[] descend(Maze maze, Floorplan floorplan, int x, int y, int[] exit) {
+		int distance = maze.getDistanceToExit(x, y);
+		final int steps = distance - maze.getDistanceToExit(exit[0], exit[1]);
+		if (steps < 0)
+			return null;
+		byte[] path = new byte[steps];
+		for (int i = 0; i < steps; i++) {
+			int dir = 0;
+			while (dir < 4 && (floorplan.hasWall(x, y, DIRECTIONS[dir])
+					|| !isInside(floorplan, x + DX[dir], y + DY[dir])
+					|| maze.getDistanceToExit(x + DX[dir], y + DY[dir]) != distance - 1)) {
+				dir++;
+			}
+			if (4 == dir)
+				return null;
+			path[i] = (byte) dir;
+			x += DX[dir];
+			y += DY[dir];
+			distance--;
+		}
+		return (x == exit[0] && y == exit[1]) ? path : null;
+	}
+
+	/**
+	 * Searches a shortest path from the given position to the exit position with A*.
+	 * The Manhattan distance never overestimates the number of steps,
+	 * so the first time the exit is taken from the queue, its path is a shortest one.
+	 * @return the steps to the exit position, null if the exit can not be reached
+	 */
+	private static byte[] search(Floorplan floorplan, int x, int y, int[] exit) {
+		final int width = floorplan.getWidth();
+		final int cells = width * floorplan.getHeight();
+		final int target = exit[1] * width + exit[0];
+		int[] steps = new int[cells]; // number of steps from the start, -1 if not reached yet
+		Arrays.fill(steps, -1);
+		byte[] from = new byte[cells]; // direction of the step that reached a cell first
+		// entries are the estimated path length in the upper and the cell in the lower 32 bits
+		PriorityQueue<Long> open = new PriorityQueue<>();
+		final int start = y * width + x;
+		steps[start] = 0;
+		open.add(estimate(0, x, y, exit) << 32 | start);
+		while (!open.isEmpty()) {
+			final int cell = (int) (open.poll() & 0xffffffffL);
+			if (cell == target)
+				break;
+			final int cx = cell % width;
+			final int cy = cell / width;
+			for (int dir = 0; dir < 4; dir++) {
+				final int nx = cx + DX[dir];
+				final int ny = cy + DY[dir];
+				if (floorplan.hasWall(cx, cy, DIRECTIONS[dir]) || !isInside(floorplan, nx, ny))
+					continue;
+				final int neighbor = ny * width + nx;
+				if (-1 != steps[neighbor] && steps[neighbor] <= steps[cell] + 1)
+					continue;
+				steps[neighbor] = steps[cell] + 1;
+				from[neighbor] = (byte) dir;
+				open.add(estimate(steps[neighbor], nx, ny, exit) << 32 | neighbor);
+			}
+		}
+		if (-1 == steps[target])
+			return null;
+		// walk back from the exit to the start
+		byte[] path = new byte[steps[target]];
+		int cell = target;
+		for (int i = path.length - 1; i >= 0; i--) {
+			path[i] = from[cell];
+			cell -= DY[from[cell]] * width + DX[from[cell]];
+		}
+		return path;
+	}
+
+	/**
+	 * Gives the A* estimate of the length of a path through the given cell.
+	 */
+	private static long estimate(int steps, int x, int y, int[] exit) {
+		return steps + Math.abs(x - exit[0]) + Math.abs(y - exit[1]);
+	}
+
+	/**
+	 * Finds the exit on the border of the floorplan.
+	 * @return the exit position, null if the floorplan has no exit
+	 */
+	private static int[] findExit(Floorplan floorplan) {
+		final int width = floorplan.getWidth();
+		final int height = floorplan.getHeight();
+		for (int x = 0; x < width; x++) {
+			if (floorplan.isExitPosition(x, 0))
+				return new int[] {x, 0};
+			if (floorplan.isExitPosition(x, height - 1))
+				return new int[] {x, height - 1};
+		}
+		for (int y = 0; y < height; y++) {
+			if (floorplan.isExitPosition(0, y))
+				return new int[] {0, y};
+			if (floorplan.isExitPosition(width - 1, y))
+				return new int[] {width - 1, y};
+		}
+		return null;
+	}
+
+	/**
+	 * Gives the direction in which one leaves the maze from the exit position.
+	 * @return the CardinalDirection ordinal, -1 if there is no way out
+	 */
+	private static int getExitDirection(Floorplan floorplan, int x, int y) {
+		for (int dir = 0; dir < 4; dir++) {
+			if (!isInside(floorplan, x + DX[dir], y + DY[dir]) && floorplan.hasNoWall(x, y, DIRECTIONS[dir]))
+				return dir;
+		}
+		return -1;
+	}
+
+	private static boolean isInside(Floorplan floorplan, int x, int y) {
+		return 0 <= x && x < floorplan.getWidth() && 0 <= y && y < floorplan.getHeight();
+	}
+}
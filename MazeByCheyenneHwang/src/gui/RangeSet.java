@@ -1,6 +1,6 @@
 package gui;
 
-import java.util.Vector;
+import java.util.Arrays;
 
 /**
  * Class stores a set of ranges, i.e., intervals. 
@@ -13,6 +13,12 @@ import java.util.Vector;
  * into two by way of the remove method.
  * 
  * This implies that ranges are disjoint and sorted in increasing order.
+ * 
+ * The intervals are stored as pairs of bounds in a single int array,
+ * [lb0,ub0,lb1,ub1,...], which avoids an object per interval and the 
+ * synchronization of a Vector. The first person view resets and queries 
+ * the set many times per frame and the number of intervals is small,
+ * so shifting array elements on a split or removal is cheap.
  *
  * This code is refactored code from Maze.java by Paul Falstad, www.falstad.com, Copyright (C) 1998, all rights reserved
  * Paul Falstad granted permission to modify and use code for teaching purposes.
@@ -20,13 +26,16 @@ import java.util.Vector;
  */
 public class RangeSet {
 	
-	private Vector<Interval> ranges;
+	// bounds of intervals, interval i is [bounds[2*i], bounds[2*i+1]], sorted in increasing order
+	private int[] bounds;
+	private int size; // number of intervals in the set
 	
 	/**
 	 * Constructor
 	 */
 	public RangeSet() {
-		ranges = new Vector<Interval>();
+		bounds = new int[16];
+		size = 0;
 	}
 
 	/**
@@ -34,7 +43,7 @@ public class RangeSet {
 	 * @return true if the set is empty, false otherwise
 	 */
 	public boolean isEmpty() {
-		return ranges.isEmpty();
+		return 0 == size;
 	}
 
 	/**
@@ -43,8 +52,9 @@ public class RangeSet {
 	 * @param upperBound maximum value for new element
 	 */
 	public void set(int lowerBound, int upperBound) {
-		ranges.removeAllElements();
-		ranges.addElement(new Interval(lowerBound, upperBound));
+		bounds[0] = lowerBound;
+		bounds[1] = upperBound;
+		size = 1;
 	}
 
 	/**
@@ -65,57 +75,62 @@ public class RangeSet {
 		// check all elements of the set for an overlap with interval 
 		// [lowerBound, upperBound]
 		// assume that set is sorted in increasing order
-		for (int i = 0; i != ranges.size(); i++) {
-			Interval current = (Interval) ranges.elementAt(i);
-			// case 1: (current.lb <= current.ub) < (lowerBound <= upperBound)
+		for (int i = 0; i != size; i++) {
+			final int lb = bounds[2*i]; // current interval is [lb,ub]
+			final int ub = bounds[2*i+1];
+			// case 1: (lb <= ub) < (lowerBound <= upperBound)
 			// current is below, so check next element as values increase
-			if (current.ub < lowerBound)
+			if (ub < lowerBound)
 				continue; 
-			// case 2: (lowerBound <= upperBound) < (current.lb <= current.ub)
+			// case 2: (lowerBound <= upperBound) < (lb <= ub)
 			// current is above, stop, no reason to check more as values only increase	
-			if (current.lb > upperBound)
+			if (lb > upperBound)
 				return;
 			// cases 3, 4, 5, 6: some overlap
-			if (lowerBound <= current.lb) { 
-				// case 3: (lowerBound <= (current.lb <= current.ub) <= upperBound)
+			if (lowerBound <= lb) { 
+				// case 3: (lowerBound <= (lb <= ub) <= upperBound)
 				// current is inside interval
 				// remove current element as it is completely covered
 				// need to continue as upperBound can overlap with next element in set
-				if (current.ub <= upperBound) { 
-					ranges.removeElementAt(i--); // adjust index i for iterating reduced set
+				if (ub <= upperBound) { 
+					System.arraycopy(bounds, 2*i+2, bounds, 2*i, 2*(size-i-1));
+					size--;
+					i--; // adjust index i for iterating reduced set
 					continue;
 				}
-				// else: case 4: (lowerBound <= current.lb) <= (upperBound < current.ub)
+				// else: case 4: (lowerBound <= lb) <= (upperBound < ub)
 				// current overlaps with interval, truncate current, 
 				// there is no need to proceed further as upperBound does not exceed current
-				// truncate intersection,  left over interval is [upperBound+1,current.ub]
-				current.lb = upperBound+1;  
+				// truncate intersection,  left over interval is [upperBound+1,ub]
+				bounds[2*i] = upperBound+1;  
 				return;
 			}
 			// control flow only gets here if previous checks fail, 
-			// so current.lb < lowerBound must hold at this moment
-			// case 5: current.lb <= lowerBound <= current.ub <= upperBound
-			// truncate intersection,  left over interval is [current.lb,lowerBound-1]
+			// so lb < lowerBound must hold at this moment
+			// case 5: lb <= lowerBound <= ub <= upperBound
+			// truncate intersection,  left over interval is [lb,lowerBound-1]
 			// need to check next element in set as upperBound may reach into it
-			if (lowerBound <= current.ub && upperBound >= current.ub) { 
-				current.ub = lowerBound-1; 
+			if (lowerBound <= ub && upperBound >= ub) { 
+				bounds[2*i+1] = lowerBound-1; 
 				continue;
 			}
-			// case 6: (current.lb <= upperBound) <= (lowerBound <= current.ub)
+			// case 6: (lb <= upperBound) <= (lowerBound <= ub)
 			// if all conditions fail, then [lowerBound,upperBound] lies inside 
 			// the current interval
 			// split current interval into two with left over ranges: 
-			// [current.lb,lowerBound-1] and [upperBound+1,current.ub]
-			Interval nrse = new Interval(current.lb, lowerBound-1);
-			ranges.insertElementAt(nrse, i);
+			// [lb,lowerBound-1] and [upperBound+1,ub]
 			// Note for correctness: we assume that intervals are ordered,
 			// this is the only code that adds an element to the range set
-			// lower interval goes to position i in vector, 
-			// moves current interval which becomes the higher one 
-			// to position i+1 in vector, which preserves the ordering
-			// for current one, just update the lb to make it the higher one
-			// as method returns, no need to update index i for loop progress
-			current.lb = upperBound+1; 
+			// the lower interval stays at position i, the higher one goes
+			// to position i+1 and the following intervals move up by one,
+			// which preserves the ordering
+			if (2*size+2 > bounds.length)
+				bounds = Arrays.copyOf(bounds, 2*bounds.length);
+			System.arraycopy(bounds, 2*i+2, bounds, 2*i+4, 2*(size-i-1));
+			size++;
+			bounds[2*i+1] = lowerBound-1;
+			bounds[2*i+2] = upperBound+1;
+			bounds[2*i+3] = ub;
 			return;
 		}
 	}
@@ -132,45 +147,43 @@ public class RangeSet {
 	 * @return [lb,ub] with lower and upper bound for the intersection, null if there is none 
 	 */
 	public int[] getIntersection(int lowerBound, int upperBound) {
+		int[] result = new int[2];
+		return getIntersection(lowerBound, upperBound, result) ? result : null;
+	}
+	/**
+	 * Computes an intersection of the given interval [lowerBound,upperBound] with the
+	 * intervals in this set, same as getIntersection(lowerBound, upperBound)
+	 * but the result goes into the given array such that a caller 
+	 * can reuse the array and avoid an allocation for each call.
+	 * @param lowerBound gives the low end of the interval of interest
+	 * @param upperBound gives the high end of the interval of interest
+	 * @param result receives [lb,ub] with lower and upper bound for the intersection
+	 * if there is one, remains unchanged otherwise, length at least 2
+	 * @return true if there is an intersection, false otherwise
+	 */
+	public boolean getIntersection(int lowerBound, int upperBound, int[] result) {
 		// consider interval [lowerBound,upperBound] on x-axis
 		// assume that set is sorted in increasing order
 		// we look for an interval in rset that overlaps with [lowerBound,upperBound]
-		for (int i = 0; i != ranges.size(); i++) {
-			Interval current = (Interval) ranges.elementAt(i);
-			// case 1: (current.lb <= current.ub) < (lowerBound <= upperBound)
+		for (int i = 0; i != size; i++) {
+			final int lb = bounds[2*i]; // current interval is [lb,ub]
+			final int ub = bounds[2*i+1];
+			// case 1: (lb <= ub) < (lowerBound <= upperBound)
 			// current is below, so check next element as values increase			
-			if (current.ub < lowerBound) 
+			if (ub < lowerBound) 
 				continue; 
-			// case 2: (lowerBound <= upperBound) < (current.lb <= current.ub)
+			// case 2: (lowerBound <= upperBound) < (lb <= ub)
 			// current is above, stop, no reason to check more as values only increase	
-			if (current.lb > upperBound) 
-				return null;
-			// at this point: lowerBound <= current.ub and current.lb <= upperBound
-			// so we have some overlap, can be at most [lb,]
-			int[] result = new int[2];
+			if (lb > upperBound) 
+				return false;
+			// at this point: lowerBound <= ub and lb <= upperBound
+			// so we have some overlap
 			// on the low end: the bigger of the lower end of both intervals
 			// on the high end: the smaller of the higher end of both intervals
-			result[0] = (current.lb > lowerBound) ? current.lb : lowerBound;
-			result[1] = (current.ub < upperBound) ? current.ub : upperBound;
-			return result;
-		}
-		return null;
-	}
-	/**
-	 * Internal class to hold a pair of two elements to represent an
-	 * interval of values on the x-axis.
-	 */
-	class Interval {
-		public int lb, ub;
-
-		/**
-		 * Constructor
-		 * @param lowerBound gives the lower bound for the range
-		 * @param upperBound gives the upper bound for the range
-		 */
-		Interval(int lowerBound, int upperBound) {
-			lb = lowerBound;
-			ub = upperBound;
+			result[0] = (lb > lowerBound) ? lb : lowerBound;
+			result[1] = (ub < upperBound) ? ub : upperBound;
+			return true;
 		}
+		return false;
 	}
 }
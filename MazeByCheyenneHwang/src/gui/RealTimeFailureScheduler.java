@@ -0,0 +1,109 @@
+package gui;
+
+import java.util.IdentityHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the failure and repair processes of all unreliable sensors in real time
+ * with a single shared thread.
+ * Each process consists of two periodic tasks, one takes the sensor down for repair
+ * and one brings it back, such that switching many sensors does not need
+ * a thread per sensor and times do not drift.
+ *
+ * The scheduler thread is a daemon thread such that it does not keep
+ * an application alive. Sensors publish their state in a volatile field,
+ * so robots see a change right away.
+ * Cancelled tasks are removed from the queue right away,
+ * so a stopped process does not keep its sensor alive until its next period.
+ */
+public final class RealTimeFailureScheduler implements FailureScheduler {
+
+	private static final RealTimeFailureScheduler INSTANCE = new RealTimeFailureScheduler();
+
+	private final ScheduledThreadPoolExecutor executor;
+	// running processes, guarded by this
+	private final IdentityHashMap<UnreliableSensor, Process> processes = new IdentityHashMap<>();
+
+	/**
+	 * Constructor, use {@link #getInstance()} to obtain the shared scheduler.
+	 */
+	private RealTimeFailureScheduler() {
+		executor = new ScheduledThreadPoolExecutor(1, r -> {
+			Thread t = new Thread(r, "sensor-failures");
+			t.setDaemon(true);
+			return t;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+	}
+	/**
+	 * Gives the scheduler that is shared by all sensors.
+	 * @return the scheduler
+	 */
+	public static RealTimeFailureScheduler getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public synchronized void start(UnreliableSensor sensor, long timeBetweenFailures, long timeToRepair) {
+		stop(sensor);
+		Process process = new Process(sensor);
+		final long period = timeBetweenFailures + timeToRepair;
+		// the sensor goes down right away and is repaired after timeToRepair
+		process.failure = executor.scheduleAtFixedRate(() -> process.setDownForRepair(true),
+				0, period, TimeUnit.MILLISECONDS);
+		process.repair = executor.scheduleAtFixedRate(() -> process.setDownForRepair(false),
+				timeToRepair, period, TimeUnit.MILLISECONDS);
+		processes.put(sensor, process);
+	}
+
+	@Override
+	public synchronized boolean stop(UnreliableSensor sensor) {
+		Process process = processes.remove(sensor);
+		if (null == process)
+			return false;
+		process.cancel();
+		return true;
+	}
+
+	@Override
+	public synchronized boolean isRunning(UnreliableSensor sensor) {
+		return processes.containsKey(sensor);
+	}
+
+	/**
+	 * Gives the number of tasks that wait for their next execution.
+	 * @return the number of queued tasks
+	 */
+	int getQueuedTasks() {
+		return executor.getQueue().size();
+	}
+
+	/**
+	 * The periodic tasks for a single sensor.
+	 * A task may already be executing when the process is cancelled,
+	 * so tasks and cancellation synchronize on the process
+	 * to leave the sensor operational once cancelled.
+	 */
+	private static class Process {
+		private final UnreliableSensor sensor;
+		private ScheduledFuture<?> failure;
+		private ScheduledFuture<?> repair;
+		private boolean cancelled; // guarded by this
+
+		Process(UnreliableSensor sensor) {
+			this.sensor = sensor;
+		}
+		synchronized void setDownForRepair(boolean down) {
+			if (!cancelled && sensor.working)
+				sensor.downForRepair = down;
+		}
+		synchronized void cancel() {
+			cancelled = true;
+			failure.cancel(false);
+			repair.cancel(false);
+			sensor.downForRepair = false;
+		}
+	}
+}
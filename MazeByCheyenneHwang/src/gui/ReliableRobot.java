@@ -27,7 +27,7 @@ import gui.Robot.Direction;
 
 public class ReliableRobot implements Robot {
 	
-	public Control controller;
+	public RobotControl controller;
 //	public int[] currentDirection;
 //	public CardinalDirection currentDirection;
 	public float energyLevel;
@@ -62,18 +62,19 @@ public class ReliableRobot implements Robot {
 	
 	/**
 	 * part of class coordination: specifies to the robot what control object to work with
+	 * the controller is either the game's Control in the playing state or a SimulatedControl
 	 * @throw exceptions if controller no, wrong playing state, or if there is no maze for the controller
 	 * @param c is the controller object robot will use
 	 */
 	@Override
-	public void setController(Control c) {
+	public void setController(RobotControl c) {
 		// part of class coordination: specifies to the robot what control object to work with
 		// how: intializes the instance variable for the class
 		// will use the controller to get positional information, wall information, and exit information
 		// throws exceptions if controller no, wrong playing state, or if there is no maze for the controller
 		if (c == null) {
 			throw new IllegalArgumentException();
-		} else if (!(c.currentState.equals((StatePlaying)c.currentState))) { //HOW TO CHECK WHAT STATE
+		} else if ((c instanceof Control) && !(((Control)c).currentState.equals((StatePlaying)((Control)c).currentState))) { //HOW TO CHECK WHAT STATE
 			throw new IllegalArgumentException();
 		} else if (c.getMaze() == null) {
 			throw new IllegalArgumentException();
@@ -352,22 +353,25 @@ public class ReliableRobot implements Robot {
 			try {
 				if (forwardSensor.checkRepairStatus()) {// sleeps if being repaired
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
 				}
+				// a single look ahead covers all steps of the move
 				int distanceToWall = distanceToObstacle(Direction.FORWARD);
-				if (distanceToWall == 0) {
-					isDead = true;
-				} else {
-					energyLevel = energyLevel - 6;
-					if (energyLevel <= 0) { // CHECK ON THIS
+				for (int step = 0; step < distance && !isDead; step++) {
+					if (step >= distanceToWall) {
 						isDead = true;
 					} else {
-						controller.handleKeyboardInput(UserInput.UP, 0); 
-						odometerReading = odometerReading + 1;
-						
+						energyLevel = energyLevel - 6;
+						if (energyLevel <= 0) { // CHECK ON THIS
+							isDead = true;
+						} else {
+							controller.handleKeyboardInput(UserInput.UP, 0); 
+							odometerReading = odometerReading + 1;
+							
+						}
 					}
 				}
 			} catch (Exception e) {
@@ -678,7 +682,7 @@ public class ReliableRobot implements Robot {
 			} else {
 				if (forwardSensor.checkRepairStatus()) {// checks if forward sensor down for repair
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -712,7 +716,7 @@ public class ReliableRobot implements Robot {
 				
 				if (leftSensor.checkRepairStatus()) {//check if left sensor down for repair
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -745,7 +749,7 @@ public class ReliableRobot implements Robot {
 				}
 				if (backSensor.checkRepairStatus()) {//check if back sensor down for repair before using
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -780,7 +784,7 @@ public class ReliableRobot implements Robot {
 				
 				if (rightSensor.checkRepairStatus()) {// check if right sensor down for repair before using
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -52,12 +52,10 @@ public class ReliableSensor implements DistanceSensor {
 	public int distanceToObstacle(int[] position, CardinalDirection direction, float[] energysupply)
 			throws Exception {
 		// interacts with maze object to return the distance from the robot to the nearest wallboard in the currentDirection
-		// uses maze method of has wall to find distance
-		// do this by traversing the direction, counting steps, checking each time if wall
+		// looks up the distance in the table of distances to walls that the maze provides
 		// return var is an int represents distance to wall
 		// parameters: the instance variables for the class object
 		// throws exceptions when: powersupply runs out, sensor down, parameters wrong
-		// assert statement as sanity check that final direction option is east 
 		
 		if (position == null || direction == null || energysupply == null) {
 			working = false;
@@ -69,76 +67,9 @@ public class ReliableSensor implements DistanceSensor {
 			working = false;
 			throw new IllegalArgumentException();
 		} else {
-			int toReturn = 0;
-			int[] checkPos = position;
-			boolean distanceFound = false;
-			boolean nearestWallIsBorder = false; 
-			
-			if (position[0] == maze.getExitPosition()[0] && position[1] == maze.getExitPosition()[1]) {// for if at exit
-				if (!(maze.hasWall(position[0], position[1], direction))) {
-					if (direction == CardinalDirection.North && checkPos[1] == 0) {
-						return Integer.MAX_VALUE;
-					} else if (direction == CardinalDirection.West && checkPos[0] == 0) {
-						return Integer.MAX_VALUE;
-					} else if (direction == CardinalDirection.South && checkPos[1] == maze.getHeight() - 1) {
-						return Integer.MAX_VALUE;
-					} else if (direction == CardinalDirection.East && checkPos[1] == maze.getWidth() - 1) { 
-						return Integer.MAX_VALUE;
-					}
-				} 
-			}
-			if (direction == CardinalDirection.North) {;
-				while (!distanceFound) { 
-					if (maze.hasWall(checkPos[0], checkPos[1], direction)) {
-						distanceFound = true;
-						if(checkPos[1] == 0) {
-							nearestWallIsBorder = true;
-						}
-					} else {
-						toReturn = toReturn + 1;
-						checkPos[1] = checkPos[1] - 1;
-					}
-				}
-			} else if (direction == CardinalDirection.West) {
-				while (!distanceFound) {
-					if (maze.hasWall(checkPos[0], checkPos[1], direction)) {
-						distanceFound = true;
-						if(checkPos[0] == 0) {
-							nearestWallIsBorder = true;
-						}
-					} else {
-						toReturn = toReturn + 1;
-						checkPos[0] = checkPos[0] - 1;
-					}
-				}
-			} else if (direction == CardinalDirection.South) {
-				while (!distanceFound) {
-					if (maze.hasWall(checkPos[0], checkPos[1], direction)) {
-						distanceFound = true;
-						if(checkPos[1] == maze.getHeight() - 1) {
-							nearestWallIsBorder = true;
-						}
-					} else {
-						toReturn = toReturn + 1;
-						checkPos[1] = checkPos[1] + 1;
-					}
-				}
-			} else {
-				assert direction == CardinalDirection.East : "No direction is correct here";
-				while (!distanceFound) {
-					if (maze.hasWall(checkPos[0], checkPos[1], direction)) {
-						distanceFound = true;
-						if(checkPos[0] == maze.getWidth() - 1) {
-							nearestWallIsBorder = true;
-						}
-					} else {
-						toReturn = toReturn + 1;
-						checkPos[0] = checkPos[0] + 1;
-					}
-				}
-			}
-			
-			return toReturn;
+			// the maze keeps a table of distances to walls in all directions for all cells,
+			// Integer.MAX_VALUE if one can see through the exit into eternity
+			return maze.getWallDistances().getDistance(position[0], position[1], direction);
 			
 		}
 			
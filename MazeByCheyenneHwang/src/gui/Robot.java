@@ -74,12 +74,14 @@ public interface Robot {
 	 * and for initialization purposes. The controller serves as the main source of information
 	 * for the robot about the current position, the presence of walls, the reaching of an exit.
 	 * The controller is assumed to be in the playing state.
+	 * It is either the game's Control or a SimulatedControl for a drive 
+	 * without drawing and pauses.
 	 * @param controller is the communication partner for robot
 	 * @throws IllegalArgumentException if controller is null, 
 	 * or if controller is not in playing state, 
 	 * or if controller does not have a maze
 	 */
-	void setController(Control controller);	
+	void setController(RobotControl controller);	
 	/**
 	 * Adds a distance sensor to the robot such that it measures in the given direction.
 	 * This method is used when a robot is initially configured to get ready for operation.
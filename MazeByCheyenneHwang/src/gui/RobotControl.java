@@ -0,0 +1,47 @@
+package gui;
+
+import generation.CardinalDirection;
+import generation.Maze;
+import gui.Constants.UserInput;
+
+/**
+ * The part of the controller that a robot works with.
+ * A robot reads the maze, the current position and the current direction
+ * from it and performs its moves as keyboard input.
+ * 
+ * The Control class implements it for the game, where each move
+ * is animated on the screen. The SimulatedControl class implements it
+ * for a pure simulation on the maze without drawing and without pauses.
+ * Each controller also provides the clock that the robot and its sensors
+ * work with while it operates the robot.
+ */
+public interface RobotControl {
+	/**
+	 * Provides access to the maze.
+	 * @return the maze
+	 */
+	Maze getMaze();
+	/**
+	 * Provides access to the current position.
+	 * @return the current position as [x,y] coordinates, 
+	 * {@code 0 <= x < width, 0 <= y < height} unless the exit has been passed
+	 */
+	int[] getCurrentPosition();
+	/**
+	 * Provides access to the current direction.
+	 * @return the current direction
+	 */
+	CardinalDirection getCurrentDirection();
+	/**
+	 * Performs the operation that corresponds to the given user input.
+	 * @param userInput the operation, e.g. UP to move a step forward
+	 * @param value is not used for moves and rotations
+	 */
+	void handleKeyboardInput(UserInput userInput, int value);
+	/**
+	 * Provides access to the clock for waiting, e.g. for a sensor
+	 * that is down for repair.
+	 * @return the clock
+	 */
+	Clock getClock();
+}
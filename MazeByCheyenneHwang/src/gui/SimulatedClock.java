@@ -0,0 +1,46 @@
+package gui;
+
+/**
+ * A virtual time for headless runs.
+ * The time starts at 0 and only advances when someone waits
+ * or when a simulation accounts for the duration of an operation
+ * with {@link #advanceBy(long)}. Waiting returns right away.
+ *
+ * Failure and repair processes run on a SimulatedFailureScheduler
+ * that belongs to this clock, so sensors switch at exactly
+ * the same points in time in every run.
+ * As the time of a clock is shared by everyone who uses it,
+ * an instance is meant for a single simulation and a single thread.
+ */
+public class SimulatedClock implements Clock {
+
+	private final SimulatedFailureScheduler failureScheduler = new SimulatedFailureScheduler();
+
+	@Override
+	public long getTime() {
+		return failureScheduler.getTime();
+	}
+	/**
+	 * Advances the time without any delay.
+	 * @param millis the amount of time in milliseconds, {@code 0 <= millis}
+	 */
+	@Override
+	public void sleep(long millis) {
+		advanceBy(millis);
+	}
+	/**
+	 * Advances the time by the given amount and switches sensors
+	 * as scheduled for the elapsed time.
+	 * @param millis the amount of time in milliseconds, {@code 0 <= millis}
+	 */
+	public void advanceBy(long millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("Time can not go back by " + millis + " ms");
+		failureScheduler.advanceBy(millis);
+	}
+
+	@Override
+	public SimulatedFailureScheduler getFailureScheduler() {
+		return failureScheduler;
+	}
+}
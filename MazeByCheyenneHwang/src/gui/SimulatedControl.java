@@ -0,0 +1,248 @@
+package gui;
+
+import java.util.logging.Logger;
+
+import generation.CardinalDirection;
+import generation.Maze;
+import gui.Constants.UserInput;
+import gui.Robot.Direction;
+
+/**
+ * A controller for a robot that operates directly on the maze.
+ * It keeps track of the current position and direction and performs
+ * moves, rotations and jumps with the same outcome as StatePlaying, 
+ * but without drawing intermediate views and without pauses.
+ * A drive through a large maze takes milliseconds instead of minutes
+ * and it works without a display.
+ * 
+ * Time is simulated with a SimulatedClock. Each move, rotation and jump takes
+ * as long as its animation in the game, and waiting for a sensor that is
+ * down for repair advances the clock instead of sleeping.
+ * The clock tells how long the drive would have taken in the game.
+ * 
+ * Use {@link #drive(Robot, RobotDriver)} to set up robot and driver
+ * the same way as StatePlaying does and let the driver drive to the exit.
+ */
+public class SimulatedControl implements RobotControl {
+	/**
+	 * The logger is used to track execution and report issues.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(SimulatedControl.class.getName());
+	/**
+	 * Duration of a move or rotation in milliseconds,
+	 * StatePlaying draws 4 intermediate views and waits 25 ms after each.
+	 */
+	public static final long OPERATION_MILLIS = 100;
+	/**
+	 * Mean time between failures and mean time to repair in seconds
+	 * and the delay between the starts of consecutive unreliable sensors
+	 * in milliseconds, as in StatePlaying.
+	 */
+	private static final int MEAN_TIME_BETWEEN_FAILURES = 4;
+	private static final int MEAN_TIME_TO_REPAIR = 2;
+	private static final long START_DELAY_MILLIS = 1300;
+
+	private final Maze maze;
+	// current position and direction, same initial values as in StatePlaying
+	private int px;
+	private int py;
+	private CardinalDirection cd;
+	// set once the current position is outside of the maze
+	private boolean exited;
+	private final SimulatedClock clock = new SimulatedClock();
+
+	/**
+	 * Constructor, places the robot on the starting position facing east.
+	 * @param maze the maze to drive through, not null
+	 */
+	public SimulatedControl(Maze maze) {
+		if (null == maze)
+			throw new IllegalArgumentException("SimulatedControl needs a maze");
+		this.maze = maze;
+		int[] start = maze.getStartingPosition();
+		px = start[0];
+		py = start[1];
+		cd = CardinalDirection.East;
+	}
+
+	/**
+	 * Sets up the robot and its sensors and the driver to work with this controller
+	 * and the maze, then lets the driver drive to the exit.
+	 * As in StatePlaying, an unreliable robot starts the failure and repair processes
+	 * of its unreliable sensors one after the other, here on the simulated clock.
+	 * The processes are stopped once the drive is over.
+	 * The result is the value that StatePlaying hands to the winning screen.
+	 * @param robot the robot with its distance sensors, not null
+	 * @param driver the driver, not null
+	 * @return the odometer reading of the robot if the driver reached the exit, -1 otherwise
+	 */
+	public int drive(Robot robot, RobotDriver driver) {
+		robot.setController(this);
+		for (Direction direction : Direction.values()) {
+			DistanceSensor sensor = robot.getRobotSensor(direction);
+			if (null != sensor)
+				sensor.setMaze(maze);
+		}
+		driver.setMaze(maze);
+		driver.setRobot(robot);
+		if (driver instanceof SmartWizard) 
+			((SmartWizard) driver).setHeadless(true);
+		if (driver instanceof WallFollower)
+			((WallFollower) driver).setClock(clock);
+		if (robot.getRobotType().equals("unreliable"))
+			startFailureAndRepairProcesses(robot);
+		try {
+			return driver.drive2Exit() ? robot.getOdometerReading() : -1;
+		} catch (Exception e) {
+			LOGGER.fine("Driver failed: " + e);
+			return -1;
+		} finally {
+			for (Direction direction : Direction.values()) {
+				UnreliableSensor sensor = getUnreliableSensor(robot, direction);
+				if (null != sensor)
+					clock.getFailureScheduler().stop(sensor);
+			}
+		}
+	}
+	/**
+	 * Starts the failure and repair processes of the unreliable sensors
+	 * in the same order and with the same delays as StatePlaying.
+	 * @param robot the robot
+	 */
+	private void startFailureAndRepairProcesses(Robot robot) {
+		boolean previousUnreliable = false;
+		for (Direction direction : new Direction[] {Direction.FORWARD, Direction.LEFT, Direction.RIGHT, Direction.BACKWARD}) {
+			UnreliableSensor sensor = getUnreliableSensor(robot, direction);
+			if (null == sensor) {
+				previousUnreliable = false;
+				continue;
+			}
+			if (previousUnreliable)
+				clock.advanceBy(START_DELAY_MILLIS);
+			sensor.setFailureScheduler(clock.getFailureScheduler());
+			sensor.startFailureAndRepairProcess(MEAN_TIME_BETWEEN_FAILURES, MEAN_TIME_TO_REPAIR);
+			previousUnreliable = true;
+		}
+	}
+	/**
+	 * Gives the unreliable sensor of the robot in the given direction.
+	 * @return the sensor, null if there is none or if it is not an UnreliableSensor
+	 */
+	private static UnreliableSensor getUnreliableSensor(Robot robot, Direction direction) {
+		DistanceSensor sensor = robot.getRobotSensor(direction);
+		return (sensor instanceof UnreliableSensor) ? (UnreliableSensor) sensor : null;
+	}
+	/**
+	 * Gives the simulated time that has passed since the construction of this controller,
+	 * which is how long the drive would have taken in the game, not counting drawing.
+	 * @return the elapsed time in milliseconds
+	 */
+	public long getElapsedTime() {
+		return clock.getTime();
+	}
+	/**
+	 * Tells if the robot has left the maze through the exit.
+	 * @return true if the current position is outside of the maze, false otherwise
+	 */
+	public boolean hasExited() {
+		return exited;
+	}
+
+	@Override
+	public Maze getMaze() {
+		checkNotExited();
+		return maze;
+	}
+
+	@Override
+	public int[] getCurrentPosition() {
+		checkNotExited();
+		int[] result = new int[2];
+		result[0] = px;
+		result[1] = py;
+		return result;
+	}
+
+	@Override
+	public CardinalDirection getCurrentDirection() {
+		checkNotExited();
+		return cd;
+	}
+	/**
+	 * Once the robot has left the maze, the game switches to the winning state
+	 * and the playing state is no longer available to answer queries. 
+	 * The robot and the driver experience this as an exception 
+	 * that ends the drive, which is mirrored here.
+	 * @throws IllegalStateException if the robot has left the maze
+	 */
+	private void checkNotExited() {
+		if (exited)
+			throw new IllegalStateException("Game is over, robot has left the maze");
+	}
+
+	@Override
+	public SimulatedClock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Performs moves, rotations and jumps as StatePlaying.handleUserInput does.
+	 * Moves and rotations advance the clock by the duration of their animation,
+	 * jumps are not animated and take no time.
+	 * Other input has no effect on the position and is ignored.
+	 */
+	@Override
+	public void handleKeyboardInput(UserInput userInput, int value) {
+		if (exited) // as in StatePlaying, no more moves after the game is over
+			return;
+		switch (userInput) {
+		case UP: // move forward
+			walk(1);
+			break;
+		case DOWN: // move backward
+			walk(-1);
+			break;
+		case LEFT: // turn left
+			rotate(1);
+			break;
+		case RIGHT: // turn right
+			rotate(-1);
+			break;
+		case JUMP: // make a step forward even through a wall
+			// go to position if within maze
+			int[] tmpDxDy = cd.getDxDyDirection();
+			if (maze.isValidPosition(px + tmpDxDy[0], py + tmpDxDy[1])) {
+				px += tmpDxDy[0];
+				py += tmpDxDy[1];
+			}
+			break;
+		default: // no effect on the robot
+			break;
+		}
+	}
+	/**
+	 * Rotates by 90 degrees, same as StatePlaying.rotate after its 4 intermediate views.
+	 * @param dir for current direction, values are either 1 or -1
+	 */
+	private void rotate(int dir) {
+		final int angle = (cd.angle() + dir*90 + 1800) % 360;
+		cd = CardinalDirection.getDirection(angle);
+		clock.advanceBy(OPERATION_MILLIS);
+	}
+	/**
+	 * Moves one step in the given direction unless there is a wall,
+	 * same as StatePlaying.walk after its 4 intermediate views.
+	 * @param dir, only possible values are 1 (forward) and -1 (backward)
+	 */
+	private void walk(int dir) {
+		CardinalDirection wallDirection = (1 == dir) ? cd : cd.oppositeDirection();
+		if (maze.hasWall(px, py, wallDirection))
+			return;
+		int[] tmpDxDy = cd.getDxDyDirection();
+		px += dir*tmpDxDy[0];
+		py += dir*tmpDxDy[1];
+		// check termination, did we leave the maze?
+		exited = !maze.isValidPosition(px, py);
+		clock.advanceBy(OPERATION_MILLIS);
+	}
+}
@@ -0,0 +1,130 @@
+package gui;
+
+import java.util.IdentityHashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Runs the failure and repair processes of unreliable sensors
+ * in a simulated time without any threads.
+ * The time starts at 0 and only advances on request with {@link #advanceTo(long)}.
+ * All switches that fall into the elapsed time are performed in the order
+ * of their due time, switches due at the same time in the order they were scheduled.
+ * A run with the same sequence of requests therefore always gives the same
+ * sequence of sensor states, independent of the speed of the machine.
+ *
+ * Unlike the RealTimeFailureScheduler, an instance is meant for a single
+ * simulation, e.g. a single robot that drives through a maze.
+ */
+public class SimulatedFailureScheduler implements FailureScheduler {
+
+	private long now; // current simulated time in milliseconds
+	private long sequence; // number of scheduled switches, orders switches due at the same time
+	private final PriorityQueue<Switch> switches = new PriorityQueue<>();
+	private final IdentityHashMap<UnreliableSensor, Process> processes = new IdentityHashMap<>();
+
+	/**
+	 * Gives the current simulated time.
+	 * @return the time in milliseconds since construction
+	 */
+	public synchronized long getTime() {
+		return now;
+	}
+	/**
+	 * Advances the simulated time and switches sensors as scheduled
+	 * for the elapsed time.
+	 * @param time the new time in milliseconds, not before the current time
+	 */
+	public synchronized void advanceTo(long time) {
+		if (time < now)
+			throw new IllegalArgumentException("Time can not go back from " + now + " to " + time);
+		while (!switches.isEmpty() && switches.peek().time <= time) {
+			Switch s = switches.poll();
+			now = s.time;
+			if (s.process.cancelled)
+				continue;
+			s.process.setDownForRepair(s.down);
+			// schedule the opposite switch at the end of this period
+			schedule(s.process, now + (s.down ? s.process.timeToRepair : s.process.timeBetweenFailures), !s.down);
+		}
+		now = time;
+	}
+	/**
+	 * Advances the simulated time by the given amount.
+	 * @param millis the amount of time in milliseconds, {@code 0 <= millis}
+	 */
+	public synchronized void advanceBy(long millis) {
+		advanceTo(now + millis);
+	}
+
+	@Override
+	public synchronized void start(UnreliableSensor sensor, long timeBetweenFailures, long timeToRepair) {
+		stop(sensor);
+		Process process = new Process(sensor, timeBetweenFailures, timeToRepair);
+		processes.put(sensor, process);
+		// the sensor goes down right away
+		process.setDownForRepair(true);
+		schedule(process, now + timeToRepair, false);
+	}
+
+	@Override
+	public synchronized boolean stop(UnreliableSensor sensor) {
+		Process process = processes.remove(sensor);
+		if (null == process)
+			return false;
+		// pending switches of the process are skipped when they are due
+		process.cancelled = true;
+		sensor.downForRepair = false;
+		return true;
+	}
+
+	@Override
+	public synchronized boolean isRunning(UnreliableSensor sensor) {
+		return processes.containsKey(sensor);
+	}
+
+	private void schedule(Process process, long time, boolean down) {
+		switches.add(new Switch(time, sequence++, process, down));
+	}
+
+	/**
+	 * The parameters of the failure and repair process for a single sensor.
+	 */
+	private static class Process {
+		private final UnreliableSensor sensor;
+		private final long timeBetweenFailures;
+		private final long timeToRepair;
+		private boolean cancelled;
+
+		Process(UnreliableSensor sensor, long timeBetweenFailures, long timeToRepair) {
+			this.sensor = sensor;
+			this.timeBetweenFailures = timeBetweenFailures;
+			this.timeToRepair = timeToRepair;
+		}
+		void setDownForRepair(boolean down) {
+			if (sensor.working)
+				sensor.downForRepair = down;
+		}
+	}
+	/**
+	 * A scheduled change of the state of a sensor.
+	 */
+	private static class Switch implements Comparable<Switch> {
+		private final long time;
+		private final long sequence;
+		private final Process process;
+		private final boolean down;
+
+		Switch(long time, long sequence, Process process, boolean down) {
+			this.time = time;
+			this.sequence = sequence;
+			this.process = process;
+			this.down = down;
+		}
+		@Override
+		public int compareTo(Switch other) {
+			if (time != other.time)
+				return Long.compare(time, other.time);
+			return Long.compare(sequence, other.sequence);
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package gui;
 
 import generation.CardinalDirection;
+import generation.RandomStream;
 import gui.Robot.Direction;
 import gui.Robot.Turn;
 
@@ -28,16 +29,19 @@ public class SmartSensorStatus{
 	
 	
 	public Robot robot;
+	public RandomStream random; // for the coin flip that picks a direction to turn
 	/**
 	 * generic constructor for the sensor status class
 	 * @param robotDriver is the wall follower that is calling on this
 	 * @param inputRobot the robot that this object represents
 	 * @param holder status holder boolean array
+	 * @param coin the random numbers of the driver for its coin flips
 	 */
-	public SmartSensorStatus(WallFollower robotDriver, Robot inputRobot, boolean[] holder) {
+	public SmartSensorStatus(WallFollower robotDriver, Robot inputRobot, boolean[] holder, RandomStream coin) {
 		driver = robotDriver;
 		robot = inputRobot;
 		stateHolder = holder;
+		random = coin;
 		
 		frontStatus = holder[0];
 		leftStatus = holder[1];
@@ -85,7 +89,7 @@ public class SmartSensorStatus{
 					} else {// no wall l, r but wall f try turn r which makes the f wall a left wall
 						driver.energyUsed = driver.energyUsed + 3;
 						
-						int coinFlip = (int) (Math.floor(Math.random() * (2) + 1));// randomly pick a direction to turn - this should add enough variation that it won't get stuck in the same room after looping through it a few times
+						int coinFlip = random.nextIntWithinInterval(1, 2);// randomly pick a direction to turn - this should add enough variation that it won't get stuck in the same room after looping through it a few times
 						if (coinFlip == 1) {
 							robot.rotate(Turn.RIGHT);
 						} else {
@@ -206,7 +210,7 @@ public class SmartSensorStatus{
 						switchSensor(dirOfWorkingForwardSensor, Direction.FORWARD);
 						
 						driver.energyUsed = driver.energyUsed + 3;
-						int coinFlip = (int) (Math.floor(Math.random() * (2) + 1));// randomly pick a direction to turn - this should add enough variation that it won't get stuck in the same room after looping through it a few times
+						int coinFlip = random.nextIntWithinInterval(1, 2);// randomly pick a direction to turn - this should add enough variation that it won't get stuck in the same room after looping through it a few times
 						if (coinFlip == 1) {
 							robot.rotate(Turn.RIGHT);
 						} else {
@@ -2,6 +2,7 @@ package gui;
 
 import generation.CardinalDirection;
 import generation.Maze;
+import generation.RandomStream;
 import gui.Robot.Direction;
 import gui.Robot.Turn;
 
@@ -32,6 +33,7 @@ public class SmartWallFollower extends WallFollower {
 	public float energyUsed;
 	public int cellsTravelled;
 	public boolean robotUnreliable = false;
+	public RandomStream random = new RandomStream(System.nanoTime()); // for the coin flip in rooms, a new sequence for every driver by default
 	
 	/**
 	 * default constructor
@@ -43,6 +45,14 @@ public class SmartWallFollower extends WallFollower {
 		cellsTravelled = 0;
 	}
 	
+	/**
+	 * gives driver the random numbers for its coin flips, such that a drive can be repeated
+	 * @param r is the random number stream to use
+	 */
+	public void setRandom(RandomStream r) {
+		random = r;
+	}
+	
 	/**
 	 * part of class coordination: gives driver the robot to make decisions for
 	 * @param r is robot object to use
@@ -161,14 +171,14 @@ public class SmartWallFollower extends WallFollower {
 			
 			if (sensorTracker[0] || sensorTracker[1]) { // either left or front is down 
 				if (sensorTracker[2] && sensorTracker[3]) {//all sensors down needs to sleep for a sec to get at least one sensor running
-					Thread.sleep(2000); // 
+					clock.sleep(2000); // 
 				}
 				sensorTracker = new boolean[] {robot.getRobotSensor(Direction.FORWARD).checkRepairStatus(), robot.getRobotSensor(Direction.LEFT).checkRepairStatus(), robot.getRobotSensor(Direction.RIGHT).checkRepairStatus(), robot.getRobotSensor(Direction.BACKWARD).checkRepairStatus()};
 				
 			} else {
 				sensorTracker = new boolean[]{false, false, false, false};
 			}
-			SmartSensorStatus sensorStatuses = new SmartSensorStatus(this, robot, sensorTracker);
+			SmartSensorStatus sensorStatuses = new SmartSensorStatus(this, robot, sensorTracker, random);
 			toReturn = sensorStatuses.nextBasedOnSensorStatuses();
 			
 
@@ -238,10 +248,10 @@ public class SmartWallFollower extends WallFollower {
 		}
 		
 		if (robot.getRobotSensor(Direction.FORWARD).checkRepairStatus()) {
-			Thread.sleep(2);
+			clock.sleep(2);
 		}
+		int counter = 0; // number of rotations, at most 4 are needed to face the exit
 		while(!(robot.canSeeThroughTheExitIntoEternity(Robot.Direction.FORWARD))) {
-			int counter = 0;
 			if (counter > 4) {
 				throw new Exception();
 			}
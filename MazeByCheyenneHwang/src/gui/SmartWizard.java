@@ -31,6 +31,7 @@ public class SmartWizard extends Wizard{
 	public Maze maze;
 	public float energyUsed;
 	public int cellsTravelled;
+	public boolean headless; // true to drive without the pause between steps
 	
 	/**
 	 * default constructor
@@ -41,6 +42,16 @@ public class SmartWizard extends Wizard{
 		
 		energyUsed = 0;
 		cellsTravelled = 0;
+		headless = false;
+	}
+	
+	/**
+	 * adjustor method that turns the pause between steps off or on
+	 * the pause lets the animation on screen keep up, a simulated drive has no animation
+	 * @param h is true to drive without pauses
+	 */
+	public void setHeadless(boolean h) {
+		headless = h;
 	}
 	
 	/**
@@ -134,7 +145,9 @@ public class SmartWizard extends Wizard{
 		// how: moves robot and forces it to use its distance sensors
 		// if energy supply dies first or robot crashes throw exception
 		// returns: true for robot moved, false for no movement, exception if dies from crash, error, or no energy
-		Thread.sleep(500);
+		if (!headless) {
+			Thread.sleep(500);
+		}
 		
 		boolean toReturn = false;
 		if (robot.hasStopped()) {
@@ -451,8 +464,8 @@ public class SmartWizard extends Wizard{
 		}
 		
 //		while(maze.hasWall(curPos[0], curPos[1], robot.getCurrentDirection()) || (robot.getCurrentDirection() == CardinalDirection.North && (curPos[1] - 1 < 0)) || (robot.getCurrentDirection() == CardinalDirection.West && (curPos[0] - 1 < 0)) || (robot.getCurrentDirection() == CardinalDirection.South && (curPos[1] + 1 >= maze.getHeight())) || (robot.getCurrentDirection() == CardinalDirection.East && (curPos[0] + 1 >= maze.getWidth())) ) {
+		int counter = 0; // number of rotations, at most 4 are needed to face the exit
 		while(!(robot.canSeeThroughTheExitIntoEternity(Robot.Direction.FORWARD))) {
-			int counter = 0;
 			if (counter > 4) {
 				throw new Exception(); 
 			}
@@ -1,11 +1,14 @@
 package gui;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.logging.Logger;
 
 import generation.DefaultOrder;
 import generation.Factory;
 import generation.Floorplan;
 import generation.Maze;
+import generation.MazeCache;
 import generation.MazeFactory;
 import gui.Constants.UserInput;
 import gui.Robot.Direction;
@@ -111,7 +114,8 @@ public class StateGenerating extends DefaultOrder implements State {
     	
     	filename = null; // no information yet, provided by set method if at all
 
-        factory = new MazeFactory() ;
+        // mazes for the same order are the same, so reuse those generated before
+        factory = new MazeFactory(MazeCache.getDefault()) ;
        
     }
     
@@ -140,10 +144,19 @@ public class StateGenerating extends DefaultOrder implements State {
 
     /**
      * Loads maze from file and returns a corresponding maze configuration.
+     * The file is read as a binary maze file if it starts like one,
+     * see MazeBinaryFile, and as an XML file otherwise.
      * @param filename, not null
      * @return the maze that has been loaded from the given file
      */
     private Maze loadMazeConfigurationFromFile(String filename) {
+        if (MazeBinaryFile.isBinary(filename)) {
+            try {
+                return MazeBinaryFile.load(filename);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load maze from " + filename, e);
+            }
+        }
         // load maze from file
         MazeFileReader mfr = new MazeFileReader(filename) ;
         // obtain MazeConfiguration
@@ -203,7 +203,7 @@ public class StatePlaying implements State {
         		if (control.robot.getRobotSensor(Direction.LEFT).getSensorType().equals("unreliable")){// starts repair thread for left sensor if unreliable 
         			if (control.robot.getRobotSensor(Direction.FORWARD).getSensorType().equals("unreliable")) {// case for if sensor before was also unreliable and need to sleep before starting
         				try {
-        					Thread.sleep(1300);
+        					control.getClock().sleep(1300);
         				} catch (Exception e) {
         					e.printStackTrace();
         				}
@@ -219,7 +219,7 @@ public class StatePlaying implements State {
         		if (control.robot.getRobotSensor(Direction.RIGHT).getSensorType().equals("unreliable")){// starts repair thread for right sensor if unreliable 
         			if (control.robot.getRobotSensor(Direction.LEFT).getSensorType().equals("unreliable")) {// case for if sensor before was also unreliable and need to sleep before starting
         				try {
-        					Thread.sleep(1300);
+        					control.getClock().sleep(1300);
         				} catch (Exception e) {
         					e.printStackTrace();
         				}
@@ -235,7 +235,7 @@ public class StatePlaying implements State {
         		if (control.robot.getRobotSensor(Direction.BACKWARD).getSensorType().equals("unreliable")){// starts repair thread for back sensor if unreliable 
         			if (control.robot.getRobotSensor(Direction.RIGHT).getSensorType().equals("unreliable")) {// case for if sensor before was also unreliable and need to sleep before starting
         				try {
-        					Thread.sleep(1300);
+        					control.getClock().sleep(1300);
         				} catch (Exception e) {
         					e.printStackTrace();
         				}
@@ -316,7 +316,7 @@ public class StatePlaying implements State {
 
 		firstPersonView = new FirstPersonView(Constants.VIEW_WIDTH,
 				Constants.VIEW_HEIGHT, Constants.MAP_UNIT,
-				Constants.STEP_SIZE, seenCells, maze.getRootnode()) ;
+				Constants.STEP_SIZE, seenCells, maze.getFlatTree()) ;
 		
 		mapView = new Map(seenCells, 15, maze) ;
 		// draw the initial screen for this state
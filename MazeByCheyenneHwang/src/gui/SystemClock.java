@@ -0,0 +1,40 @@
+package gui;
+
+/**
+ * The real time of the game.
+ * Waiting sleeps the calling thread and failure and repair processes
+ * run on the shared RealTimeFailureScheduler.
+ */
+public final class SystemClock implements Clock {
+
+	private static final SystemClock INSTANCE = new SystemClock();
+
+	/**
+	 * Constructor, use {@link #getInstance()} to obtain the clock.
+	 */
+	private SystemClock() {
+	}
+	/**
+	 * Gives the clock that is shared by all robots, drivers and sensors of the game.
+	 * @return the clock
+	 */
+	public static SystemClock getInstance() {
+		return INSTANCE;
+	}
+
+	@Override
+	public long getTime() {
+		// monotonic, unlike System.currentTimeMillis
+		return System.nanoTime() / 1000000;
+	}
+
+	@Override
+	public void sleep(long millis) throws InterruptedException {
+		Thread.sleep(millis);
+	}
+
+	@Override
+	public FailureScheduler getFailureScheduler() {
+		return RealTimeFailureScheduler.getInstance();
+	}
+}
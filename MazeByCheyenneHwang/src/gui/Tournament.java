@@ -0,0 +1,304 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import generation.BatchMazeFactory;
+import generation.DefaultOrder;
+import generation.Maze;
+import generation.Order.Builder;
+import generation.RandomStream;
+import gui.Robot.Direction;
+
+/**
+ * A tournament lets every combination of robot driver and sensor configuration
+ * drive through the same set of mazes and compares how well they do.
+ *
+ * For each skill level, a number of mazes is generated with seeds 0, 1, 2, ...
+ * such that a tournament can be repeated with the same mazes.
+ * Each run is a drive of a fresh robot with a fresh driver on a SimulatedControl,
+ * so it is headless and runs take milliseconds. Runs are independent of each other
+ * and are spread over a fixed number of worker threads.
+ *
+ * Drivers are named as on the command line of the game (-d):
+ * Wizard, SmartWizard, WallFollower, SmartWallFollower, Navigator.
+ * Sensor configurations are given as on the command line of the game (-r):
+ * four digits for the forward, left, right and backward sensor,
+ * 1 for a reliable sensor, 0 for an unreliable one.
+ * With all sensors reliable, the robot is a ReliableRobot, otherwise an UnreliableRobot.
+ * Unreliable sensors fail and get repaired on the simulated clock of the SimulatedControl,
+ * so waiting for repairs costs no real time.
+ * Drivers that flip coins get a random number stream of their own for each run,
+ * split off a stream with a fixed seed in the order the runs are submitted,
+ * so runs are reproducible regardless of the number of worker threads.
+ *
+ * The results are summarized per skill level, driver and sensor configuration:
+ * the success rate, the average path length and energy consumption as reported
+ * by the driver, the average simulated time a run would take in the game
+ * and the average wall clock time per run.
+ */
+public class Tournament {
+	/**
+	 * The logger is used to track execution and report issues.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(Tournament.class.getName());
+
+	/**
+	 * All drivers that can take part in a tournament.
+	 */
+	public static final String[] DRIVERS = { "Wizard", "SmartWizard", "WallFollower", "SmartWallFollower", "Navigator" };
+	/**
+	 * Sensor configurations from all reliable to all unreliable.
+	 */
+	public static final String[] SENSOR_SETTINGS = { "1111", "1100", "0011", "0000" };
+	/**
+	 * Seed of the stream that the random numbers of all runs are split off.
+	 */
+	private static final long RUN_SEED = 13;
+
+	private final String[] drivers;
+	private final String[] sensorSettings;
+	private final int maxSkill; // skill levels 0 to maxSkill take part
+	private final int mazesPerSkill;
+	private final Builder builder;
+	private final int threads;
+
+	/**
+	 * Constructor
+	 * @param drivers the names of the drivers, see {@link #DRIVERS}
+	 * @param sensorSettings the sensor configurations, see {@link #SENSOR_SETTINGS}
+	 * @param maxSkill the highest skill level, {@code 0 <= maxSkill <= 15}
+	 * @param mazesPerSkill the number of mazes per skill level, {@code 0 < mazesPerSkill}
+	 * @param builder the algorithm to generate mazes
+	 * @param threads the number of worker threads, {@code 0 < threads}
+	 */
+	public Tournament(String[] drivers, String[] sensorSettings, int maxSkill, int mazesPerSkill,
+			Builder builder, int threads) {
+		for (String driver : drivers) {
+			if (null == createDriver(driver))
+				throw new IllegalArgumentException("Unknown driver: " + driver);
+		}
+		for (String sensorSetting : sensorSettings) {
+			if (!sensorSetting.matches("[01]{4}"))
+				throw new IllegalArgumentException("Invalid sensor configuration: " + sensorSetting);
+		}
+		this.drivers = drivers.clone();
+		this.sensorSettings = sensorSettings.clone();
+		this.maxSkill = maxSkill;
+		this.mazesPerSkill = mazesPerSkill;
+		this.builder = builder;
+		this.threads = threads;
+	}
+
+	/**
+	 * Generates the mazes and performs all runs.
+	 * @return the results of all runs, ordered by skill level, maze, driver
+	 * and sensor configuration
+	 * @throws InterruptedException if interrupted while waiting for runs to finish
+	 */
+	public List<Result> run() throws InterruptedException {
+		Maze[][] mazes = generate();
+		RandomStream coins = new RandomStream(RUN_SEED);
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "tournament");
+			t.setDaemon(true);
+			return t;
+		});
+		try {
+			List<Future<Result>> futures = new ArrayList<>();
+			for (int skill = 0; skill <= maxSkill; skill++) {
+				for (int seed = 0; seed < mazesPerSkill; seed++) {
+					final Maze maze = mazes[skill][seed];
+					final int skillLevel = skill;
+					for (String driver : drivers) {
+						for (String sensorSetting : sensorSettings) {
+							final RandomStream random = coins.split();
+							futures.add(executor.submit(() -> drive(maze, skillLevel, driver, sensorSetting, random)));
+						}
+					}
+				}
+			}
+			List<Result> results = new ArrayList<>(futures.size());
+			for (Future<Result> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					// drive() catches what the driver throws, so this is a bug in the tournament
+					throw new IllegalStateException("Run failed", e.getCause());
+				}
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Gives a table with one line per skill level, driver and sensor configuration
+	 * with the number of runs, the success rate, the average path length,
+	 * the average energy consumption, the average simulated time in seconds
+	 * and the average wall clock time in milliseconds per run.
+	 * Averages are taken over all runs, successful or not.
+	 * @param results the results of a tournament
+	 * @return the table as a multi line string
+	 */
+	public static String getReport(List<Result> results) {
+		// group results, insertion order keeps the order of the runs
+		LinkedHashMap<String, List<Result>> groups = new LinkedHashMap<>();
+		for (Result result : results) {
+			String key = String.format("%5d %-17s %7s", result.skillLevel, result.driver, result.sensorSetting);
+			groups.computeIfAbsent(key, k -> new ArrayList<>()).add(result);
+		}
+		StringBuilder s = new StringBuilder();
+		s.append(String.format("%5s %-17s %7s %5s %8s %8s %9s %9s %9s%n",
+				"skill", "driver", "sensors", "runs", "success", "path", "energy", "sim s", "ms"));
+		for (java.util.Map.Entry<String, List<Result>> group : groups.entrySet()) {
+			List<Result> runs = group.getValue();
+			int successes = 0;
+			double pathLength = 0;
+			double energy = 0;
+			double simulatedMillis = 0;
+			double millis = 0;
+			for (Result result : runs) {
+				if (result.success)
+					successes++;
+				pathLength += result.pathLength;
+				energy += result.energyConsumption;
+				simulatedMillis += result.simulatedMillis;
+				millis += result.millis;
+			}
+			final int n = runs.size();
+			s.append(String.format("%s %5d %7.1f%% %8.1f %9.1f %9.1f %9.3f%n", group.getKey(), n,
+					100.0 * successes / n, pathLength / n, energy / n, simulatedMillis / n / 1000, millis / n));
+		}
+		return s.toString();
+	}
+
+	/**
+	 * Generates the mazes for all skill levels in parallel.
+	 * @return the mazes indexed by skill level and seed
+	 */
+	private Maze[][] generate() {
+		BatchMazeFactory factory = new BatchMazeFactory(threads, (maxSkill+1) * mazesPerSkill, null);
+		DefaultOrder[][] orders = new DefaultOrder[maxSkill+1][mazesPerSkill];
+		for (int skill = 0; skill <= maxSkill; skill++) {
+			for (int seed = 0; seed < mazesPerSkill; seed++) {
+				orders[skill][seed] = new DefaultOrder(skill, builder, false, seed);
+				factory.order(orders[skill][seed]);
+			}
+		}
+		factory.waitTillDelivered();
+		factory.shutdown();
+		Maze[][] mazes = new Maze[maxSkill+1][mazesPerSkill];
+		for (int skill = 0; skill <= maxSkill; skill++) {
+			for (int seed = 0; seed < mazesPerSkill; seed++) {
+				mazes[skill][seed] = orders[skill][seed].getMaze();
+			}
+		}
+		return mazes;
+	}
+	/**
+	 * Performs a single run.
+	 * @param random the random numbers for a driver that flips coins
+	 */
+	private static Result drive(Maze maze, int skillLevel, String driverName, String sensorSetting,
+			RandomStream random) {
+		RobotDriver driver = createDriver(driverName);
+		if (driver instanceof SmartWallFollower)
+			((SmartWallFollower) driver).setRandom(random);
+		Robot robot = createRobot(sensorSetting);
+		SimulatedControl control = new SimulatedControl(maze);
+		long start = System.nanoTime();
+		int result = control.drive(robot, driver);
+		double millis = (System.nanoTime() - start) / 1e6;
+		LOGGER.fine(driverName + " with sensors " + sensorSetting + " on skill level "
+				+ skillLevel + ": " + result);
+		return new Result(skillLevel, driverName, sensorSetting, -1 != result,
+				driver.getPathLength(), driver.getEnergyConsumption(), control.getElapsedTime(), millis);
+	}
+	/**
+	 * Creates a driver by name as the game does for its command line.
+	 * @param name the name of the driver
+	 * @return a new driver, null if the name is unknown
+	 */
+	static RobotDriver createDriver(String name) {
+		if (name.equalsIgnoreCase("Wizard"))
+			return new Wizard();
+		if (name.equalsIgnoreCase("SmartWizard"))
+			return new SmartWizard();
+		if (name.equalsIgnoreCase("WallFollower"))
+			return new WallFollower();
+		if (name.equalsIgnoreCase("SmartWallFollower"))
+			return new SmartWallFollower();
+		if (name.equalsIgnoreCase("Navigator"))
+			return new Navigator();
+		return null;
+	}
+	/**
+	 * Creates a robot with sensors as the game does for its command line.
+	 * @param sensorSetting four digits for the forward, left, right and backward sensor,
+	 * 1 for a reliable sensor, 0 for an unreliable one
+	 * @return a new robot with all four sensors
+	 */
+	static Robot createRobot(String sensorSetting) {
+		final Direction[] directions = { Direction.FORWARD, Direction.LEFT, Direction.RIGHT, Direction.BACKWARD };
+		Robot robot = sensorSetting.equals("1111") ? new ReliableRobot() : new UnreliableRobot();
+		for (int i = 0; i < directions.length; i++) {
+			DistanceSensor sensor = ('1' == sensorSetting.charAt(i)) ? new ReliableSensor() : new UnreliableSensor();
+			sensor.setSensorDirection(directions[i]);
+			robot.addDistanceSensor(sensor, directions[i]);
+		}
+		return robot;
+	}
+
+	/**
+	 * The outcome of a single run.
+	 */
+	public static class Result {
+		public final int skillLevel;
+		public final String driver;
+		public final String sensorSetting;
+		public final boolean success; // true if the robot reached the exit
+		public final int pathLength;
+		public final float energyConsumption;
+		public final long simulatedMillis; // time the run would take in the game
+		public final double millis; // wall clock time of the run
+
+		Result(int skillLevel, String driver, String sensorSetting, boolean success,
+				int pathLength, float energyConsumption, long simulatedMillis, double millis) {
+			this.skillLevel = skillLevel;
+			this.driver = driver;
+			this.sensorSetting = sensorSetting;
+			this.success = success;
+			this.pathLength = pathLength;
+			this.energyConsumption = energyConsumption;
+			this.simulatedMillis = simulatedMillis;
+			this.millis = millis;
+		}
+	}
+
+	/**
+	 * Runs a tournament of all drivers and sensor configurations and prints the results.
+	 * Arguments (all optional): highest skill level (default 5),
+	 * number of mazes per skill level (default 8), number of worker threads
+	 * (default one per processor).
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int maxSkill = (args.length > 0) ? Integer.parseInt(args[0]) : 5;
+		int mazesPerSkill = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+		int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		Tournament tournament = new Tournament(DRIVERS, SENSOR_SETTINGS, maxSkill, mazesPerSkill,
+				Builder.DFS, threads);
+		long start = System.nanoTime();
+		List<Result> results = tournament.run();
+		System.out.print(getReport(results));
+		System.out.println(String.format("%d runs on %d threads in %.1f s",
+				results.size(), threads, (System.nanoTime() - start) / 1e9));
+	}
+}
@@ -29,7 +29,7 @@ import gui.Robot.Direction;
 
 public class UnreliableRobot implements Robot {
 	
-	public Control controller;
+	public RobotControl controller;
 	public float energyLevel;
 	public int odometerReading;
 	public boolean isDead;
@@ -59,18 +59,19 @@ public class UnreliableRobot implements Robot {
 	
 	/**
 	 * part of class coordination: specifies to the robot what control object to work with
+	 * the controller is either the game's Control in the playing state or a SimulatedControl
 	 * @throw exceptions if controller no, wrong playing state, or if there is no maze for the controller
 	 * @param c is the controller object robot will use
 	 */
 	@Override
-	public void setController(Control c) {
+	public void setController(RobotControl c) {
 		// part of class coordination: specifies to the robot what control object to work with
 		// how: intializes the instance variable for the class
 		// will use the controller to get positional information, wall information, and exit information
 		// throws exceptions if controller no, wrong playing state, or if there is no maze for the controller
 		if (c == null) {
 			throw new IllegalArgumentException();
-		} else if (!(c.currentState.equals((StatePlaying)c.currentState))) { //HOW TO CHECK WHAT STATE
+		} else if ((c instanceof Control) && !(((Control)c).currentState.equals((StatePlaying)((Control)c).currentState))) { //HOW TO CHECK WHAT STATE
 			throw new IllegalArgumentException();
 		} else if (c.getMaze() == null) {
 			throw new IllegalArgumentException();
@@ -334,22 +335,25 @@ public class UnreliableRobot implements Robot {
 			try {
 				if (forwardSensor.checkRepairStatus()) {
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
 				}
+				// a single look ahead covers all steps of the move
 				int distanceToWall = distanceToObstacle(Direction.FORWARD);
-				if (distanceToWall == 0) {
-					isDead = true;
-				} else {
-					energyLevel = energyLevel - 6;
-					if (energyLevel <= 0) { // CHECK ON THIS
+				for (int step = 0; step < distance && !isDead; step++) {
+					if (step >= distanceToWall) {
 						isDead = true;
 					} else {
-						controller.handleKeyboardInput(UserInput.UP, 0); 
-						odometerReading = odometerReading + 1;
-						
+						energyLevel = energyLevel - 6;
+						if (energyLevel <= 0) { // CHECK ON THIS
+							isDead = true;
+						} else {
+							controller.handleKeyboardInput(UserInput.UP, 0); 
+							odometerReading = odometerReading + 1;
+							
+						}
 					}
 				}
 			} catch (Exception e) {
@@ -518,7 +522,7 @@ public class UnreliableRobot implements Robot {
 				
 				if (forwardSensor.checkRepairStatus()) {// has process wait if sensor being repaired
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -545,7 +549,7 @@ public class UnreliableRobot implements Robot {
 			}else {
 				if (leftSensor.checkRepairStatus()) {// has process wait if sensor being repaired
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -583,7 +587,7 @@ public class UnreliableRobot implements Robot {
 			} else {
 				if (backSensor.checkRepairStatus()) {// has process wait if sensor being repaired
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -622,7 +626,7 @@ public class UnreliableRobot implements Robot {
 			}else {
 				if (rightSensor.checkRepairStatus()) {// has process wait if sensor being repaired
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -690,7 +694,7 @@ public class UnreliableRobot implements Robot {
 			}else {
 				if (forwardSensor.checkRepairStatus()){//pauses if doen for repair
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -713,7 +717,7 @@ public class UnreliableRobot implements Robot {
 			} else {
 				if (leftSensor.checkRepairStatus()){
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -747,7 +751,7 @@ public class UnreliableRobot implements Robot {
 			} else {
 				if (backSensor.checkRepairStatus()){
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
@@ -782,7 +786,7 @@ public class UnreliableRobot implements Robot {
 			} else {
 				if (rightSensor.checkRepairStatus()){
 					try {
-						Thread.sleep(2000);
+						controller.getClock().sleep(2000);
 					} catch (InterruptedException e) {
 						e.printStackTrace();
 					}
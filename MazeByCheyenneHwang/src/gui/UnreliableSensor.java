@@ -17,7 +17,8 @@ import static org.junit.Assert.assertTrue;
  * its sole responsibility is to measure the distance from the robot to a wall in a given direction
  * key element: needs to be able to take in a robot direction, convert it to a cardinal direction, then calculate
  * This is a variant of the ReliableSensor class but with added mechanism that it can also self repair if downed
- * key difference from reliablesensor class is that it has a thread that makes it temporarily go offline for repairs 
+ * key difference from reliablesensor class is that it has a failure and repair process that makes it temporarily go offline for repairs 
+ * the process is run by a FailureScheduler, the shared real time scheduler by default
  * works with unreliablerobot only
  * 
  * @author Cheyenne Hwang
@@ -27,16 +28,15 @@ public class UnreliableSensor implements DistanceSensor {
 	
 	public Direction relativeDirection; // currentDirection specifies the direction of the robot
 	public Maze maze;
-	public boolean working;
+	public volatile boolean working; // volatile as the failure scheduler reads it
 	
-	public boolean downForRepair;
+	public volatile boolean downForRepair; // volatile as the failure scheduler switches it
 	public int meanTimeToRepair;
 	public int meanTimeBetweenFailures;
 	
 	public String sensorType = "unreliable";
 	
-	public Thread repairThread;
-//	private UnreliableThread unreliableThread;
+	private FailureScheduler failureScheduler; // runs the failure and repair process
 	
 	/**
 	 * default constructor
@@ -48,6 +48,7 @@ public class UnreliableSensor implements DistanceSensor {
 		downForRepair = false;
 		
 		sensorType = "unreliable";
+		failureScheduler = RealTimeFailureScheduler.getInstance();
 		
 		
 //		try {
@@ -70,12 +71,10 @@ public class UnreliableSensor implements DistanceSensor {
 	public int distanceToObstacle(int[] position, CardinalDirection direction, float[] energysupply)
 			throws Exception {
 		// interacts with maze object to return the distance from the robot to the nearest wallboard in the currentDirection
-		// uses maze method of has wall to find distance
-		// do this by traversing the direction, counting steps, checking each time if wall
+		// looks up the distance in the table of distances to walls that the maze provides
 		// return var is an int represents distance to wall
 		// parameters: the instance variables for the class object
 		// throws exceptions when: powersupply runs out, sensor down, parameters wrong
-		// assert statement as sanity check that final direction option is east 
 		
 		if (position == null || direction == null || energysupply == null) {
 			working = false;
@@ -89,76 +88,9 @@ public class UnreliableSensor implements DistanceSensor {
 		} else if(downForRepair){
 			throw new Exception("Sensor Failure\n");
 		} else {
-			int toReturn = 0;
-			int[] checkPos = position;
-			boolean distanceFound = false;
-			boolean nearestWallIsBorder = false;
-			
-			if (position[0] == maze.getExitPosition()[0] && position[1] == maze.getExitPosition()[1]) {// for if at exit
-				if (!(maze.hasWall(position[0], position[1], direction))) {
-					if (direction == CardinalDirection.North && checkPos[1] == 0) {
-						return Integer.MAX_VALUE;
-					} else if (direction == CardinalDirection.West && checkPos[0] == 0) {
-						return Integer.MAX_VALUE;
-					} else if (direction == CardinalDirection.South && checkPos[1] == maze.getHeight() - 1) {
-						return Integer.MAX_VALUE;
-					} else if (direction == CardinalDirection.East && checkPos[1] == maze.getWidth() - 1) { 
-						return Integer.MAX_VALUE;
-					}
-				} 
-			}
-			if (direction == CardinalDirection.North) {
-				while (!distanceFound) {
-					if (maze.hasWall(checkPos[0], checkPos[1], direction)) {
-						distanceFound = true;
-						if(checkPos[1] == 0) {
-							nearestWallIsBorder = true;
-						}
-					} else {
-						toReturn = toReturn + 1;
-						checkPos[1] = checkPos[1] - 1;
-					}
-				}
-			} else if (direction == CardinalDirection.West) {
-				while (!distanceFound) {
-					if (maze.hasWall(checkPos[0], checkPos[1], direction)) {
-						distanceFound = true;
-						if(checkPos[0] == 0) {
-							nearestWallIsBorder = true;
-						}
-					} else {
-						toReturn = toReturn + 1;
-						checkPos[0] = checkPos[0] - 1;
-					}
-				}
-			} else if (direction == CardinalDirection.South) {
-				while (!distanceFound) {
-					if (maze.hasWall(checkPos[0], checkPos[1], direction)) {
-						distanceFound = true;
-						if(checkPos[1] == maze.getHeight() - 1) {
-							nearestWallIsBorder = true;
-						}
-					} else {
-						toReturn = toReturn + 1;
-						checkPos[1] = checkPos[1] + 1;
-					}
-				}
-			} else {
-				assert direction == CardinalDirection.East : "No direction is correct here";
-				while (!distanceFound) {
-					if (maze.hasWall(checkPos[0], checkPos[1], direction)) {
-						distanceFound = true;
-						if(checkPos[0] == maze.getWidth() - 1) {
-							nearestWallIsBorder = true;
-						}
-					} else {
-						toReturn = toReturn + 1;
-						checkPos[0] = checkPos[0] + 1;
-					}
-				}
-			}
-			
-			return toReturn;
+			// the maze keeps a table of distances to walls in all directions for all cells,
+			// Integer.MAX_VALUE if one can see through the exit into eternity
+			return maze.getWallDistances().getDistance(position[0], position[1], direction);
 			
 		}
 			
@@ -246,14 +178,11 @@ public class UnreliableSensor implements DistanceSensor {
 		// throws exception if not used since optional, if method not supported
 		// takes int parameter meanTimeBetweenFailures is the mean time in seconds, must be greater than zero - here auto set to 4 for project
 		// takes int parameter meanTimeToRepair is the mean time in seconds, must be greater than zero - here auto set to 2 for project
+		// how it works: hands the process to the failure scheduler, times are converted to milliseconds
 		meanTimeBetweenFailures = meanTimeBetweenFailuresInput;
 		meanTimeToRepair = meanTimeToRepairInput;
 		
-		UnreliableThread unreliableThread = new UnreliableThread();
-		unreliableThread.setUnreliableSensor(this);
-		repairThread = new Thread(unreliableThread);
-		repairThread.start();
-		
+		failureScheduler.start(this, meanTimeBetweenFailures * 1000L, meanTimeToRepair * 1000L);
 
 	}
 
@@ -272,15 +201,32 @@ public class UnreliableSensor implements DistanceSensor {
 		// then when title/finish screen reached sets the sensor to operational
 		// @throws exception it if method called with no running failure and repair process or if it is not used or supported by the robot/robot driver utilizing it
 		
-		if (repairThread == null || !repairThread.isAlive()) {
+		if (!failureScheduler.stop(this)) {
 			throw new UnsupportedOperationException();
-		} else {
-			repairThread.interrupt();
-			repairThread = null;
-			downForRepair = false;
 		}
 	}
 	
+	/**
+	 * tells if the failure and repair process is running
+	 * @return true if the process was started and not stopped since, false otherwise
+	 */
+	public boolean isFailureAndRepairProcessRunning() {
+		return failureScheduler.isRunning(this);
+	}
+	
+	/**
+	 * adjustor method that sets the scheduler for the failure and repair process
+	 * the default is the shared real time scheduler, a simulation uses a SimulatedFailureScheduler 
+	 * @param scheduler is the scheduler to use for the next process that is started
+	 * @throws IllegalStateException if a process is running
+	 */
+	public void setFailureScheduler(FailureScheduler scheduler) {
+		if (isFailureAndRepairProcessRunning()) {
+			throw new IllegalStateException("Failure and repair process is running");
+		}
+		failureScheduler = scheduler;
+	}
+	
 	
 	/**
 	 * gives current status of sensor, whether or not its down
@@ -30,6 +30,7 @@ public class WallFollower implements RobotDriver {
 	public float energyUsed;
 	public int cellsTravelled;
 	public boolean robotUnreliable = false;
+	public Clock clock = SystemClock.getInstance(); // for waiting while sensors are down for repair
 	
 	/**
 	 * default constructor
@@ -41,6 +42,14 @@ public class WallFollower implements RobotDriver {
 		cellsTravelled = 0;
 	}
 	
+	/**
+	 * part of class coordination: gives driver the clock to wait with, the real time by default
+	 * @param c is the clock of the robot's controller
+	 */
+	public void setClock(Clock c) {
+		clock = c;
+	}
+	
 	/**
 	 * part of class coordination: gives driver the robot to make decisions for
 	 * @param r is robot object to use
@@ -159,7 +168,7 @@ public class WallFollower implements RobotDriver {
 			
 			if (sensorTracker[0] || sensorTracker[1]) { // either left or front is down 
 				if (sensorTracker[2] && sensorTracker[3]) {//all sensors down needs to sleep for a sec to get at least one sensor running
-					Thread.sleep(2000); // 
+					clock.sleep(2000); // 
 				}
 				sensorTracker = new boolean[] {robot.getRobotSensor(Direction.FORWARD).checkRepairStatus(), robot.getRobotSensor(Direction.LEFT).checkRepairStatus(), robot.getRobotSensor(Direction.RIGHT).checkRepairStatus(), robot.getRobotSensor(Direction.BACKWARD).checkRepairStatus()};
 				
@@ -237,10 +246,10 @@ public class WallFollower implements RobotDriver {
 		
 //		while(maze.hasWall(curPos[0], curPos[1], robot.getCurrentDirection()) || (robot.getCurrentDirection() == CardinalDirection.North && (curPos[1] - 1 < 0)) || (robot.getCurrentDirection() == CardinalDirection.West && (curPos[0] - 1 < 0)) || (robot.getCurrentDirection() == CardinalDirection.South && (curPos[1] + 1 >= maze.getHeight())) || (robot.getCurrentDirection() == CardinalDirection.East && (curPos[0] + 1 >= maze.getWidth())) ) {
 		if (robot.getRobotSensor(Direction.FORWARD).checkRepairStatus()) {
-			Thread.sleep(2);
+			clock.sleep(2);
 		}
+		int counter = 0; // number of rotations, at most 4 are needed to face the exit
 		while(!(robot.canSeeThroughTheExitIntoEternity(Robot.Direction.FORWARD))) {
-			int counter = 0;
 			if (counter > 4) {
 				throw new Exception();
 			}
@@ -258,8 +258,8 @@ public class Wizard implements RobotDriver {
 		}
 		
 //		while(maze.hasWall(curPos[0], curPos[1], robot.getCurrentDirection()) || (robot.getCurrentDirection() == CardinalDirection.North && (curPos[1] - 1 < 0)) || (robot.getCurrentDirection() == CardinalDirection.West && (curPos[0] - 1 < 0)) || (robot.getCurrentDirection() == CardinalDirection.South && (curPos[1] + 1 >= maze.getHeight())) || (robot.getCurrentDirection() == CardinalDirection.East && (curPos[0] + 1 >= maze.getWidth())) ) {
+		int counter = 0; // number of rotations, at most 4 are needed to face the exit
 		while(!(robot.canSeeThroughTheExitIntoEternity(Robot.Direction.FORWARD))) {
-			int counter = 0;
 			if (counter > 4) {
 				throw new Exception();
 			}
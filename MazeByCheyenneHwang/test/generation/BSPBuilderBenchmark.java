@@ -0,0 +1,64 @@
+package generation;
+
+import java.util.Arrays;
+
+import generation.Order.Builder;
+import gui.Constants;
+
+/**
+ * Compares the time to build the BSP tree with the GRADE and the AXIS_ALIGNED
+ * strategy for splitter selection for several skill levels.
+ * Mazes have rooms and are generated with Prim's algorithm. The BSPBuilder
+ * gets no order, so there is no progress reporting and no sleeping involved,
+ * only the computation is measured. Each measurement is the median of several runs
+ * after some warm up runs, as the first runs mostly measure the just in time compiler.
+ * The size and depth of the tree show
+ * that the exact grades of the axis aligned strategy do not produce worse trees.
+ * 
+ * This is not a JUnit test, run the main method instead.
+ */
+public class BSPBuilderBenchmark {
+	
+	private static final int[] SKILLS = { 3, 6, 9, 12, 15 };
+	private static final int WARMUPS = 5;
+	private static final int REPETITIONS = 9;
+
+	public static void main(String[] args) throws InterruptedException {
+		System.out.println("skill    size   strategy      ms    nodes  depth");
+		for (int skill : SKILLS) {
+			MazeBuilder builder = new MazeBuilderPrim();
+			builder.buildOrder(new DefaultOrder(skill, Builder.Prim, false, 13));
+			builder.floorplan.initialize();
+			builder.generateRooms();
+			builder.generate();
+			for (BSPBuilder.Splitter strategy : BSPBuilder.Splitter.values()) {
+				final double[] times = new double[REPETITIONS];
+				BSPNode root = null;
+				for (int i = -WARMUPS; i < REPETITIONS; i++) {
+					BSPBuilder b = new BSPBuilder(null, builder.dists, new Floorplan(builder.floorplan),
+							builder.width, builder.height, 0, Constants.SKILL_PARTCT[skill]);
+					b.setSplitterStrategy(strategy);
+					long start = System.nanoTime();
+					root = b.generateBSPNodes();
+					if (i >= 0)
+						times[i] = (System.nanoTime() - start) / 1e6;
+				}
+				Arrays.sort(times);
+				System.out.printf("%5d %7s %-12s %8.1f %7d %6d%n", skill, builder.width + "x" + builder.height,
+						strategy, times[REPETITIONS / 2], countNodes(root), depth(root));
+			}
+		}
+	}
+	private static int countNodes(BSPNode node) {
+		if (node.isIsleaf())
+			return 1;
+		BSPBranch branch = (BSPBranch)node;
+		return 1 + countNodes(branch.getLeftBranch()) + countNodes(branch.getRightBranch());
+	}
+	private static int depth(BSPNode node) {
+		if (node.isIsleaf())
+			return 1;
+		BSPBranch branch = (BSPBranch)node;
+		return 1 + Math.max(depth(branch.getLeftBranch()), depth(branch.getRightBranch()));
+	}
+}
@@ -0,0 +1,62 @@
+package generation;
+
+import java.util.TreeSet;
+
+import generation.Order.Builder;
+import gui.Constants;
+
+/**
+ * Measures the speedup of the parallel BSP tree construction
+ * over the sequential one for large mazes with skill levels 9 to 15.
+ * Mazes have rooms and are generated with Prim's algorithm. The BSPBuilder
+ * gets no order, so there is no progress reporting and no sleeping involved,
+ * only the computation is measured. A speedup needs a machine with several
+ * processors, the number of available processors is printed first.
+ * 
+ * This is not a JUnit test, run the main method instead.
+ */
+public class BSPBuilderParallelBenchmark {
+
+	private static final int[] SKILLS = { 9, 12, 15 };
+	private static final int REPETITIONS = 5;
+
+	public static void main(String[] args) throws InterruptedException {
+		final int processors = Runtime.getRuntime().availableProcessors();
+		System.out.println("available processors: " + processors);
+		TreeSet<Integer> threads = new TreeSet<>();
+		for (int t = 1; t <= Math.max(8, processors); t *= 2) {
+			threads.add(t);
+		}
+		threads.add(processors);
+		// first round warms up the JIT compiler and is not reported
+		measure(threads, false);
+		System.out.println("skill    size  threads       ms  speedup");
+		measure(threads, true);
+	}
+	private static void measure(TreeSet<Integer> threads, boolean print) throws InterruptedException {
+		for (int skill : SKILLS) {
+			MazeBuilder builder = new MazeBuilderPrim();
+			builder.buildOrder(new DefaultOrder(skill, Builder.Prim, false, 13));
+			builder.floorplan.initialize();
+			builder.generateRooms();
+			builder.generate();
+			double sequential = 0;
+			for (int t : threads) {
+				double best = Double.MAX_VALUE;
+				for (int i = 0; i < REPETITIONS; i++) {
+					BSPBuilder b = new BSPBuilder(null, builder.dists, new Floorplan(builder.floorplan),
+							builder.width, builder.height, 0, Constants.SKILL_PARTCT[skill]);
+					b.setParallelism(t);
+					long start = System.nanoTime();
+					b.generateBSPNodes();
+					best = Math.min(best, (System.nanoTime() - start) / 1e6);
+				}
+				if (1 == t)
+					sequential = best;
+				if (print)
+					System.out.printf("%5d %7s %8d %8.1f %8.2f%n", skill, builder.width + "x" + builder.height,
+							t, best, sequential / best);
+			}
+		}
+	}
+}
@@ -0,0 +1,337 @@
+package generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import generation.Order.Builder;
+import gui.Constants;
+
+/**
+ * Tests the construction of the BSP tree by the BSPBuilder
+ * for both strategies to select splitters, with a focus on
+ * the axis aligned strategy that grades candidates with prefix counts.
+ */
+public class BSPBuilderTest {
+
+	private Maze maze;
+
+	/**
+	 * Orders a maze with rooms such that walls have various lengths.
+	 */
+	@Before
+	public void setUp() {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(4, Builder.Prim, false, 13);
+		factory.order(order);
+		factory.waitTillDelivered();
+		maze = order.getMaze();
+		assertNotNull(maze);
+	}
+	/**
+	 * Gives the list of walls for the maze.
+	 * @return a new list of walls
+	 */
+	private List<Wall> getWalls() {
+		return new ListOfWallsBuilder(maze.getWidth(), maze.getHeight(),
+				new Floorplan(maze.getFloorplan()), maze.getMazedists(), 0).generateWalls();
+	}
+	/**
+	 * Builds a BSP tree with the given strategy.
+	 * @param strategy the splitter strategy
+	 * @return the root node
+	 */
+	private BSPNode build(BSPBuilder.Splitter strategy) throws InterruptedException {
+		BSPBuilder builder = new BSPBuilder(null, maze.getMazedists(), new Floorplan(maze.getFloorplan()),
+				maze.getWidth(), maze.getHeight(), 0, Constants.SKILL_PARTCT[4]);
+		builder.setSplitterStrategy(strategy);
+		assertEquals(strategy, builder.getSplitterStrategy());
+		return builder.generateBSPNodes();
+	}
+	/**
+	 * Builds a BSP tree with the given number of threads.
+	 * @param order receives progress updates, may be null
+	 * @param parallelism the number of threads
+	 * @return the root node
+	 */
+	private BSPNode build(Order order, int parallelism) throws InterruptedException {
+		BSPBuilder builder = new BSPBuilder(order, maze.getMazedists(), new Floorplan(maze.getFloorplan()),
+				maze.getWidth(), maze.getHeight(), 0, Constants.SKILL_PARTCT[4]);
+		builder.setParallelism(parallelism);
+		assertEquals(parallelism, builder.getParallelism());
+		return builder.generateBSPNodes();
+	}
+	/**
+	 * Test case: prefix counts deliver the same grades as calculateGrade
+	 * <p>
+	 * Method under test: SplitterGrades.grade(Wall)
+	 * <p>
+	 * Correct behavior: for lists of less than 100 walls, calculateGrade considers
+	 * every wall, so both grades match for every wall in the list
+	 */
+	@Test
+	public final void testGradesMatchCalculateGrade() {
+		List<Wall> walls = getWalls();
+		assertTrue(walls.size() > 100);
+		for (int from = 0; from + 99 <= walls.size(); from += 33) {
+			List<Wall> sublist = walls.subList(from, from + 99);
+			SplitterGrades grades = SplitterGrades.create(sublist, Constants.MAP_UNIT);
+			assertNotNull(grades);
+			for (Wall wall : sublist) {
+				assertEquals(wall.calculateGrade(sublist), grades.grade(wall));
+			}
+		}
+	}
+	/**
+	 * Test case: grades for the walls on either side of a splitter
+	 * <p>
+	 * Method under test: SplitterGrades.narrow(List, Wall, boolean)
+	 * <p>
+	 * Correct behavior: the grades that reuse the bounds of the parent
+	 * match calculateGrade for every wall on both sides, including walls
+	 * that the splitter cut in two
+	 */
+	@Test
+	public final void testNarrowedGradesMatchCalculateGrade() {
+		List<Wall> walls = getWalls().subList(0, 99);
+		SplitterGrades grades = SplitterGrades.create(walls, Constants.MAP_UNIT);
+		assertNotNull(grades);
+		for (int i = 0; i < walls.size(); i += 7) {
+			Wall splitter = walls.get(i);
+			List<Wall> left = new ArrayList<>();
+			List<Wall> right = new ArrayList<>();
+			splitter.splitWalls(walls, left, right, 0);
+			SplitterGrades leftGrades = grades.narrow(left, splitter, false);
+			for (Wall wall : left) {
+				assertEquals(wall.calculateGrade(left), leftGrades.grade(wall));
+			}
+			SplitterGrades rightGrades = grades.narrow(right, splitter, true);
+			for (Wall wall : right) {
+				assertEquals(wall.calculateGrade(right), rightGrades.grade(wall));
+			}
+		}
+	}
+	/**
+	 * Test case: walls off the grid are not graded with prefix counts
+	 * <p>
+	 * Method under test: SplitterGrades.create()
+	 * <p>
+	 * Correct behavior: delivers null
+	 */
+	@Test
+	public final void testUnalignedWalls() {
+		List<Wall> walls = getWalls();
+		walls.add(new Wall(Constants.MAP_UNIT/2, 0, 0, Constants.MAP_UNIT, 0, 0));
+		assertTrue(null == SplitterGrades.create(walls, Constants.MAP_UNIT));
+	}
+	/**
+	 * Test case: the BSP tree is a valid partition for both strategies
+	 * <p>
+	 * Method under test: generateBSPNodes()
+	 * <p>
+	 * Correct behavior: each wall in the right subtree of a branch is in front of
+	 * the branch's splitter, each wall in the left subtree behind it,
+	 * and the leaves hold walls of the same total length as the maze
+	 */
+	@Test
+	public final void testValidPartition() throws InterruptedException {
+		int length = 0;
+		for (Wall wall : getWalls()) {
+			length += wall.getLength();
+		}
+		for (BSPBuilder.Splitter strategy : BSPBuilder.Splitter.values()) {
+			BSPNode root = build(strategy);
+			assertEquals(length, checkSubtree(root, new BSPBranch[0], new int[0]));
+		}
+	}
+	/**
+	 * Test case: the parallel construction delivers the same tree as the sequential one
+	 * <p>
+	 * Method under test: generateBSPNodes() with setParallelism()
+	 * <p>
+	 * Correct behavior: both trees have the same branches and leaves with the same walls
+	 */
+	@Test
+	public final void testParallelMatchesSequential() throws InterruptedException {
+		assertTrue(getWalls().size() >= BSPBuilder.PARALLEL_THRESHOLD);
+		BSPNode expected = build(null, 1);
+		for (int parallelism = 2; parallelism <= 8; parallelism *= 2) {
+			assertSameTree(expected, build(null, parallelism));
+		}
+	}
+	/**
+	 * Test case: a factory builds the BSP tree in parallel only when asked to
+	 * <p>
+	 * Method under test: MazeFactory.setBSPParallelism()
+	 * <p>
+	 * Correct behavior: a factory with 4 threads delivers the same tree as the
+	 * sequential default, a parallelism below 1 is rejected
+	 */
+	@Test
+	public final void testFactoryParallelism() {
+		MazeFactory factory = new MazeFactory();
+		factory.setBSPParallelism(4);
+		DefaultOrder order = new DefaultOrder(4, Builder.Prim, false, 13);
+		factory.order(order);
+		factory.waitTillDelivered();
+		assertNotNull(order.getMaze());
+		assertSameTree(maze.getRootnode(), order.getMaze().getRootnode());
+		try {
+			factory.setBSPParallelism(0);
+			assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+	/**
+	 * Test case: progress reports of the parallel construction
+	 * <p>
+	 * Method under test: generateBSPNodes() with setParallelism()
+	 * <p>
+	 * Correct behavior: the order receives progress updates one at a time,
+	 * with values that never decrease
+	 */
+	@Test
+	public final void testParallelProgress() throws InterruptedException {
+		final int[] calls = new int[1];
+		final int[] last = new int[1];
+		DefaultOrder order = new DefaultOrder(4, Builder.Prim, false, 13) {
+			private boolean busy;
+			@Override
+			public void updateProgress(int percentage) {
+				assertTrue("concurrent call to updateProgress", !busy);
+				busy = true;
+				assertTrue(last[0] <= percentage);
+				last[0] = percentage;
+				calls[0]++;
+				super.updateProgress(percentage);
+				busy = false;
+			}
+		};
+		build(order, 4);
+		assertTrue(calls[0] > 0);
+	}
+	/**
+	 * Test case: cancellation in headless mode
+	 * <p>
+	 * Method under test: generateBSPNodes() with setHeadless()
+	 * <p>
+	 * Correct behavior: an interrupted thread stops with an InterruptedException
+	 * even without an order, and its interrupt flag is consumed
+	 */
+	@Test
+	public final void testHeadlessInterrupted() {
+		BSPBuilder builder = new BSPBuilder(null, maze.getMazedists(), new Floorplan(maze.getFloorplan()),
+				maze.getWidth(), maze.getHeight(), 0, Constants.SKILL_PARTCT[4]);
+		builder.setHeadless(true);
+		assertTrue(builder.isHeadless());
+		Thread.currentThread().interrupt();
+		boolean interrupted = false;
+		try {
+			builder.generateBSPNodes();
+		} catch (InterruptedException e) {
+			interrupted = true;
+		}
+		assertTrue(interrupted);
+		assertFalse(Thread.interrupted());
+	}
+	/**
+	 * Test case: progress reports in headless mode
+	 * <p>
+	 * Method under test: generateBSPNodes() with setHeadless()
+	 * <p>
+	 * Correct behavior: the order only receives increasing values
+	 * and the resulting tree is the same as in interactive mode
+	 */
+	@Test
+	public final void testHeadlessProgress() throws InterruptedException {
+		final int[] calls = new int[1];
+		final int[] last = new int[1];
+		DefaultOrder order = new DefaultOrder(4, Builder.Prim, false, 13) {
+			@Override
+			public void updateProgress(int percentage) {
+				assertTrue(last[0] < percentage);
+				last[0] = percentage;
+				calls[0]++;
+				super.updateProgress(percentage);
+			}
+		};
+		BSPBuilder builder = new BSPBuilder(order, maze.getMazedists(), new Floorplan(maze.getFloorplan()),
+				maze.getWidth(), maze.getHeight(), 0, Constants.SKILL_PARTCT[4]);
+		builder.setHeadless(true);
+		BSPNode root = builder.generateBSPNodes();
+		assertTrue(calls[0] > 0);
+		assertEquals(last[0], order.getProgress());
+		assertSameTree(build(null, 1), root);
+	}
+	/**
+	 * Checks that two trees have the same structure and walls.
+	 * @param expected the root of one tree
+	 * @param actual the root of the other tree
+	 */
+	private void assertSameTree(BSPNode expected, BSPNode actual) {
+		assertEquals(expected.isIsleaf(), actual.isIsleaf());
+		if (expected.isIsleaf()) {
+			List<Wall> expectedWalls = ((BSPLeaf)expected).getAllWalls();
+			List<Wall> actualWalls = ((BSPLeaf)actual).getAllWalls();
+			assertEquals(expectedWalls.size(), actualWalls.size());
+			for (int i = 0; i < expectedWalls.size(); i++) {
+				assertEquals(expectedWalls.get(i).getStartPositionX(), actualWalls.get(i).getStartPositionX());
+				assertEquals(expectedWalls.get(i).getStartPositionY(), actualWalls.get(i).getStartPositionY());
+				assertEquals(expectedWalls.get(i).getEndPositionX(), actualWalls.get(i).getEndPositionX());
+				assertEquals(expectedWalls.get(i).getEndPositionY(), actualWalls.get(i).getEndPositionY());
+			}
+			return;
+		}
+		BSPBranch e = (BSPBranch)expected;
+		BSPBranch a = (BSPBranch)actual;
+		assertEquals(e.getX(), a.getX());
+		assertEquals(e.getY(), a.getY());
+		assertEquals(e.getDx(), a.getDx());
+		assertEquals(e.getDy(), a.getDy());
+		assertSameTree(e.getLeftBranch(), a.getLeftBranch());
+		assertSameTree(e.getRightBranch(), a.getRightBranch());
+	}
+	/**
+	 * Checks that all walls in the subtree are on the correct side of all ancestors.
+	 * @param node the root of the subtree
+	 * @param ancestors the branches on the path from the root
+	 * @param sides the side of each ancestor, 1 for right and -1 for left
+	 * @return the total length of walls in the subtree
+	 */
+	private int checkSubtree(BSPNode node, BSPBranch[] ancestors, int[] sides) {
+		if (node.isIsleaf()) {
+			int length = 0;
+			for (Wall wall : ((BSPLeaf)node).getAllWalls()) {
+				for (int i = 0; i < ancestors.length; i++) {
+					assertTrue(sides[i] * dot(ancestors[i], wall.getStartPositionX(), wall.getStartPositionY()) >= 0);
+					assertTrue(sides[i] * dot(ancestors[i], wall.getEndPositionX(), wall.getEndPositionY()) >= 0);
+				}
+				length += wall.getLength();
+			}
+			return length;
+		}
+		BSPBranch branch = (BSPBranch)node;
+		BSPBranch[] path = java.util.Arrays.copyOf(ancestors, ancestors.length+1);
+		int[] pathSides = java.util.Arrays.copyOf(sides, sides.length+1);
+		path[ancestors.length] = branch;
+		pathSides[sides.length] = -1;
+		int length = checkSubtree(branch.getLeftBranch(), path, pathSides);
+		pathSides[sides.length] = 1;
+		return length + checkSubtree(branch.getRightBranch(), path, pathSides);
+	}
+	/**
+	 * Computes on which side of the branch's splitter a point is, as in Wall.splitWalls
+	 * @return positive for the right side, negative for the left side, 0 if on the line
+	 */
+	private int dot(BSPBranch branch, int x, int y) {
+		return (x - branch.getX()) * branch.getDy() - (y - branch.getY()) * branch.getDx();
+	}
+}
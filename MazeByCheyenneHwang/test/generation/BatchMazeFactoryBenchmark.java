@@ -0,0 +1,42 @@
+package generation;
+
+import generation.Order.Builder;
+
+/**
+ * Measures the throughput of the BatchMazeFactory for each builder 
+ * algorithm and a range of skill levels.
+ * Arguments (all optional): number of mazes per configuration,
+ * highest skill level, number of worker threads.
+ * Defaults are 32 mazes, skill levels 0 to 5 and one thread per processor.
+ * 
+ * This is not a JUnit test, run the main method instead.
+ */
+public class BatchMazeFactoryBenchmark {
+
+	public static void main(String[] args) {
+		int count = (args.length > 0) ? Integer.parseInt(args[0]) : 32;
+		int maxSkill = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+		int threads = (args.length > 2) ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		
+		BatchMazeFactory factory = new BatchMazeFactory(threads, count, null);
+		System.out.println("threads: " + threads + ", mazes per configuration: " + count);
+		System.out.println(String.format("%-8s %5s %12s", "builder", "skill", "mazes/s"));
+		for (Builder builder : new Builder[] { Builder.DFS, Builder.Prim, Builder.Boruvka }) {
+			for (int skill = 0; skill <= maxSkill; skill++) {
+				long start = System.nanoTime();
+				for (int i = 0; i < count; i++) {
+					while (!factory.order(new DefaultOrder(skill, builder, false, i))) {
+						factory.waitTillDelivered();
+					}
+				}
+				factory.waitTillDelivered();
+				double seconds = (System.nanoTime() - start) / 1e9;
+				System.out.println(String.format("%-8s %5d %12.1f", builder, skill, count / seconds));
+			}
+		}
+		System.out.println();
+		System.out.println("Generation time per maze on a single worker thread:");
+		System.out.print(factory.getThroughputReport());
+		factory.shutdown();
+	}
+}
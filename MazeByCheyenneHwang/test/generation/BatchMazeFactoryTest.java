@@ -0,0 +1,113 @@
+package generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import generation.Order.Builder;
+
+/**
+ * Tests the BatchMazeFactory that generates several mazes in parallel.
+ */
+public class BatchMazeFactoryTest {
+
+	/**
+	 * Test case: many orders for different algorithms are all delivered
+	 * <p>
+	 * Method under test: order(Order), waitTillDelivered(), getDeliveredCount()
+	 * <p>
+	 * Correct behavior: each order receives a maze of the requested size,
+	 * the consumer sees each maze exactly once and the statistics match
+	 */
+	@Test
+	public final void testAllOrdersDelivered() {
+		final List<Maze> received = Collections.synchronizedList(new ArrayList<Maze>());
+		BatchMazeFactory factory = new BatchMazeFactory(4, 64, (order, maze) -> received.add(maze));
+		List<DefaultOrder> orders = new ArrayList<>();
+		Builder[] builders = Builder.values();
+		for (Builder builder : builders) {
+			for (int skill = 0; skill <= 2; skill++) {
+				DefaultOrder order = new DefaultOrder(skill, builder, true, skill+1);
+				orders.add(order);
+				assertTrue(factory.order(order));
+			}
+		}
+		factory.waitTillDelivered();
+		assertEquals(orders.size(), received.size());
+		for (DefaultOrder order : orders) {
+			Maze maze = order.getMaze();
+			assertNotNull(maze);
+			assertTrue(received.contains(maze));
+			assertEquals(gui.Constants.SKILL_X[order.getSkillLevel()], maze.getWidth());
+			assertEquals(gui.Constants.SKILL_Y[order.getSkillLevel()], maze.getHeight());
+			assertEquals(100, order.getProgress());
+		}
+		for (Builder builder : builders) {
+			for (int skill = 0; skill <= 2; skill++) {
+				assertEquals(1, factory.getDeliveredCount(builder, skill));
+			}
+		}
+		factory.shutdown();
+	}
+	/**
+	 * Test case: mazes generated in parallel only depend on their order
+	 * <p>
+	 * Method under test: order(Order), MazeBuilder.buildOrder(Order)
+	 * <p>
+	 * Correct behavior: orders with the same seed, algorithm and skill level
+	 * deliver equal floorplans and starting positions even if they 
+	 * are produced at the same time on different threads
+	 */
+	@Test
+	public final void testReproducibleInParallel() {
+		BatchMazeFactory factory = new BatchMazeFactory(4, 64, null);
+		Builder[] builders = Builder.values();
+		List<DefaultOrder> orders = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			for (Builder builder : builders) {
+				DefaultOrder order = new DefaultOrder(3, builder, false, 42);
+				orders.add(order);
+				assertTrue(factory.order(order));
+			}
+		}
+		factory.waitTillDelivered();
+		for (int i = builders.length; i < orders.size(); i++) {
+			Maze first = orders.get(i % builders.length).getMaze();
+			Maze other = orders.get(i).getMaze();
+			assertTrue(first.getFloorplan().equals(other.getFloorplan()));
+			assertEquals(first.getStartingPosition()[0], other.getStartingPosition()[0]);
+			assertEquals(first.getStartingPosition()[1], other.getStartingPosition()[1]);
+		}
+		factory.shutdown();
+	}
+	/**
+	 * Test case: orders are refused if the queue is full
+	 * <p>
+	 * Method under test: order(Order), cancel()
+	 * <p>
+	 * Correct behavior: with a single thread and a queue of capacity one,
+	 * a third order is refused while the first is in production.
+	 * After cancellation, the factory accepts orders again.
+	 */
+	@Test
+	public final void testRefuseOrders() {
+		BatchMazeFactory factory = new BatchMazeFactory(1, 1, null);
+		assertTrue(factory.order(new DefaultOrder(9)));
+		assertTrue(factory.order(new DefaultOrder(9)));
+		assertFalse(factory.order(new DefaultOrder(9)));
+		factory.cancel();
+		factory.waitTillDelivered();
+		DefaultOrder order = new DefaultOrder(0);
+		assertTrue(factory.order(order));
+		factory.waitTillDelivered();
+		assertNotNull(order.getMaze());
+		factory.shutdown();
+	}
+}
@@ -0,0 +1,59 @@
+package generation;
+
+import generation.Order.Builder;
+import gui.Constants;
+
+/**
+ * Compares the running time of the algorithms that Distance offers
+ * to compute distance values, see {@link Distance.Algorithm}.
+ * For each skill level, a maze is generated once and distances are 
+ * computed repeatedly on its floorplan with each algorithm.
+ * Results are printed to standard output as a table with average
+ * times in milliseconds.
+ * 
+ * This is not a JUnit test, run the main method instead.
+ */
+public class DistanceBenchmark {
+	
+	private static final int WARMUP = 3;
+	private static final int REPETITIONS = 10;
+
+	/**
+	 * Measures the average time to compute distances for the given floorplan.
+	 * @param floorplan the floorplan to compute distances for
+	 * @param width of the floorplan
+	 * @param height of the floorplan
+	 * @param algorithm the algorithm to measure
+	 * @return average time in milliseconds
+	 */
+	static double measure(Floorplan floorplan, int width, int height, Distance.Algorithm algorithm) {
+		Distance distance = new Distance(width, height);
+		distance.setAlgorithm(algorithm);
+		for (int i = 0; i < WARMUP; i++) {
+			distance.computeDistances(floorplan);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < REPETITIONS; i++) {
+			distance.computeDistances(floorplan);
+		}
+		return (System.nanoTime() - start) / 1e6 / REPETITIONS;
+	}
+	
+	public static void main(String[] args) {
+		System.out.println("skill  width x height   fixpoint(ms)     bfs(ms)   speedup");
+		for (int skill = 0; skill <= Constants.MAX_SKILL_LEVEL; skill++) {
+			MazeFactory factory = new MazeFactory();
+			DefaultOrder order = new DefaultOrder(skill, Builder.DFS, false, 13);
+			factory.order(order);
+			factory.waitTillDelivered();
+			Maze maze = order.getMaze();
+			
+			int width = maze.getWidth();
+			int height = maze.getHeight();
+			double fixpoint = measure(maze.getFloorplan(), width, height, Distance.Algorithm.FIXPOINT);
+			double bfs = measure(maze.getFloorplan(), width, height, Distance.Algorithm.BFS);
+			System.out.println(String.format("%5d  %5d x %-6d  %12.3f  %10.3f  %8.1f", 
+					skill, width, height, fixpoint, bfs, fixpoint/bfs));
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import generation.Order.Builder;
+
+/**
+ * Tests individual methods of the Distance class. 
+ * Focus is on the breadth-first search algorithm that 
+ * is expected to deliver the same results as the original
+ * fixpoint iteration.
+ */
+public class DistanceTest {
+
+	/**
+	 * Orders a maze from the factory and waits for its delivery.
+	 * @param skill the skill level
+	 * @param builder the builder algorithm
+	 * @param perfect true for a maze without rooms
+	 * @return the delivered maze
+	 */
+	private Maze getMaze(int skill, Builder builder, boolean perfect) {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(skill, builder, perfect, 13);
+		factory.order(order);
+		factory.waitTillDelivered();
+		return order.getMaze();
+	}
+	/**
+	 * Computes distances on the floorplan of the given maze with both algorithms
+	 * and checks that the results are identical.
+	 * @param maze provides the floorplan
+	 */
+	private void checkBothAlgorithmsAgree(Maze maze) {
+		Distance bfs = new Distance(maze.getWidth(), maze.getHeight());
+		Distance fixpoint = new Distance(maze.getWidth(), maze.getHeight());
+		fixpoint.setAlgorithm(Distance.Algorithm.FIXPOINT);
+		assertEquals(Distance.Algorithm.BFS, bfs.getAlgorithm());
+		
+		int[] exitBFS = bfs.computeDistances(maze.getFloorplan());
+		int[] exitFixpoint = fixpoint.computeDistances(maze.getFloorplan());
+		
+		assertEquals(exitFixpoint[0], exitBFS[0]);
+		assertEquals(exitFixpoint[1], exitBFS[1]);
+		assertEquals(fixpoint.getStartPosition()[0], bfs.getStartPosition()[0]);
+		assertEquals(fixpoint.getStartPosition()[1], bfs.getStartPosition()[1]);
+		for (int x = 0; x < maze.getWidth(); x++) {
+			for (int y = 0; y < maze.getHeight(); y++) {
+				assertEquals(fixpoint.getDistanceValue(x, y), bfs.getDistanceValue(x, y));
+			}
+		}
+	}
+	/**
+	 * Test case: BFS and fixpoint iteration agree on perfect mazes
+	 * <p>
+	 * Method under test: computeDistances(Floorplan), getStartPosition()
+	 * <p>
+	 * Correct behavior: identical distance values, exit and start positions
+	 */
+	@Test
+	public final void testBFSMatchesFixpointPerfect() {
+		for (int skill = 0; skill <= 4; skill++) {
+			checkBothAlgorithmsAgree(getMaze(skill, Builder.DFS, true));
+			checkBothAlgorithmsAgree(getMaze(skill, Builder.Prim, true));
+		}
+	}
+	/**
+	 * Test case: BFS and fixpoint iteration agree on mazes with rooms
+	 * and thus with loops
+	 * <p>
+	 * Method under test: computeDistances(Floorplan), getStartPosition()
+	 * <p>
+	 * Correct behavior: identical distance values, exit and start positions
+	 */
+	@Test
+	public final void testBFSMatchesFixpointWithRooms() {
+		for (int skill = 1; skill <= 4; skill++) {
+			checkBothAlgorithmsAgree(getMaze(skill, Builder.DFS, false));
+			checkBothAlgorithmsAgree(getMaze(skill, Builder.Prim, false));
+		}
+	}
+	/**
+	 * Test case: distances on a small hand made floorplan
+	 * <p>
+	 * Method under test: computeDistances(Floorplan)
+	 * <p>
+	 * Correct behavior: a 2x1 floorplan with an opening between
+	 * both cells has distances 1 and 2, a floorplan where
+	 * all wallboards are up leaves the other cell unreachable.
+	 */
+	@Test
+	public final void testBFSSmallFloorplan() {
+		Floorplan floorplan = new Floorplan(2, 1);
+		floorplan.initialize();
+		Distance distance = new Distance(2, 1);
+		distance.computeDistances(floorplan);
+		assertTrue(Distance.INFINITY == distance.getDistanceValue(0, 0) 
+				|| Distance.INFINITY == distance.getDistanceValue(1, 0));
+		
+		floorplan.deleteWallboard(new Wallboard(0, 0, CardinalDirection.East));
+		int[] exit = distance.computeDistances(floorplan);
+		assertEquals(1, distance.getDistanceValue(exit[0], exit[1]));
+		assertEquals(2, distance.getMaxDistance());
+	}
+}
@@ -0,0 +1,111 @@
+package generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import generation.Order.Builder;
+
+/**
+ * Tests the compilation of a tree of BSPNodes into the arrays of a FlatBSPTree.
+ */
+public class FlatBSPTreeTest {
+
+	private Maze maze;
+
+	/**
+	 * Orders a maze with rooms such that the tree has leaves with several walls.
+	 */
+	@Before
+	public void setUp() {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(4, Builder.Prim, false, 13);
+		factory.order(order);
+		factory.waitTillDelivered();
+		maze = order.getMaze();
+		assertNotNull(maze);
+	}
+	/**
+	 * Test case: the maze delivers a compiled tree
+	 * <p>
+	 * Method under test: Maze.getFlatTree()
+	 * <p>
+	 * Correct behavior: the compiled tree is present after generation
+	 * and is replaced if the root node is replaced
+	 */
+	@Test
+	public final void testMazeHasFlatTree() {
+		FlatBSPTree tree = maze.getFlatTree();
+		assertNotNull(tree);
+		assertTrue(tree.getNodeCount() > 1);
+		maze.setRootnode(maze.getRootnode());
+		assertNotNull(maze.getFlatTree());
+		assertFalse(tree == maze.getFlatTree());
+		assertNull(FlatBSPTree.compile(null));
+	}
+	/**
+	 * Test case: the compiled tree has the same content as the tree of BSPNodes
+	 * <p>
+	 * Method under test: compile()
+	 * <p>
+	 * Correct behavior: nodes in preorder have the same bounds, splitters
+	 * and walls, all walls are covered and the depth is the length of the longest path
+	 */
+	@Test
+	public final void testCompileMatchesTree() {
+		FlatBSPTree tree = FlatBSPTree.compile(maze.getRootnode());
+		int[] state = new int[3]; // next node, next wall, depth
+		assertEquals(FlatBSPTree.ROOT, check(maze.getRootnode(), tree, 1, state));
+		assertEquals(tree.getNodeCount(), state[0]);
+		assertEquals(tree.getWallCount(), state[1]);
+		assertEquals(tree.getDepth(), state[2]);
+	}
+	/**
+	 * Compares the given subtree with the compiled tree.
+	 * @param node the root of the subtree
+	 * @param tree the compiled tree
+	 * @param level the number of nodes on the path from the root to this node
+	 * @param state the index of the next node and wall and the depth seen so far
+	 * @return the index of the node in the compiled tree
+	 */
+	private int check(BSPNode node, FlatBSPTree tree, int level, int[] state) {
+		final int n = state[0]++;
+		state[2] = Math.max(state[2], level);
+		assertEquals(node.getLowerBoundX(), tree.getLowerBoundX(n));
+		assertEquals(node.getLowerBoundY(), tree.getLowerBoundY(n));
+		assertEquals(node.getUpperBoundX(), tree.getUpperBoundX(n));
+		assertEquals(node.getUpperBoundY(), tree.getUpperBoundY(n));
+		assertEquals(node.isIsleaf(), tree.isLeaf(n));
+		if (node.isIsleaf()) {
+			List<Wall> walls = ((BSPLeaf)node).getAllWalls();
+			assertEquals(state[1], tree.getFirstWall(n));
+			assertEquals(walls.size(), tree.getEndWall(n) - tree.getFirstWall(n));
+			for (Wall wall : walls) {
+				final int w = state[1]++;
+				assertSame(wall, tree.getWall(w));
+				assertEquals(wall.getStartPositionX(), tree.getWallStartX(w));
+				assertEquals(wall.getStartPositionY(), tree.getWallStartY(w));
+				assertEquals(wall.getEndPositionX(), tree.getWallEndX(w));
+				assertEquals(wall.getEndPositionY(), tree.getWallEndY(w));
+				assertEquals(wall.getColor(), tree.getWallColor(w));
+			}
+			return n;
+		}
+		BSPBranch branch = (BSPBranch)node;
+		assertEquals(branch.getX(), tree.getX(n));
+		assertEquals(branch.getY(), tree.getY(n));
+		assertEquals(branch.getDx(), tree.getDx(n));
+		assertEquals(branch.getDy(), tree.getDy(n));
+		assertEquals(tree.getLeftChild(n), check(branch.getLeftBranch(), tree, level+1, state));
+		assertEquals(tree.getRightChild(n), check(branch.getRightBranch(), tree, level+1, state));
+		return n;
+	}
+}
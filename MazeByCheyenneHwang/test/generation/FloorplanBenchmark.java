@@ -0,0 +1,95 @@
+package generation;
+
+/**
+ * Compares the flat, row-major cell storage of Floorplan with
+ * the previous two-dimensional int[width][height] layout.
+ * For each size, a fully initialized floorplan is scanned repeatedly
+ * with hasWall for all four directions and copied repeatedly.
+ * The two-dimensional layout is reproduced by a minimal reference 
+ * implementation with the same bit encoding.
+ * Memory is estimated from the array layout of a 64 bit JVM with 
+ * compressed references (16 byte array header, 4 byte entries and references).
+ * 
+ * This is not a JUnit test, run the main method instead.
+ */
+public class FloorplanBenchmark {
+	
+	private static final int[][] SIZES = { {300, 240}, {600, 480}, {1200, 960}, {2400, 1920} };
+	private static final int REPETITIONS = 20;
+	
+	/**
+	 * Reference implementation of the previous storage layout.
+	 */
+	private static class NestedCells {
+		final int[][] cells;
+		NestedCells(int w, int h) {
+			cells = new int[w][h];
+		}
+		NestedCells(int[][] input) {
+			cells = new int[input.length][];
+			for (int i = 0; i < input.length; i++)
+				cells[i] = input[i].clone();
+		}
+		boolean hasWall(int x, int y, CardinalDirection cd) {
+			int bit;
+			switch (cd) {
+			case North: bit = Floorplan.CW_TOP; break;
+			case East: bit = Floorplan.CW_RIGHT; break;
+			case South: bit = Floorplan.CW_BOT; break;
+			default: bit = Floorplan.CW_LEFT; break;
+			}
+			return (cells[x][y] & bit) != 0;
+		}
+	}
+	
+	private static long sink; // keeps the JIT from discarding results
+	
+	public static void main(String[] args) {
+		final CardinalDirection[] dirs = CardinalDirection.values();
+		System.out.println("   size          flat(KB)  nested(KB)  scan flat(ms)  scan nested(ms)  copy flat(ms)  copy nested(ms)");
+		for (int[] size : SIZES) {
+			int w = size[0];
+			int h = size[1];
+			Floorplan flat = new Floorplan(w, h);
+			flat.initialize();
+			NestedCells nested = new NestedCells(w, h);
+			for (int x = 0; x < w; x++)
+				for (int y = 0; y < h; y++)
+					nested.cells[x][y] = flat.getValueOfCell(x, y);
+			
+			long flatBytes = 16 + 4L*w*h;
+			long nestedBytes = 16 + 4L*w + w*(16 + 4L*h);
+			
+			double scanFlat = 0, scanNested = 0, copyFlat = 0, copyNested = 0;
+			// first round is warm up, not counted
+			for (int round = 0; round < 2; round++) {
+				long t0 = System.nanoTime();
+				for (int r = 0; r < REPETITIONS; r++)
+					for (int y = 0; y < h; y++)
+						for (int x = 0; x < w; x++)
+							for (CardinalDirection cd : dirs)
+								if (flat.hasWall(x, y, cd)) sink++;
+				long t1 = System.nanoTime();
+				for (int r = 0; r < REPETITIONS; r++)
+					for (int y = 0; y < h; y++)
+						for (int x = 0; x < w; x++)
+							for (CardinalDirection cd : dirs)
+								if (nested.hasWall(x, y, cd)) sink++;
+				long t2 = System.nanoTime();
+				for (int r = 0; r < REPETITIONS; r++)
+					sink += new Floorplan(flat).getValueOfCell(0, 0);
+				long t3 = System.nanoTime();
+				for (int r = 0; r < REPETITIONS; r++)
+					sink += new NestedCells(nested.cells).cells[0][0];
+				long t4 = System.nanoTime();
+				scanFlat = (t1-t0)/1e6/REPETITIONS;
+				scanNested = (t2-t1)/1e6/REPETITIONS;
+				copyFlat = (t3-t2)/1e6/REPETITIONS;
+				copyNested = (t4-t3)/1e6/REPETITIONS;
+			}
+			System.out.println(String.format("%5d x %-5d  %9d  %10d  %13.3f  %15.3f  %13.3f  %15.3f",
+					w, h, flatBytes/1024, nestedBytes/1024, scanFlat, scanNested, copyFlat, copyNested));
+		}
+		if (sink == 42) System.out.println();
+	}
+}
@@ -5,6 +5,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ShortBuffer;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -92,6 +94,62 @@ public class FloorplanTest{
 			}
 		}
 	}
+	/**
+	 * Test case: Check if constructor that takes row-major cell values
+	 * delivers the same floorplan as the one that takes a matrix.
+	 * <p>
+	 * Method under test: Floorplan(int w, int h, int[] values), equals(Object other)
+	 * <p>
+	 * Correct behavior: cell (x,y) has the value at index y*width+x,
+	 * an array of the wrong length is rejected
+	 */
+	@Test
+	public final void testFloorplanConstructorWithRows() {
+		int[][] a = new int[width][height] ;
+		int[] values = new int[width*height] ;
+		for (int i = 0; i < width; i++) {
+			for (int j = 0; j < height; j++) {
+				a[i][j] = i*height+j ;
+				values[j*width+i] = i*height+j ;
+			}
+		}
+		floorplan = new Floorplan(width, height, values) ;
+		assertEquals(new Floorplan(a), floorplan) ;
+		assertTrue(width*height-1 == floorplan.getValueOfCell(width-1, height-1)) ;
+		try {
+			new Floorplan(width, height, new int[width*height+1]) ;
+			assertTrue(false) ;
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+	/**
+	 * Test case: Check if constructor that reads cell values from a buffer
+	 * delivers the same floorplan and copies the cells on the first modification.
+	 * <p>
+	 * Method under test: Floorplan(int w, int h, ShortBuffer values), Floorplan(Floorplan other)
+	 * <p>
+	 * Correct behavior: cell (x,y) has the value at index y*width+x,
+	 * modifying the floorplan or its duplicate does not modify the buffer
+	 */
+	@Test
+	public final void testFloorplanConstructorWithBuffer() {
+		ShortBuffer values = ShortBuffer.allocate(width*height) ;
+		int[][] a = new int[width][height] ;
+		for (int i = 0; i < width; i++) {
+			for (int j = 0; j < height; j++) {
+				a[i][j] = (i*height+j) & 0xffff ;
+				values.put(j*width+i, (short) a[i][j]) ;
+			}
+		}
+		floorplan = new Floorplan(width, height, values.asReadOnlyBuffer()) ;
+		assertEquals(new Floorplan(a), floorplan) ;
+		Floorplan duplicate = new Floorplan(floorplan) ;
+		floorplan.initialize() ;
+		assertFalse(new Floorplan(a).equals(floorplan)) ;
+		assertEquals(new Floorplan(a), duplicate) ;
+		assertEquals(new Floorplan(a), new Floorplan(width, height, values)) ;
+	}
 	/**
 	 * Test case: See if the two constructor methods work in a consistent manner
 	 * <p>
@@ -147,6 +205,26 @@ public class FloorplanTest{
 		floorplan1.initialize() ;
 		assertFalse(floorplan1.equals(floorplan)) ;
 	}
+	/**
+	 * Test case: See if the copy constructor delivers an independent duplicate
+	 * <p>
+	 * Method under test: Floorplan(Floorplan other), getWidth(), getHeight()
+	 * <p>
+	 * Correct behavior:
+	 * the copy is equal to the original, has the same dimensions
+	 * and changes to the copy do not affect the original
+	 */
+	@Test
+	public final void testFloorplanCopyConstructor() {
+		floorplan.initialize();
+		floorplan1 = new Floorplan(floorplan) ;
+		assertTrue(floorplan1.equals(floorplan)) ;
+		assertEquals(width, floorplan1.getWidth()) ;
+		assertEquals(height, floorplan1.getHeight()) ;
+		floorplan1.deleteWallboard(new Wallboard(1, 1, CardinalDirection.East));
+		assertFalse(floorplan1.equals(floorplan)) ;
+		assertTrue(floorplan.hasWall(1, 1, CardinalDirection.East)) ;
+	}
 
 
 	/** 
@@ -0,0 +1,54 @@
+package generation;
+
+/**
+ * Measures how the time for generating pathways with Boruvka's algorithm 
+ * scales with the size of the maze, including sizes beyond the 
+ * largest skill level (300 x 240). 
+ * Only the pathway generation is measured, not the computation of
+ * distances or the BSP tree.
+ * 
+ * This is not a JUnit test, run the main method instead.
+ */
+public class MazeBuilderBoruvkaBenchmark {
+	
+	private static final int[][] SIZES = { {40, 40}, {150, 120}, {300, 240}, {600, 480}, {1200, 960}, {2000, 2000} };
+
+	/**
+	 * Generates pathways for a maze of the given size with and without rooms.
+	 * @param w width of the maze
+	 * @param h height of the maze
+	 * @param rooms number of rooms to place before pathways are generated
+	 * @return time in milliseconds
+	 */
+	static double measure(int w, int h, int rooms) {
+		MazeBuilderBoruvka builder = new MazeBuilderBoruvka();
+		builder.width = w;
+		builder.height = h;
+		builder.random = new RandomStream(13);
+		builder.floorplan = new Floorplan(w, h);
+		builder.floorplan.initialize();
+		for (int i = 0; i < rooms; i++) {
+			int rx = builder.random.nextIntWithinInterval(1, w-10);
+			int ry = builder.random.nextIntWithinInterval(1, h-10);
+			if (!builder.floorplan.areaOverlapsWithRoom(rx, ry, rx+4, ry+4))
+				builder.floorplan.markAreaAsRoom(5, 5, rx, ry, rx+4, ry+4, builder.random);
+		}
+		long start = System.nanoTime();
+		builder.generatePathways();
+		return (System.nanoTime() - start) / 1e6;
+	}
+	
+	public static void main(String[] args) {
+		// warm up
+		for (int i = 0; i < 5; i++) 
+			measure(150, 120, 0);
+		System.out.println("   size        cells     perfect(ms)  rooms(ms)");
+		for (int[] size : SIZES) {
+			int w = size[0];
+			int h = size[1];
+			double perfect = measure(w, h, 0);
+			double rooms = measure(w, h, w*h/1000);
+			System.out.println(String.format("%5d x %-5d %9d  %12.1f  %9.1f", w, h, w*h, perfect, rooms));
+		}
+	}
+}
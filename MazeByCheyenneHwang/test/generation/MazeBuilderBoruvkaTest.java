@@ -36,13 +36,21 @@ public class MazeBuilderBoruvkaTest extends MazeFactoryTest {
 		testFactory = new MazeFactory();
 		DefaultOrder baseOrder = new DefaultOrder();
 		
-		mazeOrder = new DefaultOrder(baseOrder.getSkillLevel(), Builder.Boruvka, baseOrder.isPerfect(), baseOrder.getSeed());
+		mazeOrder = new DefaultOrder(baseOrder.getSkillLevel(), getBuilder(), baseOrder.isPerfect(), baseOrder.getSeed());
 		
 		testFactory.order(mazeOrder);
 		testFactory.waitTillDelivered();
 		
 	}
 	
+	/**
+	 * the orders of all tests use boruvka
+	 */
+	@Override
+	protected Builder getBuilder() {
+		return Builder.Boruvka;
+	}
+	
 	/** 
 	 * Test case: tests that there are the correct number of cells to walls
 	 * need to override cuz different from kruskal algorithm for inner walls now
@@ -0,0 +1,19 @@
+package generation;
+
+import generation.Order.Builder;
+
+/**
+ * Tests individual methods of the MazeBuilderEller class. 
+ * Runs the tests for the general maze builder, including the test for mazes with rooms,
+ * on mazes built with Eller's algorithm.
+ */
+public class MazeBuilderEllerTest extends MazeFactoryTest {
+
+	/**
+	 * the orders of all tests use Eller's algorithm
+	 */
+	@Override
+	protected Builder getBuilder() {
+		return Builder.Eller;
+	}
+}
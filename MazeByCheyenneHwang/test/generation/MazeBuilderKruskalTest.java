@@ -0,0 +1,19 @@
+package generation;
+
+import generation.Order.Builder;
+
+/**
+ * Tests individual methods of the MazeBuilderKruskal class. 
+ * Runs the tests for the general maze builder, including the test for mazes with rooms,
+ * on mazes built with Kruskal's algorithm.
+ */
+public class MazeBuilderKruskalTest extends MazeFactoryTest {
+
+	/**
+	 * the orders of all tests use Kruskal's algorithm
+	 */
+	@Override
+	protected Builder getBuilder() {
+		return Builder.Kruskal;
+	}
+}
@@ -0,0 +1,236 @@
+package generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.Test;
+
+import generation.Order.Builder;
+
+/**
+ * Tests the MazeCache that keeps generated mazes in memory and on disk.
+ */
+public class MazeCacheTest {
+
+	/**
+	 * Generates a maze with the given factory.
+	 * @return the order with the delivered maze
+	 */
+	private DefaultOrder generate(MazeFactory factory, int skill, int seed) {
+		DefaultOrder order = new DefaultOrder(skill, Builder.DFS, true, seed);
+		assertTrue(factory.order(order));
+		factory.waitTillDelivered();
+		assertNotNull(order.getMaze());
+		assertEquals(100, order.getProgress());
+		return order;
+	}
+	/**
+	 * Generates a maze without the cache.
+	 */
+	private Maze generate(int skill, int seed) {
+		return generate(new MazeFactory(), skill, seed).getMaze();
+	}
+	/**
+	 * Gives a new empty directory that is deleted on exit.
+	 */
+	private File createDirectory() throws IOException {
+		File directory = Files.createTempDirectory("maze-cache").toFile();
+		directory.deleteOnExit();
+		return directory;
+	}
+	/**
+	 * Checks that both mazes have the same floorplan, distances, starting position and walls.
+	 */
+	private void assertSameMaze(Maze expected, Maze actual) {
+		assertEquals(expected.getFloorplan(), actual.getFloorplan());
+		assertEquals(expected.getStartingPosition()[0], actual.getStartingPosition()[0]);
+		assertEquals(expected.getStartingPosition()[1], actual.getStartingPosition()[1]);
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				assertEquals(expected.getDistanceToExit(x, y), actual.getDistanceToExit(x, y));
+			}
+		}
+		FlatBSPTree e = expected.getFlatTree();
+		FlatBSPTree a = actual.getFlatTree();
+		assertEquals(e.getWallCount(), a.getWallCount());
+		for (int i = 0; i < e.getWallCount(); i++) {
+			assertEquals(e.getWall(i), a.getWall(i));
+			assertEquals(e.getWall(i).getColor(), a.getWall(i).getColor());
+		}
+	}
+	/**
+	 * Test case: a factory with a cache delivers a repeated order from memory
+	 * <p>
+	 * Method under test: MazeFactory.order(), get(), put(), getStatisticsReport()
+	 * <p>
+	 * Correct behavior: the first order is a miss, the second one a hit,
+	 * both deliver the maze a factory without cache generates,
+	 * but not the same object
+	 */
+	@Test
+	public final void testMemoryHit() {
+		MazeCache cache = new MazeCache(100000, null, 0);
+		MazeFactory factory = new MazeFactory(cache);
+		Maze first = generate(factory, 3, 7).getMaze();
+		assertEquals(0, cache.getMemoryHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getSize());
+		Maze second = generate(factory, 3, 7).getMaze();
+		assertEquals(1, cache.getMemoryHits());
+		assertEquals(1, cache.getMisses());
+		assertTrue(first != second);
+		assertSameMaze(first, second);
+		assertSameMaze(generate(3, 7), second);
+		// a different seed is a different maze
+		generate(factory, 3, 8);
+		assertEquals(2, cache.getMisses());
+		assertEquals(2, cache.getSize());
+		assertTrue(cache.getStatisticsReport().contains("hit rate 33.3%"));
+	}
+	/**
+	 * Test case: the cache hands out copies
+	 * <p>
+	 * Method under test: get(), put()
+	 * <p>
+	 * Correct behavior: walls marked as seen in a delivered maze
+	 * or in the maze that was put into the cache are not seen in the next copy
+	 */
+	@Test
+	public final void testCopies() {
+		MazeCache cache = new MazeCache(100000, null, 0);
+		DefaultOrder order = new DefaultOrder(2, Builder.DFS, true, 5);
+		Maze maze = generate(2, 5);
+		cache.put(order, maze);
+		maze.getFlatTree().getWall(0).setSeen(true);
+		Maze copy = cache.get(order);
+		assertFalse(copy.getFlatTree().getWall(0).isSeen());
+		copy.getFlatTree().getWall(0).setSeen(true);
+		assertFalse(cache.get(order).getFlatTree().getWall(0).isSeen());
+	}
+	/**
+	 * Test case: the least recently used mazes are evicted from memory
+	 * <p>
+	 * Method under test: get(), put(), getEvictions()
+	 * <p>
+	 * Correct behavior: with room for two mazes, a third one evicts the one
+	 * that was not used for the longest time
+	 */
+	@Test
+	public final void testEviction() {
+		Maze maze = generate(1, 1);
+		MazeCache cache = new MazeCache(2 * maze.getWidth() * maze.getHeight(), null, 0);
+		DefaultOrder a = new DefaultOrder(1, Builder.DFS, true, 1);
+		DefaultOrder b = new DefaultOrder(1, Builder.DFS, true, 2);
+		DefaultOrder c = new DefaultOrder(1, Builder.DFS, true, 3);
+		cache.put(a, maze);
+		cache.put(b, maze);
+		assertNotNull(cache.get(a));
+		cache.put(c, maze);
+		assertEquals(2, cache.getSize());
+		assertEquals(1, cache.getEvictions());
+		assertTrue(cache.contains(a));
+		assertFalse(cache.contains(b));
+		assertTrue(cache.contains(c));
+		assertNull(cache.get(b));
+		// a maze larger than the bound is not kept
+		cache.put(new DefaultOrder(3, Builder.DFS, true, 1), generate(3, 1));
+		assertEquals(0, cache.getSize());
+	}
+	/**
+	 * Test case: mazes on disk survive the cache and are evicted by size
+	 * <p>
+	 * Method under test: get(), put(), clear()
+	 * <p>
+	 * Correct behavior: a new cache on the same directory finds the maze on disk,
+	 * the file name carries the builder and file format versions,
+	 * a broken file is a miss and gets deleted,
+	 * files beyond the size bound are deleted least recently used first
+	 */
+	@Test
+	public final void testDisk() throws IOException {
+		File directory = createDirectory();
+		DefaultOrder order = new DefaultOrder(4, Builder.DFS, true, 9);
+		Maze maze = generate(4, 9);
+		new MazeCache(100000, directory, 1 << 20).put(order, maze);
+		assertEquals(1, directory.listFiles().length);
+		assertEquals("maze-v" + gui.MazeBinaryFile.VERSION + "." + MazeBuilder.VERSION + "-DFS-4-perfect-seed9.bin",
+				directory.listFiles()[0].getName());
+		MazeCache cache = new MazeCache(100000, directory, 1 << 20);
+		assertSameMaze(maze, cache.get(order));
+		assertEquals(1, cache.getDiskHits());
+		assertSameMaze(maze, cache.get(order));
+		assertEquals(1, cache.getMemoryHits());
+		// broken file
+		File file = directory.listFiles()[0];
+		Files.write(file.toPath(), new byte[] {1, 2, 3});
+		cache = new MazeCache(100000, directory, 1 << 20);
+		assertNull(cache.get(order));
+		assertEquals(1, cache.getMisses());
+		assertFalse(file.exists());
+		// room for a single file
+		cache.put(order, maze);
+		long bytes = file.length();
+		assertTrue(file.setLastModified(file.lastModified() - 10000));
+		cache = new MazeCache(100000, directory, bytes + bytes / 2);
+		cache.put(new DefaultOrder(4, Builder.DFS, true, 10), maze);
+		assertEquals(1, directory.listFiles().length);
+		assertFalse(file.exists());
+		cache.clear();
+		assertEquals(0, directory.listFiles().length);
+		assertEquals(0, cache.getSize());
+	}
+	/**
+	 * Test case: a missing directory for maze files is created for the current user only
+	 * <p>
+	 * Method under test: MazeCache(), put()
+	 * <p>
+	 * Correct behavior: the directory is created with access for its owner only
+	 * and holds the maze file afterwards
+	 */
+	@Test
+	public final void testPrivateDirectory() throws IOException {
+		File parent = createDirectory();
+		File directory = new File(parent, "cache");
+		directory.deleteOnExit();
+		MazeCache cache = new MazeCache(100000, directory, 1 << 20);
+		assertTrue(directory.isDirectory());
+		if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(directory.toPath())));
+		}
+		DefaultOrder order = new DefaultOrder(1, Builder.DFS, true, 2);
+		cache.put(order, generate(1, 2));
+		assertTrue(cache.contains(order));
+		assertEquals(1, directory.listFiles().length);
+		directory.listFiles()[0].deleteOnExit();
+	}
+	/**
+	 * Test case: prewarming generates the mazes of all skill levels once
+	 * <p>
+	 * Method under test: prewarm()
+	 * <p>
+	 * Correct behavior: the first call generates a maze for each skill level,
+	 * the second one none, afterwards every skill level is a hit
+	 */
+	@Test
+	public final void testPrewarm() {
+		MazeCache cache = new MazeCache(1000000, null, 0);
+		assertEquals(gui.Constants.MAX_SKILL_LEVEL + 1, cache.prewarm(Builder.Prim, true, 4));
+		assertEquals(0, cache.prewarm(Builder.Prim, true, 4));
+		for (int skill = 0; skill <= gui.Constants.MAX_SKILL_LEVEL; skill++) {
+			Maze maze = cache.get(new DefaultOrder(skill, Builder.Prim, true, 4));
+			assertNotNull(maze);
+			assertEquals(gui.Constants.SKILL_X[skill], maze.getWidth());
+		}
+		assertEquals(gui.Constants.MAX_SKILL_LEVEL + 1, cache.getMemoryHits());
+		assertEquals(0, cache.getMisses());
+	}
+}
@@ -11,6 +11,8 @@ import java.util.Iterator;
 import org.junit.Before;
 import org.junit.Test;
 
+import generation.Order.Builder;
+
 /**
  * Tests individual methods of the MazeBuilder class. 
  * 
@@ -37,13 +39,24 @@ public class MazeFactoryTest{
 		// want to test different types of mazes
 		mazeBuilder = new MazeBuilder();
 		testFactory = new MazeFactory();
-		mazeOrder = new DefaultOrder();
+		DefaultOrder baseOrder = new DefaultOrder();
+		
+		mazeOrder = new DefaultOrder(baseOrder.getSkillLevel(), getBuilder(), baseOrder.isPerfect(), baseOrder.getSeed());
 		
 		testFactory.order(mazeOrder);
 		testFactory.waitTillDelivered();
 		
 	}
 	
+	/**
+	 * Tells which algorithm builds the mazes in these tests.
+	 * Subclasses override it to run all tests on mazes of their builder.
+	 * @return the builder used in the orders of these tests
+	 */
+	protected Builder getBuilder() {
+		return Builder.DFS;
+	}
+	
 
 	/**
 	 * Test case: tests to see that there's only one exit
@@ -140,6 +153,41 @@ public class MazeFactoryTest{
 
 	}
 	
+	/** 
+	 * Test case: mazes with rooms are connected
+	 * how it works: build mazes that are not perfect for several skill levels and seeds
+	 * and check the distance to the exit for every cell
+	 * <p>
+	 * Method under test: generatePathways together with generateRooms
+	 * <p>
+	 * Correct behavior: 
+	 * every cell can reach the exit, i.e. the distance is positive and finite except for the exit itself
+	 */
+	@Test
+	public final void reachAllPointsWithRooms() {
+		for (int skill = 1; skill <= 6; skill++) {
+			for (int seed = 1; seed <= 3; seed++) {
+				DefaultOrder order = new DefaultOrder(skill, getBuilder(), false, seed);
+				MazeFactory factory = new MazeFactory();
+				assertTrue(factory.order(order));
+				factory.waitTillDelivered();
+				testMaze = order.getMaze();
+				assertNotNull(testMaze);
+				int[] exitPoint = testMaze.getExitPosition();
+				for (int x = 0; x < testMaze.getWidth(); x++) {
+					for (int y = 0; y < testMaze.getHeight(); y++) {
+						int pathDistance = testMaze.getDistanceToExit(x, y);
+						if (x == exitPoint[0] && y == exitPoint[1]) {
+							assertTrue(pathDistance == 1);
+						} else {
+							assertTrue(pathDistance > 1 && pathDistance <= testMaze.getWidth()*testMaze.getHeight());
+						}
+					}
+				}
+			}
+		}
+	}
+	
 	/** 
 	 * Test case: tests that there are the correct number of cells to walls
 	 * functionally doubles as testing that maze is perfect
@@ -0,0 +1,64 @@
+package generation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures how fast the StreamingMazeGenerator writes a large maze to a file
+ * and how much heap it needs. The heap after generation is measured
+ * after a garbage collection, so it shows what the generator retains per row
+ * and band, which should not grow with the height of the maze.
+ * A few random windows are read back at the end to measure paging.
+ * 
+ * Arguments: width height [bandHeight], default 20000 x 20000 with 64 rows per band.
+ * A 100000 x 100000 maze needs a file of about 2.5 GB.
+ * 
+ * This is not a JUnit test, run the main method instead.
+ */
+public class StreamingMazeGeneratorBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		final int width = (args.length > 0) ? Integer.parseInt(args[0]) : 20000;
+		final int height = (args.length > 1) ? Integer.parseInt(args[1]) : 20000;
+		final int bandHeight = (args.length > 2) ? Integer.parseInt(args[2]) : StreamingMazeGenerator.DEFAULT_BAND_HEIGHT;
+		final Path file = Files.createTempFile("maze", ".mzb");
+		try {
+			final Runtime runtime = Runtime.getRuntime();
+			System.gc();
+			final long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+			final long[] peak = new long[1];
+			MazeBandSink sink = new MazeBandFileWriter(file) {
+				@Override
+				public void writeBand(int firstRow, int rows, byte[] data) throws IOException {
+					super.writeBand(firstRow, rows, data);
+					peak[0] = Math.max(peak[0], runtime.totalMemory() - runtime.freeMemory());
+				}
+			};
+			long start = System.nanoTime();
+			new StreamingMazeGenerator(width, height, 13, bandHeight).generate(sink);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			double mb = Files.size(file) / 1e6;
+			System.out.printf("maze %d x %d, bands of %d rows: %.2f s, %.1f Mcells/s, %.1f MB written, %.1f MB/s%n",
+					width, height, bandHeight, seconds, (double)width * height / 1e6 / seconds, mb, mb / seconds);
+			System.out.printf("heap before %.1f MB, peak during generation %.1f MB, max heap %.1f MB%n",
+					heapBefore / 1e6, peak[0] / 1e6, runtime.maxMemory() / 1e6);
+
+			try (MazeBandFileReader reader = new MazeBandFileReader(file)) {
+				RandomStream random = new RandomStream(1);
+				final int windows = 1000;
+				final int size = Math.min(64, Math.min(width, height));
+				start = System.nanoTime();
+				for (int i = 0; i < windows; i++) {
+					int x = random.nextIntWithinInterval(0, width - size);
+					int y = random.nextIntWithinInterval(0, height - size);
+					reader.readWindow(x, y, size, size);
+				}
+				System.out.printf("read %d random windows of %d x %d: %.3f ms per window%n",
+						windows, size, size, (System.nanoTime() - start) / 1e6 / windows);
+			}
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+}
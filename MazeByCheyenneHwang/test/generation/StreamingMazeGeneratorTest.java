@@ -0,0 +1,176 @@
+package generation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the StreamingMazeGenerator together with the 
+ * MazeBandFileWriter that stores a maze band by band
+ * and the MazeBandFileReader that reads it back in windows.
+ */
+public class StreamingMazeGeneratorTest {
+	
+	private static final int WIDTH = 37;
+	private static final int HEIGHT = 23;
+	
+	private Path file;
+	
+	@Before
+	public void setUp() throws IOException {
+		file = Files.createTempFile("maze", ".mzb");
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+	/**
+	 * Generates a maze into the temporary file.
+	 * @param seed the seed
+	 * @param bandHeight the number of rows per band
+	 * @throws IOException if writing fails
+	 */
+	private void generate(long seed, int bandHeight) throws IOException {
+		new StreamingMazeGenerator(WIDTH, HEIGHT, seed, bandHeight).generate(new MazeBandFileWriter(file));
+	}
+	/**
+	 * Test case: a streamed maze is perfect
+	 * <p>
+	 * Method under test: generate(), readBand()
+	 * <p>
+	 * Correct behavior: the maze read back as a whole has (w-1)(h-1) inner walls,
+	 * an exit on the border and every cell can reach the exit
+	 */
+	@Test
+	public final void testPerfectMaze() throws IOException {
+		generate(13, 5);
+		try (MazeBandFileReader reader = new MazeBandFileReader(file)) {
+			assertEquals(WIDTH, reader.getWidth());
+			assertEquals(HEIGHT, reader.getHeight());
+			Floorplan floorplan = reader.readBand(0, HEIGHT);
+			int wallCount = 0;
+			for (int y = 0; y < HEIGHT; y++) {
+				for (int x = 0; x < WIDTH; x++) {
+					if (x < WIDTH-1 && floorplan.hasWall(x, y, CardinalDirection.East))
+						wallCount++;
+					if (y < HEIGHT-1 && floorplan.hasWall(x, y, CardinalDirection.South))
+						wallCount++;
+				}
+			}
+			assertEquals((WIDTH-1)*(HEIGHT-1), wallCount);
+			int[] exit = reader.getExitPosition();
+			assertTrue(floorplan.isExitPosition(exit[0], exit[1]));
+			Distance dists = new Distance(WIDTH, HEIGHT);
+			dists.computeDistances(floorplan);
+			for (int y = 0; y < HEIGHT; y++) {
+				for (int x = 0; x < WIDTH; x++) {
+					assertTrue(dists.getDistanceValue(x, y) <= WIDTH*HEIGHT);
+				}
+			}
+		}
+	}
+	/**
+	 * Test case: a window shows the same wallboards as the whole maze
+	 * <p>
+	 * Method under test: readWindow()
+	 * <p>
+	 * Correct behavior: for every cell and direction in several windows, 
+	 * including windows at the edges of the maze,
+	 * hasWall agrees with the maze read as a whole
+	 */
+	@Test
+	public final void testWindowMatchesMaze() throws IOException {
+		generate(42, 4);
+		try (MazeBandFileReader reader = new MazeBandFileReader(file)) {
+			Floorplan whole = reader.readBand(0, HEIGHT);
+			int[][] windows = { {0, 0, 10, 6}, {7, 4, 10, 9}, {5, 13, 32, 10}, {1, 1, 1, 1}, {0, 9, WIDTH, 3} };
+			for (int[] win : windows) {
+				Floorplan window = reader.readWindow(win[0], win[1], win[2], win[3]);
+				for (int y = 0; y < win[3]; y++) {
+					for (int x = 0; x < win[2]; x++) {
+						for (CardinalDirection cd : CardinalDirection.values()) {
+							assertEquals(whole.hasWall(win[0]+x, win[1]+y, cd), window.hasWall(x, y, cd));
+						}
+					}
+				}
+			}
+		}
+	}
+	/**
+	 * Test case: an interrupted generation leaves no file behind
+	 * <p>
+	 * Method under test: generate(), MazeBandFileWriter.abort()
+	 * <p>
+	 * Correct behavior: generate() throws an InterruptedIOException
+	 * and the incomplete file is deleted
+	 */
+	@Test
+	public final void testInterrupted() throws IOException {
+		// interrupt the generation after the first band is written
+		MazeBandSink sink = new MazeBandFileWriter(file) {
+			@Override
+			public void writeBand(int firstRow, int rows, byte[] data) throws IOException {
+				super.writeBand(firstRow, rows, data);
+				Thread.currentThread().interrupt();
+			}
+		};
+		try {
+			new StreamingMazeGenerator(WIDTH, HEIGHT, 3, 4).generate(sink);
+			assertTrue(false);
+		} catch (InterruptedIOException e) {
+			// expected
+		} finally {
+			Thread.interrupted(); // clear the flag for other tests
+		}
+		assertFalse(Files.exists(file));
+	}
+	/**
+	 * Test case: a generation that can not open its file leaves the path alone
+	 * <p>
+	 * Method under test: generate(), MazeBandFileWriter.abort()
+	 * <p>
+	 * Correct behavior: generate() throws an IOException
+	 * and the empty directory in place of the file still exists
+	 */
+	@Test
+	public final void testStartFails() throws IOException {
+		Files.delete(file);
+		Files.createDirectory(file);
+		try {
+			generate(3, 4);
+			assertTrue(false);
+		} catch (IOException e) {
+			// expected, a directory can not be opened for writing
+		}
+		assertTrue(Files.isDirectory(file));
+	}
+	/**
+	 * Test case: the maze only depends on the seed
+	 * <p>
+	 * Method under test: generate()
+	 * <p>
+	 * Correct behavior: the same seed delivers the same file for different band heights,
+	 * a different seed delivers a different file
+	 */
+	@Test
+	public final void testReproducible() throws IOException {
+		generate(7, 1);
+		byte[] first = Files.readAllBytes(file);
+		generate(7, StreamingMazeGenerator.DEFAULT_BAND_HEIGHT);
+		assertArrayEquals(first, Files.readAllBytes(file));
+		generate(8, 1);
+		assertFalse(Arrays.equals(first, Files.readAllBytes(file)));
+	}
+}
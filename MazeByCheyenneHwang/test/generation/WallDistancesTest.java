@@ -0,0 +1,116 @@
+package generation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import generation.Order.Builder;
+
+/**
+ * Tests the table of distances to walls that distance sensors consult.
+ * The table is expected to deliver the same results as walking
+ * from cell to cell until a wallboard is hit.
+ */
+public class WallDistancesTest {
+
+	/**
+	 * Orders a maze from the factory and waits for its delivery.
+	 * @param skill the skill level
+	 * @param builder the builder algorithm
+	 * @param perfect true for a maze without rooms
+	 * @return the delivered maze
+	 */
+	private Maze getMaze(int skill, Builder builder, boolean perfect) {
+		MazeFactory factory = new MazeFactory();
+		DefaultOrder order = new DefaultOrder(skill, builder, perfect, 13);
+		factory.order(order);
+		factory.waitTillDelivered();
+		return order.getMaze();
+	}
+	/**
+	 * Walks from the given cell in the given direction until a wallboard is hit.
+	 * @return the number of steps, Integer.MAX_VALUE if the walk leaves the maze
+	 */
+	private int walk(Floorplan floorplan, int x, int y, CardinalDirection dir) {
+		int[] d = dir.getDxDyDirection();
+		int steps = 0;
+		while (floorplan.hasNoWall(x, y, dir)) {
+			x += d[0];
+			y += d[1];
+			if (x < 0 || x >= floorplan.getWidth() || y < 0 || y >= floorplan.getHeight())
+				return Integer.MAX_VALUE;
+			steps++;
+		}
+		return steps;
+	}
+	/**
+	 * Checks that the table agrees with walking for all cells and directions.
+	 */
+	private void checkAgreesWithWalk(Floorplan floorplan, WallDistances table) {
+		for (int x = 0; x < floorplan.getWidth(); x++) {
+			for (int y = 0; y < floorplan.getHeight(); y++) {
+				for (CardinalDirection dir : CardinalDirection.values()) {
+					assertEquals(walk(floorplan, x, y, dir), table.getDistance(x, y, dir));
+				}
+			}
+		}
+	}
+	/**
+	 * Test case: distances match walking through the maze
+	 * <p>
+	 * Method under test: compute(), getDistance()
+	 * <p>
+	 * Correct behavior: same distances for mazes with and without rooms,
+	 * looking through the exit gives Integer.MAX_VALUE
+	 */
+	@Test
+	public final void testAgreesWithWalk() {
+		for (int skill = 0; skill <= 4; skill++) {
+			for (Builder builder : new Builder[] { Builder.DFS, Builder.Prim }) {
+				Maze maze = getMaze(skill, builder, 0 == skill % 2);
+				checkAgreesWithWalk(maze.getFloorplan(), maze.getWallDistances());
+			}
+		}
+		Maze maze = getMaze(1, Builder.DFS, false);
+		int[] exit = maze.getExitPosition();
+		boolean seesEternity = false;
+		for (CardinalDirection dir : CardinalDirection.values()) {
+			seesEternity |= (Integer.MAX_VALUE == maze.getWallDistances().getDistance(exit[0], exit[1], dir));
+		}
+		assertTrue(seesEternity);
+	}
+	/**
+	 * Test case: the table of a maze is replaced when the floorplan changes
+	 * <p>
+	 * Method under test: isUpToDate(), Maze.getWallDistances()
+	 * <p>
+	 * Correct behavior: the maze computes the table once, after adding or deleting
+	 * a wallboard, the table is outdated and the maze delivers a new one
+	 * that matches the modified floorplan
+	 */
+	@Test
+	public final void testInvalidation() {
+		Maze maze = getMaze(1, Builder.DFS, true);
+		Floorplan floorplan = maze.getFloorplan();
+		WallDistances table = maze.getWallDistances();
+		assertTrue(table.isUpToDate(floorplan));
+		assertSame(table, maze.getWallDistances());
+		assertFalse(table.isUpToDate(new Floorplan(floorplan)));
+		// find an inner wallboard and delete it
+		int x = 0;
+		while (x < floorplan.getWidth()-2 && floorplan.hasNoWall(x, 0, CardinalDirection.East))
+			x++;
+		assertTrue(floorplan.hasWall(x, 0, CardinalDirection.East));
+		floorplan.deleteWallboard(new Wallboard(x, 0, CardinalDirection.East));
+		assertFalse(table.isUpToDate(floorplan));
+		WallDistances updated = maze.getWallDistances();
+		assertFalse(table == updated);
+		checkAgreesWithWalk(floorplan, updated);
+		floorplan.addWallboard(new Wallboard(x, 0, CardinalDirection.East), true);
+		assertFalse(updated.isUpToDate(floorplan));
+		checkAgreesWithWalk(floorplan, maze.getWallDistances());
+	}
+}
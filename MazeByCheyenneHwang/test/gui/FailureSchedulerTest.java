@@ -0,0 +1,172 @@
+package gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests the schedulers that run the failure and repair processes
+ * of unreliable sensors.
+ * Unlike the other sensor tests, this one needs no display.
+ */
+public class FailureSchedulerTest {
+
+	/**
+	 * Test case: a sensor is switched at the scheduled points in simulated time
+	 * <p>
+	 * Method under test: SimulatedFailureScheduler.start(), advanceTo(), stop()
+	 * <p>
+	 * Correct behavior: the sensor is down right away, operational after the time to repair,
+	 * down again after the time between failures, and operational once stopped
+	 */
+	@Test
+	public final void testSimulatedSwitches() {
+		SimulatedFailureScheduler scheduler = new SimulatedFailureScheduler();
+		UnreliableSensor sensor = new UnreliableSensor();
+		assertFalse(scheduler.isRunning(sensor));
+		scheduler.start(sensor, 4000, 2000);
+		assertTrue(scheduler.isRunning(sensor));
+		assertTrue(sensor.checkRepairStatus());
+		scheduler.advanceTo(1999);
+		assertTrue(sensor.checkRepairStatus());
+		scheduler.advanceTo(2000);
+		assertFalse(sensor.checkRepairStatus());
+		scheduler.advanceTo(5999);
+		assertFalse(sensor.checkRepairStatus());
+		scheduler.advanceBy(1);
+		assertTrue(sensor.checkRepairStatus());
+		// many periods at once
+		scheduler.advanceTo(6000 * 100 + 2000);
+		assertFalse(sensor.checkRepairStatus());
+		assertEquals(6000 * 100 + 2000, scheduler.getTime());
+		scheduler.advanceBy(4000);
+		assertTrue(scheduler.stop(sensor));
+		assertFalse(sensor.checkRepairStatus());
+		assertFalse(scheduler.isRunning(sensor));
+		assertFalse(scheduler.stop(sensor));
+		// pending switches of a stopped process have no effect
+		scheduler.advanceBy(10000);
+		assertFalse(sensor.checkRepairStatus());
+	}
+	/**
+	 * Test case: sensors started at different times keep their own timeline
+	 * <p>
+	 * Method under test: SimulatedFailureScheduler.start(), advanceTo()
+	 * <p>
+	 * Correct behavior: each sensor is down for the first 2 seconds after its start,
+	 * a restarted sensor starts over
+	 */
+	@Test
+	public final void testSimulatedSeveralSensors() {
+		SimulatedFailureScheduler scheduler = new SimulatedFailureScheduler();
+		UnreliableSensor first = new UnreliableSensor();
+		UnreliableSensor second = new UnreliableSensor();
+		scheduler.start(first, 4000, 2000);
+		scheduler.advanceTo(1300);
+		scheduler.start(second, 4000, 2000);
+		scheduler.advanceTo(2500);
+		assertFalse(first.checkRepairStatus());
+		assertTrue(second.checkRepairStatus());
+		scheduler.advanceTo(3300);
+		assertFalse(second.checkRepairStatus());
+		scheduler.start(first, 4000, 2000);
+		assertTrue(first.checkRepairStatus());
+		scheduler.advanceTo(5299);
+		assertTrue(first.checkRepairStatus());
+		scheduler.advanceTo(5300);
+		assertFalse(first.checkRepairStatus());
+		// the first start of the first sensor would have failed it again at 6000
+		scheduler.advanceTo(6000);
+		assertFalse(first.checkRepairStatus());
+	}
+	/**
+	 * Test case: an unreliable sensor uses the scheduler it is given
+	 * <p>
+	 * Method under test: UnreliableSensor.setFailureScheduler(), startFailureAndRepairProcess(),
+	 * stopFailureAndRepairProcess()
+	 * <p>
+	 * Correct behavior: times are given in seconds, the sensor can not stop a process
+	 * that is not running and can not change its scheduler while a process runs
+	 */
+	@Test
+	public final void testSensorWithSimulatedScheduler() {
+		SimulatedFailureScheduler scheduler = new SimulatedFailureScheduler();
+		UnreliableSensor sensor = new UnreliableSensor();
+		sensor.setFailureScheduler(scheduler);
+		sensor.startFailureAndRepairProcess(4, 2);
+		assertTrue(sensor.isFailureAndRepairProcessRunning());
+		assertTrue(sensor.checkRepairStatus());
+		scheduler.advanceTo(2000);
+		assertFalse(sensor.checkRepairStatus());
+		try {
+			sensor.setFailureScheduler(RealTimeFailureScheduler.getInstance());
+			assertTrue(false);
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		sensor.stopFailureAndRepairProcess();
+		assertFalse(sensor.isFailureAndRepairProcessRunning());
+		try {
+			sensor.stopFailureAndRepairProcess();
+			assertTrue(false);
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+	/**
+	 * Test case: the shared scheduler switches sensors in real time
+	 * <p>
+	 * Method under test: RealTimeFailureScheduler.start(), stop()
+	 * <p>
+	 * Correct behavior: the sensor goes down and comes back,
+	 * it is operational once stopped and stays operational
+	 */
+	@Test
+	public final void testRealTimeSwitches() throws InterruptedException {
+		RealTimeFailureScheduler scheduler = RealTimeFailureScheduler.getInstance();
+		UnreliableSensor sensor = new UnreliableSensor();
+		scheduler.start(sensor, 20, 20);
+		assertTrue(scheduler.isRunning(sensor));
+		assertTrue(waitFor(sensor, true));
+		assertTrue(waitFor(sensor, false));
+		assertTrue(waitFor(sensor, true));
+		assertTrue(scheduler.stop(sensor));
+		assertFalse(sensor.checkRepairStatus());
+		Thread.sleep(100);
+		assertFalse(sensor.checkRepairStatus());
+		assertFalse(scheduler.stop(sensor));
+	}
+	/**
+	 * Test case: a stopped process leaves nothing behind in the shared scheduler
+	 * <p>
+	 * Method under test: RealTimeFailureScheduler.start(), stop()
+	 * <p>
+	 * Correct behavior: the two periodic tasks of a process are queued
+	 * while it runs and leave the queue as soon as it is stopped,
+	 * long before their next scheduled time
+	 */
+	@Test
+	public final void testStopRemovesTasks() {
+		RealTimeFailureScheduler scheduler = RealTimeFailureScheduler.getInstance();
+		UnreliableSensor sensor = new UnreliableSensor();
+		int queued = scheduler.getQueuedTasks();
+		scheduler.start(sensor, 3600000, 3600000);
+		assertTrue(scheduler.getQueuedTasks() >= queued + 1);
+		assertTrue(scheduler.stop(sensor));
+		assertEquals(queued, scheduler.getQueuedTasks());
+	}
+	/**
+	 * Waits up to a second for the sensor to reach the given state.
+	 * @return true if the state was reached, false otherwise
+	 */
+	private boolean waitFor(UnreliableSensor sensor, boolean down) throws InterruptedException {
+		for (int i = 0; i < 1000; i++) {
+			if (sensor.checkRepairStatus() == down)
+				return true;
+			Thread.sleep(1);
+		}
+		return false;
+	}
+}
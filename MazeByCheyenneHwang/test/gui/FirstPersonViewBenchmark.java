@@ -0,0 +1,142 @@
+package gui;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import generation.DefaultOrder;
+import generation.Floorplan;
+import generation.Maze;
+import generation.MazeFactory;
+import generation.Order.Builder;
+
+/**
+ * Measures the time and the heap allocation per frame for drawing 
+ * the first person view in a maze of the highest skill level (300 x 240).
+ * The camera follows the path from the starting position to the exit
+ * and looks into 8 directions at each position.
+ * Frames are drawn on an off-screen image, so this runs without a display.
+ * The view traverses the tree of BSPNodes recursively or the tree 
+ * compiled into arrays (FlatBSPTree) iteratively, both are measured and
+ * checked to deliver the same images.
+ * Allocation is measured for the current thread, which includes
+ * any allocation that the Java 2D implementation does for the current thread.
+ * 
+ * This is not a JUnit test, run the main method instead.
+ */
+public class FirstPersonViewBenchmark {
+
+	private static final int SKILL = 15;
+	private static final int[] ANGLES = { 0, 45, 90, 135, 180, 225, 270, 315 };
+
+	public static void main(String[] args) {
+		DefaultOrder order = new DefaultOrder(SKILL, Builder.Prim, false, 13);
+		MazeFactory factory = new MazeFactory();
+		factory.order(order);
+		factory.waitTillDelivered();
+		Maze maze = order.getMaze();
+		System.out.println();
+		System.out.printf("maze %d x %d%n", maze.getWidth(), maze.getHeight());
+		BufferedImage image = new BufferedImage(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		FirstPersonView objectView = new FirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT, Constants.MAP_UNIT,
+				Constants.STEP_SIZE, new Floorplan(maze.getWidth()+1, maze.getHeight()+1), maze.getRootnode());
+		FirstPersonView flatView = new FirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT, Constants.MAP_UNIT,
+				Constants.STEP_SIZE, new Floorplan(maze.getWidth()+1, maze.getHeight()+1), maze.getFlatTree());
+		System.out.printf("bsp tree with %d nodes, %d walls, depth %d%n", maze.getFlatTree().getNodeCount(),
+				maze.getFlatTree().getWallCount(), maze.getFlatTree().getDepth());
+		int[][] path = getPath(maze);
+		compare(path, objectView, flatView);
+		// first pass warms up the JIT compiler
+		drawPath(path, objectView, g);
+		drawPath(path, flatView, g);
+		measure("tree of BSPNodes, drawing on an image", path, objectView, g);
+		measure("FlatBSPTree, drawing on an image", path, flatView, g);
+		// with an empty clip, Java 2D discards all drawing operations, 
+		// so only the traversal and the allocations of the view itself remain
+		g.setClip(0, 0, 0, 0);
+		drawPath(path, objectView, g);
+		drawPath(path, flatView, g);
+		measure("tree of BSPNodes, drawing with an empty clip", path, objectView, g);
+		measure("FlatBSPTree, drawing with an empty clip", path, flatView, g);
+		g.dispose();
+	}
+	/**
+	 * Checks that both views draw the same frames and visit the same number of nodes
+	 * for the positions of the path, throws an AssertionError otherwise.
+	 */
+	private static void compare(int[][] path, FirstPersonView expected, FirstPersonView actual) {
+		BufferedImage image1 = new BufferedImage(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		BufferedImage image2 = new BufferedImage(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g1 = image1.createGraphics();
+		Graphics2D g2 = image2.createGraphics();
+		long nodes = 0;
+		for (int[] pos : path) {
+			for (int angle : ANGLES) {
+				expected.draw(g1, pos[0], pos[1], 0, angle, pos[2] / 1000f);
+				actual.draw(g2, pos[0], pos[1], 0, angle, pos[2] / 1000f);
+				if (expected.getTraverseNodeCounter() != actual.getTraverseNodeCounter()
+						|| expected.getDrawRectCounter() != actual.getDrawRectCounter())
+					throw new AssertionError("Different traversal at " + pos[0] + "," + pos[1] + " angle " + angle);
+				for (int y = 0; y < Constants.VIEW_HEIGHT; y++) {
+					for (int x = 0; x < Constants.VIEW_WIDTH; x++) {
+						if (image1.getRGB(x, y) != image2.getRGB(x, y))
+							throw new AssertionError("Different images at " + pos[0] + "," + pos[1] + " angle " + angle);
+					}
+				}
+				nodes += actual.getTraverseNodeCounter();
+			}
+		}
+		g1.dispose();
+		g2.dispose();
+		System.out.printf("both trees draw the same images, %.1f nodes visited per frame%n", 
+				(double)nodes / path.length / ANGLES.length);
+	}
+	/**
+	 * Records the path from the starting position to the exit.
+	 * @return array of x, y and the distance to the exit as a percentage times 1000 for each position
+	 */
+	private static int[][] getPath(Maze maze) {
+		List<int[]> path = new ArrayList<>();
+		int[] pos = maze.getStartingPosition();
+		int[] exit = maze.getExitPosition();
+		final int max = maze.getMazedists().getMaxDistance();
+		while (true) {
+			path.add(new int[] { pos[0], pos[1], maze.getDistanceToExit(pos[0], pos[1]) * 1000 / max });
+			if (pos[0] == exit[0] && pos[1] == exit[1])
+				return path.toArray(new int[path.size()][]);
+			pos = maze.getNeighborCloserToExit(pos[0], pos[1]);
+		}
+	}
+	/**
+	 * Draws frames along the path and prints time and allocated memory per frame.
+	 */
+	private static void measure(String label, int[][] path, FirstPersonView view, Graphics2D g) {
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		long id = Thread.currentThread().getId();
+		long bytes = bean.getThreadAllocatedBytes(id);
+		long start = System.nanoTime();
+		int frames = drawPath(path, view, g);
+		double ms = (System.nanoTime() - start) / 1e6;
+		bytes = bean.getThreadAllocatedBytes(id) - bytes;
+		System.out.printf("%s: %d frames%n", label, frames);
+		System.out.printf("  %.3f ms per frame, %.1f frames per second%n", ms / frames, frames * 1000 / ms);
+		System.out.printf("  %.1f bytes allocated per frame%n", (double)bytes / frames);
+	}
+	/**
+	 * Draws frames for all positions of the path, looking into all directions.
+	 * @return the number of frames
+	 */
+	private static int drawPath(int[][] path, FirstPersonView view, Graphics2D g) {
+		int frames = 0;
+		for (int[] pos : path) {
+			for (int angle : ANGLES) {
+				view.draw(g, pos[0], pos[1], 0, angle, pos[2] / 1000f);
+				frames++;
+			}
+		}
+		return frames;
+	}
+}
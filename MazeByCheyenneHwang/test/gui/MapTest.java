@@ -0,0 +1,109 @@
+package gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import generation.FlatBSPTree;
+import generation.Floorplan;
+import generation.Maze;
+
+/**
+ * Tests that the map draws the same picture from its cached tiles
+ * as a new map that draws everything for the first time.
+ * Needs no display, the map is drawn on a BufferedImageSurface.
+ */
+public class MapTest {
+
+	private final BufferedImageSurface surface = new BufferedImageSurface();
+
+	/**
+	 * Draws the map for the given position on a cleared surface.
+	 * @return the pixels of the drawing
+	 */
+	private int[] draw(Map map, int x, int y, boolean showMaze, boolean showSolution) {
+		surface.getBufferGraphics().clearRect(0, 0, Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT);
+		map.draw(surface, x, y, 90, 0, showMaze, showSolution);
+		BufferedImage image = surface.getImage();
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+	/**
+	 * Checks that the given map draws the same as a new map with the same seen walls and scale.
+	 */
+	private void assertSameDrawing(Map map, Floorplan seenWalls, int mapScale, Maze maze,
+			int x, int y, boolean showMaze, boolean showSolution) {
+		int[] expected = draw(new Map(seenWalls, mapScale, maze), x, y, showMaze, showSolution);
+		int[] actual = draw(map, x, y, showMaze, showSolution);
+		assertTrue("Map differs at (" + x + "," + y + ")", Arrays.equals(expected, actual));
+	}
+	/**
+	 * Test case: walls seen after the map was drawn show up on the map
+	 * <p>
+	 * Method under test: draw()
+	 * <p>
+	 * Correct behavior: once walls are marked as seen, the map that drew them
+	 * as unseen before draws the same picture as a new map
+	 */
+	@Test
+	public final void testSeenWalls() {
+		Maze maze = MazeBinaryFileTest.generate(6);
+		Floorplan seenWalls = new Floorplan(maze.getWidth()+1, maze.getHeight()+1);
+		Map map = new Map(seenWalls, 15, maze);
+		int[] start = maze.getStartingPosition();
+		int[] unseen = draw(map, start[0], start[1], false, false);
+		FlatBSPTree tree = maze.getFlatTree();
+		for (int i = 0; i < tree.getWallCount(); i += 2) {
+			seenWalls.addWall(tree.getWall(i), Constants.MAP_UNIT);
+		}
+		assertFalse(Arrays.equals(unseen, draw(map, start[0], start[1], false, false)));
+		assertSameDrawing(map, seenWalls, 15, maze, start[0], start[1], false, false);
+		assertSameDrawing(map, seenWalls, 15, maze, start[0], start[1], true, false);
+		for (int i = 1; i < tree.getWallCount(); i += 2) {
+			seenWalls.addWall(tree.getWall(i), Constants.MAP_UNIT);
+		}
+		assertSameDrawing(map, seenWalls, 15, maze, start[0], start[1], true, false);
+	}
+	/**
+	 * Test case: the map follows the path to the exit at different scales
+	 * <p>
+	 * Method under test: draw(), incrementMapScale(), decrementMapScale()
+	 * <p>
+	 * Correct behavior: at every position on the path to the exit and
+	 * at a position off the path, the map with its walls and
+	 * the solution line matches the drawing of a new map
+	 */
+	@Test
+	public final void testSolution() {
+		Maze maze = MazeBinaryFileTest.generate(9);
+		Floorplan seenWalls = new Floorplan(maze.getWidth()+1, maze.getHeight()+1);
+		FlatBSPTree tree = maze.getFlatTree();
+		for (int i = 0; i < tree.getWallCount(); i += 3) {
+			seenWalls.addWall(tree.getWall(i), Constants.MAP_UNIT);
+		}
+		Map map = new Map(seenWalls, 15, maze);
+		int[] position = maze.getStartingPosition();
+		int steps = 0;
+		while (null != position) {
+			assertSameDrawing(map, seenWalls, 15, maze, position[0], position[1], true, true);
+			position = maze.getNeighborCloserToExit(position[0], position[1]);
+			steps++;
+		}
+		assertEquals(maze.getDistanceToExit(maze.getStartingPosition()[0], maze.getStartingPosition()[1]), steps);
+		// back to the start, then a corner of the maze that is most likely off the path
+		int[] start = maze.getStartingPosition();
+		assertSameDrawing(map, seenWalls, 15, maze, start[0], start[1], true, true);
+		assertSameDrawing(map, seenWalls, 15, maze, 0, 0, true, true);
+		// the whole maze fits on the screen at the smallest scale
+		for (int scale = 15; scale > 1; scale--) {
+			map.decrementMapScale();
+		}
+		assertSameDrawing(map, seenWalls, 1, maze, start[0], start[1], true, true);
+		map.incrementMapScale();
+		assertSameDrawing(map, seenWalls, 2, maze, start[0], start[1], false, true);
+	}
+}
@@ -0,0 +1,291 @@
+package gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import generation.BSPBranch;
+import generation.BSPLeaf;
+import generation.BSPNode;
+import generation.BatchMazeFactory;
+import generation.DefaultOrder;
+import generation.Floorplan;
+import generation.Maze;
+import generation.Order.Builder;
+import generation.Wall;
+
+/**
+ * Tests the binary maze file format.
+ */
+public class MazeBinaryFileTest {
+
+	/**
+	 * Generates a maze without pauses.
+	 * @param skill the skill level
+	 * @return the maze
+	 */
+	static Maze generate(int skill) {
+		BatchMazeFactory factory = new BatchMazeFactory(1, 1, null);
+		DefaultOrder order = new DefaultOrder(skill, Builder.DFS, false, 3);
+		assertTrue(factory.order(order));
+		factory.waitTillDelivered();
+		factory.shutdown();
+		assertNotNull(order.getMaze());
+		return order.getMaze();
+	}
+	/**
+	 * Stores the given maze in a temporary binary file.
+	 * @return the file, deleted on exit
+	 */
+	private File store(Maze maze) throws IOException {
+		File file = File.createTempFile("maze", ".bin");
+		file.deleteOnExit();
+		int[] start = maze.getStartingPosition();
+		MazeBinaryFile.store(file.getPath(), maze.getWidth(), maze.getHeight(), 0, 0, maze.getRootnode(),
+				maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+		return file;
+	}
+	/**
+	 * Checks that both mazes have the same content.
+	 */
+	static void assertSameMaze(Maze expected, Maze actual) {
+		assertEquals(expected.getWidth(), actual.getWidth());
+		assertEquals(expected.getHeight(), actual.getHeight());
+		assertEquals(expected.getStartingPosition()[0], actual.getStartingPosition()[0]);
+		assertEquals(expected.getStartingPosition()[1], actual.getStartingPosition()[1]);
+		assertEquals(expected.getFloorplan(), actual.getFloorplan());
+		for (int x = 0; x < expected.getWidth(); x++) {
+			for (int y = 0; y < expected.getHeight(); y++) {
+				assertEquals(expected.getDistanceToExit(x, y), actual.getDistanceToExit(x, y));
+			}
+		}
+		assertEquals(expected.getExitPosition()[0], actual.getExitPosition()[0]);
+		assertEquals(expected.getExitPosition()[1], actual.getExitPosition()[1]);
+		assertSameTree(expected.getRootnode(), actual.getRootnode());
+	}
+	/**
+	 * Checks that both trees have the same structure, bounds and walls.
+	 */
+	static void assertSameTree(BSPNode expected, BSPNode actual) {
+		assertEquals(expected.isIsleaf(), actual.isIsleaf());
+		assertEquals(expected.getLowerBoundX(), actual.getLowerBoundX());
+		assertEquals(expected.getLowerBoundY(), actual.getLowerBoundY());
+		assertEquals(expected.getUpperBoundX(), actual.getUpperBoundX());
+		assertEquals(expected.getUpperBoundY(), actual.getUpperBoundY());
+		if (expected.isIsleaf()) {
+			List<Wall> walls = ((BSPLeaf) expected).getAllWalls();
+			List<Wall> loaded = ((BSPLeaf) actual).getAllWalls();
+			assertEquals(walls.size(), loaded.size());
+			for (int i = 0; i < walls.size(); i++) {
+				assertEquals(walls.get(i), loaded.get(i));
+				assertEquals(walls.get(i).getColor(), loaded.get(i).getColor());
+				assertEquals(walls.get(i).isSeen(), loaded.get(i).isSeen());
+				assertEquals(walls.get(i).isPartition(), loaded.get(i).isPartition());
+			}
+		} else {
+			BSPBranch branch = (BSPBranch) expected;
+			BSPBranch loaded = (BSPBranch) actual;
+			assertEquals(branch.getX(), loaded.getX());
+			assertEquals(branch.getY(), loaded.getY());
+			assertEquals(branch.getDx(), loaded.getDx());
+			assertEquals(branch.getDy(), loaded.getDy());
+			assertSameTree(branch.getLeftBranch(), loaded.getLeftBranch());
+			assertSameTree(branch.getRightBranch(), loaded.getRightBranch());
+		}
+	}
+	/**
+	 * Test case: a generated maze survives a round trip through a binary file
+	 * <p>
+	 * Method under test: store(), load(), isBinary()
+	 * <p>
+	 * Correct behavior: the loaded maze has the same floorplan, distances, 
+	 * starting position and BSP tree
+	 */
+	@Test
+	public final void testRoundTrip() throws IOException {
+		for (int skill : new int[] {0, 4, 9}) {
+			Maze maze = generate(skill);
+			File file = store(maze);
+			assertTrue(MazeBinaryFile.isBinary(file.getPath()));
+			assertSameMaze(maze, MazeBinaryFile.load(file.getPath()));
+		}
+	}
+	/**
+	 * Test case: a maze in a file large enough to be memory-mapped survives a round trip
+	 * <p>
+	 * Method under test: store(), load()
+	 * <p>
+	 * Correct behavior: the file is read through a mapping,
+	 * the loaded maze matches the stored one
+	 */
+	@Test
+	public final void testMappedFile() throws IOException {
+		Maze maze = generate(12);
+		File file = store(maze);
+		assertTrue(file.length() >= MazeBinaryFile.MAPPING_THRESHOLD);
+		assertSameMaze(maze, MazeBinaryFile.load(file.getPath()));
+	}
+	/**
+	 * Test case: a loaded maze reads its cells and distances from the file content
+	 * <p>
+	 * Method under test: load(), Floorplan and Distance on buffers
+	 * <p>
+	 * Correct behavior: a modified floorplan of a loaded maze, its copy and
+	 * the file stay independent, distances match before and after
+	 * they are copied into an array
+	 */
+	@Test
+	public final void testViews() throws IOException {
+		Maze maze = generate(12);
+		File file = store(maze);
+		Maze loaded = MazeBinaryFile.load(file.getPath());
+		Maze copy = new generation.MazeContainer(loaded);
+		loaded.getFloorplan().initialize();
+		assertFalse(maze.getFloorplan().equals(loaded.getFloorplan()));
+		assertEquals(maze.getFloorplan(), copy.getFloorplan());
+		assertSameMaze(maze, MazeBinaryFile.load(file.getPath()));
+		int[][] dists = loaded.getMazedists().getAllDistanceValues();
+		for (int x = 0; x < maze.getWidth(); x++) {
+			for (int y = 0; y < maze.getHeight(); y++) {
+				assertEquals(maze.getDistanceToExit(x, y), dists[x][y]);
+				assertEquals(maze.getDistanceToExit(x, y), loaded.getDistanceToExit(x, y));
+			}
+		}
+	}
+	/**
+	 * Test case: the maze of an XML file survives a round trip through a binary file
+	 * <p>
+	 * Method under test: store(), load(), isBinary()
+	 * <p>
+	 * Correct behavior: an XML file is not taken as a binary file,
+	 * the maze loaded from the binary file matches the one of the XML file
+	 */
+	@Test
+	public final void testXmlFile() throws IOException {
+		String filename = "test/data/input.xml";
+		assertFalse(MazeBinaryFile.isBinary(filename));
+		Maze maze = new MazeFileReader(filename).getMazeConfiguration();
+		File file = store(maze);
+		assertSameMaze(maze, MazeBinaryFile.load(file.getPath()));
+	}
+	/**
+	 * Test case: varints of all sizes survive a round trip
+	 * <p>
+	 * Method under test: getVarint(), getSignedVarint()
+	 * <p>
+	 * Correct behavior: each value is read back as written, 
+	 * small values take a single byte
+	 */
+	@Test
+	public final void testVarints() throws IOException {
+		int[] values = {0, 1, -1, 63, -64, 127, 128, 300, -300, 16384, Integer.MAX_VALUE, Integer.MIN_VALUE};
+		for (int value : values) {
+			if (value < 0)
+				continue; // a wall can not start at a negative position
+			File file = File.createTempFile("varint", ".bin");
+			file.deleteOnExit();
+			// a maze of a single cell with a single wall that starts at x = value
+			Floorplan floorplan = new Floorplan(1, 1);
+			List<Wall> walls = new ArrayList<Wall>();
+			walls.add(new Wall(value, 0, 0, 1, 0, 0));
+			MazeBinaryFile.store(file.getPath(), 1, 1, 0, 0, new BSPLeaf(walls), floorplan, new int[][] {{0}}, 0, 0);
+			ByteBuffer buffer = read(file);
+			buffer.position(MazeBinaryFile.HEADER_BYTES + 2 + 4);
+			assertEquals(MazeBinaryFile.LEAF, buffer.get());
+			assertEquals(1, MazeBinaryFile.getVarint(buffer));
+			int position = buffer.position();
+			assertEquals(value, MazeBinaryFile.getSignedVarint(buffer));
+			if (value < 64)
+				assertEquals(position + 1, buffer.position());
+		}
+		for (int value : values) {
+			ByteBuffer buffer = ByteBuffer.allocate(5);
+			int n = (value << 1) ^ (value >> 31);
+			while (0 != (n & ~0x7f)) {
+				buffer.put((byte) ((n & 0x7f) | 0x80));
+				n >>>= 7;
+			}
+			buffer.put((byte) n);
+			buffer.flip();
+			assertEquals(value, MazeBinaryFile.getSignedVarint(buffer));
+		}
+	}
+	/**
+	 * Test case: broken files are rejected
+	 * <p>
+	 * Method under test: load()
+	 * <p>
+	 * Correct behavior: a truncated file and a file of another version
+	 * give an IOException, a broken BSP tree gives an UncheckedIOException
+	 * once the tree is used
+	 */
+	@Test
+	public final void testBrokenFiles() throws IOException {
+		Maze maze = generate(1);
+		File file = store(maze);
+		ByteBuffer content = read(file);
+		// truncated
+		write(file, ByteBuffer.wrap(content.array(), 0, content.limit() - 3));
+		try {
+			MazeBinaryFile.load(file.getPath());
+			assertTrue(false);
+		} catch (IOException e) {
+			// expected
+		}
+		// broken tree, noticed on first use
+		int tree = MazeBinaryFile.HEADER_BYTES + maze.getWidth() * maze.getHeight() * 6;
+		content.put(tree, (byte) 7);
+		write(file, content);
+		Maze loaded = MazeBinaryFile.load(file.getPath());
+		assertSameMaze(maze, new generation.MazeContainer(maze.getWidth(), maze.getHeight(), loaded.getFloorplan(),
+				loaded.getMazedists(), maze.getRootnode(), maze.getStartingPosition()[0], maze.getStartingPosition()[1]));
+		try {
+			loaded.getRootnode();
+			assertTrue(false);
+		} catch (UncheckedIOException e) {
+			// expected
+		}
+		content.put(tree, MazeBinaryFile.BRANCH);
+		// other version
+		content.putInt(4, MazeBinaryFile.VERSION + 1);
+		write(file, content);
+		try {
+			MazeBinaryFile.load(file.getPath());
+			assertTrue(false);
+		} catch (IOException e) {
+			// expected
+		}
+	}
+	private ByteBuffer read(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// read the whole file
+			}
+			buffer.flip();
+			return buffer;
+		}
+	}
+	private void write(File file, ByteBuffer content) throws IOException {
+		try (FileChannel channel = FileChannel.open(Paths.get(file.getPath()), StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			content.position(0);
+			while (content.hasRemaining()) {
+				channel.write(content);
+			}
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import generation.BatchMazeFactory;
+import generation.DefaultOrder;
+import generation.Maze;
+import generation.Order.Builder;
+
+/**
+ * Compares the XML format of MazeFileWriter and MazeFileReader
+ * with the binary format of MazeBinaryFile for mazes of every skill level.
+ * Reported are the file sizes and the times to store and to load a maze.
+ * Both formats are read and written as streams in time linear in the size of the maze,
+ * the binary format just has far fewer bytes to go through.
+ * For the binary format, open is the time till load returns, 
+ * load adds decoding the BSP tree on first use.
+ * Arguments (all optional): highest skill level (default 15),
+ * highest skill level to load XML files for (default: the highest skill level),
+ * number of repetitions for each measurement, the fastest one counts (default 3).
+ *
+ * This is not a JUnit test, run the main method instead.
+ */
+public class MazeFileBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		int maxSkill = (args.length > 0) ? Integer.parseInt(args[0]) : Constants.SKILL_X.length-1;
+		int maxXmlLoadSkill = (args.length > 1) ? Integer.parseInt(args[1]) : maxSkill;
+		int rounds = (args.length > 2) ? Integer.parseInt(args[2]) : 3;
+
+		Maze[] mazes = generate(maxSkill);
+		File xml = File.createTempFile("maze", ".xml");
+		File binary = File.createTempFile("maze", ".bin");
+		xml.deleteOnExit();
+		binary.deleteOnExit();
+		System.out.println(String.format("%5s %9s | %10s %10s %10s | %10s %10s %10s %10s",
+				"skill", "size", "xml bytes", "store ms", "load ms", "bin bytes", "store ms", "open ms", "load ms"));
+		for (int skill = 0; skill <= maxSkill; skill++) {
+			Maze maze = mazes[skill];
+			int[] start = maze.getStartingPosition();
+			int[][] dists = maze.getMazedists().getAllDistanceValues();
+			double xmlStore = Double.MAX_VALUE;
+			double xmlLoad = Double.NaN;
+			double binaryStore = Double.MAX_VALUE;
+			double binaryOpen = Double.MAX_VALUE;
+			double binaryLoad = Double.MAX_VALUE;
+			for (int round = 0; round < rounds; round++) {
+				long t = System.nanoTime();
+				MazeFileWriter.store(xml.getPath(), maze.getWidth(), maze.getHeight(), 0, 0, maze.getRootnode(),
+						maze.getFloorplan(), dists, start[0], start[1]);
+				xmlStore = Math.min(xmlStore, (System.nanoTime() - t) / 1e6);
+				if (skill <= maxXmlLoadSkill) {
+					t = System.nanoTime();
+					new MazeFileReader(xml.getPath()).getMazeConfiguration();
+					double millis = (System.nanoTime() - t) / 1e6;
+					xmlLoad = (0 == round) ? millis : Math.min(xmlLoad, millis);
+				}
+				t = System.nanoTime();
+				MazeBinaryFile.store(binary.getPath(), maze.getWidth(), maze.getHeight(), 0, 0, maze.getRootnode(),
+						maze.getFloorplan(), dists, start[0], start[1]);
+				binaryStore = Math.min(binaryStore, (System.nanoTime() - t) / 1e6);
+				t = System.nanoTime();
+				Maze loaded = MazeBinaryFile.load(binary.getPath());
+				binaryOpen = Math.min(binaryOpen, (System.nanoTime() - t) / 1e6);
+				loaded.getRootnode();
+				binaryLoad = Math.min(binaryLoad, (System.nanoTime() - t) / 1e6);
+			}
+			System.out.println(String.format("%5d %9s | %10d %10.1f %10.1f | %10d %10.2f %10.2f %10.2f",
+					skill, maze.getWidth() + "x" + maze.getHeight(), xml.length(), xmlStore, xmlLoad,
+					binary.length(), binaryStore, binaryOpen, binaryLoad));
+		}
+	}
+	/**
+	 * Generates a maze for every skill level up to the given one.
+	 * @return mazes indexed by skill level
+	 */
+	private static Maze[] generate(int maxSkill) {
+		final AtomicReferenceArray<Maze> delivered = new AtomicReferenceArray<>(maxSkill+1);
+		BatchMazeFactory factory = new BatchMazeFactory((order, maze) ->
+			delivered.set(order.getSkillLevel(), maze));
+		for (int skill = 0; skill <= maxSkill; skill++) {
+			while (!factory.order(new DefaultOrder(skill, Builder.DFS, false, 13))) {
+				factory.waitTillDelivered();
+			}
+		}
+		factory.waitTillDelivered();
+		factory.shutdown();
+		Maze[] mazes = new Maze[maxSkill+1];
+		for (int skill = 0; skill <= maxSkill; skill++) {
+			mazes[skill] = delivered.get(skill);
+		}
+		return mazes;
+	}
+}
@@ -0,0 +1,104 @@
+package gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.File;
+import java.io.IOException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import generation.Maze;
+
+/**
+ * Tests the XML maze file format of MazeFileWriter and MazeFileReader.
+ */
+public class MazeFileTest {
+
+	/**
+	 * Stores the given maze in a temporary XML file.
+	 * @return the file, deleted on exit
+	 */
+	private File store(Maze maze) throws IOException {
+		File file = File.createTempFile("maze", ".xml");
+		file.deleteOnExit();
+		int[] start = maze.getStartingPosition();
+		MazeFileWriter.store(file.getPath(), maze.getWidth(), maze.getHeight(), 0, 1200, maze.getRootnode(),
+				maze.getFloorplan(), maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+		return file;
+	}
+	/**
+	 * Test case: a generated maze survives a round trip through an XML file
+	 * <p>
+	 * Method under test: MazeFileWriter.store(), MazeFileReader()
+	 * <p>
+	 * Correct behavior: the loaded maze has the same floorplan, distances, 
+	 * starting position and BSP tree
+	 */
+	@Test
+	public final void testRoundTrip() throws IOException {
+		for (int skill : new int[] {0, 4, 9}) {
+			Maze maze = MazeBinaryFileTest.generate(skill);
+			File file = store(maze);
+			MazeFileReader reader = new MazeFileReader(file.getPath());
+			assertEquals(1200, reader.getExpectedPartiters());
+			MazeBinaryFileTest.assertSameMaze(maze, reader.getMazeConfiguration());
+		}
+	}
+	/**
+	 * Test case: the sample file loads and survives a round trip
+	 * <p>
+	 * Method under test: MazeFileReader(), MazeFileWriter.store()
+	 * <p>
+	 * Correct behavior: the maze has the size given in the file and a BSP tree,
+	 * storing and loading it again gives the same maze
+	 */
+	@Test
+	public final void testInputFile() throws IOException {
+		MazeFileReader reader = new MazeFileReader("test/data/input.xml");
+		assertEquals(20, reader.getWidth());
+		assertEquals(15, reader.getHeight());
+		assertEquals(1200, reader.getExpectedPartiters());
+		assertNotNull(reader.getRootNode());
+		Maze maze = reader.getMazeConfiguration();
+		MazeBinaryFileTest.assertSameMaze(maze, new MazeFileReader(store(maze).getPath()).getMazeConfiguration());
+	}
+	/**
+	 * Test case: the streamed file has the elements of the sample file
+	 * that was written with the original DOM based writer
+	 * <p>
+	 * Method under test: MazeFileWriter.store(), BSPNode.store(), Wall.storeWall()
+	 * <p>
+	 * Correct behavior: the sample maze stored again has the same elements
+	 * with the same content in the same order as the sample file
+	 */
+	@Test
+	public final void testSameElementsAsInputFile() throws Exception {
+		File input = new File("test/data/input.xml");
+		MazeFileReader reader = new MazeFileReader(input.getPath());
+		Maze maze = reader.getMazeConfiguration();
+		int[] start = maze.getStartingPosition();
+		File file = File.createTempFile("maze", ".xml");
+		file.deleteOnExit();
+		MazeFileWriter.store(file.getPath(), maze.getWidth(), maze.getHeight(), reader.getRooms(),
+				reader.getExpectedPartiters(), reader.getRootNode(), maze.getFloorplan(),
+				maze.getMazedists().getAllDistanceValues(), start[0], start[1]);
+		Document expected = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(input);
+		Document actual = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file);
+		assertEquals("Maze", actual.getDocumentElement().getNodeName());
+		NodeList expectedElements = expected.getDocumentElement().getChildNodes();
+		NodeList actualElements = actual.getDocumentElement().getChildNodes();
+		assertEquals(expectedElements.getLength(), actualElements.getLength());
+		for (int i = 0; i < expectedElements.getLength(); i++) {
+			Node e = expectedElements.item(i);
+			Node a = actualElements.item(i);
+			assertEquals(e.getNodeName(), a.getNodeName());
+			assertEquals(e.getTextContent(), a.getTextContent());
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import generation.BatchMazeFactory;
+import generation.DefaultOrder;
+import generation.Maze;
+import generation.Order.Builder;
+
+/**
+ * Tests the Navigator driver that plans its path before it drives.
+ * Drives happen on a SimulatedControl, so this test needs no display.
+ */
+public class NavigatorTest {
+
+	/**
+	 * Generates a maze without pauses.
+	 * @param skill the skill level
+	 * @param builder the algorithm to generate the maze
+	 * @return the maze
+	 */
+	private Maze generate(int skill, Builder builder) {
+		BatchMazeFactory factory = new BatchMazeFactory(1, 1, null);
+		DefaultOrder order = new DefaultOrder(skill, builder, false, 7);
+		assertTrue(factory.order(order));
+		factory.waitTillDelivered();
+		factory.shutdown();
+		assertNotNull(order.getMaze());
+		return order.getMaze();
+	}
+	/**
+	 * Test case: the planned path is a shortest path out of the maze
+	 * <p>
+	 * Method under test: plan()
+	 * <p>
+	 * Correct behavior: the path has one step per cell to the exit plus the step out,
+	 * with and without distance information in the maze
+	 */
+	@Test
+	public final void testPlan() {
+		for (Builder builder : new Builder[] {Builder.DFS, Builder.Prim}) {
+			Maze maze = generate(5, builder);
+			int[] start = maze.getStartingPosition();
+			int[] exit = maze.getExitPosition();
+			int expected = maze.getDistanceToExit(start[0], start[1]) - maze.getDistanceToExit(exit[0], exit[1]) + 1;
+			byte[] path = Navigator.plan(maze, start[0], start[1]);
+			assertNotNull(path);
+			assertEquals(expected, path.length);
+			// without distances, the A* search must find a path of the same length
+			maze.setMazedists(null);
+			byte[] searched = Navigator.plan(maze, start[0], start[1]);
+			assertNotNull(searched);
+			assertEquals(expected, searched.length);
+			assertEquals(path[path.length - 1], searched[searched.length - 1]);
+		}
+	}
+	/**
+	 * Test case: the navigator drives to the exit on a shortest path
+	 * <p>
+	 * Method under test: drive2Exit()
+	 * <p>
+	 * Correct behavior: the robot leaves the maze, the path length is the same as for the wizard,
+	 * the navigator uses no more energy than the wizard
+	 */
+	@Test
+	public final void testDrive2Exit() {
+		Maze maze = generate(5, Builder.DFS);
+		Wizard wizard = new Wizard();
+		SimulatedControl wizardControl = new SimulatedControl(maze);
+		Robot wizardRobot = Tournament.createRobot("1111");
+		int wizardResult = wizardControl.drive(wizardRobot, wizard);
+		assertTrue(-1 != wizardResult);
+
+		Navigator navigator = new Navigator();
+		SimulatedControl control = new SimulatedControl(maze);
+		Robot robot = Tournament.createRobot("1111");
+		int result = control.drive(robot, navigator);
+		assertTrue(control.hasExited());
+		assertEquals(wizardResult, result);
+		assertEquals(result, navigator.getPathLength());
+		assertEquals(3500 - robot.getBatteryLevel(), navigator.getEnergyConsumption(), 0.001);
+		assertTrue(robot.getBatteryLevel() >= wizardRobot.getBatteryLevel());
+	}
+	/**
+	 * Test case: the navigator drives to the exit with unreliable sensors
+	 * <p>
+	 * Method under test: drive2Exit()
+	 * <p>
+	 * Correct behavior: the robot waits for repairs and leaves the maze on the same path
+	 */
+	@Test
+	public final void testUnreliableSensors() {
+		Maze maze = generate(3, Builder.DFS);
+		SimulatedControl reliableControl = new SimulatedControl(maze);
+		int expected = reliableControl.drive(Tournament.createRobot("1111"), new Navigator());
+		SimulatedControl control = new SimulatedControl(maze);
+		int result = control.drive(Tournament.createRobot("0000"), new Navigator());
+		assertTrue(control.hasExited());
+		assertEquals(expected, result);
+	}
+	/**
+	 * Creates a reliable robot with reliable sensors whose moves go wrong
+	 * as if a sensor was down: every third move leaves the robot where it is,
+	 * every other move takes at most two steps.
+	 * @param stuck true for a robot that never moves at all
+	 * @return the robot
+	 */
+	private Robot createFaltering(boolean stuck) {
+		Robot robot = new ReliableRobot() {
+			private int moves;
+			@Override
+			public void move(int distance) {
+				moves++;
+				if (stuck || 0 == moves % 3)
+					return; // as ReliableRobot.move does when it can not sense
+				super.move(Math.min(distance, 2));
+			}
+		};
+		for (Robot.Direction direction : Robot.Direction.values()) {
+			DistanceSensor sensor = new ReliableSensor();
+			sensor.setSensorDirection(direction);
+			robot.addDistanceSensor(sensor, direction);
+		}
+		return robot;
+	}
+	/**
+	 * Test case: moves that leave the robot short of the planned cell
+	 * <p>
+	 * Method under test: drive2Exit(), drive1Step2Exit()
+	 * <p>
+	 * Correct behavior: the navigator continues from where the robot actually is
+	 * and leaves the maze on the same path as with a robot that always moves,
+	 * a robot that never moves makes the drive fail instead of running forever
+	 */
+	@Test
+	public final void testFailedMoves() throws Exception {
+		Maze maze = generate(4, Builder.DFS);
+		int expected = new SimulatedControl(maze).drive(Tournament.createRobot("1111"), new Navigator());
+		assertTrue(-1 != expected);
+		SimulatedControl control = new SimulatedControl(maze);
+		assertEquals(expected, control.drive(createFaltering(false), new Navigator()));
+		assertTrue(control.hasExited());
+		// step by step
+		control = new SimulatedControl(maze);
+		Robot robot = createFaltering(false);
+		robot.setController(control);
+		for (Robot.Direction direction : Robot.Direction.values())
+			robot.getRobotSensor(direction).setMaze(maze);
+		Navigator navigator = new Navigator();
+		navigator.setMaze(maze);
+		navigator.setRobot(robot);
+		while (navigator.drive1Step2Exit()) {
+			assertFalse(robot.hasStopped());
+		}
+		assertTrue(control.hasExited());
+		assertEquals(expected, robot.getOdometerReading());
+		// a robot that never moves
+		control = new SimulatedControl(maze);
+		assertEquals(-1, control.drive(createFaltering(true), new Navigator()));
+		assertFalse(control.hasExited());
+	}
+	/**
+	 * Test case: the navigator drives step by step
+	 * <p>
+	 * Method under test: drive1Step2Exit()
+	 * <p>
+	 * Correct behavior: each call moves the robot by one cell until it has left the maze
+	 */
+	@Test
+	public final void testDrive1Step2Exit() throws Exception {
+		Maze maze = generate(2, Builder.DFS);
+		SimulatedControl control = new SimulatedControl(maze);
+		Robot robot = Tournament.createRobot("1111");
+		robot.setController(control);
+		for (Robot.Direction direction : Robot.Direction.values())
+			robot.getRobotSensor(direction).setMaze(maze);
+		Navigator navigator = new Navigator();
+		navigator.setMaze(maze);
+		navigator.setRobot(robot);
+		int steps = 0;
+		while (navigator.drive1Step2Exit()) {
+			steps++;
+			assertEquals(steps, robot.getOdometerReading());
+		}
+		assertTrue(control.hasExited());
+		assertFalse(navigator.drive1Step2Exit());
+		assertEquals(steps, robot.getOdometerReading());
+	}
+}
@@ -0,0 +1,195 @@
+package gui;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Vector;
+
+/**
+ * Compares the array based RangeSet with the previous implementation
+ * that stored Interval objects in a Vector, which is kept here as VectorRangeSet.
+ * Both replay the same sequences of operations that resemble a frame 
+ * of the first person view: the set is reset to the full width of the view,
+ * then intervals for walls are checked for an intersection and the
+ * visible part is removed till the set is empty. Walls are mostly small, 
+ * so intervals get split often.
+ * 
+ * This is not a JUnit test, run the main method instead.
+ */
+public class RangeSetBenchmark {
+	
+	private static final int FRAMES = 2000; // number of different operation sequences
+	private static final int ROUNDS = 50; // number of times all sequences are replayed
+	private static final int WIDTH = Constants.VIEW_WIDTH;
+
+	public static void main(String[] args) {
+		int[][] frames = createFrames(new Random(13));
+		long ops = 0;
+		for (int[] frame : frames) {
+			ops += frame.length / 2;
+		}
+		System.out.printf("%d frames, %.1f operations per frame on average%n", FRAMES, (double)ops / FRAMES);
+		// warm up both implementations before measuring
+		for (int i = 0; i < 3; i++) {
+			replay(new RangeSet(), frames);
+			replay(new VectorRangeSet(), frames);
+		}
+		long start = System.nanoTime();
+		long checksum = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			checksum += replay(new VectorRangeSet(), frames);
+		}
+		double vector = (System.nanoTime() - start) / 1e3 / ROUNDS / FRAMES;
+		start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			checksum -= replay(new RangeSet(), frames);
+		}
+		double array = (System.nanoTime() - start) / 1e3 / ROUNDS / FRAMES;
+		if (0 != checksum)
+			throw new AssertionError("Implementations deliver different results");
+		System.out.printf("Vector of intervals: %.3f us per frame%n", vector);
+		System.out.printf("array of bounds:     %.3f us per frame%n", array);
+		System.out.printf("speedup: %.2f%n", vector / array);
+	}
+	/**
+	 * Creates sequences of pairs of bounds for intervals to intersect and remove.
+	 * Each sequence ends when all values are covered.
+	 */
+	private static int[][] createFrames(Random random) {
+		int[][] frames = new int[FRAMES][];
+		for (int f = 0; f < FRAMES; f++) {
+			boolean[] covered = new boolean[WIDTH];
+			int remaining = WIDTH;
+			int[] frame = new int[64];
+			int n = 0;
+			while (remaining > 0) {
+				// many small walls far away, few large ones close by
+				int w = (random.nextInt(4) == 0) ? random.nextInt(WIDTH/2) : random.nextInt(12);
+				int lb = random.nextInt(WIDTH + w) - w;
+				int ub = lb + w;
+				if (n == frame.length)
+					frame = Arrays.copyOf(frame, 2*n);
+				frame[n++] = lb;
+				frame[n++] = ub;
+				for (int x = Math.max(lb, 0); x <= Math.min(ub, WIDTH-1); x++) {
+					if (!covered[x]) {
+						covered[x] = true;
+						remaining--;
+					}
+				}
+			}
+			frames[f] = Arrays.copyOf(frame, n);
+		}
+		return frames;
+	}
+	/**
+	 * Replays all frames, as in FirstPersonView.drawPolygons.
+	 * @return sum of the bounds of all intersections
+	 */
+	private static long replay(RangeSet set, int[][] frames) {
+		long sum = 0;
+		int[] intersect = new int[2];
+		for (int[] frame : frames) {
+			set.set(0, WIDTH-1);
+			for (int i = 0; i < frame.length; i += 2) {
+				int x1 = frame[i];
+				while (x1 <= frame[i+1] && set.getIntersection(x1, frame[i+1], intersect)) {
+					sum += intersect[0] + intersect[1];
+					set.remove(intersect[0], intersect[1]);
+					x1 = intersect[1] + 1;
+				}
+			}
+			if (!set.isEmpty())
+				throw new AssertionError("Set must be empty at the end of a frame");
+		}
+		return sum;
+	}
+	/**
+	 * Replays all frames, as in FirstPersonView.drawPolygons.
+	 * @return sum of the bounds of all intersections
+	 */
+	private static long replay(VectorRangeSet set, int[][] frames) {
+		long sum = 0;
+		for (int[] frame : frames) {
+			set.set(0, WIDTH-1);
+			for (int i = 0; i < frame.length; i += 2) {
+				int x1 = frame[i];
+				int[] intersect;
+				while (x1 <= frame[i+1] && null != (intersect = set.getIntersection(x1, frame[i+1]))) {
+					sum += intersect[0] + intersect[1];
+					set.remove(intersect[0], intersect[1]);
+					x1 = intersect[1] + 1;
+				}
+			}
+			if (!set.isEmpty())
+				throw new AssertionError("Set must be empty at the end of a frame");
+		}
+		return sum;
+	}
+	/**
+	 * The previous implementation of the RangeSet for comparison,
+	 * comments removed.
+	 */
+	private static class VectorRangeSet {
+		private Vector<Interval> ranges = new Vector<Interval>();
+
+		boolean isEmpty() {
+			return ranges.isEmpty();
+		}
+		void set(int lowerBound, int upperBound) {
+			ranges.removeAllElements();
+			ranges.addElement(new Interval(lowerBound, upperBound));
+		}
+		void remove(int lowerBound, int upperBound) {
+			if (upperBound < lowerBound) {
+				int tmp = upperBound;
+				upperBound = lowerBound;
+				lowerBound = tmp;
+			}
+			for (int i = 0; i != ranges.size(); i++) {
+				Interval current = ranges.elementAt(i);
+				if (current.ub < lowerBound)
+					continue; 
+				if (current.lb > upperBound)
+					return;
+				if (lowerBound <= current.lb) { 
+					if (current.ub <= upperBound) { 
+						ranges.removeElementAt(i--);
+						continue;
+					}
+					current.lb = upperBound+1;  
+					return;
+				}
+				if (lowerBound <= current.ub && upperBound >= current.ub) { 
+					current.ub = lowerBound-1; 
+					continue;
+				}
+				Interval nrse = new Interval(current.lb, lowerBound-1);
+				ranges.insertElementAt(nrse, i);
+				current.lb = upperBound+1; 
+				return;
+			}
+		}
+		int[] getIntersection(int lowerBound, int upperBound) {
+			for (int i = 0; i != ranges.size(); i++) {
+				Interval current = ranges.elementAt(i);
+				if (current.ub < lowerBound) 
+					continue; 
+				if (current.lb > upperBound) 
+					return null;
+				int[] result = new int[2];
+				result[0] = (current.lb > lowerBound) ? current.lb : lowerBound;
+				result[1] = (current.ub < upperBound) ? current.ub : upperBound;
+				return result;
+			}
+			return null;
+		}
+		private static class Interval {
+			int lb, ub;
+
+			Interval(int lowerBound, int upperBound) {
+				lb = lowerBound;
+				ub = upperBound;
+			}
+		}
+	}
+}
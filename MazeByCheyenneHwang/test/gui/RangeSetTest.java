@@ -1,10 +1,14 @@
 package gui;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 /**
  * The RangeSet class is used to represent a starting interval [lb,ub]
@@ -246,4 +250,61 @@ class RangeSetTest {
 		}
 		assertTrue(sut.isEmpty());
 	}
+	/**
+	 * Randomized test that compares the set with a simple model,
+	 * an array of flags that tells for each value if it is in the set.
+	 * Scenario: like the first person view in a frame, we start with the full
+	 * width and look for intersections and remove intervals in a random order
+	 * till the set is empty, including splits of intervals and requests
+	 * outside of the range. We repeat this to check that set() forgets
+	 * everything of the previous round.
+	 */
+	@Test
+	final void testRandomScenarioAgainstModel() {
+		final int width = 400;
+		Random random = new Random(13);
+		RangeSet sut = new RangeSet();
+		boolean[] model = new boolean[width];
+		int[] reused = new int[2];
+		for (int round = 0; round < 100; round++) {
+			sut.set(0, width-1);
+			Arrays.fill(model, true);
+			int remaining = width;
+			while (remaining > 0) {
+				int lb = random.nextInt(width+40) - 20;
+				int ub = lb + random.nextInt(60);
+				// expected intersection: first value of [lb,ub] in the set
+				// and all consecutive values in the set up to ub
+				int first = Math.max(lb, 0);
+				while (first <= Math.min(ub, width-1) && !model[first])
+					first++;
+				int[] intersect = sut.getIntersection(lb, ub);
+				if (first > Math.min(ub, width-1)) {
+					assertNull(intersect);
+					assertFalse(sut.getIntersection(lb, ub, reused));
+					continue;
+				}
+				int last = first;
+				while (last < Math.min(ub, width-1) && model[last+1])
+					last++;
+				assertNotNull(intersect);
+				assertEquals(first, intersect[0]);
+				assertEquals(last, intersect[1]);
+				assertTrue(sut.getIntersection(lb, ub, reused));
+				assertTrue(first == reused[0] && last == reused[1]);
+				// remove the given interval, in either order of bounds
+				if (random.nextBoolean())
+					sut.remove(lb, ub);
+				else
+					sut.remove(ub, lb);
+				for (int x = Math.max(lb, 0); x <= Math.min(ub, width-1); x++) {
+					if (model[x]) {
+						model[x] = false;
+						remaining--;
+					}
+				}
+				assertEquals(0 == remaining, sut.isEmpty());
+			}
+		}
+	}
 }
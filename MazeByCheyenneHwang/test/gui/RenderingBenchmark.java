@@ -0,0 +1,188 @@
+package gui;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import generation.BatchMazeFactory;
+import generation.CardinalDirection;
+import generation.DefaultOrder;
+import generation.Floorplan;
+import generation.Maze;
+import generation.Order.Builder;
+
+/**
+ * Measures off-screen rendering of the first person view and the map
+ * for mazes of every skill level. Frames are drawn on a BufferedImageSurface,
+ * so this runs with java.awt.headless=true and without a display.
+ *
+ * For each maze, a camera path is recorded first. It follows the shortest path
+ * from the starting position to the exit the same way as a user playing
+ * the game: each rotation and each step forward is shown with
+ * 4 intermediate frames, as in StatePlaying.rotate and StatePlaying.walk.
+ * The path is then replayed for the first person view and for the map
+ * with walls and solution on display.
+ *
+ * Reported are frames per second, the average number of nodes of the BSP tree
+ * visited per frame (traverseNodeCounter), the average number of walls considered
+ * per frame (drawRectCounter) and the bytes allocated per frame on the current thread.
+ * Arguments (all optional): highest skill level (default 15),
+ * number of times each path is replayed (default 1),
+ * scale of the map (default 15 as in StatePlaying, 1 shows the whole map of the largest maze).
+ *
+ * This is not a JUnit test, run the main method instead.
+ */
+public class RenderingBenchmark {
+
+	// entries of a frame in a recorded camera path
+	private static final int X = 0;
+	private static final int Y = 1;
+	private static final int WALKSTEP = 2;
+	private static final int ANGLE = 3;
+	private static final int STEPS = 4; // intermediate frames per rotation or step
+	private static final int WARMUP = 2000; // minimum number of frames before measuring
+
+	public static void main(String[] args) {
+		int maxSkill = (args.length > 0) ? Integer.parseInt(args[0]) : Constants.SKILL_X.length-1;
+		int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 1;
+		int mapScale = (args.length > 2) ? Integer.parseInt(args[2]) : 15;
+
+		Maze[] mazes = generate(maxSkill);
+		BufferedImageSurface surface = new BufferedImageSurface();
+		System.out.println(String.format("%5s %9s %6s | %9s %9s %7s %7s %7s | %9s %9s %7s",
+				"skill", "size", "frames", "view ms", "view fps", "nodes", "walls", "bytes", "map ms", "map fps", "bytes"));
+		for (int skill = 0; skill <= maxSkill; skill++) {
+			Maze maze = mazes[skill];
+			int[][] path = recordPath(maze);
+			// seen walls are shared between first person view and map as in StatePlaying
+			Floorplan seenWalls = new Floorplan(maze.getWidth()+1, maze.getHeight()+1);
+			FirstPersonView view = new FirstPersonView(Constants.VIEW_WIDTH, Constants.VIEW_HEIGHT,
+					Constants.MAP_UNIT, Constants.STEP_SIZE, seenWalls, maze.getFlatTree());
+			Map map = new Map(seenWalls, mapScale, maze);
+			// replays of at least WARMUP frames warm up the JIT compiler 
+			// and mark walls as seen before measuring
+			for (int i = 0; i < Math.max(1, WARMUP / path.length); i++) {
+				replayView(maze, path, view, surface, null);
+				replayMap(path, map, surface);
+			}
+			long[] counters = new long[2];
+			Measurement viewTime = new Measurement();
+			for (int i = 0; i < rounds; i++) {
+				replayView(maze, path, view, surface, counters);
+			}
+			viewTime.stop();
+			Measurement mapTime = new Measurement();
+			for (int i = 0; i < rounds; i++) {
+				replayMap(path, map, surface);
+			}
+			mapTime.stop();
+			final int frames = path.length * rounds;
+			System.out.println(String.format("%5d %4dx%-4d %6d | %9.3f %9.1f %7.1f %7.1f %7.1f | %9.3f %9.1f %7.1f",
+					skill, maze.getWidth(), maze.getHeight(), path.length,
+					viewTime.getMillis() / frames, frames * 1000 / viewTime.getMillis(),
+					(double)counters[0] / frames, (double)counters[1] / frames, (double)viewTime.getBytes() / frames,
+					mapTime.getMillis() / frames, frames * 1000 / mapTime.getMillis(), (double)mapTime.getBytes() / frames));
+		}
+		System.out.println("nodes, walls: visited per frame; bytes: allocated per frame");
+		surface.dispose();
+	}
+	/**
+	 * Generates one maze per skill level without pauses.
+	 * @param maxSkill the highest skill level
+	 * @return the mazes indexed by skill level
+	 */
+	private static Maze[] generate(int maxSkill) {
+		final AtomicReferenceArray<Maze> delivered = new AtomicReferenceArray<>(maxSkill+1);
+		BatchMazeFactory factory = new BatchMazeFactory((order, maze) ->
+			delivered.set(order.getSkillLevel(), maze));
+		for (int skill = 0; skill <= maxSkill; skill++) {
+			while (!factory.order(new DefaultOrder(skill, Builder.DFS, false, 13))) {
+				factory.waitTillDelivered();
+			}
+		}
+		factory.waitTillDelivered();
+		factory.shutdown();
+		Maze[] mazes = new Maze[maxSkill+1];
+		for (int skill = 0; skill <= maxSkill; skill++) {
+			mazes[skill] = delivered.get(skill);
+		}
+		return mazes;
+	}
+	/**
+	 * Records the frames a user sees on the shortest path from the starting
+	 * position to the exit, starting with a view to the east.
+	 * @return array of x, y, walk step and angle for each frame
+	 */
+	private static int[][] recordPath(Maze maze) {
+		List<int[]> frames = new ArrayList<>();
+		int[] pos = maze.getStartingPosition();
+		final int[] exit = maze.getExitPosition();
+		int angle = CardinalDirection.East.angle();
+		frames.add(new int[] { pos[0], pos[1], 0, angle });
+		while (pos[0] != exit[0] || pos[1] != exit[1]) {
+			int[] next = maze.getNeighborCloserToExit(pos[0], pos[1]);
+			int target = CardinalDirection.getDirection(next[0]-pos[0], next[1]-pos[1]).angle();
+			// rotate by 90 degrees at a time, turn around with two rotations
+			int dir = ((target - angle + 360) % 360 == 270) ? -1 : 1;
+			while (angle != target) {
+				final int originalAngle = angle;
+				for (int i = 0; i != STEPS; i++) {
+					angle = (originalAngle + dir*(90*(i+1))/STEPS + 1800) % 360;
+					frames.add(new int[] { pos[0], pos[1], 0, angle });
+				}
+			}
+			for (int walkStep = 1; walkStep <= STEPS; walkStep++) {
+				frames.add(new int[] { pos[0], pos[1], walkStep, angle });
+			}
+			pos = next;
+		}
+		return frames.toArray(new int[frames.size()][]);
+	}
+	/**
+	 * Draws the first person view for all frames of the path.
+	 * @param counters if not null, receives the sums of visited nodes and considered walls
+	 */
+	private static void replayView(Maze maze, int[][] path, FirstPersonView view,
+			DrawingSurface surface, long[] counters) {
+		for (int[] frame : path) {
+			view.draw(surface, frame[X], frame[Y], frame[WALKSTEP], frame[ANGLE],
+					maze.getPercentageForDistanceToExit(frame[X], frame[Y]));
+			if (null != counters) {
+				counters[0] += view.getTraverseNodeCounter();
+				counters[1] += view.getDrawRectCounter();
+			}
+		}
+	}
+	/**
+	 * Draws the map with walls and solution for all frames of the path.
+	 */
+	private static void replayMap(int[][] path, Map map, DrawingSurface surface) {
+		for (int[] frame : path) {
+			map.draw(surface, frame[X], frame[Y], frame[ANGLE], frame[WALKSTEP], true, true);
+		}
+	}
+	/**
+	 * Elapsed time and bytes allocated by the current thread since construction.
+	 */
+	private static class Measurement {
+		private final com.sun.management.ThreadMXBean bean =
+				(com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+		private final long id = Thread.currentThread().getId();
+		private final long startBytes = bean.getThreadAllocatedBytes(id);
+		private final long start = System.nanoTime();
+		private double millis;
+		private long bytes;
+
+		void stop() {
+			millis = (System.nanoTime() - start) / 1e6;
+			bytes = bean.getThreadAllocatedBytes(id) - startBytes;
+		}
+		double getMillis() {
+			return millis;
+		}
+		long getBytes() {
+			return bytes;
+		}
+	}
+}
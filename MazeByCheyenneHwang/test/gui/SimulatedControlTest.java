@@ -0,0 +1,231 @@
+package gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import generation.BatchMazeFactory;
+import generation.CardinalDirection;
+import generation.DefaultOrder;
+import generation.Maze;
+import generation.Order.Builder;
+import gui.Constants.UserInput;
+import gui.Robot.Direction;
+
+/**
+ * Tests the SimulatedControl that lets a robot drive through a maze
+ * without drawing and without pauses.
+ * Unlike the other robot tests, this one needs no display.
+ */
+public class SimulatedControlTest {
+
+	/**
+	 * Generates a maze without pauses.
+	 * @param skill the skill level
+	 * @return the maze
+	 */
+	private Maze generate(int skill) {
+		BatchMazeFactory factory = new BatchMazeFactory(1, 1, null);
+		DefaultOrder order = new DefaultOrder(skill, Builder.DFS, false, 13);
+		assertTrue(factory.order(order));
+		factory.waitTillDelivered();
+		factory.shutdown();
+		assertNotNull(order.getMaze());
+		return order.getMaze();
+	}
+	/**
+	 * Creates a reliable robot with reliable sensors in all directions.
+	 */
+	private ReliableRobot createRobot() {
+		ReliableRobot robot = new ReliableRobot();
+		for (Direction direction : Direction.values()) {
+			ReliableSensor sensor = new ReliableSensor();
+			sensor.setSensorDirection(direction);
+			robot.addDistanceSensor(sensor, direction);
+		}
+		return robot;
+	}
+	/**
+	 * Test case: moves and rotations change position and direction
+	 * <p>
+	 * Method under test: handleKeyboardInput(), getCurrentPosition(), getCurrentDirection()
+	 * <p>
+	 * Correct behavior: the robot starts at the starting position facing east,
+	 * four rotations to one side return to the original direction,
+	 * a step forward is blocked by a wall and a step backward undoes a step forward
+	 */
+	@Test
+	public final void testMovesAndRotations() {
+		Maze maze = generate(1);
+		SimulatedControl control = new SimulatedControl(maze);
+		int[] start = maze.getStartingPosition();
+		assertEquals(start[0], control.getCurrentPosition()[0]);
+		assertEquals(start[1], control.getCurrentPosition()[1]);
+		assertEquals(CardinalDirection.East, control.getCurrentDirection());
+		for (int i = 0; i < 4; i++) {
+			control.handleKeyboardInput(UserInput.LEFT, 0);
+			assertEquals(i == 3, CardinalDirection.East == control.getCurrentDirection());
+		}
+		control.handleKeyboardInput(UserInput.LEFT, 0);
+		control.handleKeyboardInput(UserInput.RIGHT, 0);
+		assertEquals(CardinalDirection.East, control.getCurrentDirection());
+		// try all directions, walk forward and back where there is no wall
+		for (int i = 0; i < 4; i++) {
+			CardinalDirection cd = control.getCurrentDirection();
+			int[] dxdy = cd.getDxDyDirection();
+			boolean wall = maze.hasWall(start[0], start[1], cd);
+			control.handleKeyboardInput(UserInput.UP, 0);
+			assertEquals(start[0] + (wall ? 0 : dxdy[0]), control.getCurrentPosition()[0]);
+			assertEquals(start[1] + (wall ? 0 : dxdy[1]), control.getCurrentPosition()[1]);
+			if (!wall) {
+				control.handleKeyboardInput(UserInput.DOWN, 0);
+				assertEquals(start[0], control.getCurrentPosition()[0]);
+				assertEquals(start[1], control.getCurrentPosition()[1]);
+			}
+			assertEquals(cd, control.getCurrentDirection());
+			control.handleKeyboardInput(UserInput.RIGHT, 0);
+		}
+		assertFalse(control.hasExited());
+	}
+	/**
+	 * Test case: the wizard drives to the exit
+	 * <p>
+	 * Method under test: drive()
+	 * <p>
+	 * Correct behavior: the robot leaves the maze, the result is the odometer reading
+	 * which is the length of the shortest path, the game is over afterwards
+	 */
+	@Test
+	public final void testWizardReachesExit() {
+		Maze maze = generate(4);
+		SimulatedControl control = new SimulatedControl(maze);
+		ReliableRobot robot = createRobot();
+		int[] start = maze.getStartingPosition();
+		int result = control.drive(robot, new Wizard());
+		assertTrue(control.hasExited());
+		assertEquals(maze.getDistanceToExit(start[0], start[1]), result);
+		assertEquals(robot.getOdometerReading(), result);
+		try {
+			control.getCurrentPosition();
+			assertTrue(false);
+		} catch (IllegalStateException e) {
+			// expected, the game is over
+		}
+	}
+	/**
+	 * Test case: drives through the largest maze run without a display and without pauses
+	 * <p>
+	 * Method under test: drive()
+	 * <p>
+	 * Correct behavior: each driver gets going and either reaches the exit,
+	 * then the result is the odometer reading, or it gives up, then the result is -1
+	 */
+	@Test
+	public final void testLargestMaze() {
+		Maze maze = generate(Constants.MAX_SKILL_LEVEL);
+		RobotDriver[] drivers = { new Wizard(), new SmartWizard(), new WallFollower(), new SmartWallFollower() };
+		for (RobotDriver driver : drivers) {
+			SimulatedControl control = new SimulatedControl(maze);
+			ReliableRobot robot = createRobot();
+			int result = control.drive(robot, driver);
+			assertEquals(control.hasExited() ? robot.getOdometerReading() : -1, result);
+			assertTrue(robot.getOdometerReading() > 0);
+		}
+	}
+	/**
+	 * Test case: time passes on the simulated clock
+	 * <p>
+	 * Method under test: handleKeyboardInput(), getElapsedTime()
+	 * <p>
+	 * Correct behavior: a rotation and a step take the time of their animation,
+	 * a step into a wall takes no time
+	 */
+	@Test
+	public final void testElapsedTime() {
+		Maze maze = generate(1);
+		SimulatedControl control = new SimulatedControl(maze);
+		assertEquals(0, control.getElapsedTime());
+		control.handleKeyboardInput(UserInput.LEFT, 0);
+		assertEquals(SimulatedControl.OPERATION_MILLIS, control.getElapsedTime());
+		// walk forward and back where there is no wall, into the wall otherwise
+		long expected = control.getElapsedTime();
+		for (int i = 0; i < 4; i++) {
+			boolean wall = maze.hasWall(control.getCurrentPosition()[0], control.getCurrentPosition()[1], 
+					control.getCurrentDirection());
+			control.handleKeyboardInput(UserInput.UP, 0);
+			if (!wall)
+				control.handleKeyboardInput(UserInput.DOWN, 0);
+			control.handleKeyboardInput(UserInput.LEFT, 0);
+			expected += (wall ? 1 : 3) * SimulatedControl.OPERATION_MILLIS;
+			assertEquals(expected, control.getElapsedTime());
+		}
+		assertEquals(expected, control.getClock().getTime());
+	}
+	/**
+	 * Test case: unreliable sensors fail and get repaired on the simulated clock
+	 * <p>
+	 * Method under test: drive()
+	 * <p>
+	 * Correct behavior: the wizard reaches the exit on the same path as with reliable sensors,
+	 * waiting for repairs takes simulated time, the failure and repair processes are stopped afterwards
+	 */
+	@Test
+	public final void testUnreliableSensors() {
+		Maze maze = generate(4);
+		SimulatedControl reliableControl = new SimulatedControl(maze);
+		int reliableResult = reliableControl.drive(createRobot(), new Wizard());
+		SimulatedControl control = new SimulatedControl(maze);
+		Robot robot = Tournament.createRobot("0000");
+		int result = control.drive(robot, new Wizard());
+		assertTrue(control.hasExited());
+		assertEquals(reliableResult, result);
+		// staggered starts and at least one wait for a repair
+		assertTrue(control.getElapsedTime() >= reliableControl.getElapsedTime() + 3*1300 + 2000);
+		for (Direction direction : Direction.values()) {
+			UnreliableSensor sensor = (UnreliableSensor) robot.getRobotSensor(direction);
+			assertFalse(sensor.isFailureAndRepairProcessRunning());
+			assertFalse(sensor.checkRepairStatus());
+		}
+	}
+	/**
+	 * Test case: a robot moves several steps at once
+	 * <p>
+	 * Method under test: ReliableRobot.move()
+	 * <p>
+	 * Correct behavior: the robot walks down a corridor by the given number of cells,
+	 * a move beyond the next wall stops the robot in front of it
+	 */
+	@Test
+	public final void testMoveSeveralSteps() {
+		Maze maze = generate(3);
+		SimulatedControl control = new SimulatedControl(maze);
+		ReliableRobot robot = createRobot();
+		robot.setController(control);
+		for (Direction direction : Direction.values())
+			robot.getRobotSensor(direction).setMaze(maze);
+		// face the longest corridor from the starting position
+		int corridor = 0;
+		for (int i = 0; i < 4; i++) {
+			int[] pos = control.getCurrentPosition();
+			corridor = maze.getWallDistances().getDistance(pos[0], pos[1], control.getCurrentDirection());
+			if (corridor > 0 && corridor != Integer.MAX_VALUE)
+				break;
+			robot.rotate(Robot.Turn.LEFT);
+		}
+		assertTrue(corridor > 0);
+		int[] start = control.getCurrentPosition();
+		int[] dxdy = control.getCurrentDirection().getDxDyDirection();
+		robot.move(corridor);
+		assertFalse(robot.hasStopped());
+		assertEquals(corridor, robot.getOdometerReading());
+		assertEquals(start[0] + corridor*dxdy[0], control.getCurrentPosition()[0]);
+		assertEquals(start[1] + corridor*dxdy[1], control.getCurrentPosition()[1]);
+		// one more step hits the wall
+		robot.move(1);
+		assertTrue(robot.hasStopped());
+		assertEquals(corridor, robot.getOdometerReading());
+	}
+}
@@ -0,0 +1,78 @@
+package gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import generation.Order.Builder;
+
+/**
+ * Tests the Tournament that lets all drivers and sensor configurations
+ * drive through the same mazes in parallel.
+ */
+public class TournamentTest {
+
+	/**
+	 * Test case: a small tournament with all drivers and sensor configurations
+	 * <p>
+	 * Method under test: run(), getReport()
+	 * <p>
+	 * Correct behavior: there is one result per maze, driver and sensor configuration,
+	 * the wizard always succeeds, the outcome of every run, including the coin flips
+	 * of the SmartWallFollower, does not depend on the number of threads
+	 * and the report has one line per skill level, driver and sensor configuration
+	 */
+	@Test
+	public final void testRun() throws InterruptedException {
+		final int maxSkill = 1;
+		final int mazesPerSkill = 2;
+		List<Tournament.Result> parallel = new Tournament(Tournament.DRIVERS, Tournament.SENSOR_SETTINGS,
+				maxSkill, mazesPerSkill, Builder.DFS, 3).run();
+		List<Tournament.Result> sequential = new Tournament(Tournament.DRIVERS, Tournament.SENSOR_SETTINGS,
+				maxSkill, mazesPerSkill, Builder.DFS, 1).run();
+		final int combinations = Tournament.DRIVERS.length * Tournament.SENSOR_SETTINGS.length;
+		assertEquals((maxSkill+1) * mazesPerSkill * combinations, parallel.size());
+		assertEquals(sequential.size(), parallel.size());
+		for (int i = 0; i < parallel.size(); i++) {
+			Tournament.Result p = parallel.get(i);
+			Tournament.Result s = sequential.get(i);
+			assertEquals(s.skillLevel, p.skillLevel);
+			assertEquals(s.driver, p.driver);
+			assertEquals(s.sensorSetting, p.sensorSetting);
+			// includes the SmartWallFollower, whose coin flips come from a seeded stream per run
+			assertEquals(s.success, p.success);
+			assertEquals(s.pathLength, p.pathLength);
+			assertEquals(s.energyConsumption, p.energyConsumption, 0);
+			assertEquals(s.simulatedMillis, p.simulatedMillis);
+			if (p.driver.equals("Wizard"))
+				assertTrue(p.success);
+		}
+		String[] lines = Tournament.getReport(parallel).split("\n");
+		assertEquals(1 + (maxSkill+1) * combinations, lines.length);
+	}
+	/**
+	 * Test case: unknown drivers and invalid sensor configurations are rejected
+	 * <p>
+	 * Method under test: Tournament()
+	 * <p>
+	 * Correct behavior: the constructor throws an IllegalArgumentException
+	 */
+	@Test
+	public final void testInvalidArguments() {
+		try {
+			new Tournament(new String[] { "Manual" }, Tournament.SENSOR_SETTINGS, 0, 1, Builder.DFS, 1);
+			assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			new Tournament(Tournament.DRIVERS, new String[] { "101" }, 0, 1, Builder.DFS, 1);
+			assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
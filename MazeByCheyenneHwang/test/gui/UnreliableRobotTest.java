@@ -1743,7 +1743,7 @@ public class UnreliableRobotTest {
 		// see if thread for the unreliable sensor test instanve var has been started with alive
 		// if correct: the unreliable's sensor's unreliable thread should be alive
 		
-		assertTrue(testerDefaultSensor.repairThread.isAlive());
+		assertTrue(testerDefaultSensor.isFailureAndRepairProcessRunning());
 	}
 	
 	/**
@@ -1826,12 +1826,12 @@ public class UnreliableRobotTest {
 		// methods tested, stopfailure() method, stop thread process in stateWinning after the game has ended and switched to title
 		// how it works: force quits the thread by calling the stop method() on the sensor's thread
 		// then check on the instance var for the checkForRepair
-		// uses testDefualt sensor instance var because that is set to be the forward sensor and is declared as an UnreliableSensor with repairThread instance var
+		// uses testDefualt sensor instance var because that is set to be the forward sensor and is declared as an UnreliableSensor with a failure and repair process
 		// the forward sensor's unreliable thread should be null and downForRepair should be false
 		
 		robot.stopFailureAndRepairProcess(Direction.FORWARD);
 		
-		assertEquals(testerDefaultSensor.repairThread, null);
+		assertFalse(testerDefaultSensor.isFailureAndRepairProcessRunning());
 		assertFalse(robot.forwardSensor.checkRepairStatus());
 		
 		robot.startFailureAndRepairProcess(Direction.FORWARD, 4, 2);// needed otherwise reset process will throw an error
@@ -525,10 +525,10 @@ public class UnreliableSensorTest {
 	public final void checkUnreliableSensorThreadStarted() {
 		// checks that the startFailure() method has begun the thread and the setup process has instantiated the thread to the sensor
 		// methods tested, startfailure() and instance var for unreliable thread
-		// how it works: calls set on the sensor object's thread, checks that its alive with the isAlive() method
+		// how it works: asks the sensor object if its failure and repair process is running
 		// if correct: unrelaible thread instance var should be instantiated and alive
 		
-		boolean toTest = testerDefaultSensor.repairThread.isAlive();
+		boolean toTest = testerDefaultSensor.isFailureAndRepairProcessRunning();
 		assertTrue(toTest);
 		
 		
@@ -730,7 +730,7 @@ public class UnreliableSensorTest {
 		
 		testerDefaultSensor.stopFailureAndRepairProcess();
 		
-		assertEquals(testerDefaultSensor.repairThread, null);
+		assertFalse(testerDefaultSensor.isFailureAndRepairProcessRunning());
 		assertFalse(testerDefaultSensor.downForRepair);
 		
 		testerDefaultSensor.startFailureAndRepairProcess(4, 2);// this one needed to reset otherwise reset will throw an error